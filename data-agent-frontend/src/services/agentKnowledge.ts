@@ -29,6 +29,8 @@ export interface AgentKnowledge {
   isRecall?: boolean; // true=召回, false=非召回
   embeddingStatus?: string;
   errorMsg?: string;
+  chunkCount?: number; // 文档已解析的文本块数
+  embeddedChunkCount?: number; // 新向量化的文本块数，其余复用已有向量
   createdTime?: string;
   updatedTime?: string;
   splitterType?: string; // 文本切割方式：token, recursive
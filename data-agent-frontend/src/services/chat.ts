@@ -37,6 +37,15 @@ export interface ChatMessage {
   metadata?: string; // JSON格式的元数据
   createTime?: Date;
   titleNeeded?: boolean;
+  contentOmitted?: boolean; // 分页列表中内容过大被省略，需单独加载
+}
+
+// 会话消息游标分页结果，messages 按 id 升序
+export interface ChatMessagePage {
+  messages: ChatMessage[];
+  hasMore: boolean;
+  firstId?: number;
+  lastId?: number;
 }
 
 // Session page query interface
@@ -110,6 +119,36 @@ class ChatService {
     return response.data;
   }
 
+  /**
+   * 游标分页获取会话消息，不传游标时返回最新一页
+   * @param sessionId 会话ID
+   * @param beforeId 获取早于该消息ID的消息
+   * @param limit 每页条数
+   */
+  async getSessionMessagesPage(
+    sessionId: string,
+    beforeId?: number,
+    limit?: number,
+  ): Promise<ChatMessagePage> {
+    const response = await axios.get<ChatMessagePage>(
+      `${API_BASE_URL}/sessions/${sessionId}/messages/page`,
+      { params: { beforeId, limit } },
+    );
+    return response.data;
+  }
+
+  /**
+   * 获取单条消息的完整内容
+   * @param sessionId 会话ID
+   * @param messageId 消息ID
+   */
+  async getSessionMessage(sessionId: string, messageId: number): Promise<ChatMessage> {
+    const response = await axios.get<ChatMessage>(
+      `${API_BASE_URL}/sessions/${sessionId}/messages/${messageId}`,
+    );
+    return response.data;
+  }
+
   /**
    * 保存消息到会话
    * @param sessionId 会话ID
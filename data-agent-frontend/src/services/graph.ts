@@ -54,6 +54,7 @@ class GraphService {
    * @param onMessage 消息回调函数
    * @param onError 错误回调函数
    * @param onComplete 完成回调函数
+   * @param onChartUpdate 图表配置异步修正回调函数
    * @returns 关闭连接的函数
    */
   async streamSearch(
@@ -61,6 +62,7 @@ class GraphService {
     onMessage: (response: GraphNodeResponse) => Promise<void>,
     onError?: (error: Error) => Promise<void>,
     onComplete?: () => Promise<void>,
+    onChartUpdate?: (response: GraphNodeResponse) => Promise<void>,
   ): Promise<() => void> {
     // 构建查询参数
     const params = new URLSearchParams();
@@ -112,6 +114,18 @@ class GraphService {
       eventSource.close();
     };
 
+    eventSource.addEventListener('chart-update', async event => {
+      if (!onChartUpdate) {
+        return;
+      }
+      try {
+        const nodeResponse: GraphNodeResponse = JSON.parse((event as MessageEvent).data);
+        await onChartUpdate(nodeResponse);
+      } catch (parseError) {
+        console.error('Failed to parse chart update:', parseError);
+      }
+    });
+
     eventSource.addEventListener('complete', async () => {
       isCompleted = true;
       if (onComplete) {
@@ -14,6 +14,7 @@
  * limitations under the License.
  */
 export interface ResultData {
+  resultId?: string;
   displayStyle?: ResultDisplayStyleBO;
   resultSet: ResultSetData;
 }
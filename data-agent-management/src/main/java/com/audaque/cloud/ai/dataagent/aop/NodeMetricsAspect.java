@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.aop;
+
+import com.alibaba.cloud.ai.graph.GraphResponse;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.audaque.cloud.ai.dataagent.service.metrics.DataAgentMetrics;
+import com.audaque.cloud.ai.dataagent.util.StateUtil;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.audaque.cloud.ai.dataagent.constant.Constant.THREAD_ID;
+
+/**
+ * AOP切面类，用于采集所有Node类的执行耗时、结果和重试次数
+ * <p>
+ * 大部分节点在 apply 中只构建输出流，真正的大模型调用和 SQL 执行发生在流被消费时，因此返回值中的 Flux 会被包装，
+ * 在所有输出流结束后才记录耗时；同时将节点名写入 Reactor Context，供大模型调用指标归属到节点。
+ */
+@Aspect
+@Component
+@AllArgsConstructor
+public class NodeMetricsAspect {
+
+	private final DataAgentMetrics metrics;
+
+	@Around("com.audaque.cloud.ai.dataagent.aop.NodeEntryLoggingAspect.nodeEntry()")
+	public Object measureNode(ProceedingJoinPoint joinPoint) throws Throwable {
+		String node = joinPoint.getTarget().getClass().getSimpleName();
+		Object[] args = joinPoint.getArgs();
+		if (args != null && args.length > 0 && args[0] instanceof OverAllState state) {
+			metrics.recordNodeEntry(StateUtil.getStringValue(state, THREAD_ID, null), node);
+		}
+
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = joinPoint.proceed();
+		}
+		catch (Throwable e) {
+			metrics.recordNode(node, DataAgentMetrics.OUTCOME_ERROR, System.nanoTime() - start);
+			throw e;
+		}
+		if (!(result instanceof Map<?, ?> output)) {
+			metrics.recordNode(node, DataAgentMetrics.OUTCOME_SUCCESS, System.nanoTime() - start);
+			return result;
+		}
+
+		long streams = output.values().stream().filter(Flux.class::isInstance).count();
+		if (streams == 0) {
+			metrics.recordNode(node, DataAgentMetrics.OUTCOME_SUCCESS, System.nanoTime() - start);
+			return result;
+		}
+
+		AtomicInteger remaining = new AtomicInteger((int) streams);
+		AtomicReference<String> outcome = new AtomicReference<>(DataAgentMetrics.OUTCOME_SUCCESS);
+		Map<Object, Object> wrapped = new LinkedHashMap<>(output);
+		wrapped.replaceAll((key, value) -> value instanceof Flux<?> flux
+				? measureStream(flux, node, start, remaining, outcome) : value);
+		return wrapped;
+	}
+
+	private Flux<?> measureStream(Flux<?> flux, String node, long start, AtomicInteger remaining,
+			AtomicReference<String> outcome) {
+		return flux.doOnNext(item -> {
+			// FluxUtil 会把异常转换为 GraphResponse.error 输出，而不是流错误
+			if (item instanceof GraphResponse<?> response && response.isError()) {
+				outcome.set(DataAgentMetrics.OUTCOME_ERROR);
+			}
+		}).doFinally(signal -> {
+			if (signal == SignalType.ON_ERROR) {
+				outcome.set(DataAgentMetrics.OUTCOME_ERROR);
+			}
+			else if (signal == SignalType.CANCEL) {
+				outcome.compareAndSet(DataAgentMetrics.OUTCOME_SUCCESS, DataAgentMetrics.OUTCOME_CANCELLED);
+			}
+			if (remaining.decrementAndGet() == 0) {
+				metrics.recordNode(node, outcome.get(), System.nanoTime() - start);
+			}
+		}).contextWrite(Context.of(DataAgentMetrics.NODE_CONTEXT_KEY, node));
+	}
+
+}
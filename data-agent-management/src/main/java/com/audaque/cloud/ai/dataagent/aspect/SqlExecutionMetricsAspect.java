@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.aspect;
+
+import com.audaque.cloud.ai.dataagent.bo.DbConfigBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.ResultSetBO;
+import com.audaque.cloud.ai.dataagent.service.metrics.DataAgentMetrics;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 业务数据源SQL执行监控切面
+ * 记录SQL执行耗时、返回行数和数据源类型
+ */
+@Aspect
+@Component
+@AllArgsConstructor
+public class SqlExecutionMetricsAspect {
+
+    private final DataAgentMetrics metrics;
+
+    @Around("execution(* com.audaque.cloud.ai.dataagent.connector.accessor.AbstractAccessor+.executeSqlAndReturnObject(..))")
+    public Object measureSqlExecution(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        String datasourceType = DataAgentMetrics.UNKNOWN;
+        if (args.length > 0 && args[0] instanceof DbConfigBO dbConfig && StringUtils.hasText(dbConfig.getDialectType())) {
+            datasourceType = dbConfig.getDialectType().toLowerCase();
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            int rows = result instanceof ResultSetBO resultSet && resultSet.getData() != null
+                    ? resultSet.getData().size() : 0;
+            metrics.recordSqlExecution(datasourceType, DataAgentMetrics.OUTCOME_SUCCESS, System.nanoTime() - start,
+                    rows);
+            return result;
+        } catch (Throwable e) {
+            metrics.recordSqlExecution(datasourceType, DataAgentMetrics.OUTCOME_ERROR, System.nanoTime() - start, -1);
+            throw e;
+        }
+    }
+
+}
@@ -26,8 +26,18 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class ResultBO {
 
+	/**
+	 * 结果标识，用于前端将异步推送的图表配置修正关联到对应的结果集
+	 */
+	private String resultId;
+
 	private ResultSetBO resultSet;
 
 	private DisplayStyleBO displayStyle;
 
+	/**
+	 * 结果来自查询结果缓存时的数据查询时间（毫秒时间戳），实时查询时为空
+	 */
+	private Long cachedAt;
+
 }
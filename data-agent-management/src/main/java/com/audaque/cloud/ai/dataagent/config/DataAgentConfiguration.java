@@ -21,6 +21,7 @@ import com.audaque.cloud.ai.dataagent.properties.FileStorageProperties;
 import com.audaque.cloud.ai.dataagent.util.McpServerToolUtil;
 import com.audaque.cloud.ai.dataagent.util.NodeBeanUtil;
 import com.audaque.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
+import com.audaque.cloud.ai.dataagent.service.graph.SpeculativeRecallService;
 import com.audaque.cloud.ai.dataagent.strategy.EnhancedTokenCountBatchingStrategy;
 import com.audaque.cloud.ai.dataagent.workflow.dispatcher.*;
 import com.audaque.cloud.ai.dataagent.workflow.node.*;
@@ -135,8 +136,8 @@ public class DataAgentConfiguration implements DisposableBean {
 	}
 
 	@Bean
-	public StateGraph nl2sqlGraph(NodeBeanUtil nodeBeanUtil, CodeExecutorProperties codeExecutorProperties)
-			throws GraphStateException {
+	public StateGraph nl2sqlGraph(NodeBeanUtil nodeBeanUtil, CodeExecutorProperties codeExecutorProperties,
+			SpeculativeRecallService speculativeRecallService) throws GraphStateException {
 
 		KeyStrategyFactory keyStrategyFactory = () -> {
 			HashMap<String, KeyStrategy> keyStrategyHashMap = new HashMap<>();
@@ -144,10 +145,13 @@ public class DataAgentConfiguration implements DisposableBean {
 			keyStrategyHashMap.put(INPUT_KEY, KeyStrategy.REPLACE);
 			// Agent ID
 			keyStrategyHashMap.put(AGENT_ID, KeyStrategy.REPLACE);
+			// Thread ID
+			keyStrategyHashMap.put(THREAD_ID, KeyStrategy.REPLACE);
 			// Multi-turn context
 			keyStrategyHashMap.put(MULTI_TURN_CONTEXT, KeyStrategy.REPLACE);
 			// Intent recognition
 			keyStrategyHashMap.put(INTENT_RECOGNITION_NODE_OUTPUT, KeyStrategy.REPLACE);
+			keyStrategyHashMap.put(FAST_PATH_DECISION, KeyStrategy.REPLACE);
 			// QUERY_ENHANCE_NODE节点输出
 			keyStrategyHashMap.put(QUERY_ENHANCE_NODE_OUTPUT, KeyStrategy.REPLACE);
 			// Semantic model
@@ -168,12 +172,14 @@ public class DataAgentConfiguration implements DisposableBean {
 			keyStrategyHashMap.put(SQL_GENERATE_SCHEMA_MISSING_ADVICE, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(SQL_GENERATE_OUTPUT, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(SQL_GENERATE_COUNT, KeyStrategy.REPLACE);
+			keyStrategyHashMap.put(SQL_FROM_PLAN_TEMPLATE, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(SQL_REGENERATE_REASON, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(SQL_FAILURE_HISTORY, KeyStrategy.REPLACE);
 			// Semantic consistence节点输出
 			keyStrategyHashMap.put(SEMANTIC_CONSISTENCY_NODE_OUTPUT, KeyStrategy.REPLACE);
 			// Planner 节点输出
 			keyStrategyHashMap.put(PLANNER_NODE_OUTPUT, KeyStrategy.REPLACE);
+			keyStrategyHashMap.put(PRESET_PLAN_HIT, KeyStrategy.REPLACE);
 			// PlanExecutorNode
 			keyStrategyHashMap.put(PLAN_CURRENT_STEP, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(PLAN_NEXT_NODE, KeyStrategy.REPLACE);
@@ -182,6 +188,7 @@ public class DataAgentConfiguration implements DisposableBean {
 			keyStrategyHashMap.put(PLAN_REPAIR_COUNT, KeyStrategy.REPLACE);
 			// SQL Execute 节点输出
 			keyStrategyHashMap.put(SQL_EXECUTE_NODE_OUTPUT, KeyStrategy.REPLACE);
+			keyStrategyHashMap.put(SQL_EXECUTED_QUERIES, KeyStrategy.REPLACE);
 			// Python代码运行相关
 			keyStrategyHashMap.put(SQL_RESULT_LIST_MEMORY, KeyStrategy.REPLACE);
 			keyStrategyHashMap.put(PYTHON_IS_SUCCESS, KeyStrategy.REPLACE);
@@ -220,8 +227,10 @@ public class DataAgentConfiguration implements DisposableBean {
 				.addNode(HUMAN_FEEDBACK_NODE, nodeBeanUtil.getNodeBeanAsync(HumanFeedbackNode.class))
 				.addNode(CHAT_RESPONSE_NODE, nodeBeanUtil.getNodeBeanAsync(ChatResponseNode.class));
 
+		// 意图识别节点内部会投机启动证据召回和Schema预热，分发到闲聊分支时取消
 		stateGraph.addEdge(START, INTENT_RECOGNITION_NODE)
-				.addConditionalEdges(INTENT_RECOGNITION_NODE, edge_async(new IntentRecognitionDispatcher()),
+				.addConditionalEdges(INTENT_RECOGNITION_NODE,
+						edge_async(new IntentRecognitionDispatcher(speculativeRecallService)),
 						Map.of(EVIDENCE_RECALL_NODE, EVIDENCE_RECALL_NODE, CHAT_RESPONSE_NODE, CHAT_RESPONSE_NODE))
 				.addEdge(CHAT_RESPONSE_NODE, END)
 				.addEdge(EVIDENCE_RECALL_NODE, QUERY_ENHANCE_NODE)
@@ -279,7 +288,7 @@ public class DataAgentConfiguration implements DisposableBean {
 				// sql generate and sql execute node
 				.addConditionalEdges(SQL_GENERATE_NODE, nodeBeanUtil.getEdgeBeanAsync(SqlGenerateDispatcher.class),
 						Map.of(SQL_GENERATE_NODE, SQL_GENERATE_NODE, END, END, SEMANTIC_CONSISTENCY_NODE,
-								SEMANTIC_CONSISTENCY_NODE))
+								SEMANTIC_CONSISTENCY_NODE, SQL_EXECUTE_NODE, SQL_EXECUTE_NODE))
 				.addConditionalEdges(SEMANTIC_CONSISTENCY_NODE, edge_async(new SemanticConsistenceDispatcher()),
 						Map.of(SQL_GENERATE_NODE, SQL_GENERATE_NODE, SQL_EXECUTE_NODE, SQL_EXECUTE_NODE))
 				.addConditionalEdges(SQL_EXECUTE_NODE, edge_async(new SQLExecutorDispatcher()),
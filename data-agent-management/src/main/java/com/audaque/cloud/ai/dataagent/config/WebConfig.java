@@ -15,38 +15,18 @@
  */
 package com.audaque.cloud.ai.dataagent.config;
 
-import com.audaque.cloud.ai.dataagent.properties.FileStorageProperties;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Paths;
-
 /**
- * Web配置类
+ * Web配置类。上传文件不再注册静态资源映射，由 FileUploadController 按配置的 url-prefix 提供（含 ETag、缓存与 Range 处理）
  */
 @Slf4j
 @Configuration
-@AllArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
-	private final FileStorageProperties fileStorageProperties;
-
-	@Override
-	public void addResourceHandlers(ResourceHandlerRegistry registry) {
-		String uploadDir = Paths.get(fileStorageProperties.getPath()).toAbsolutePath().toString();
-		String urlPrefix = fileStorageProperties.getUrlPrefix();
-
-		log.info("配置静态资源映射 - URL前缀: {}, 物理路径: {}", urlPrefix, uploadDir);
-
-		registry.addResourceHandler(urlPrefix + "/**")
-				.addResourceLocations("file:" + uploadDir + "/")
-				.setCachePeriod(3600);
-	}
-
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
 		// Add CORS configuration for widget.js and API endpoints
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.connector;
+
+import com.alibaba.druid.pool.DruidPooledConnection;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * 记录池化连接上已生效的会话设置（如 search_path、当前 schema），并按数据源缓存驱动元数据。
+ * <p>
+ * 会话设置按底层物理连接记录，连接归还连接池后再次借出时仍然有效，只有设置值变化时才需要重新下发；
+ * 物理连接被连接池关闭后记录随之回收。
+ */
+public final class ConnectionSessionState {
+
+	/**
+	 * PostgreSQL 的 search_path
+	 */
+	public static final String SEARCH_PATH = "search_path";
+
+	/**
+	 * 通过 use 语句切换的当前 schema
+	 */
+	public static final String CURRENT_SCHEMA = "current_schema";
+
+	private static final Map<Connection, Map<String, String>> APPLIED_SETTINGS = Collections
+		.synchronizedMap(new WeakHashMap<>());
+
+	private static final Map<Object, DriverMetadata> DRIVER_METADATA = Collections
+		.synchronizedMap(new WeakHashMap<>());
+
+	private ConnectionSessionState() {
+	}
+
+	/**
+	 * 获取驱动元数据，同一数据源的连接只读取一次
+	 */
+	public static DriverMetadata driverMetadata(Connection connection) throws SQLException {
+		Object key = datasourceKey(connection);
+		DriverMetadata cached = DRIVER_METADATA.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		DatabaseMetaData metaData = connection.getMetaData();
+		DriverMetadata driverMetadata = new DriverMetadata(metaData.getDatabaseProductName(),
+				metaData.getDatabaseProductVersion());
+		DRIVER_METADATA.put(key, driverMetadata);
+		return driverMetadata;
+	}
+
+	/**
+	 * 连接上该会话设置是否已经是指定值
+	 */
+	public static boolean isApplied(Connection connection, String setting, String value) {
+		Map<String, String> settings = APPLIED_SETTINGS.get(physicalConnection(connection));
+		return settings != null && Objects.equals(settings.get(setting), value);
+	}
+
+	/**
+	 * 设置语句执行成功后记录连接上的会话设置
+	 */
+	public static void markApplied(Connection connection, String setting, String value) {
+		APPLIED_SETTINGS.computeIfAbsent(physicalConnection(connection), c -> new HashMap<>()).put(setting, value);
+	}
+
+	/**
+	 * 设置语句执行失败等无法确认会话状态时，清除连接上的记录，下次重新下发
+	 */
+	public static void reset(Connection connection) {
+		APPLIED_SETTINGS.remove(physicalConnection(connection));
+	}
+
+	/**
+	 * 连接池每次借出的都是新的包装对象，会话状态需要记录在底层物理连接上
+	 */
+	private static Connection physicalConnection(Connection connection) {
+		if (connection instanceof DruidPooledConnection pooled && pooled.getConnection() != null) {
+			return pooled.getConnection();
+		}
+		return connection;
+	}
+
+	private static Object datasourceKey(Connection connection) {
+		if (connection instanceof DruidPooledConnection pooled && pooled.getConnectionHolder() != null) {
+			return pooled.getConnectionHolder().getDataSource();
+		}
+		return physicalConnection(connection);
+	}
+
+	/**
+	 * 驱动元数据
+	 * @param productName 数据库产品名，与 DatabaseDialectEnum 的 code 对应
+	 * @param productVersion 数据库版本
+	 */
+	public record DriverMetadata(String productName, String productVersion) {
+	}
+
+}
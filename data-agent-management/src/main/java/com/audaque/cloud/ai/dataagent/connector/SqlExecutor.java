@@ -21,7 +21,6 @@ import com.audaque.cloud.ai.dataagent.util.ResultSetConvertUtil;
 import org.apache.commons.lang3.StringUtils;
 
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -49,18 +48,15 @@ public class SqlExecutor {
 			statement.setMaxRows(RESULT_SET_LIMIT);
 			statement.setQueryTimeout(STATEMENT_TIMEOUT);
 
-			DatabaseMetaData metaData = connection.getMetaData();
-			String dialect = metaData.getDatabaseProductName();
+			String dialect = ConnectionSessionState.driverMetadata(connection).productName();
 
 			if (dialect.equals(DatabaseDialectEnum.POSTGRESQL.code)) {
-				if (StringUtils.isNotEmpty(schema)) {
-					statement.execute("set search_path = '" + schema + "';");
-				}
+				applySetting(connection, statement, ConnectionSessionState.SEARCH_PATH, schema,
+						"set search_path = '" + schema + "';");
 			}
 			else if (dialect.equals(DatabaseDialectEnum.H2.code)) {
-				if (StringUtils.isNotEmpty(schema)) {
-					statement.execute("use " + schema + ";");
-				}
+				applySetting(connection, statement, ConnectionSessionState.CURRENT_SCHEMA, schema,
+						"use " + schema + ";");
 			}
 
 			try (ResultSet rs = statement.executeQuery(sql)) {
@@ -97,27 +93,27 @@ public class SqlExecutor {
 	private static List<String[]> executeQuery(Connection connection, String databaseOrSchema, String sql)
 			throws SQLException {
 		String originalDb = connection.getCatalog();
-		DatabaseMetaData metaData = connection.getMetaData();
-		String dialect = metaData.getDatabaseProductName();
+		String dialect = ConnectionSessionState.driverMetadata(connection).productName();
+		// MySQL 驱动在本地维护当前库，已是目标库时无需切换和还原
+		boolean switchDb = dialect.equals(DatabaseDialectEnum.MYSQL.code) && StringUtils.isNotEmpty(databaseOrSchema)
+				&& !databaseOrSchema.equals(originalDb);
 
 		try (Statement statement = connection.createStatement()) {
 
-			if (dialect.equals(DatabaseDialectEnum.MYSQL.code)) {
-				if (StringUtils.isNotEmpty(databaseOrSchema)) {
-					statement.execute("use `" + databaseOrSchema + "`;");
-				}
+			if (switchDb) {
+				statement.execute("use `" + databaseOrSchema + "`;");
 			}
 			else if (dialect.equals(DatabaseDialectEnum.POSTGRESQL.code)) {
-				if (StringUtils.isNotEmpty(databaseOrSchema)) {
-					statement.execute("set search_path = '" + databaseOrSchema + "';");
-				}
+				applySetting(connection, statement, ConnectionSessionState.SEARCH_PATH, databaseOrSchema,
+						"set search_path = '" + databaseOrSchema + "';");
 			}
 
-			ResultSet rs = statement.executeQuery(sql);
-
-			List<String[]> result = ResultSetConvertUtil.convert(rs);
+			List<String[]> result;
+			try (ResultSet rs = statement.executeQuery(sql)) {
+				result = ResultSetConvertUtil.convert(rs);
+			}
 
-			if (StringUtils.isNotEmpty(databaseOrSchema) && dialect.equals(DatabaseDialectEnum.MYSQL.code)) {
+			if (switchDb) {
 				statement.execute("use `" + originalDb + "`;");
 			}
 
@@ -125,4 +121,27 @@ public class SqlExecutor {
 		}
 	}
 
+	/**
+	 * 连接上的会话设置与目标值不同时才下发设置语句，避免每次查询都多一次数据库往返
+	 * @param connection database connection
+	 * @param statement statement used to execute the setting
+	 * @param setting session setting name
+	 * @param value target value, empty means keep the current setting
+	 * @param settingSql SQL that applies the setting
+	 */
+	private static void applySetting(Connection connection, Statement statement, String setting, String value,
+			String settingSql) throws SQLException {
+		if (StringUtils.isEmpty(value) || ConnectionSessionState.isApplied(connection, setting, value)) {
+			return;
+		}
+		try {
+			statement.execute(settingSql);
+		}
+		catch (SQLException e) {
+			ConnectionSessionState.reset(connection);
+			throw e;
+		}
+		ConnectionSessionState.markApplied(connection, setting, value);
+	}
+
 }
@@ -18,7 +18,6 @@ package com.audaque.cloud.ai.dataagent.connector.accessor;
 import com.audaque.cloud.ai.dataagent.connector.ddl.AbstractJdbcDdl;
 import com.audaque.cloud.ai.dataagent.connector.pool.DBConnectionPool;
 import com.audaque.cloud.ai.dataagent.connector.ddl.DdlFactory;
-import com.audaque.cloud.ai.dataagent.connector.SqlExecutor;
 import com.audaque.cloud.ai.dataagent.bo.schema.ColumnInfoBO;
 import com.audaque.cloud.ai.dataagent.bo.schema.DatabaseInfoBO;
 import com.audaque.cloud.ai.dataagent.connector.DbQueryParameter;
@@ -45,33 +44,8 @@ public abstract class AbstractAccessor implements Accessor {
 
 	public <T> T accessDb(DbConfigBO dbConfig, String method, DbQueryParameter param) throws Exception {
 
-		try (Connection connection = getConnection(dbConfig)) {
-
-			AbstractJdbcDdl ddlExecutor = (AbstractJdbcDdl) ddlFactory.getDdlExecutorByDbConfig(dbConfig);
-
-			switch (method) {
-				case "showDatabases":
-					return (T) ddlExecutor.showDatabases(connection);
-				case "showSchemas":
-					return (T) ddlExecutor.showSchemas(connection);
-				case "showTables":
-					return (T) ddlExecutor.showTables(connection, param.getSchema(), param.getTablePattern());
-				case "fetchTables":
-					return (T) ddlExecutor.fetchTables(connection, param.getSchema(), param.getTables());
-				case "showColumns":
-					return (T) ddlExecutor.showColumns(connection, param.getSchema(), param.getTable());
-				case "showForeignKeys":
-					return (T) ddlExecutor.showForeignKeys(connection, param.getSchema(), param.getTables());
-				case "sampleColumn":
-					return (T) ddlExecutor.sampleColumn(connection, param.getSchema(), param.getTable(),
-							param.getColumn());
-				case "scanTable":
-					return (T) ddlExecutor.scanTable(connection, param.getSchema(), param.getTable());
-				case "executeSqlAndReturnObject":
-					return (T) SqlExecutor.executeSqlAndReturnObject(connection, param.getSchema(), param.getSql());
-				default:
-					throw new UnsupportedOperationException("Unknown method: " + method);
-			}
+		try (AccessorSession session = openSession(dbConfig)) {
+			return session.accessDb(method, param);
 		}
 		catch (Exception e) {
 
@@ -80,6 +54,12 @@ public abstract class AbstractAccessor implements Accessor {
 		}
 	}
 
+	@Override
+	public AccessorSession openSession(DbConfigBO dbConfig) {
+		AbstractJdbcDdl ddlExecutor = (AbstractJdbcDdl) ddlFactory.getDdlExecutorByDbConfig(dbConfig);
+		return new AccessorSession(getConnection(dbConfig), ddlExecutor);
+	}
+
 	public List<DatabaseInfoBO> showDatabases(DbConfigBO dbConfig) throws Exception {
 		return accessDb(dbConfig, "showDatabases", null);
 	}
@@ -53,6 +53,14 @@ public interface Accessor {
 	 */
 	<T> T accessDb(DbConfigBO dbConfig, String method, DbQueryParameter param) throws Exception;
 
+	/**
+	 * Borrow one connection for several operations, the connection is returned when the
+	 * session is closed.
+	 * @param dbConfig database configuration
+	 * @return session bound to the borrowed connection
+	 */
+	AccessorSession openSession(DbConfigBO dbConfig);
+
 	List<DatabaseInfoBO> showDatabases(DbConfigBO dbConfig) throws Exception;
 
 	List<SchemaInfoBO> showSchemas(DbConfigBO dbConfig) throws Exception;
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.connector.accessor;
+
+import com.audaque.cloud.ai.dataagent.bo.schema.ColumnInfoBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.DatabaseInfoBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.ForeignKeyInfoBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.ResultSetBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.SchemaInfoBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.TableInfoBO;
+import com.audaque.cloud.ai.dataagent.connector.DbQueryParameter;
+import com.audaque.cloud.ai.dataagent.connector.SqlExecutor;
+import com.audaque.cloud.ai.dataagent.connector.ddl.AbstractJdbcDdl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 在同一个借出的连接上执行多次元数据查询，关闭时归还连接。
+ * <p>
+ * 适用于 schema 同步等需要连续读取多张表列信息和样本数据的场景，避免每次操作都重新借出连接、初始化会话。
+ * 会话不是线程安全的，只能在创建它的线程中使用。
+ */
+public class AccessorSession implements AutoCloseable {
+
+	private final Connection connection;
+
+	private final AbstractJdbcDdl ddlExecutor;
+
+	AccessorSession(Connection connection, AbstractJdbcDdl ddlExecutor) {
+		this.connection = connection;
+		this.ddlExecutor = ddlExecutor;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T accessDb(String method, DbQueryParameter param) throws Exception {
+		switch (method) {
+			case "showDatabases":
+				return (T) ddlExecutor.showDatabases(connection);
+			case "showSchemas":
+				return (T) ddlExecutor.showSchemas(connection);
+			case "showTables":
+				return (T) ddlExecutor.showTables(connection, param.getSchema(), param.getTablePattern());
+			case "fetchTables":
+				return (T) ddlExecutor.fetchTables(connection, param.getSchema(), param.getTables());
+			case "showColumns":
+				return (T) ddlExecutor.showColumns(connection, param.getSchema(), param.getTable());
+			case "showForeignKeys":
+				return (T) ddlExecutor.showForeignKeys(connection, param.getSchema(), param.getTables());
+			case "sampleColumn":
+				return (T) ddlExecutor.sampleColumn(connection, param.getSchema(), param.getTable(),
+						param.getColumn());
+			case "scanTable":
+				return (T) ddlExecutor.scanTable(connection, param.getSchema(), param.getTable());
+			case "executeSqlAndReturnObject":
+				return (T) SqlExecutor.executeSqlAndReturnObject(connection, param.getSchema(), param.getSql());
+			default:
+				throw new UnsupportedOperationException("Unknown method: " + method);
+		}
+	}
+
+	public List<DatabaseInfoBO> showDatabases() throws Exception {
+		return accessDb("showDatabases", null);
+	}
+
+	public List<SchemaInfoBO> showSchemas() throws Exception {
+		return accessDb("showSchemas", null);
+	}
+
+	public List<TableInfoBO> showTables(DbQueryParameter param) throws Exception {
+		return accessDb("showTables", param);
+	}
+
+	public List<TableInfoBO> fetchTables(DbQueryParameter param) throws Exception {
+		return accessDb("fetchTables", param);
+	}
+
+	public List<ColumnInfoBO> showColumns(DbQueryParameter param) throws Exception {
+		return accessDb("showColumns", param);
+	}
+
+	public List<ForeignKeyInfoBO> showForeignKeys(DbQueryParameter param) throws Exception {
+		return accessDb("showForeignKeys", param);
+	}
+
+	public List<String> sampleColumn(DbQueryParameter param) throws Exception {
+		return accessDb("sampleColumn", param);
+	}
+
+	public ResultSetBO scanTable(DbQueryParameter param) throws Exception {
+		return accessDb("scanTable", param);
+	}
+
+	public ResultSetBO executeSqlAndReturnObject(DbQueryParameter param) throws Exception {
+		return accessDb("executeSqlAndReturnObject", param);
+	}
+
+	@Override
+	public void close() throws SQLException {
+		connection.close();
+	}
+
+}
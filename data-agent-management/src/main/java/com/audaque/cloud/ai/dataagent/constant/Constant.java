@@ -29,6 +29,9 @@ public final class Constant {
 
 	public static final String AGENT_ID = "agentId";
 
+	// 会话线程ID，用于节点在流程之外向前端推送异步事件
+	public static final String THREAD_ID = "THREAD_ID";
+
 	public static final String MULTI_TURN_CONTEXT = "MULTI_TURN_CONTEXT";
 
 	public static final String RESULT = "result";
@@ -37,6 +40,9 @@ public final class Constant {
 
 	public static final String INTENT_RECOGNITION_NODE_OUTPUT = "INTENT_RECOGNITION_NODE_OUTPUT";
 
+	// 本地快速分类结果，取值见 FastPathClassifier.Decision
+	public static final String FAST_PATH_DECISION = "FAST_PATH_DECISION";
+
 	public static final String QUERY_ENHANCE_NODE_OUTPUT = "QUERY_ENHANCE_NODE_OUTPUT";
 
 	public static final String FEASIBILITY_ASSESSMENT_NODE_OUTPUT = "FEASIBILITY_ASSESSMENT_NODE_OUTPUT";
@@ -63,6 +69,9 @@ public final class Constant {
 
 	public static final String SQL_GENERATE_COUNT = "SQL_GENERATE_COUNT";
 
+	// 当前步骤的 SQL 是否直接取自预设问题的预编译计划
+	public static final String SQL_FROM_PLAN_TEMPLATE = "SQL_FROM_PLAN_TEMPLATE";
+
 	// Fine-grained error counters for different SQL error types
 	public static final String SQL_SYNTAX_ERROR_COUNT = "SQL_SYNTAX_ERROR_COUNT";
 
@@ -80,8 +89,14 @@ public final class Constant {
 
 	public static final String PLANNER_NODE_OUTPUT = "PLANNER_NODE_OUTPUT";
 
+	// 本次计划是否来自预设问题的预编译计划
+	public static final String PRESET_PLAN_HIT = "PRESET_PLAN_HIT";
+
 	public static final String SQL_EXECUTE_NODE_OUTPUT = "SQL_EXECUTE_NODE_OUTPUT";
 
+	// 各步骤执行成功的 SQL，键为 step_N
+	public static final String SQL_EXECUTED_QUERIES = "SQL_EXECUTED_QUERIES";
+
 	// dialect
 	public static final String DB_DIALECT_TYPE = "DB_DIALECT_TYPE";
 
@@ -171,4 +186,7 @@ public final class Constant {
 
 	public static final String STREAM_EVENT_ERROR = "error";
 
+	// 图表配置异步修正事件
+	public static final String STREAM_EVENT_CHART_UPDATE = "chart-update";
+
 }
@@ -43,6 +43,9 @@ public final class DocumentMetadataConstant {
 	// FAQ/DOCUMENT/QA
 	public static final String CONCRETE_AGENT_KNOWLEDGE_TYPE = "concreteAgentKnowledgeType";
 
+	// 文档文本块内容的 SHA-256 哈希，用于增量向量化
+	public static final String CHUNK_HASH = "chunkHash";
+
 	// 智能体的知识
 	public static final String AGENT_KNOWLEDGE = "agentKnowledge";
 
@@ -17,8 +17,10 @@ package com.audaque.cloud.ai.dataagent.controller;
 
 import com.audaque.cloud.ai.dataagent.dto.agent.AgentQueryDTO;
 import com.audaque.cloud.ai.dataagent.entity.Agent;
+import com.audaque.cloud.ai.dataagent.enums.AgentReadiness;
 import com.audaque.cloud.ai.dataagent.enums.AgentStatus;
 import com.audaque.cloud.ai.dataagent.service.agent.AgentService;
+import com.audaque.cloud.ai.dataagent.service.agent.AgentStartupInitialization;
 import com.audaque.cloud.ai.dataagent.vo.ApiKeyResponse;
 import com.audaque.cloud.ai.dataagent.vo.ApiResponse;
 import com.audaque.cloud.ai.dataagent.vo.PageResponse;
@@ -39,6 +41,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Agent Management Controller
@@ -52,6 +55,8 @@ public class AgentController {
 
 	private final AgentService agentService;
 
+	private final AgentStartupInitialization agentStartupInitialization;
+
 	/**
 	 * Get agent list
 	 */
@@ -69,6 +74,27 @@ public class AgentController {
 		return ResponseEntity.ok(result);
 	}
 
+	/**
+	 * Get startup initialization readiness of all published agents
+	 */
+	@GetMapping("/readiness")
+	public ResponseEntity<Map<String, Object>> readiness() {
+		return ResponseEntity.ok(Map.of("completed", agentStartupInitialization.isCompleted(), "counts",
+				agentStartupInitialization.getReadinessCounts(), "agents",
+				agentStartupInitialization.getReadinessSnapshot()));
+	}
+
+	/**
+	 * Get startup initialization readiness of an agent. Agents created or published after startup are not tracked
+	 * (UNKNOWN) and are reported as ready, since their initialization is not gated by the startup run.
+	 */
+	@GetMapping("/{id}/readiness")
+	public ResponseEntity<Map<String, Object>> readiness(@PathVariable(value = "id") Long id) {
+		AgentReadiness readiness = agentStartupInitialization.getReadiness(id);
+		boolean ready = readiness == AgentReadiness.READY || readiness == AgentReadiness.UNKNOWN;
+		return ResponseEntity.ok(Map.of("agentId", id, "status", readiness, "ready", ready));
+	}
+
 	/**
 	 * Get agent details by ID
 	 */
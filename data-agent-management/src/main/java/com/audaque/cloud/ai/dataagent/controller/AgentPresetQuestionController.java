@@ -104,6 +104,21 @@ public class AgentPresetQuestionController {
 		}
 	}
 
+	/**
+	 * Clear the precompiled plan template of a preset question
+	 */
+	@DeleteMapping("/{agentId}/preset-questions/{questionId}/plan-template")
+	public ResponseEntity<CommonResponseDTO> clearPlanTemplate(@PathVariable(value = "agentId") Long agentId,
+			@PathVariable Long questionId) {
+		try {
+			presetQuestionService.clearPlanTemplate(questionId);
+			return ResponseEntity.ok(CommonResponseDTO.success("预编译计划已清除"));
+		} catch (Exception e) {
+			log.error("Error clearing plan template of preset question {} for agent {}", questionId, agentId, e);
+			return ResponseEntity.internalServerError().body(CommonResponseDTO.error("清除预编译计划失败: " + e.getMessage()));
+		}
+	}
+
 	/**
 	 * Page query preset questions with filters
 	 */
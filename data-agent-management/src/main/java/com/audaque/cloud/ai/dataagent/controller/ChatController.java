@@ -23,6 +23,7 @@ import com.audaque.cloud.ai.dataagent.service.chat.ChatMessageService;
 import com.audaque.cloud.ai.dataagent.service.chat.ChatSessionService;
 import com.audaque.cloud.ai.dataagent.service.chat.SessionTitleService;
 import com.audaque.cloud.ai.dataagent.vo.ApiResponse;
+import com.audaque.cloud.ai.dataagent.vo.ChatMessagePageVO;
 import com.audaque.cloud.ai.dataagent.vo.PageResponse;
 import com.audaque.cloud.ai.dataagent.vo.PageResult;
 import jakarta.validation.Valid;
@@ -118,6 +119,32 @@ public class ChatController {
 		return ResponseEntity.ok(messages);
 	}
 
+	/**
+	 * Keyset page query of messages for a session. Without cursors returns the latest
+	 * page; large message contents are omitted and can be loaded individually.
+	 */
+	@GetMapping("/sessions/{sessionId}/messages/page")
+	public ResponseEntity<ChatMessagePageVO> getSessionMessagesPage(
+			@PathVariable(value = "sessionId") String sessionId,
+			@RequestParam(value = "beforeId", required = false) Long beforeId,
+			@RequestParam(value = "afterId", required = false) Long afterId,
+			@RequestParam(value = "limit", required = false) Integer limit) {
+		if (beforeId != null && afterId != null) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(chatMessageService.findPageBySessionId(sessionId, beforeId, afterId, limit));
+	}
+
+	/**
+	 * Get a single message with full content
+	 */
+	@GetMapping("/sessions/{sessionId}/messages/{messageId}")
+	public ResponseEntity<ChatMessage> getSessionMessage(@PathVariable(value = "sessionId") String sessionId,
+			@PathVariable(value = "messageId") Long messageId) {
+		ChatMessage message = chatMessageService.findById(sessionId, messageId);
+		return message != null ? ResponseEntity.ok(message) : ResponseEntity.notFound().build();
+	}
+
 	/**
 	 * Save message to session
 	 */
@@ -207,4 +207,14 @@ public class DatasourceController {
 		return ApiResponse.success("success save logical relations", saved);
 	}
 
+	/**
+	 * 失效查询结果缓存，指定表名时只失效引用了该表的查询，供数据加工任务完成后调用
+	 */
+	@DeleteMapping("/{id}/query-cache")
+	public ApiResponse<Void> invalidateQueryCache(@PathVariable(value = "id") Integer datasourceId,
+			@RequestParam(value = "table", required = false) String tableName) {
+		datasourceService.invalidateQueryResultCache(datasourceId, tableName);
+		return ApiResponse.success("success invalidate query cache");
+	}
+
 }
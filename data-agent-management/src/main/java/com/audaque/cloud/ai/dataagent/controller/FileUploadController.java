@@ -15,22 +15,36 @@
  */
 package com.audaque.cloud.ai.dataagent.controller;
 
+import com.audaque.cloud.ai.dataagent.constant.Constant;
 import com.audaque.cloud.ai.dataagent.properties.FileStorageProperties;
+import com.audaque.cloud.ai.dataagent.util.ContentHashUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UrlPathHelper;
 
 import com.audaque.cloud.ai.dataagent.service.file.FileStorageService;
 import com.audaque.cloud.ai.dataagent.vo.UploadResponse;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 
 /**
  * 文件上传控制器
@@ -38,11 +52,28 @@ import java.nio.file.Paths;
  */
 @Slf4j
 @RestController
-@RequestMapping("/api")
 @CrossOrigin(origins = "*")
 @AllArgsConstructor
 public class FileUploadController {
 
+	/**
+	 * 文件访问路径与 {@link FileStorageService#getFileUrl(String)} 生成的地址保持一致
+	 */
+	private static final String FILE_URL_PATTERN = "${" + Constant.PROJECT_PROPERTIES_PREFIX
+			+ ".file.url-prefix:/api/upload}/**";
+
+	private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+	private static final String DEFAULT_CACHE_CONTROL = "max-age=3600";
+
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
 	private final FileStorageProperties fileStorageProperties;
 
 	private final FileStorageService fileStorageService;
@@ -50,7 +81,7 @@ public class FileUploadController {
 	/**
 	 * 上传头像图片
 	 */
-	@PostMapping(value = "/upload/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	@PostMapping(value = "/api/upload/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
 	public ResponseEntity<UploadResponse> uploadAvatar(@RequestParam("file") MultipartFile file) {
 		try {
 			// 验证文件类型
@@ -82,34 +113,123 @@ public class FileUploadController {
 	}
 
 	/**
-	 * 获取文件 - 此方法已废弃，文件访问由 WebConfig 静态资源映射处理
-	 * 保留此方法仅作为备用方案
+	 * 获取本地存储的文件，支持条件请求和单区间 Range 请求。
+	 * 按内容寻址的文件使用内容哈希作为强 ETag 并允许长期缓存；Tomcat 支持 sendfile 时由容器零拷贝发送文件内容
 	 */
-	@Deprecated
-	@GetMapping("/upload/**")
-	public ResponseEntity<byte[]> getFile(HttpServletRequest request) {
+	@GetMapping(FILE_URL_PATTERN)
+	public void getFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		// 解码后的应用内路径，URL 前缀由存储服务统一剥离
+		String filePath = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+		Resource resource;
 		try {
-			String requestPath = request.getRequestURI();
-			String urlPrefix = fileStorageProperties.getUrlPrefix();
-			String filePath = requestPath.substring(urlPrefix.length());
-
-			Path fullPath = Paths.get(fileStorageProperties.getPath(), filePath);
+			resource = fileStorageService.getFileResource(filePath);
+		} catch (RuntimeException e) {
+			log.debug("文件不存在或路径非法: {}", filePath);
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		if (resource == null || !resource.isReadable()) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
 
-			if (!Files.exists(fullPath) || Files.isDirectory(fullPath)) {
-				return ResponseEntity.notFound().build();
+		long length = resource.contentLength();
+		long lastModified = resource.lastModified();
+		String contentHash = ContentHashUtil.hashOfFileName(resource.getFilename());
+		String etag = contentHash != null ? "\"" + contentHash + "\"" : "W/\"" + length + "-" + lastModified + "\"";
+		response.setHeader(HttpHeaders.ETAG, etag);
+		response.setHeader(HttpHeaders.CACHE_CONTROL,
+				contentHash != null ? IMMUTABLE_CACHE_CONTROL : DEFAULT_CACHE_CONTROL);
+		response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+		if (isNotModified(request, etag, lastModified)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		response.setContentType(MediaTypeFactory.getMediaType(resource)
+			.orElse(MediaType.APPLICATION_OCTET_STREAM)
+			.toString());
+
+		long start = 0;
+		long end = length - 1;
+		String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		// 只处理单区间请求，多区间请求和 If-Range 不匹配时返回完整内容
+		if (rangeHeader != null && (ifRange == null || (contentHash != null && ifRange.equals(etag)))) {
+			List<HttpRange> ranges;
+			try {
+				ranges = HttpRange.parseRanges(rangeHeader);
+				if (ranges.size() == 1) {
+					start = ranges.get(0).getRangeStart(length);
+					end = ranges.get(0).getRangeEnd(length);
+				}
+			} catch (IllegalArgumentException e) {
+				ranges = List.of();
 			}
+			if (ranges.isEmpty() || start >= length) {
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			if (ranges.size() == 1) {
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+			}
+		}
+		long count = end - start + 1;
+		response.setContentLengthLong(count);
+		if (HttpMethod.HEAD.matches(request.getMethod()) || count <= 0) {
+			return;
+		}
+		writeContent(request, response, resource, start, count);
+	}
 
-			byte[] fileContent = Files.readAllBytes(fullPath);
-			String contentType = Files.probeContentType(fullPath);
-
-			return ResponseEntity.ok()
-					.contentType(
-							MediaType.parseMediaType(contentType != null ? contentType : "application/octet-stream"))
-					.body(fileContent);
+	private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		if (ifNoneMatch != null) {
+			String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+			for (String candidate : ifNoneMatch.split(",")) {
+				String tag = candidate.trim();
+				if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+		return ifModifiedSince != -1 && lastModified / 1000 * 1000 <= ifModifiedSince;
+	}
 
-		} catch (IOException e) {
-			log.error("文件读取失败", e);
-			return ResponseEntity.internalServerError().build();
+	/**
+	 * 本地文件优先交给 Tomcat sendfile 由内核直接发送，否则通过 FileChannel 传输，避免整个文件读入内存
+	 */
+	private void writeContent(HttpServletRequest request, HttpServletResponse response, Resource resource,
+			long start, long count) throws IOException {
+		if (resource.isFile()) {
+			Path file = resource.getFile().toPath();
+			if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+				request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toAbsolutePath().toString());
+				request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+				request.setAttribute(SENDFILE_END_ATTRIBUTE, start + count);
+				return;
+			}
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+				long position = start;
+				long remaining = count;
+				while (remaining > 0) {
+					long transferred = channel.transferTo(position, remaining, target);
+					if (transferred <= 0) {
+						break;
+					}
+					position += transferred;
+					remaining -= transferred;
+				}
+			}
+			return;
+		}
+		try (InputStream inputStream = resource.getInputStream()) {
+			StreamUtils.copyRange(inputStream, response.getOutputStream(), start, start + count - 1);
 		}
 	}
 
@@ -17,6 +17,7 @@ package com.audaque.cloud.ai.dataagent.controller;
 
 import com.audaque.cloud.ai.dataagent.dto.GraphRequest;
 import com.audaque.cloud.ai.dataagent.service.graph.GraphService;
+import com.audaque.cloud.ai.dataagent.service.graph.SseStreamSupport;
 import com.audaque.cloud.ai.dataagent.vo.GraphNodeResponse;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
@@ -41,6 +42,8 @@ public class GraphController {
 
 	private final GraphService graphService;
 
+	private final SseStreamSupport sseStreamSupport;
+
 	@GetMapping(value = "/stream/search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
 	public Flux<ServerSentEvent<GraphNodeResponse>> streamSearch(@RequestParam("agentId") String agentId,
 			@RequestParam(value = "threadId", required = false) String threadId, @RequestParam("query") String query,
@@ -57,7 +60,16 @@ public class GraphController {
 		response.setHeader("Access-Control-Allow-Origin", "*");
 		response.setHeader("Access-Control-Allow-Headers", "Cache-Control");
 
-		Sinks.Many<ServerSentEvent<GraphNodeResponse>> sink = Sinks.many().unicast().onBackpressureBuffer();
+		SseStreamSupport.Permit permit = sseStreamSupport.tryAcquire();
+		if (permit == null) {
+			return Flux.just(ServerSentEvent
+				.builder(GraphNodeResponse.error(agentId, threadId, "当前连接数已达上限，请稍后重试"))
+				.event(STREAM_EVENT_ERROR)
+				.retry(sseStreamSupport.rejectRetryAfter())
+				.build());
+		}
+
+		Sinks.Many<ServerSentEvent<GraphNodeResponse>> sink = sseStreamSupport.newStreamSink();
 
 		GraphRequest request = GraphRequest.builder()
 			.agentId(agentId)
@@ -69,9 +81,15 @@ public class GraphController {
 			.nl2sqlOnly(nl2sqlOnly)
 			.plainReport(plainReport)
 			.build();
-		graphService.graphStreamProcess(sink, request);
+		try {
+			graphService.graphStreamProcess(sink, request);
+		}
+		catch (RuntimeException e) {
+			permit.release();
+			throw e;
+		}
 
-		return sink.asFlux().filter(sse -> {
+		Flux<ServerSentEvent<GraphNodeResponse>> events = sink.asFlux().filter(sse -> {
 			// 1. 如果 event 是 "complete" 或 "error"，直接放行（不管 text 是否为空）
 			if (STREAM_EVENT_COMPLETE.equals(sse.event()) || STREAM_EVENT_ERROR.equals(sse.event())) {
 				return true;
@@ -93,6 +111,7 @@ public class GraphController {
 				}
 			})
 			.doOnComplete(() -> log.info("Stream completed successfully, threadId: {}", request.getThreadId()));
+		return sseStreamSupport.attach(events, permit);
 	}
 
 	/**
@@ -19,15 +19,18 @@ import com.audaque.cloud.ai.dataagent.dto.GraphRequest;
 import com.audaque.cloud.ai.dataagent.entity.Agent;
 import com.audaque.cloud.ai.dataagent.service.agent.AgentService;
 import com.audaque.cloud.ai.dataagent.service.graph.GraphService;
+import com.audaque.cloud.ai.dataagent.service.graph.SseStreamSupport;
 import com.audaque.cloud.ai.dataagent.vo.GraphNodeResponse;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
 import static com.audaque.cloud.ai.dataagent.constant.Constant.STREAM_EVENT_COMPLETE;
@@ -48,6 +51,8 @@ public class Nl2sqlController {
 
     private final GraphService graphService;
 
+    private final SseStreamSupport sseStreamSupport;
+
     /**
      * Stream endpoint for widget chat. Authenticates via API Key and streams
      * NL2SQL results.
@@ -69,6 +74,13 @@ public class Nl2sqlController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or disabled API Key");
         }
 
+        SseStreamSupport.Permit permit = sseStreamSupport.tryAcquire();
+        if (permit == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(sseStreamSupport.rejectRetryAfter().toSeconds()))
+                    .body("Too many concurrent streams, please retry later");
+        }
+
         log.info("Widget stream request - agentId: {}, sessionId: {}, question: {}", agent.getId(), sessionId,
                 question);
 
@@ -80,7 +92,7 @@ public class Nl2sqlController {
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Headers", "Cache-Control");
 
-        Sinks.Many<ServerSentEvent<GraphNodeResponse>> sink = Sinks.many().unicast().onBackpressureBuffer();
+        Sinks.Many<ServerSentEvent<GraphNodeResponse>> sink = sseStreamSupport.newStreamSink();
 
         GraphRequest request = GraphRequest.builder()
                 .agentId(String.valueOf(agent.getId()))
@@ -93,9 +105,15 @@ public class Nl2sqlController {
                 .plainReport(true)
                 .build();
 
-        graphService.graphStreamProcess(sink, request);
+        try {
+            graphService.graphStreamProcess(sink, request);
+        }
+        catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
 
-        return sink.asFlux().filter(sse -> {
+        Flux<ServerSentEvent<GraphNodeResponse>> events = sink.asFlux().filter(sse -> {
             // Pass through complete/error events regardless of text content
             if (STREAM_EVENT_COMPLETE.equals(sse.event()) || STREAM_EVENT_ERROR.equals(sse.event())) {
                 return true;
@@ -117,6 +135,7 @@ public class Nl2sqlController {
                     }
                 })
                 .doOnComplete(() -> log.info("Widget stream completed, sessionId: {}", sessionId));
+        return sseStreamSupport.attach(events, permit);
     }
 
 }
@@ -16,6 +16,7 @@
 package com.audaque.cloud.ai.dataagent.controller;
 
 import com.audaque.cloud.ai.dataagent.service.chat.SessionEventPublisher;
+import com.audaque.cloud.ai.dataagent.service.graph.SseStreamSupport;
 import com.audaque.cloud.ai.dataagent.vo.SessionUpdateEvent;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -38,6 +39,8 @@ public class SessionEventController {
 
 	private final SessionEventPublisher sessionEventPublisher;
 
+	private final SseStreamSupport sseStreamSupport;
+
 	@GetMapping(value = "/agent/{agentId}/sessions/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
 	public Flux<ServerSentEvent<SessionUpdateEvent>> streamSessionUpdates(@PathVariable Integer agentId,
 			HttpServletResponse response) {
@@ -47,10 +50,20 @@ public class SessionEventController {
 		response.setHeader("Connection", "keep-alive");
 		response.setHeader("Access-Control-Allow-Origin", "*");
 
+		SseStreamSupport.Permit permit = sseStreamSupport.tryAcquire();
+		if (permit == null) {
+			// 浏览器 EventSource 会按 retry 指定的时间后自动重连
+			return Flux.just(ServerSentEvent.<SessionUpdateEvent>builder()
+				.comment("too many concurrent streams, retry later")
+				.retry(sseStreamSupport.rejectRetryAfter())
+				.build());
+		}
+
 		log.debug("Client subscribed to session update stream for agent {}", agentId);
-		return sessionEventPublisher.register(agentId)
+		return sseStreamSupport.attach(sessionEventPublisher.register(agentId)
 			.doFinally(
-					signal -> log.debug("Session update stream finished for agent {} with signal {}", agentId, signal));
+					signal -> log.debug("Session update stream finished for agent {} with signal {}", agentId, signal)),
+				permit);
 	}
 
 }
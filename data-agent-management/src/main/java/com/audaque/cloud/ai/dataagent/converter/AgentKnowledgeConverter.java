@@ -39,6 +39,8 @@ public class AgentKnowledgeConverter {
 		vo.setIsRecall(po.getIsRecall() == 1);
 		vo.setEmbeddingStatus(po.getEmbeddingStatus());
 		vo.setErrorMsg(po.getErrorMsg());
+		vo.setChunkCount(po.getChunkCount());
+		vo.setEmbeddedChunkCount(po.getEmbeddedChunkCount());
 		vo.setCreatedTime(po.getCreatedTime());
 		vo.setUpdatedTime(po.getUpdatedTime());
 		vo.setSplitterType(po.getSplitterType());
@@ -24,6 +24,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class IntentRecognitionOutputDTO {
 
+	public static final String CHAT_OR_IRRELEVANT = "《闲聊或无关指令》";
+
+	public static final String POSSIBLE_DATA_ANALYSIS = "《可能的数据分析请求》";
+
 	// 意图分类结果，值为"《闲聊或无关指令》"或"《可能的数据分析请求》"
 	@JsonProperty("classification")
 	private String classification;
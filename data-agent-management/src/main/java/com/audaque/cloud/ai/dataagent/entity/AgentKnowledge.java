@@ -56,6 +56,12 @@ public class AgentKnowledge {
 	// 操作失败的错误信息
 	private String errorMsg;
 
+	// 文档已解析的文本块数
+	private Integer chunkCount;
+
+	// 本次新向量化的文本块数，内容未变化的文本块复用已有向量
+	private Integer embeddedChunkCount;
+
 	private String sourceFilename;
 
 	// 文件路径
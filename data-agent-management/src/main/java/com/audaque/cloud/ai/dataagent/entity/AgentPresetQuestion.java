@@ -15,6 +15,7 @@
  */
 package com.audaque.cloud.ai.dataagent.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -42,6 +43,20 @@ public class AgentPresetQuestion {
 
 	private LocalDateTime updateTime;
 
+	/**
+	 * 预编译的执行计划（包含每个 SQL 步骤已验证的 SQL），首次成功运行后生成
+	 */
+	@JsonIgnore
+	private String planTemplate;
+
+	/**
+	 * 生成执行计划时召回 Schema 的指纹，Schema 变化后计划模板失效
+	 */
+	@JsonIgnore
+	private String planSchemaVersion;
+
+	private LocalDateTime planCompiledTime;
+
 	public AgentPresetQuestion(Long agentId, String question, Integer sortOrder) {
 		this.agentId = agentId;
 		this.question = question;
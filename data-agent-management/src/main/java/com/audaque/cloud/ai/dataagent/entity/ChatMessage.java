@@ -44,4 +44,6 @@ public class ChatMessage {
 
 	private LocalDateTime createTime;
 
+	private Boolean contentOmitted; // 分页列表中内容过大被省略时为 true，需通过单条消息接口获取完整内容
+
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.enums;
+
+/**
+ * 智能体启动初始化的就绪状态
+ */
+public enum AgentReadiness {
+
+	/**
+	 * 等待初始化
+	 */
+	PENDING,
+
+	/**
+	 * 正在初始化 Schema 向量数据
+	 */
+	INITIALIZING,
+
+	/**
+	 * 已就绪，可以处理请求
+	 */
+	READY,
+
+	/**
+	 * 初始化失败，例如没有启用的数据源或未选择表
+	 */
+	FAILED,
+
+	/**
+	 * 不在启动初始化范围内（启动后创建或发布的智能体），不因启动初始化阻止路由
+	 */
+	UNKNOWN
+
+}
@@ -55,15 +55,25 @@ public class AgentKnowledgeEventListener {
 
 		try {
 			// 2. 更新状态为 PROCESSING
+			knowledge.setChunkCount(0);
+			knowledge.setEmbeddedChunkCount(0);
 			updateStatus(knowledge, EmbeddingStatus.PROCESSING, null);
 
-			// 3. 执行核心向量化逻辑
-			agentKnowledgeResourceManager.doEmbedingToVectorStore(knowledge);
-
-			// 4. 更新状态为 COMPLETED
-			updateStatus(knowledge, EmbeddingStatus.COMPLETED, null);
-
-			log.info("Successfully embedded knowledge. Id: {}", id);
+			// 3. 解析文件并提交向量写入，处理过程中定期更新已解析和已向量化的文本块数
+			agentKnowledgeResourceManager
+				.doEmbedingToVectorStore(knowledge,
+						(chunkCount, embeddedCount) -> updateProgress(knowledge, chunkCount, embeddedCount))
+				.whenComplete((result, error) -> {
+					// 4. 向量由后台写入，全部写入后更新状态为 COMPLETED，不占用当前线程等待
+					if (error == null) {
+						updateStatus(knowledge, EmbeddingStatus.COMPLETED, null);
+						log.info("Successfully embedded knowledge. Id: {}", id);
+					}
+					else {
+						log.error("Failed to write knowledge vectors. Id: {}", id, error);
+						updateStatus(knowledge, EmbeddingStatus.FAILED, error.getMessage());
+					}
+				});
 
 		}
 		catch (Exception e) {
@@ -85,6 +95,18 @@ public class AgentKnowledgeEventListener {
 		agentKnowledgeMapper.update(knowledge);
 	}
 
+	private void updateProgress(AgentKnowledge knowledge, int chunkCount, int embeddedCount) {
+		knowledge.setChunkCount(chunkCount);
+		knowledge.setEmbeddedChunkCount(embeddedCount);
+		knowledge.setUpdatedTime(LocalDateTime.now());
+		try {
+			agentKnowledgeMapper.update(knowledge);
+		}
+		catch (Exception e) {
+			log.warn("Failed to update embedding progress. Id: {}, reason: {}", knowledge.getId(), e.getMessage());
+		}
+	}
+
 	@Async("dbOperationExecutor")
 	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
 	public void handleDeletionEvent(AgentKnowledgeDeletionEvent event) {
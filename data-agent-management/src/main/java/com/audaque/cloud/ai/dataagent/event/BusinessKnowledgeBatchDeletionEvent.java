@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * 业务知识批量删除事件，同一智能体的一批知识只清理一次向量数据
+ */
+@Getter
+public class BusinessKnowledgeBatchDeletionEvent extends ApplicationEvent {
+
+    private final Long agentId;
+
+    private final List<Long> knowledgeIds;
+
+    public BusinessKnowledgeBatchDeletionEvent(Object source, Long agentId, List<Long> knowledgeIds) {
+        super(source, Clock.systemDefaultZone());
+        this.agentId = agentId;
+        this.knowledgeIds = List.copyOf(knowledgeIds);
+    }
+
+}
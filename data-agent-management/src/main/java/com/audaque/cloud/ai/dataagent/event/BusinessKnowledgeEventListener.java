@@ -34,6 +34,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 @Slf4j
@@ -66,12 +67,16 @@ public class BusinessKnowledgeEventListener {
             updateStatus(knowledge, EmbeddingStatus.PROCESSING, null);
 
             // 3. 执行向量化逻辑：先删除旧向量，再添加新向量
-            doSyncToVectorStore(knowledge);
-
-            // 4. 更新状态为 COMPLETED
-            updateStatus(knowledge, EmbeddingStatus.COMPLETED, null);
-
-            log.info("Successfully embedded BusinessKnowledge. Id: {}", id);
+            doSyncToVectorStore(knowledge).whenComplete((result, error) -> {
+                // 4. 向量由后台写入，写入后更新状态为 COMPLETED
+                if (error == null) {
+                    updateStatus(knowledge, EmbeddingStatus.COMPLETED, null);
+                    log.info("Successfully embedded BusinessKnowledge. Id: {}", id);
+                } else {
+                    log.error("Failed to write BusinessKnowledge vectors. Id: {}", id, error);
+                    updateStatus(knowledge, EmbeddingStatus.FAILED, error.getMessage());
+                }
+            });
 
         } catch (Exception e) {
             log.error("Failed to embed BusinessKnowledge. Id: {}", id, e);
@@ -109,6 +114,33 @@ public class BusinessKnowledgeEventListener {
         }
     }
 
+    /**
+     * 处理业务知识批量删除事件，按知识ID集合合并为一次向量删除
+     */
+    @Async("dbOperationExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleBatchDeletionEvent(BusinessKnowledgeBatchDeletionEvent event) {
+        String agentId = event.getAgentId().toString();
+        List<Long> ids = event.getKnowledgeIds();
+        log.info("Starting async batch vector cleanup for agentId: {}, count: {}", agentId, ids.size());
+
+        try {
+            agentVectorStoreService
+                .deleteDocumentsByMetadataIn(agentId,
+                        Map.of(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.BUSINESS_TERM),
+                        DocumentMetadataConstant.DB_BUSINESS_TERM_ID, ids)
+                .whenComplete((result, error) -> {
+                    if (error == null) {
+                        log.info("Batch vector cleanup completed for agentId: {}, count: {}", agentId, ids.size());
+                    } else {
+                        log.error("Batch vector cleanup failed for agentId: {}", agentId, error);
+                    }
+                });
+        } catch (Exception e) {
+            log.error("Exception during async batch vector cleanup for agentId: {}", agentId, e);
+        }
+    }
+
     /**
      * 更新业务知识状态
      */
@@ -127,15 +159,13 @@ public class BusinessKnowledgeEventListener {
     /**
      * 同步到向量库：先删除旧向量，再添加新向量
      */
-    private void doSyncToVectorStore(BusinessKnowledge knowledge) {
+    private CompletableFuture<Void> doSyncToVectorStore(BusinessKnowledge knowledge) {
         // 先删除旧的向量数据
         doDelVector(knowledge);
 
-        // 添加新的向量数据
+        // 添加新的向量数据，删除和添加按提交顺序写入向量库
         Document newDocument = DocumentConverterUtil.convertBusinessKnowledgeToDocument(knowledge);
-        agentVectorStoreService.addDocuments(knowledge.getAgentId().toString(), List.of(newDocument));
-
-        log.info("Successfully synced BusinessKnowledge to vector store. Id: {}", knowledge.getId());
+        return agentVectorStoreService.addDocuments(knowledge.getAgentId().toString(), List.of(newDocument));
     }
 
     /**
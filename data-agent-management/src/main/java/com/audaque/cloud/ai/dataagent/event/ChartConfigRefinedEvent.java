@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.event;
+
+import com.audaque.cloud.ai.dataagent.bo.schema.DisplayStyleBO;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.Clock;
+
+/**
+ * SQL 结果图表配置经大模型异步修正后发布的事件，由流式服务推送给对应会话的前端
+ */
+@Getter
+public class ChartConfigRefinedEvent extends ApplicationEvent {
+
+    private final String agentId;
+
+    private final String threadId;
+
+    private final String resultId;
+
+    private final DisplayStyleBO displayStyle;
+
+    public ChartConfigRefinedEvent(Object source, String agentId, String threadId, String resultId,
+            DisplayStyleBO displayStyle) {
+        super(source, Clock.systemDefaultZone());
+        this.agentId = agentId;
+        this.threadId = threadId;
+        this.resultId = resultId;
+        this.displayStyle = displayStyle;
+    }
+
+}
@@ -19,6 +19,7 @@ import com.audaque.cloud.ai.dataagent.dto.agent.PresetQuestionQueryDTO;
 import com.audaque.cloud.ai.dataagent.entity.AgentPresetQuestion;
 import org.apache.ibatis.annotations.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -47,8 +48,10 @@ public interface AgentPresetQuestionMapper {
 	AgentPresetQuestion selectById(@Param("id") Long id);
 
 	@Insert("""
-			INSERT INTO agent_preset_question (agent_id, question, sort_order, is_active, is_delete, create_time, update_time)
-			VALUES (#{agentId}, #{question}, #{sortOrder}, #{isActive}, #{isDelete}, #{createTime}, #{updateTime})
+			INSERT INTO agent_preset_question (agent_id, question, sort_order, is_active, is_delete, create_time, update_time,
+			                                   plan_template, plan_schema_version, plan_compiled_time)
+			VALUES (#{agentId}, #{question}, #{sortOrder}, #{isActive}, #{isDelete}, #{createTime}, #{updateTime},
+			        #{planTemplate}, #{planSchemaVersion}, #{planCompiledTime})
 			""")
 	@Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
 	int insert(AgentPresetQuestion question);
@@ -68,6 +71,29 @@ public interface AgentPresetQuestionMapper {
 			""")
 	int update(AgentPresetQuestion question);
 
+	/**
+	 * Save the precompiled plan template of a preset question
+	 */
+	@Update("""
+			UPDATE agent_preset_question
+			SET plan_template = #{planTemplate}, plan_schema_version = #{planSchemaVersion},
+			    plan_compiled_time = #{planCompiledTime}
+			WHERE id = #{id}
+			""")
+	int updatePlanTemplate(@Param("id") Long id, @Param("planTemplate") String planTemplate,
+			@Param("planSchemaVersion") String planSchemaVersion,
+			@Param("planCompiledTime") LocalDateTime planCompiledTime);
+
+	/**
+	 * Clear the precompiled plan template of a preset question
+	 */
+	@Update("""
+			UPDATE agent_preset_question
+			SET plan_template = NULL, plan_schema_version = NULL, plan_compiled_time = NULL
+			WHERE id = #{id}
+			""")
+	int clearPlanTemplate(@Param("id") Long id);
+
 	/**
 	 * Logical delete by id
 	 */
@@ -107,6 +107,16 @@ public interface BusinessKnowledgeMapper {
 			""")
 	List<Long> selectRecalledKnowledgeIds(@Param("agentId") Long agentId);
 
+	/**
+	 * Query recalled business knowledge of an agent, used to rebuild its vectors
+	 */
+	@Select("""
+			SELECT * FROM business_knowledge
+			WHERE agent_id = #{agentId} AND is_recall = 1 AND is_deleted = 0
+			ORDER BY id
+			""")
+	List<BusinessKnowledge> selectRecalledByAgentId(@Param("agentId") Long agentId);
+
 	@Update("""
 			UPDATE business_knowledge
 			SET is_deleted = #{isDeleted}, updated_time = #{updatedTime}
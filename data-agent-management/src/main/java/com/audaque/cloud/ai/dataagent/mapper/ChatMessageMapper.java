@@ -33,6 +33,28 @@ public interface ChatMessageMapper {
 			""")
 	List<ChatMessage> selectBySessionId(@Param("sessionId") String sessionId);
 
+	/**
+	 * Keyset page query by session ID. Without cursors returns the latest messages in
+	 * descending id order; with beforeId returns older messages in descending order; with
+	 * afterId returns newer messages in ascending order. Content longer than
+	 * maxContentLength is omitted and flagged by content_omitted.
+	 */
+	@Select("""
+			<script>
+			SELECT id, session_id, role, message_type, metadata, create_time,
+			CASE WHEN LENGTH(content) &gt; #{maxContentLength} THEN NULL ELSE content END AS content,
+			CASE WHEN LENGTH(content) &gt; #{maxContentLength} THEN 1 ELSE 0 END AS content_omitted
+			FROM chat_message
+			WHERE session_id = #{sessionId}
+			<if test="beforeId != null">AND id &lt; #{beforeId}</if>
+			<if test="afterId != null">AND id &gt; #{afterId}</if>
+			ORDER BY id <choose><when test="afterId != null">ASC</when><otherwise>DESC</otherwise></choose>
+			LIMIT #{limit}
+			</script>
+			""")
+	List<ChatMessage> selectPageBySessionId(@Param("sessionId") String sessionId, @Param("beforeId") Long beforeId,
+			@Param("afterId") Long afterId, @Param("limit") int limit, @Param("maxContentLength") int maxContentLength);
+
 	/**
 	 * Query by id
 	 */
@@ -32,6 +32,15 @@ public interface ConversationTurnMapper {
         @Options(useGeneratedKeys = true, keyProperty = "id")
         int insert(ConversationTurn conversationTurn);
 
+        /**
+         * 批量插入对话记录
+         */
+        @Insert("<script>INSERT INTO conversation_turn (thread_id, user_question, plan, create_time, update_time, sequence_number) VALUES "
+                        + "<foreach collection='turns' item='turn' separator=','>"
+                        + "(#{turn.threadId}, #{turn.userQuestion}, #{turn.plan}, #{turn.createTime}, #{turn.updateTime}, #{turn.sequenceNumber})"
+                        + "</foreach></script>")
+        int insertBatch(@Param("turns") List<ConversationTurn> turns);
+
         /**
          * 根据线程ID查询对话历史
          */
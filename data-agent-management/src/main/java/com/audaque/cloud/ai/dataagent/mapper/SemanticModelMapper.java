@@ -19,6 +19,8 @@ import com.audaque.cloud.ai.dataagent.dto.semantic.SemanticModelQueryDTO;
 import com.audaque.cloud.ai.dataagent.entity.SemanticModel;
 import org.apache.ibatis.annotations.*;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -92,6 +94,20 @@ public interface SemanticModelMapper {
 			""")
 	List<SemanticModel> selectEnabledByAgentId(@Param("agentId") Long agentId);
 
+	/**
+	 * Query enabled semantic models of an agent under the given datasource
+	 */
+	@Select("""
+			SELECT * FROM semantic_model
+			WHERE agent_id = #{agentId}
+			  AND datasource_id = #{datasourceId}
+			  AND status = 1
+			  AND is_deleted = 0
+			ORDER BY created_time DESC
+			""")
+	List<SemanticModel> selectEnabledByAgentIdAndDatasourceId(@Param("agentId") Long agentId,
+			@Param("datasourceId") Integer datasourceId);
+
 	@Insert("""
 			INSERT INTO semantic_model
 			(agent_id, datasource_id, table_name, column_name, business_name, synonyms, business_description, column_comment, data_type, created_time, updated_time, status, is_deleted)
@@ -175,6 +191,70 @@ public interface SemanticModelMapper {
 	SemanticModel selectByAgentIdAndTableNameAndColumnName(@Param("agentId") Integer agentId,
 			@Param("tableName") String tableName, @Param("columnName") String columnName);
 
+	/**
+	 * Query semantic models of an agent for the given tables, used to look up existing keys once per import chunk
+	 */
+	@Select("""
+			<script>
+			SELECT * FROM semantic_model
+			WHERE agent_id = #{agentId}
+			  AND is_deleted = 0
+			  AND table_name IN
+			  <foreach item='tableName' collection='tableNames' open='(' separator=',' close=')'>
+			    #{tableName}
+			  </foreach>
+			ORDER BY id
+			</script>
+			""")
+	List<SemanticModel> selectByAgentIdAndTableNames(@Param("agentId") Integer agentId,
+			@Param("tableNames") Collection<String> tableNames);
+
+	/**
+	 * Multi-row insert
+	 */
+	@Insert("""
+			<script>
+			INSERT INTO semantic_model
+			(agent_id, datasource_id, table_name, column_name, business_name, synonyms, business_description, column_comment, data_type, created_time, updated_time, status, is_deleted)
+			VALUES
+			<foreach collection="models" item="m" separator=",">
+			(#{m.agentId}, #{m.datasourceId}, #{m.tableName}, #{m.columnName}, #{m.businessName}, #{m.synonyms,jdbcType=VARCHAR}, #{m.businessDescription,jdbcType=VARCHAR}, #{m.columnComment,jdbcType=VARCHAR}, #{m.dataType}, #{m.createdTime}, #{m.updatedTime}, #{m.status}, #{m.isDeleted})
+			</foreach>
+			</script>
+			""")
+	int batchInsert(@Param("models") List<SemanticModel> models);
+
+	/**
+	 * Update the imported fields of several rows in one statement
+	 */
+	@Update("""
+			<script>
+			UPDATE semantic_model
+			SET business_name = CASE id
+			    <foreach collection="models" item="m">WHEN #{m.id} THEN #{m.businessName,jdbcType=VARCHAR} </foreach>
+			    END,
+			  synonyms = CASE id
+			    <foreach collection="models" item="m">WHEN #{m.id} THEN #{m.synonyms,jdbcType=VARCHAR} </foreach>
+			    END,
+			  business_description = CASE id
+			    <foreach collection="models" item="m">WHEN #{m.id} THEN #{m.businessDescription,jdbcType=VARCHAR} </foreach>
+			    END,
+			  column_comment = CASE id
+			    <foreach collection="models" item="m">WHEN #{m.id} THEN #{m.columnComment,jdbcType=VARCHAR} </foreach>
+			    END,
+			  data_type = CASE id
+			    <foreach collection="models" item="m">WHEN #{m.id} THEN #{m.dataType,jdbcType=VARCHAR} </foreach>
+			    END,
+			  updated_time = #{updatedTime}
+			WHERE id IN
+			<foreach collection="models" item="m" open="(" separator="," close=")">
+				#{m.id}
+			</foreach>
+			</script>
+			""")
+	int batchUpdateImportedFields(@Param("models") List<SemanticModel> models,
+			@Param("updatedTime") LocalDateTime updatedTime);
+
 	/**
 	 * Page query semantic models with filters
 	 */
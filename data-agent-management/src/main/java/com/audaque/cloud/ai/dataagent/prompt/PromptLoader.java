@@ -27,6 +27,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Prompt loader, used to load prompt templates from file system
@@ -84,6 +85,11 @@ public class PromptLoader {
 
 	private static final ConcurrentHashMap<String, String> promptCache = new ConcurrentHashMap<>();
 
+	/**
+	 * 模板版本号，每次清空或重新加载模板时递增，供依赖模板内容的缓存判断是否失效
+	 */
+	private static final AtomicLong version = new AtomicLong();
+
 	/**
 	 * Load prompt template from file
 	 * 加载顺序:
@@ -162,6 +168,7 @@ public class PromptLoader {
 	public static void clearCache() {
 		int cacheSize = promptCache.size();
 		promptCache.clear();
+		version.incrementAndGet();
 		log.info("Prompt cache cleared, {} prompts removed", cacheSize);
 	}
 	
@@ -171,9 +178,18 @@ public class PromptLoader {
 	 */
 	public static void reloadPrompt(String promptName) {
 		promptCache.remove(promptName);
+		version.incrementAndGet();
 		log.info("Prompt '{}' cache cleared, will reload on next access", promptName);
 	}
 
+	/**
+	 * Get template version, increased whenever prompts are cleared or reloaded
+	 * @return current template version
+	 */
+	public static long getVersion() {
+		return version.get();
+	}
+
 	/**
 	 * Get cache size
 	 * @return number of prompts in cache
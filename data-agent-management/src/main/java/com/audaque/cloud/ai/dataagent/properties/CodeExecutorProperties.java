@@ -20,6 +20,9 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.audaque.cloud.ai.dataagent.constant.Constant.PROJECT_PROPERTIES_PREFIX;
 
 /**
@@ -55,9 +58,27 @@ public class CodeExecutorProperties {
 
 	/**
 	 * Task blocking queue size
+	 * @deprecated 任务提交改为非阻塞的按智能体排队，使用 {@link #maxPendingTasks} 与
+	 * {@link #maxPendingTasksPerAgent}
 	 */
+	@Deprecated
 	Integer taskQueueSize = 5;
 
+	/**
+	 * 等待容器的最大任务数，超过后新任务直接返回失败
+	 */
+	Integer maxPendingTasks = 100;
+
+	/**
+	 * 单个智能体等待容器的最大任务数，避免单个智能体占满队列
+	 */
+	Integer maxPendingTasksPerAgent = 20;
+
+	/**
+	 * 任务等待容器的最长时间，单位秒，超时后返回失败，0表示不限制
+	 */
+	Long taskQueueTimeoutSeconds = 300L;
+
 	/**
 	 * Maximum number of core containers
 	 */
@@ -118,16 +139,41 @@ public class CodeExecutorProperties {
 	 */
 	String networkMode = "none";
 
+	/**
+	 * 是否在启动时及容器回收后于后台预先创建核心容器
+	 */
+	Boolean prewarmContainers = true;
+
+	/**
+	 * 单个容器最多执行的任务数，达到后回收并在后台补充，0表示不限制
+	 */
+	Integer maxExecutionsPerContainer = 200;
+
+	/**
+	 * 空闲核心容器健康检查间隔，单位秒
+	 */
+	Long healthCheckIntervalSeconds = 60L;
+
 	/**
 	 * Python执行的最大重试次数
 	 */
 	Integer pythonMaxTriesCount = 5;
 
+	/**
+	 * 结果集行数不超过该值时，除列式数据文件外同时通过stdin传递JSON
+	 */
+	Integer maxStdinJsonRows = 1000;
+
 	/**
 	 * Local执行器相关配置
 	 */
 	private Local local = new Local();
 
+	/**
+	 * 按requirements缓存的Python依赖环境配置
+	 */
+	private EnvCache envCache = new EnvCache();
+
 	@Getter
 	@Setter
 	public static class Local {
@@ -136,6 +182,70 @@ public class CodeExecutorProperties {
 		 * 用于等待Python进程stdout/stderr输出完成的时间
 		 */
 		private Integer outputReadTimeoutMs = 2000;
+
+		/**
+		 * 是否启用常驻Python Worker池，关闭后每个任务单独启动一个Python进程
+		 */
+		private Boolean enableWorkerPool = true;
+
+		/**
+		 * Worker启动时预加载的模块，导入失败的模块会被忽略
+		 */
+		private List<String> preloadModules = new ArrayList<>(List.of("pandas", "numpy", "matplotlib"));
+
+		/**
+		 * 单个Worker最多执行的任务数，达到后回收重建，避免全局状态和内存碎片累积
+		 */
+		private Integer maxTasksPerWorker = 100;
+
+		/**
+		 * Worker进程峰值常驻内存上限（MB），超过后回收重建
+		 */
+		private Integer maxWorkerMemoryMb = 1024;
+
+		/**
+		 * 等待Worker启动并完成预加载的超时时间（毫秒）
+		 */
+		private Long workerStartTimeoutMs = 60000L;
+	}
+
+	@Getter
+	@Setter
+	public static class EnvCache {
+		/**
+		 * 是否启用依赖环境缓存，关闭后每次执行都会重新pip install
+		 */
+		private Boolean enabled = true;
+
+		/**
+		 * 环境缓存目录
+		 */
+		private String cacheDir = System.getProperty("java.io.tmpdir") + "/dataagent-python-envs";
+
+		/**
+		 * 本地wheel包目录，配置后以离线方式（--no-index --find-links）安装依赖
+		 */
+		private String wheelhouseDir;
+
+		/**
+		 * 最多缓存的环境数量，超过后按最近使用时间淘汰
+		 */
+		private Integer maxEnvironments = 20;
+
+		/**
+		 * 环境缓存的最大磁盘占用（MB），超过后按最近使用时间淘汰
+		 */
+		private Long maxSizeMb = 4096L;
+
+		/**
+		 * 单个环境的构建超时时间（秒）
+		 */
+		private Long buildTimeoutSeconds = 600L;
+
+		/**
+		 * 环境构建失败后的记录时间（秒），期间相同依赖直接失败并退化为每次执行前pip install，不再重复构建
+		 */
+		private Long failureTtlSeconds = 300L;
 	}
 
 }
@@ -21,6 +21,11 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Getter
 @Setter
 @ConfigurationProperties(prefix = Constant.PROJECT_PROPERTIES_PREFIX)
@@ -45,6 +50,12 @@ public class DataAgentProperties {
 
 	private ReportTemplate reportTemplate = new ReportTemplate();
 
+	private SseProperties sse = new SseProperties();
+
+	private FastPathProperties fastPath = new FastPathProperties();
+
+	private QueryResultCacheProperties queryResultCache = new QueryResultCacheProperties();
+
 	/**
 	 * sql执行失败重试次数
 	 */
@@ -94,14 +105,84 @@ public class DataAgentProperties {
 	 */
 	private int maxplanlength = 2000;
 
+	/**
+	 * 内存中最多缓存的多轮对话线程数，超出后按最近最少使用淘汰，再次访问时从数据库重新加载
+	 */
+	private int maxCachedTurnThreads = 10000;
+
+	/**
+	 * 多轮对话线程在内存中的空闲过期时间，单位分钟
+	 */
+	private int turnCacheIdleMinutes = 30;
+
+	/**
+	 * 进行中轮次的空闲过期时间，单位分钟；等待人工复核计划的轮次可能长时间没有新输出，需长于线程历史的过期时间
+	 */
+	private int pendingTurnIdleMinutes = 1440;
+
+	/**
+	 * 多轮对话记录异步落库的单批最大条数
+	 */
+	private int turnWriteBatchSize = 50;
+
+	/**
+	 * 分页加载会话消息时内联返回的最大内容长度，超出的消息只返回元信息，需单独请求完整内容
+	 */
+	private int maxInlineMessageContentLength = 16384;
+
+	/**
+	 * 分页加载会话消息的单页最大条数
+	 */
+	private int maxMessagePageSize = 200;
+
 	// 每张表的最大预估列数
 	private int maxColumnsPerTable = 50;
 
+	/**
+	 * 启动时并行初始化已发布智能体的最大并发数
+	 */
+	private int agentInitParallelism = 8;
+
+	/**
+	 * 启动时同一数据源最多同时初始化的智能体数，避免同时读取大量表结构压垮业务库
+	 */
+	private int agentInitParallelismPerDatasource = 2;
+
+	/**
+	 * 是否在意图识别的同时投机执行证据召回和Schema预热，默认启用
+	 */
+	private boolean enableSpeculativeRecall = true;
+
+	/**
+	 * 是否缓存意图识别和证据查询重写的大模型输出，相同智能体、模板版本、多轮上下文下的相同问题直接复用
+	 */
+	private boolean enablePromptResponseCache = true;
+
+	/**
+	 * 意图识别和查询重写输出缓存的最大条目数，超出后按最近最少使用淘汰
+	 */
+	private int promptResponseCacheSize = 2000;
+
+	/**
+	 * 意图识别和查询重写输出缓存的过期时间，单位分钟
+	 */
+	private int promptResponseCacheTtlMinutes = 60;
+
+	/**
+	 * 是否为预设问题预编译执行计划：首次成功运行后保存计划和各步骤已验证的SQL，之后完全相同的问题直接复用，跳过规划、SQL生成和语义校验
+	 */
+	private boolean enablePresetPlanTemplate = true;
+
 	/**
 	 * 是否启用SQL执行结果图表判断，默认启用
 	 */
 	private boolean enableSqlResultChart = true;
 
+	/**
+	 * 是否在规则推荐的图表配置之外，再异步调用大模型修正图表配置，默认启用
+	 */
+	private boolean enableSqlResultChartLlmRefine = true;
+
 	/**
 	 * 执行SQL结果图表化超时时间，默认3000ms
 	 */
@@ -223,6 +304,149 @@ public class DataAgentProperties {
 		 */
 		private double elasticsearchMinScore = 0.5;
 
+		/**
+		 * 向量写入预写日志目录，支持相对路径（相对于应用启动目录）
+		 */
+		private String writeAheadLogDir = "data/vector-wal";
+
+		/**
+		 * 预写日志单个分段文件的大小上限（字节）
+		 */
+		private long writeAheadLogSegmentBytes = 64L * 1024 * 1024;
+
+		/**
+		 * 后台写入时合并的相邻同类操作的最大文档数
+		 */
+		private int writeBatchSize = 500;
+
+		/**
+		 * 单个写操作的最大尝试次数，超过后转入死信文件
+		 */
+		private int writeMaxAttempts = 5;
+
+		/**
+		 * 写入失败后的退避时间（毫秒），按尝试次数线性增长
+		 */
+		private long writeRetryBackoffMs = 2000;
+
+		/**
+		 * 读操作等待本智能体未完成写入的最长时间（毫秒），超时后读取可能不包含最新写入
+		 */
+		private long readYourWritesTimeoutMs = 10000;
+
+		/**
+		 * Milvus 定时 flush 的间隔（毫秒），小于等于 0 时只按写入数触发
+		 */
+		private long flushIntervalMs = 10000;
+
+		/**
+		 * 距上次 flush 累计写入的操作数达到该值时立即 flush
+		 */
+		private int flushBatchSize = 2000;
+
+	}
+
+	@Getter
+	@Setter
+	public static class FastPathProperties {
+
+		/**
+		 * 是否在意图识别和可行性评估之前使用本地规则快速分类，无法确定时仍调用大模型
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * 除内置问候语外，额外判定为闲聊的完整语句（规范化后完全相同才命中）
+		 */
+		private List<String> chatPhrases = new ArrayList<>();
+
+		/**
+		 * 按智能体ID配置的数据分析关键词，问题中包含任一关键词时直接判定为数据分析请求
+		 */
+		private Map<String, List<String>> agentDataKeywords = new HashMap<>();
+
+		/**
+		 * 与启用的预设问题的相似度达到该阈值时视为预设问题，同时跳过意图识别和可行性评估的大模型调用
+		 */
+		private double presetSimilarityThreshold = 0.9;
+
+	}
+
+	@Getter
+	@Setter
+	public static class QueryResultCacheProperties {
+
+		/**
+		 * 启用查询结果缓存的数据源ID，默认为空即不缓存；只缓存只读查询
+		 */
+		private List<Integer> datasourceIds = new ArrayList<>();
+
+		/**
+		 * 缓存结果的有效期（秒）
+		 */
+		private int ttlSeconds = 300;
+
+		/**
+		 * 最多缓存的结果数，超出后按最近最少使用淘汰
+		 */
+		private int maxEntries = 500;
+
+		/**
+		 * 全部缓存结果估算占用的最大字节数
+		 */
+		private long maxTotalBytes = 64L * 1024 * 1024;
+
+		/**
+		 * 单个结果估算占用超过该字节数时不缓存
+		 */
+		private long maxEntryBytes = 4L * 1024 * 1024;
+
+	}
+
+	@Getter
+	@Setter
+	public static class SseProperties {
+
+		/**
+		 * 全局最多同时保持的 SSE 连接数（问答流与会话更新流合计），超出后拒绝新连接
+		 */
+		private int maxConnections = 1000;
+
+		/**
+		 * 单个问答流在服务端最多缓冲的事件数，客户端消费过慢时先合并文本片段，再阻塞推送
+		 */
+		private int streamBufferSize = 256;
+
+		/**
+		 * 缓冲区已满时合并的连续文本片段的最大长度（字符）
+		 */
+		private int maxCoalescedTextLength = 64 * 1024;
+
+		/**
+		 * 缓冲区已满时推送关键事件的最长等待时间（毫秒），超时后视为客户端失联并停止处理
+		 */
+		private long emitTimeoutMs = 10000;
+
+		/**
+		 * 心跳间隔（秒），以 SSE 注释行发送，避免代理因空闲断开连接
+		 */
+		private int heartbeatIntervalSeconds = 15;
+
+		/**
+		 * 每个会话更新流订阅者最多缓冲的事件数，超出后丢弃最旧的事件
+		 */
+		private int sessionEventBufferSize = 32;
+
+		/**
+		 * 无订阅者的会话更新 Sink 保留时间（分钟），超时后回收
+		 */
+		private int sessionSinkIdleMinutes = 10;
+
+		/**
+		 * 拒绝连接时建议客户端重连的等待时间（秒）
+		 */
+		private int rejectRetrySeconds = 30;
+
 	}
 
 	@Getter
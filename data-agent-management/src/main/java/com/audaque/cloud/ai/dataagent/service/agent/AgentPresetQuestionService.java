@@ -64,6 +64,12 @@ public interface AgentPresetQuestionService {
 	 */
 	void batchSave(Long agentId, List<AgentPresetQuestion> questions);
 
+	/**
+	 * Clear the precompiled plan template of a preset question, it is compiled again
+	 * after the next successful run
+	 */
+	void clearPlanTemplate(Long id);
+
 	/**
 	 * Page query preset questions with filters
 	 */
@@ -20,6 +20,7 @@ import com.audaque.cloud.ai.dataagent.dto.agent.BatchUpdateStatusDTO;
 import com.audaque.cloud.ai.dataagent.dto.agent.PresetQuestionQueryDTO;
 import com.audaque.cloud.ai.dataagent.entity.AgentPresetQuestion;
 import com.audaque.cloud.ai.dataagent.mapper.AgentPresetQuestionMapper;
+import com.audaque.cloud.ai.dataagent.util.QuestionTextUtil;
 import com.audaque.cloud.ai.dataagent.vo.PageResult;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +28,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * AgentPresetQuestion Service Implementation
@@ -39,6 +42,8 @@ public class AgentPresetQuestionServiceImpl implements AgentPresetQuestionServic
 
 	private final AgentPresetQuestionMapper agentPresetQuestionMapper;
 
+	private final PresetQuestionIndex presetQuestionIndex;
+
 	@Override
 	public List<AgentPresetQuestion> findByAgentId(Long agentId) {
 		log.debug("Finding preset questions for agentId: {}", agentId);
@@ -80,6 +85,7 @@ public class AgentPresetQuestionServiceImpl implements AgentPresetQuestionServic
 		question.setUpdateTime(now);
 
 		agentPresetQuestionMapper.insert(question);
+		presetQuestionIndex.invalidate(question.getAgentId());
 		log.info("Successfully created preset question with id: {} for agentId: {}",
 				question.getId(), question.getAgentId());
 		return question;
@@ -88,15 +94,26 @@ public class AgentPresetQuestionServiceImpl implements AgentPresetQuestionServic
 	@Override
 	public void update(Long id, AgentPresetQuestion question) {
 		log.info("Updating preset question id: {} for agentId: {}", id, question.getAgentId());
+		AgentPresetQuestion existing = agentPresetQuestionMapper.selectById(id);
 		question.setId(id);
 		question.setUpdateTime(LocalDateTime.now());
 		agentPresetQuestionMapper.update(question);
+		if (existing != null) {
+			// 问题内容变化后原有的预编译计划不再适用
+			if (question.getQuestion() != null && existing.getPlanTemplate() != null && !QuestionTextUtil
+				.normalize(question.getQuestion())
+				.equals(QuestionTextUtil.normalize(existing.getQuestion()))) {
+				agentPresetQuestionMapper.clearPlanTemplate(id);
+			}
+			presetQuestionIndex.invalidate(existing.getAgentId());
+		}
 		log.info("Successfully updated preset question id: {}", id);
 	}
 
 	@Override
 	public void deleteById(Long id) {
 		log.info("Deleting preset question id: {}", id);
+		invalidateIndexOf(id);
 		agentPresetQuestionMapper.deleteById(id);
 		log.info("Successfully deleted preset question id: {}", id);
 	}
@@ -105,6 +122,7 @@ public class AgentPresetQuestionServiceImpl implements AgentPresetQuestionServic
 	public void deleteByAgentId(Long agentId) {
 		log.info("Deleting all preset questions for agentId: {}", agentId);
 		agentPresetQuestionMapper.deleteByAgentId(agentId);
+		presetQuestionIndex.invalidate(agentId);
 		log.info("Successfully deleted all preset questions for agentId: {}", agentId);
 	}
 
@@ -112,6 +130,14 @@ public class AgentPresetQuestionServiceImpl implements AgentPresetQuestionServic
 	public void batchSave(Long agentId, List<AgentPresetQuestion> questions) {
 		log.info("Batch saving {} preset questions for agentId: {}", questions != null ? questions.size() : 0, agentId);
 
+		// 内容未变的问题沿用原有的预编译计划
+		Map<String, AgentPresetQuestion> compiled = new HashMap<>();
+		for (AgentPresetQuestion existing : agentPresetQuestionMapper.selectAllByAgentId(agentId)) {
+			if (existing.getPlanTemplate() != null) {
+				compiled.put(QuestionTextUtil.normalize(existing.getQuestion()), existing);
+			}
+		}
+
 		// Step 1: Logical delete all existing preset questions for the agent
 		deleteByAgentId(agentId);
 
@@ -135,12 +161,33 @@ public class AgentPresetQuestionServiceImpl implements AgentPresetQuestionServic
 				if (question.getIsDelete() == null) {
 					question.setIsDelete(false);
 				}
+				AgentPresetQuestion previous = question.getQuestion() == null ? null
+						: compiled.get(QuestionTextUtil.normalize(question.getQuestion()));
+				if (previous != null) {
+					question.setPlanTemplate(previous.getPlanTemplate());
+					question.setPlanSchemaVersion(previous.getPlanSchemaVersion());
+					question.setPlanCompiledTime(previous.getPlanCompiledTime());
+				}
 				create(question);
 			}
 		}
 		log.info("Successfully batch saved preset questions for agentId: {}", agentId);
 	}
 
+	@Override
+	public void clearPlanTemplate(Long id) {
+		log.info("Clearing plan template of preset question id: {}", id);
+		agentPresetQuestionMapper.clearPlanTemplate(id);
+		invalidateIndexOf(id);
+	}
+
+	private void invalidateIndexOf(Long id) {
+		AgentPresetQuestion existing = agentPresetQuestionMapper.selectById(id);
+		if (existing != null) {
+			presetQuestionIndex.invalidate(existing.getAgentId());
+		}
+	}
+
 	@Override
 	public PageResult<AgentPresetQuestion> queryByConditionsWithPage(PresetQuestionQueryDTO queryDTO) {
 		log.info("Page query preset questions: agentId={}, pageNum={}, pageSize={}, keyword={}, isActive={}",
@@ -202,6 +249,7 @@ public class AgentPresetQuestionServiceImpl implements AgentPresetQuestionServic
 
 		try {
 			int deletedCount = agentPresetQuestionMapper.batchDeleteByIds(deleteDTO.getAgentId(), deleteDTO.getIds());
+			presetQuestionIndex.invalidate(deleteDTO.getAgentId());
 			log.info("Successfully deleted {} preset questions", deletedCount);
 			return deletedCount > 0;
 		} catch (Exception e) {
@@ -232,6 +280,7 @@ public class AgentPresetQuestionServiceImpl implements AgentPresetQuestionServic
 					updateStatusDTO.getAgentId(),
 					updateStatusDTO.getIds(),
 					updateStatusDTO.getIsActive());
+			presetQuestionIndex.invalidate(updateStatusDTO.getAgentId());
 			log.info("Successfully updated {} preset questions status to {}", updatedCount,
 					updateStatusDTO.getIsActive());
 			return updatedCount > 0;
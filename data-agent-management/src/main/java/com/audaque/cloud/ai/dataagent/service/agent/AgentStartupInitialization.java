@@ -17,6 +17,8 @@ package com.audaque.cloud.ai.dataagent.service.agent;
 
 import com.audaque.cloud.ai.dataagent.entity.Agent;
 import com.audaque.cloud.ai.dataagent.entity.AgentDatasource;
+import com.audaque.cloud.ai.dataagent.enums.AgentReadiness;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
 import com.audaque.cloud.ai.dataagent.service.datasource.AgentDatasourceService;
 import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
 import lombok.RequiredArgsConstructor;
@@ -26,9 +28,16 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -43,6 +52,15 @@ public class AgentStartupInitialization implements ApplicationRunner, Disposable
 
 	private final ExecutorService executorService;
 
+	private final DataAgentProperties dataAgentProperties;
+
+	/**
+	 * 启动时已发布智能体的就绪状态，未初始化完成前也可以据此决定是否将流量路由到该智能体
+	 */
+	private final Map<Long, AgentReadiness> readiness = new ConcurrentHashMap<>();
+
+	private volatile boolean completed = false;
+
 	@Override
 	public void run(ApplicationArguments args) {
 		log.info("Starting automatic initialization of published agents...");
@@ -51,6 +69,7 @@ public class AgentStartupInitialization implements ApplicationRunner, Disposable
 			// 因为异步可以让初始化过程在后台运行，不会阻塞Spring启动主线程，提高启动速度和响应性；即使初始化很耗时也不会影响主程序正常启动。
 			CompletableFuture.runAsync(this::initializePublishedAgents, executorService).exceptionally(throwable -> {
 				log.error("Error during agent initialization: {}", throwable.getMessage());
+				completed = true;
 				return null;
 			});
 
@@ -60,10 +79,41 @@ public class AgentStartupInitialization implements ApplicationRunner, Disposable
 		}
 	}
 
+	/**
+	 * 获取智能体的就绪状态
+	 */
+	public AgentReadiness getReadiness(Long agentId) {
+		return agentId == null ? AgentReadiness.UNKNOWN : readiness.getOrDefault(agentId, AgentReadiness.UNKNOWN);
+	}
+
+	/**
+	 * 启动初始化是否已全部结束
+	 */
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	/**
+	 * 所有启动初始化智能体的就绪状态
+	 */
+	public Map<Long, AgentReadiness> getReadinessSnapshot() {
+		return Map.copyOf(readiness);
+	}
+
+	/**
+	 * 按就绪状态统计智能体数量
+	 */
+	public Map<AgentReadiness, Integer> getReadinessCounts() {
+		Map<AgentReadiness, Integer> counts = new EnumMap<>(AgentReadiness.class);
+		readiness.values().forEach(status -> counts.merge(status, 1, Integer::sum));
+		return counts;
+	}
+
 	/**
 	 * Initialize all published agents
 	 */
 	private void initializePublishedAgents() {
+		ExecutorService initExecutor = null;
 		try {
 			List<Agent> publishedAgents = agentService.findByStatus("published");
 
@@ -73,75 +123,120 @@ public class AgentStartupInitialization implements ApplicationRunner, Disposable
 			}
 
 			log.info("Found {} published agents, starting initialization...", publishedAgents.size());
-
-			int successCount = 0;
-			int failureCount = 0;
-
-			for (Agent agent : publishedAgents) {
-				try {
-					boolean initialized = initializeAgentDataSource(agent);
-					if (initialized) {
-						successCount++;
-						log.info("Successfully initialized agent: {} (ID: {})", agent.getName(), agent.getId());
-					}
-					else {
-						failureCount++;
-						log.warn("Failed to initialize agent: {} (ID: {}) - no active datasource or tables",
-								agent.getName(), agent.getId());
-					}
-				}
-				catch (Exception e) {
-					failureCount++;
-					log.error("Error initializing agent: {} (ID: {}, reason: {})", agent.getName(), agent.getId(),
-							e.getMessage());
+			long start = System.currentTimeMillis();
+			publishedAgents.forEach(agent -> readiness.put(agent.getId(), AgentReadiness.PENDING));
+
+			int parallelism = Math.max(1, dataAgentProperties.getAgentInitParallelism());
+			AtomicInteger threadIndex = new AtomicInteger();
+			initExecutor = Executors.newFixedThreadPool(Math.min(parallelism, publishedAgents.size()), r -> {
+				Thread thread = new Thread(r, "agent-init-" + threadIndex.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			ExecutorService pool = initExecutor;
+
+			// 第一步：并行检查是否已初始化并查询启用的数据源，已初始化的智能体立即就绪
+			List<CompletableFuture<AgentDatasource>> lookups = publishedAgents.stream()
+				.map(agent -> CompletableFuture.supplyAsync(() -> resolvePendingDatasource(agent), pool))
+				.toList();
+			Map<Integer, List<AgentTask>> tasksByDatasource = new LinkedHashMap<>();
+			for (int i = 0; i < publishedAgents.size(); i++) {
+				AgentDatasource datasource = lookups.get(i).join();
+				if (datasource != null) {
+					tasksByDatasource.computeIfAbsent(datasource.getDatasourceId(), k -> new ArrayList<>())
+						.add(new AgentTask(publishedAgents.get(i), datasource));
 				}
+			}
 
-				try {
-					Thread.sleep(1000);
-				}
-				catch (InterruptedException e) {
-					Thread.currentThread().interrupt();
-					break;
+			// 第二步：同一数据源最多同时初始化 agentInitParallelismPerDatasource 个智能体，避免压垮业务库
+			int perDatasource = Math.max(1, dataAgentProperties.getAgentInitParallelismPerDatasource());
+			List<CompletableFuture<Void>> lanes = new ArrayList<>();
+			tasksByDatasource.values().forEach(tasks -> {
+				int laneCount = Math.min(perDatasource, tasks.size());
+				for (int lane = 0; lane < laneCount; lane++) {
+					List<AgentTask> laneTasks = new ArrayList<>();
+					for (int i = lane; i < tasks.size(); i += laneCount) {
+						laneTasks.add(tasks.get(i));
+					}
+					lanes.add(CompletableFuture.runAsync(() -> laneTasks.forEach(this::initializeAgent), pool));
 				}
-			}
+			});
+			CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new)).join();
 
-			log.info("Agent initialization completed. Success: {}, Failed: {}, Total: {}", successCount, failureCount,
-					publishedAgents.size());
+			Map<AgentReadiness, Integer> counts = getReadinessCounts();
+			log.info("Agent initialization completed in {} ms. Success: {}, Failed: {}, Total: {}",
+					System.currentTimeMillis() - start, counts.getOrDefault(AgentReadiness.READY, 0),
+					counts.getOrDefault(AgentReadiness.FAILED, 0), publishedAgents.size());
 
 		}
 		catch (Exception e) {
 			log.error("Error during published agents initialization", e);
 		}
+		finally {
+			if (initExecutor != null) {
+				initExecutor.shutdownNow();
+			}
+			completed = true;
+		}
 	}
 
 	/**
-	 * Initialize the data source for a single agent
-	 * @param agent The agent
-	 * @return Whether the initialization was successful
+	 * 已初始化的智能体直接标记为就绪，否则返回需要初始化的启用数据源
+	 * @return 需要初始化的数据源，已就绪或无法初始化时返回 null
 	 */
-	private boolean initializeAgentDataSource(Agent agent) {
+	private AgentDatasource resolvePendingDatasource(Agent agent) {
+		Long agentId = agent.getId();
 		try {
-			Long agentId = agent.getId();
-
-			boolean hasData = isAlreadyInitialized(agentId);
-
-			if (hasData) {
+			if (isAlreadyInitialized(agentId)) {
 				log.info("Agent {} already has vector data , skipping initialization", agentId);
-				return true;
+				readiness.put(agentId, AgentReadiness.READY);
+				return null;
 			}
 
 			AgentDatasource activeDatasource = agentDatasourceService
 				.getCurrentAgentDatasource(Math.toIntExact(agentId));
+			List<String> tables = activeDatasource.getSelectTables();
+			if (tables == null || tables.isEmpty()) {
+				log.warn("Datasource {} has no tables available for agent {}", activeDatasource.getDatasourceId(),
+						agentId);
+				readiness.put(agentId, AgentReadiness.FAILED);
+				return null;
+			}
+			return activeDatasource;
+		}
+		catch (Exception e) {
+			log.error("Error resolving datasource for agent: {} (ID: {}, reason: {})", agent.getName(), agentId,
+					e.getMessage());
+			readiness.put(agentId, AgentReadiness.FAILED);
+			return null;
+		}
+	}
 
-			Integer datasourceId = activeDatasource.getDatasourceId();
+	private void initializeAgent(AgentTask task) {
+		Agent agent = task.agent();
+		readiness.put(agent.getId(), AgentReadiness.INITIALIZING);
+		boolean initialized = initializeAgentDataSource(agent, task.datasource());
+		readiness.put(agent.getId(), initialized ? AgentReadiness.READY : AgentReadiness.FAILED);
+		if (initialized) {
+			log.info("Successfully initialized agent: {} (ID: {})", agent.getName(), agent.getId());
+		}
+		else {
+			log.warn("Failed to initialize agent: {} (ID: {})", agent.getName(), agent.getId());
+		}
+	}
 
+	/**
+	 * Initialize the data source for a single agent
+	 * @param agent The agent
+	 * @param activeDatasource The active datasource with selected tables
+	 * @return Whether the initialization was successful
+	 */
+	private boolean initializeAgentDataSource(Agent agent, AgentDatasource activeDatasource) {
+		try {
+			Long agentId = agent.getId();
+			Integer datasourceId = activeDatasource.getDatasourceId();
 			List<String> tables = activeDatasource.getSelectTables();
 
-			if (tables.isEmpty()) {
-				log.warn("Datasource {} has no tables available for agent {}", datasourceId, agentId);
-				return false;
-			}
-
 			log.info("Initializing agent {} with datasource {} and {} tables", agentId, datasourceId, tables.size());
 
 			Boolean result = agentDatasourceService.initializeSchemaForAgentWithDatasource(agentId, datasourceId,
@@ -186,4 +281,7 @@ public class AgentStartupInitialization implements ApplicationRunner, Disposable
 		}
 	}
 
+	private record AgentTask(Agent agent, AgentDatasource datasource) {
+	}
+
 }
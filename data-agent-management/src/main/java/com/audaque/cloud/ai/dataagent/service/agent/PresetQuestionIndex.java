@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.agent;
+
+import com.audaque.cloud.ai.dataagent.entity.AgentPresetQuestion;
+import com.audaque.cloud.ai.dataagent.mapper.AgentPresetQuestionMapper;
+import com.audaque.cloud.ai.dataagent.util.QuestionTextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 智能体启用的预设问题内存索引，用于在不访问数据库的情况下把用户问题与预设问题做相似度匹配。
+ * <p>
+ * 首次使用时加载，预设问题变更时失效，下次使用时重新加载。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PresetQuestionIndex {
+
+	private final AgentPresetQuestionMapper agentPresetQuestionMapper;
+
+	private final ConcurrentHashMap<Long, List<Entry>> indexes = new ConcurrentHashMap<>();
+
+	/**
+	 * 查找与问题最相似且相似度不低于阈值的启用预设问题
+	 * @return 匹配的预设问题，没有时返回 null
+	 */
+	public AgentPresetQuestion findSimilar(Long agentId, String question, double threshold) {
+		if (agentId == null || question == null) {
+			return null;
+		}
+		String normalized = QuestionTextUtil.normalize(question);
+		AgentPresetQuestion best = null;
+		double bestScore = threshold;
+		for (Entry entry : indexes.computeIfAbsent(agentId, this::load)) {
+			double score = QuestionTextUtil.similarity(normalized, entry.normalizedQuestion());
+			if (score >= bestScore) {
+				best = entry.question();
+				bestScore = score;
+				if (score >= 1.0) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * 失效智能体的索引。处于事务中时在提交后再失效一次，避免并发请求在提交前重新加载到旧数据
+	 */
+	public void invalidate(Long agentId) {
+		if (agentId == null) {
+			return;
+		}
+		indexes.remove(agentId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					indexes.remove(agentId);
+				}
+			});
+		}
+	}
+
+	private List<Entry> load(Long agentId) {
+		List<AgentPresetQuestion> questions = agentPresetQuestionMapper.selectByAgentId(agentId);
+		log.debug("Loaded {} active preset questions into index for agent {}", questions.size(), agentId);
+		return questions.stream()
+			.filter(question -> question.getQuestion() != null)
+			.map(question -> new Entry(question, QuestionTextUtil.normalize(question.getQuestion())))
+			.toList();
+	}
+
+	private record Entry(AgentPresetQuestion question, String normalizedQuestion) {
+	}
+
+}
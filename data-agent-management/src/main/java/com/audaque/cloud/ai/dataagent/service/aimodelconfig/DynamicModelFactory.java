@@ -16,6 +16,7 @@
 package com.audaque.cloud.ai.dataagent.service.aimodelconfig;
 
 import com.audaque.cloud.ai.dataagent.dto.ModelConfigDTO;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.document.MetadataMode;
@@ -25,17 +26,25 @@ import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.OpenAiEmbeddingModel;
 import org.springframework.ai.openai.OpenAiEmbeddingOptions;
 import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.ai.retry.TransientAiException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Slf4j
 @Service
 public class DynamicModelFactory {
@@ -55,6 +64,14 @@ public class DynamicModelFactory {
 	@Value("${spring.ai.rate-limit.max-concurrent:5}")
 	private int maxConcurrent;
 
+	@Value("${spring.ai.rate-limit.embedding-max-concurrent:4}")
+	private int embeddingMaxConcurrent;
+
+	/**
+	 * 提供商（厂商 + baseUrl）-> Embedding 子批次请求执行器，模型配置刷新后重建的模型实例共用同一并发上限
+	 */
+	private final Map<String, ExecutorService> embeddingExecutors = new ConcurrentHashMap<>();
+
 	/**
 	 * 统一使用 OpenAiChatModel，通过 baseUrl 实现多厂商兼容
 	 * 支持自定义认证头名称
@@ -200,13 +217,45 @@ public class DynamicModelFactory {
 		// 只对 Qwen 提供商使用 QwenEmbeddingModel 包装类（解决 Qwen API 返回结果数量不足问题）
 		// 其他提供商（Ollama、OpenAI、Azure 等）直接返回原始模型
 		if ("qwen".equalsIgnoreCase(config.getProvider())) {
-			log.info("Using QwenEmbeddingModel wrapper for Qwen provider to handle batch processing limitations");
-			return new QwenEmbeddingModel(baseModel);
+			log.info("Using QwenEmbeddingModel wrapper for Qwen provider to handle batch processing limitations, "
+					+ "maxConcurrent={}", embeddingMaxConcurrent);
+			return new QwenEmbeddingModel(baseModel, getEmbeddingExecutor(config), createEmbeddingRetryTemplate());
 		}
 		log.info("Using standard EmbeddingModel for provider: {}", config.getProvider());
 		return baseModel;
 	}
 
+	private ExecutorService getEmbeddingExecutor(ModelConfigDTO config) {
+		String key = config.getProvider().toLowerCase() + "|" + config.getBaseUrl();
+		return embeddingExecutors.computeIfAbsent(key, k -> {
+			AtomicInteger threadCount = new AtomicInteger();
+			return Executors.newFixedThreadPool(Math.max(1, embeddingMaxConcurrent), runnable -> {
+				Thread thread = new Thread(runnable,
+						"embedding-" + config.getProvider().toLowerCase() + "-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		});
+	}
+
+	/**
+	 * Embedding 子批次的重试模板。Embedding 通过 RestClient 调用，错误响应被转换为 TransientAiException（429、5xx），
+	 * 网络异常为 ResourceAccessException
+	 */
+	private RetryTemplate createEmbeddingRetryTemplate() {
+		return RetryTemplate.builder()
+				.maxAttempts(maxAttempts)
+				.exponentialBackoff(initialInterval, multiplier, maxInterval)
+				.retryOn(TransientAiException.class)
+				.retryOn(ResourceAccessException.class)
+				.build();
+	}
+
+	@PreDestroy
+	public void shutdownEmbeddingExecutors() {
+		embeddingExecutors.values().forEach(ExecutorService::shutdownNow);
+	}
+
 	/**
 	 * 创建 WebClient 响应拦截器：在 Spring AI 解析响应之前拦截错误响应（4xx/5xx），
 	 * 提取 API 返回的真实错误信息并抛出有意义的异常，避免 MessageAggregator 解析失败导致错误信息丢失。
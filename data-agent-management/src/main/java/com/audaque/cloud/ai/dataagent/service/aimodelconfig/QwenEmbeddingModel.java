@@ -17,14 +17,22 @@ package com.audaque.cloud.ai.dataagent.service.aimodelconfig;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
 import org.springframework.ai.embedding.EmbeddingRequest;
 import org.springframework.ai.embedding.EmbeddingResponse;
 import org.springframework.ai.embedding.Embedding;
+import org.springframework.retry.support.RetryTemplate;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 /**
  * Qwen Embedding 模型包装类
@@ -34,14 +42,30 @@ import java.util.List;
  * 导致 Spring AI 的 EmbeddingModel.embed() 方法访问越界。
  *
  * 此包装类会对返回的 embedding 列表按 index 排序并重新编号。
+ *
+ * Qwen Embedding API 单次最多处理 8 条文本，输入按 8 条拆分为子批次后提交到同一提供商共享的执行器并发请求，
+ * 执行器线程数即该提供商的并发上限；每个子批次独立重试，结果按输入顺序重新拼接。
  */
 @Slf4j
 public class QwenEmbeddingModel implements EmbeddingModel {
 
+	// Qwen Embedding API 有批量处理限制，单次最多返回 8 个结果
+	private static final int MAX_BATCH_SIZE = 8;
+
 	private final EmbeddingModel delegate;
 
-	public QwenEmbeddingModel(EmbeddingModel delegate) {
+	private final Executor providerExecutor;
+
+	private final RetryTemplate retryTemplate;
+
+	/**
+	 * @param providerExecutor 同一提供商的全部调用共享的执行器，线程数即并发上限
+	 * @param retryTemplate 单个子批次的重试策略
+	 */
+	public QwenEmbeddingModel(EmbeddingModel delegate, Executor providerExecutor, RetryTemplate retryTemplate) {
 		this.delegate = delegate;
+		this.providerExecutor = providerExecutor;
+		this.retryTemplate = retryTemplate;
 	}
 
 	@Override
@@ -49,21 +73,8 @@ public class QwenEmbeddingModel implements EmbeddingModel {
 		int inputSize = request.getInstructions().size();
 		log.info("QwenEmbeddingModel.call() called with {} texts", inputSize);
 
-		// Qwen Embedding API 有批量处理限制，单次最多返回 8 个结果
-		// 将输入拆分为多个批次处理
-		int batchSize = 8;
-		List<Embedding> allEmbeddings = new ArrayList<>();
-
-		for (int i = 0; i < inputSize; i += batchSize) {
-			int endIndex = Math.min(i + batchSize, inputSize);
-			List<String> batch = request.getInstructions().subList(i, endIndex);
-			EmbeddingRequest batchRequest = new EmbeddingRequest(batch, request.getOptions());
-
-			log.debug("Processing batch {}-{} of {}", i + 1, endIndex, inputSize);
-			EmbeddingResponse response = delegate.call(batchRequest);
-			EmbeddingResponse fixedResponse = fixEmbeddingResponse(response);
-			allEmbeddings.addAll(fixedResponse.getResults());
-		}
+		List<Embedding> allEmbeddings = embedConcurrently(split(request.getInstructions()),
+				batch -> delegate.call(new EmbeddingRequest(batch, request.getOptions())));
 
 		log.info("Completed processing {} texts, got {} embeddings", inputSize, allEmbeddings.size());
 		return new EmbeddingResponse(allEmbeddings);
@@ -83,38 +94,39 @@ public class QwenEmbeddingModel implements EmbeddingModel {
 
 	/**
 	 * 重写 embed(List<String>) 方法，确保修复 index 问题
-	 * 这是 MilvusVectorStore 调用的方法
 	 */
 	@Override
 	public List<float[]> embed(List<String> texts) {
 		int inputSize = texts.size();
 		log.info("QwenEmbeddingModel.embed(List<String>) called with {} texts", inputSize);
 
-		// Qwen Embedding API 有批量处理限制，单次最多返回 8 个结果
-		// 将输入拆分为多个批次处理
-		int batchSize = 8;
-		List<Embedding> allEmbeddings = new ArrayList<>();
-
-		for (int i = 0; i < inputSize; i += batchSize) {
-			int endIndex = Math.min(i + batchSize, inputSize);
-			List<String> batch = texts.subList(i, endIndex);
-
-			log.debug("Processing batch {}-{} of {}", i + 1, endIndex, inputSize);
-			EmbeddingResponse response = delegate.embedForResponse(batch);
-			EmbeddingResponse fixedResponse = fixEmbeddingResponse(response);
-			allEmbeddings.addAll(fixedResponse.getResults());
-		}
+		List<Embedding> allEmbeddings = embedConcurrently(split(texts), delegate::embedForResponse);
 
 		log.info("Completed processing {} texts, got {} embeddings", inputSize, allEmbeddings.size());
+		return allEmbeddings.stream().map(Embedding::getOutput).toList();
+	}
 
-		// 按 index 顺序提取 embedding
-		List<float[]> result = new ArrayList<>();
-		for (Embedding embedding : allEmbeddings) {
-			result.add(embedding.getOutput());
+	/**
+	 * 重写文档批量向量化方法，这是 MilvusVectorStore 写入时调用的方法。
+	 * 默认实现逐个批次串行调用 call()，这里把全部批次再按 8 条拆分后一起并发请求
+	 */
+	@Override
+	public List<float[]> embed(List<Document> documents, EmbeddingOptions options,
+			BatchingStrategy batchingStrategy) {
+		List<List<String>> batches = new ArrayList<>();
+		for (List<Document> batch : batchingStrategy.batch(documents)) {
+			batches.addAll(split(batch.stream().map(Document::getText).toList()));
 		}
+		log.info("QwenEmbeddingModel.embed(List<Document>) called with {} documents in {} sub-batches",
+				documents.size(), batches.size());
 
-		log.info("Returning {} embeddings", result.size());
-		return result;
+		List<Embedding> allEmbeddings = embedConcurrently(batches,
+				batch -> delegate.call(new EmbeddingRequest(batch, options)));
+		if (allEmbeddings.size() != documents.size()) {
+			throw new IllegalStateException("Embedding count " + allEmbeddings.size()
+					+ " does not match document count " + documents.size());
+		}
+		return allEmbeddings.stream().map(Embedding::getOutput).toList();
 	}
 
 	@Override
@@ -124,6 +136,67 @@ public class QwenEmbeddingModel implements EmbeddingModel {
 		return fixEmbeddingResponse(response);
 	}
 
+	private static List<List<String>> split(List<String> texts) {
+		List<List<String>> batches = new ArrayList<>();
+		for (int i = 0; i < texts.size(); i += MAX_BATCH_SIZE) {
+			batches.add(texts.subList(i, Math.min(i + MAX_BATCH_SIZE, texts.size())));
+		}
+		return batches;
+	}
+
+	/**
+	 * 并发请求全部子批次，按子批次顺序拼接结果并重新编号为连续的 index。
+	 * 任一子批次重试后仍失败时，尚未开始的子批次不再请求
+	 */
+	private List<Embedding> embedConcurrently(List<List<String>> batches,
+			Function<List<String>, EmbeddingResponse> caller) {
+		if (batches.size() == 1) {
+			return embedBatch(batches.get(0), caller);
+		}
+		AtomicBoolean failed = new AtomicBoolean();
+		List<CompletableFuture<List<Embedding>>> futures = new ArrayList<>(batches.size());
+		for (List<String> batch : batches) {
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				if (failed.get()) {
+					throw new IllegalStateException("Skipped after another embedding batch failed");
+				}
+				try {
+					return embedBatch(batch, caller);
+				}
+				catch (RuntimeException e) {
+					failed.set(true);
+					throw e;
+				}
+			}, providerExecutor));
+		}
+
+		List<Embedding> allEmbeddings = new ArrayList<>();
+		try {
+			for (CompletableFuture<List<Embedding>> future : futures) {
+				for (Embedding embedding : future.join()) {
+					allEmbeddings.add(new Embedding(embedding.getOutput(), allEmbeddings.size()));
+				}
+			}
+		}
+		catch (CompletionException e) {
+			futures.forEach(future -> future.cancel(false));
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+		return allEmbeddings;
+	}
+
+	private List<Embedding> embedBatch(List<String> batch, Function<List<String>, EmbeddingResponse> caller) {
+		EmbeddingResponse response = retryTemplate.execute(context -> {
+			if (context.getRetryCount() > 0) {
+				log.warn("Retrying embedding batch of {} texts, attempt {}: {}", batch.size(),
+						context.getRetryCount() + 1, context.getLastThrowable().getMessage());
+			}
+			return caller.apply(batch);
+		});
+		EmbeddingResponse fixedResponse = fixEmbeddingResponse(response);
+		return fixedResponse == null || fixedResponse.getResults() == null ? List.of() : fixedResponse.getResults();
+	}
+
 	@Override
 	public int dimensions() {
 		return delegate.dimensions();
@@ -145,8 +218,8 @@ public class QwenEmbeddingModel implements EmbeddingModel {
 
 		List<Embedding> embeddings = new ArrayList<>(response.getResults());
 
-		log.info("Embedding response contains {} results", embeddings.size());
-		log.info("Embedding indices: {}", embeddings.stream().map(Embedding::getIndex).toList());
+		log.debug("Embedding response contains {} results", embeddings.size());
+		log.debug("Embedding indices: {}", embeddings.stream().map(Embedding::getIndex).toList());
 
 		// 检查是否需要修复（index 是否连续）
 		boolean needsFix = false;
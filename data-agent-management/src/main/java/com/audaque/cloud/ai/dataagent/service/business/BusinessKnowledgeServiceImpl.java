@@ -17,6 +17,7 @@ package com.audaque.cloud.ai.dataagent.service.business;
 
 import com.audaque.cloud.ai.dataagent.constant.DocumentMetadataConstant;
 import com.audaque.cloud.ai.dataagent.enums.EmbeddingStatus;
+import com.audaque.cloud.ai.dataagent.event.BusinessKnowledgeBatchDeletionEvent;
 import com.audaque.cloud.ai.dataagent.event.BusinessKnowledgeDeletionEvent;
 import com.audaque.cloud.ai.dataagent.event.BusinessKnowledgeEmbeddingEvent;
 import com.audaque.cloud.ai.dataagent.util.DocumentConverterUtil;
@@ -32,6 +33,7 @@ import com.audaque.cloud.ai.dataagent.vo.PageResult;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,8 +41,14 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
@@ -55,6 +63,8 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 
 	private final ApplicationEventPublisher eventPublisher;
 
+	private final BatchingStrategy batchingStrategy;
+
 	@Override
 	public List<BusinessKnowledgeVO> getKnowledge(Long agentId) {
 		List<BusinessKnowledge> businessKnowledges = businessKnowledgeMapper.selectByAgentId(agentId);
@@ -175,23 +185,43 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 
 	@Override
 	public void refreshAllKnowledgeToVectorStore(String agentId) throws Exception {
-		agentVectorStoreService.deleteDocumentsByVectorType(agentId, DocumentMetadataConstant.BUSINESS_TERM);
-
-		// 获取所有 isRecall 等于 1 且未逻辑删除的 BusinessKnowledge
-		List<BusinessKnowledge> allKnowledge = businessKnowledgeMapper.selectAll();
-		List<BusinessKnowledge> recalledKnowledge = allKnowledge.stream()
-				.filter(knowledge -> knowledge.getIsRecall() != null && knowledge.getIsRecall() == 1)
-				.filter(knowledge -> knowledge.getIsDeleted() == null || knowledge.getIsDeleted() == 0)
-				.filter(knowledge -> agentId.equals(knowledge.getAgentId().toString()))
-				.toList();
-
-		// 转换为 Document 并插入到 vectorStore
-		if (!recalledKnowledge.isEmpty()) {
-			List<Document> documents = recalledKnowledge.stream()
-					.map(DocumentConverterUtil::convertBusinessKnowledgeToDocument)
-					.toList();
-			agentVectorStoreService.addDocuments(agentId, documents);
+		// 只查询该智能体下召回且未逻辑删除的业务知识
+		List<BusinessKnowledge> recalledKnowledge = businessKnowledgeMapper
+			.selectRecalledByAgentId(Long.valueOf(agentId));
+
+		// 向量ID由内容哈希决定，已存在的ID说明内容未变，无需重新向量化
+		Set<String> existingIds = agentVectorStoreService.getDocumentIdsByMetadata(agentId,
+				Map.of(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.BUSINESS_TERM));
+		Set<String> currentIds = new HashSet<>();
+		List<Document> changedDocuments = new ArrayList<>();
+		for (BusinessKnowledge knowledge : recalledKnowledge) {
+			Document document = DocumentConverterUtil.convertBusinessKnowledgeToDocument(knowledge);
+			currentIds.add(document.getId());
+			if (!existingIds.contains(document.getId())) {
+				changedDocuments.add(document);
+			}
+		}
+		List<String> staleIds = existingIds.stream().filter(id -> !currentIds.contains(id)).toList();
+		log.info("Refreshing business knowledge vectors for agentId: {}, total: {}, changed: {}, stale: {}", agentId,
+				recalledKnowledge.size(), changedDocuments.size(), staleIds.size());
+
+		// 按 token 数分批写入，全部写入后再删除过期向量，避免刷新过程中出现检索空窗
+		List<CompletableFuture<Void>> writes = new ArrayList<>();
+		if (!changedDocuments.isEmpty()) {
+			for (List<Document> batch : batchingStrategy.batch(changedDocuments)) {
+				writes.add(agentVectorStoreService.addDocuments(agentId, batch));
+			}
+		}
+		// 等待写入和删除全部完成，失败时把原始异常抛给调用方
+		try {
+			CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new))
+				.thenCompose(v -> agentVectorStoreService.deleteDocumentsByIds(agentId, staleIds))
+				.join();
+		} catch (CompletionException e) {
+			log.error("Failed to refresh business knowledge vectors for agentId: {}", agentId, e.getCause());
+			throw e.getCause() instanceof Exception cause ? cause : e;
 		}
+		log.info("Business knowledge vectors refreshed for agentId: {}", agentId);
 	}
 
 	@Override
@@ -260,8 +290,8 @@ public class BusinessKnowledgeServiceImpl implements BusinessKnowledgeService {
 
 		int affected = businessKnowledgeMapper.batchDeleteByIds(agentId, ids);
 
-		// Publish deletion events for each deleted record
-		ids.forEach(id -> eventPublisher.publishEvent(new BusinessKnowledgeDeletionEvent(this, id)));
+		// 整批只发布一个删除事件，向量清理合并为一次删除
+		eventPublisher.publishEvent(new BusinessKnowledgeBatchDeletionEvent(this, agentId, ids));
 
 		log.info("Batch delete completed: requested={}, affected={}", ids.size(), affected);
 		return affected;
@@ -16,6 +16,7 @@
 package com.audaque.cloud.ai.dataagent.service.chat;
 
 import com.audaque.cloud.ai.dataagent.entity.ChatMessage;
+import com.audaque.cloud.ai.dataagent.vo.ChatMessagePageVO;
 
 import java.util.List;
 
@@ -26,6 +27,20 @@ public interface ChatMessageService {
 	 */
 	List<ChatMessage> findBySessionId(String sessionId);
 
+	/**
+	 * Keyset page query of messages by session ID, large contents are omitted
+	 * @param beforeId return messages older than this id, may be null
+	 * @param afterId return messages newer than this id, may be null
+	 * @param limit page size, may be null to use the default
+	 */
+	ChatMessagePageVO findPageBySessionId(String sessionId, Long beforeId, Long afterId, Integer limit);
+
+	/**
+	 * Get a single message with full content, returns null if it does not belong to the
+	 * session
+	 */
+	ChatMessage findById(String sessionId, Long messageId);
+
 	/**
 	 * Save message
 	 */
@@ -17,12 +17,17 @@ package com.audaque.cloud.ai.dataagent.service.chat;
 
 import com.audaque.cloud.ai.dataagent.entity.ChatMessage;
 import com.audaque.cloud.ai.dataagent.mapper.ChatMessageMapper;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.vo.ChatMessagePageVO;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Chat Message Service Class
@@ -32,8 +37,12 @@ import java.util.List;
 @AllArgsConstructor
 public class ChatMessageServiceImpl implements ChatMessageService {
 
+	private static final int DEFAULT_PAGE_SIZE = 50;
+
 	private final ChatMessageMapper chatMessageMapper;
 
+	private final DataAgentProperties properties;
+
 	@Override
 	public List<ChatMessage> findBySessionId(String sessionId) {
 		log.debug("Finding messages for sessionId: {}", sessionId);
@@ -42,6 +51,43 @@ public class ChatMessageServiceImpl implements ChatMessageService {
 		return messages;
 	}
 
+	@Override
+	public ChatMessagePageVO findPageBySessionId(String sessionId, Long beforeId, Long afterId, Integer limit) {
+		if (beforeId != null && afterId != null) {
+			throw new IllegalArgumentException("beforeId and afterId cannot be used together");
+		}
+		int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE
+				: Math.min(limit, properties.getMaxMessagePageSize());
+		// 多查一条用于判断是否还有更多
+		List<ChatMessage> rows = new ArrayList<>(chatMessageMapper.selectPageBySessionId(sessionId, beforeId, afterId,
+				pageSize + 1, properties.getMaxInlineMessageContentLength()));
+		boolean hasMore = rows.size() > pageSize;
+		if (hasMore) {
+			rows.remove(rows.size() - 1);
+		}
+		if (afterId == null) {
+			// 向前翻页按 id 降序查询，返回前统一转换为升序
+			Collections.reverse(rows);
+		}
+		log.debug("Found {} messages for sessionId: {}, beforeId: {}, afterId: {}, hasMore: {}", rows.size(),
+				sessionId, beforeId, afterId, hasMore);
+		return ChatMessagePageVO.builder()
+			.messages(rows)
+			.hasMore(hasMore)
+			.firstId(rows.isEmpty() ? beforeId : rows.get(0).getId())
+			.lastId(rows.isEmpty() ? afterId : rows.get(rows.size() - 1).getId())
+			.build();
+	}
+
+	@Override
+	public ChatMessage findById(String sessionId, Long messageId) {
+		ChatMessage message = chatMessageMapper.selectById(messageId);
+		if (message == null || !Objects.equals(message.getSessionId(), sessionId)) {
+			return null;
+		}
+		return message;
+	}
+
 	@Override
 	public ChatMessage saveMessage(ChatMessage message) {
 		log.debug("Saving message for session: {}, role: {}", message.getSessionId(), message.getRole());
@@ -15,20 +15,26 @@
  */
 package com.audaque.cloud.ai.dataagent.service.chat;
 
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
 import com.audaque.cloud.ai.dataagent.vo.SessionUpdateEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 import reactor.core.publisher.SignalType;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manage SSE streams that push session updates to frontend.
+ * <p>
+ * 每个智能体共用一个 Sink，事件按订阅者分别缓冲，缓冲区满时丢弃最旧的事件，慢客户端不会拖慢其他订阅者；
+ * 订阅者全部断开后 Sink 保留一段时间供重连复用，空闲超时后由定时任务回收。
  */
 @Slf4j
 @Service
@@ -36,10 +42,24 @@ public class SessionEventPublisher {
 
 	private final Map<Integer, AgentSessionSink> sinks = new ConcurrentHashMap<>();
 
+	private final DataAgentProperties.SseProperties sseProperties;
+
+	public SessionEventPublisher(DataAgentProperties dataAgentProperties) {
+		this.sseProperties = dataAgentProperties.getSse();
+	}
+
 	public Flux<ServerSentEvent<SessionUpdateEvent>> register(Integer agentId) {
-		AgentSessionSink sink = sinks.computeIfAbsent(agentId, id -> new AgentSessionSink());
-		sink.increment();
-		return sink.sink.asFlux().doFinally(signalType -> cleanup(agentId, sink, signalType));
+		// compute 与回收时的 computeIfPresent 互斥，避免新订阅者拿到已被回收的 Sink
+		AgentSessionSink sink = sinks.compute(agentId, (id, existing) -> {
+			AgentSessionSink target = existing != null ? existing : new AgentSessionSink();
+			target.subscribers++;
+			return target;
+		});
+		return sink.sink.asFlux()
+			.onBackpressureBuffer(Math.max(1, sseProperties.getSessionEventBufferSize()),
+					dropped -> log.debug("Session update buffer full for agent {}, dropped oldest event", agentId),
+					BufferOverflowStrategy.DROP_OLDEST)
+			.doFinally(signalType -> release(agentId, signalType));
 	}
 
 	public void publishTitleUpdated(Integer agentId, String sessionId, String title) {
@@ -53,36 +73,61 @@ public class SessionEventPublisher {
 			return;
 		}
 		Sinks.EmitResult result = sink.sink.tryEmitNext(ServerSentEvent.builder(event).event(event.getType()).build());
-		if (result.isFailure()) {
+		if (result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+			log.debug("No active subscribers for agent {}, skip pushing session title update", agentId);
+		}
+		else if (result.isFailure()) {
 			log.warn("Failed to emit session title update for agent {}, session {}, reason {}", agentId, sessionId,
 					result);
 		}
 	}
 
-	private void cleanup(Integer agentId, AgentSessionSink sink, SignalType signalType) {
-		int current = sink.decrement();
-		if (current <= 0) {
-			sink.sink.tryEmitComplete();
-			sinks.remove(agentId);
-			log.debug("Cleaned session update sink for agent {} due to signal {}", agentId, signalType);
+	private void release(Integer agentId, SignalType signalType) {
+		sinks.computeIfPresent(agentId, (id, sink) -> {
+			if (--sink.subscribers <= 0) {
+				sink.subscribers = 0;
+				sink.idleSince = System.nanoTime();
+			}
+			return sink;
+		});
+		log.debug("Session update subscriber of agent {} finished with signal {}", agentId, signalType);
+	}
+
+	/**
+	 * 回收无订阅者且空闲超时的 Sink
+	 */
+	@Scheduled(fixedDelay = 60_000)
+	public void evictIdleSinks() {
+		long idleNanos = TimeUnit.MINUTES.toNanos(Math.max(0, sseProperties.getSessionSinkIdleMinutes()));
+		long now = System.nanoTime();
+		for (Integer agentId : sinks.keySet()) {
+			sinks.computeIfPresent(agentId, (id, sink) -> {
+				if (sink.subscribers > 0 || now - sink.idleSince < idleNanos) {
+					return sink;
+				}
+				sink.sink.tryEmitComplete();
+				log.debug("Evicted idle session update sink for agent {}", agentId);
+				return null;
+			});
 		}
 	}
 
-	private static class AgentSessionSink {
+	int sinkCount() {
+		return sinks.size();
+	}
 
-		private final AtomicInteger subscribers = new AtomicInteger(0);
+	/**
+	 * subscribers 与 idleSince 只在 ConcurrentHashMap 的 compute 系列方法中读写，由其保证互斥
+	 */
+	private static class AgentSessionSink {
 
 		private final Sinks.Many<ServerSentEvent<SessionUpdateEvent>> sink = Sinks.many()
 			.multicast()
-			.onBackpressureBuffer();
+			.directBestEffort();
 
-		private void increment() {
-			subscribers.incrementAndGet();
-		}
+		private int subscribers;
 
-		private int decrement() {
-			return subscribers.decrementAndGet();
-		}
+		private long idleSince = System.nanoTime();
 
 	}
 
@@ -15,6 +15,10 @@
  */
 package com.audaque.cloud.ai.dataagent.service.code;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 运行Python任务的容器池接口
  *
@@ -23,8 +27,36 @@ public interface CodePoolExecutorService {
 
 	TaskResponse runTask(TaskRequest request);
 
-	record TaskRequest(String code, String input, String requirement) {
+	/**
+	 * 异步提交任务，调用线程不会因等待容器或执行而阻塞
+	 * @param agentId 智能体ID，用于在智能体之间公平排队，可为null
+	 * @param request 任务请求对象
+	 * @return 运行结果，排队超时或队列已满时返回异常结果而不是抛出异常
+	 */
+	default CompletableFuture<TaskResponse> submitTask(String agentId, TaskRequest request) {
+		return CompletableFuture.supplyAsync(() -> this.runTask(request));
+	}
+
+	/**
+	 * 运行代码任务请求
+	 * @param code Python代码
+	 * @param input 标准输入内容
+	 * @param requirement 依赖列表（requirements.txt格式）
+	 * @param data 以列式文件交给Python的结果集，可为null，参见
+	 * {@link com.audaque.cloud.ai.dataagent.util.ColumnarDataUtil}
+	 */
+	record TaskRequest(String code, String input, String requirement, List<? extends Map<String, ?>> data) {
+
+		public TaskRequest(String code, String input, String requirement) {
+			this(code, input, requirement, null);
+		}
 
+		// 结果集可能很大，日志中只输出行数
+		@Override
+		public String toString() {
+			return "TaskRequest{" + "code='" + code + '\'' + ", input='" + input + '\'' + ", requirement='"
+					+ requirement + '\'' + ", dataRows=" + (data == null ? null : data.size()) + '}';
+		}
 	}
 
 	record TaskResponse(boolean isSuccess, boolean executionSuccessButResultFailed, String stdOut, String stdErr,
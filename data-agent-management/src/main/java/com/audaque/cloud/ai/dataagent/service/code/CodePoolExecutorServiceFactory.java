@@ -16,10 +16,12 @@
 package com.audaque.cloud.ai.dataagent.service.code;
 
 import com.audaque.cloud.ai.dataagent.properties.CodeExecutorProperties;
+import com.audaque.cloud.ai.dataagent.service.code.impls.AbstractCodePoolExecutorService;
 import com.audaque.cloud.ai.dataagent.service.code.impls.AiSimulationCodeExecutorService;
 import com.audaque.cloud.ai.dataagent.service.code.impls.DockerCodePoolExecutorService;
 import com.audaque.cloud.ai.dataagent.service.code.impls.LocalCodePoolExecutorService;
 import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
+import com.audaque.cloud.ai.dataagent.service.metrics.DataAgentMetrics;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.stereotype.Component;
@@ -36,15 +38,21 @@ public class CodePoolExecutorServiceFactory implements FactoryBean<CodePoolExecu
 
 	private final LlmService llmService;
 
+	private final DataAgentMetrics metrics;
+
 	@Override
 	public CodePoolExecutorService getObject() {
-		return switch (properties.getCodePoolExecutor()) {
+		CodePoolExecutorService service = switch (properties.getCodePoolExecutor()) {
 			case DOCKER -> new DockerCodePoolExecutorService(properties);
 			case LOCAL -> new LocalCodePoolExecutorService(properties);
 			case AI_SIMULATION -> new AiSimulationCodeExecutorService(llmService);
 			default ->
 				throw new IllegalStateException("This option does not have a corresponding implementation class yet.");
 		};
+		if (service instanceof AbstractCodePoolExecutorService pool) {
+			pool.bindMetrics(metrics);
+		}
+		return service;
 	}
 
 	@Override
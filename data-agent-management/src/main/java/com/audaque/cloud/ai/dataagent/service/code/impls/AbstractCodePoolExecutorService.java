@@ -17,6 +17,7 @@ package com.audaque.cloud.ai.dataagent.service.code.impls;
 
 import com.audaque.cloud.ai.dataagent.properties.CodeExecutorProperties;
 import com.audaque.cloud.ai.dataagent.service.code.CodePoolExecutorService;
+import com.audaque.cloud.ai.dataagent.service.metrics.DataAgentMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -28,34 +29,51 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 运行Python任务的容器池
+ * <p>
+ * 任务提交是非阻塞的：有空闲容器（或可以新建容器）时任务在线程池中执行，否则按智能体分别排队，
+ * 容器释放后在各智能体队列之间轮询取任务，避免单个智能体的大量任务占满容器。排队超过期限的任务直接返回失败。
  *
  */
 @Slf4j
 public abstract class AbstractCodePoolExecutorService implements CodePoolExecutorService {
 
+	/**
+	 * 未指定智能体时使用的排队键
+	 */
+	public static final String DEFAULT_AGENT = "default";
+
+	// 容器损坏时任务的最大重试次数
+	private static final int MAX_TASK_ATTEMPTS = 3;
+
 	// Record core container status
 	protected final ConcurrentHashMap<String, CodePoolExecutorService.State> coreContainerState;
 
 	// Record temporary container status
 	protected final ConcurrentHashMap<String, CodePoolExecutorService.State> tempContainerState;
 
-	// Record Future for temporary container destruction
-	protected final ConcurrentHashMap<String, Future<?>> tempContainerRemoveFuture;
-
-	// Task queue (temporarily store tasks when containers are full)
-	protected final ArrayBlockingQueue<FutureTask<CodePoolExecutorService.TaskResponse>> taskQueue;
+	// Last time each idle temporary container was released, used by the reaper
+	protected final ConcurrentHashMap<String, Long> tempContainerLastUsed;
 
 	// Ready core containers
 	protected final ArrayBlockingQueue<String> readyCoreContainer;
@@ -69,18 +87,66 @@ public abstract class AbstractCodePoolExecutorService implements CodePoolExecuto
 	// Current number of temporary containers
 	protected final AtomicInteger currentTempContainerSize;
 
-	// Thread pool, running temporarily stored tasks
+	// Thread pool running tasks in containers
 	protected final ExecutorService consumerThreadPool;
 
 	// Configuration properties
 	protected final CodeExecutorProperties properties;
 
+	// Number of executions per container, used to recycle containers
+	protected final ConcurrentHashMap<String, AtomicInteger> containerExecutions;
+
+	// Health check, reaper and replenishment scheduler
+	protected final ScheduledExecutorService maintenanceScheduler;
+
+	// Whether a background warm-up is in progress
+	private final AtomicBoolean warmingUp = new AtomicBoolean(false);
+
+	// Pending tasks grouped by agent, iterated round-robin; guarded by pendingLock
+	private final LinkedHashMap<String, ArrayDeque<PendingTask>> pendingTasks = new LinkedHashMap<>();
+
+	private final ReentrantLock pendingLock = new ReentrantLock();
+
+	private final AtomicInteger pendingCount = new AtomicInteger();
+
+	private volatile DataAgentMetrics metrics;
+
+	/**
+	 * 等待执行的任务
+	 */
+	private static final class PendingTask {
+
+		private final String agentId;
+
+		private final TaskRequest request;
+
+		private final CompletableFuture<TaskResponse> future = new CompletableFuture<>();
+
+		private final long enqueuedNanos = System.nanoTime();
+
+		// 已被调度执行或已超时，二者只会发生其一
+		private final AtomicBoolean started = new AtomicBoolean(false);
+
+		private int attempts;
+
+		private PendingTask(String agentId, TaskRequest request) {
+			this.agentId = agentId;
+			this.request = request;
+		}
+
+	}
+
+	/**
+	 * 调度到的容器，containerId 为 null 表示已预留名额、需要新建容器
+	 */
+	private record Slot(String containerId, boolean core) {
+	}
+
 	public AbstractCodePoolExecutorService(CodeExecutorProperties properties) {
 		this.properties = properties;
 		this.coreContainerState = new ConcurrentHashMap<>();
 		this.tempContainerState = new ConcurrentHashMap<>();
-		this.tempContainerRemoveFuture = new ConcurrentHashMap<>();
-		this.taskQueue = new ArrayBlockingQueue<>(properties.getTaskQueueSize());
+		this.tempContainerLastUsed = new ConcurrentHashMap<>();
 		this.readyCoreContainer = new ArrayBlockingQueue<>(properties.getCoreContainerNum());
 		this.readyTempContainer = new ArrayBlockingQueue<>(properties.getTempContainerNum());
 		this.consumerThreadPool = new ThreadPoolExecutor(properties.getCoreThreadSize(), properties.getMaxThreadSize(),
@@ -88,6 +154,18 @@ public abstract class AbstractCodePoolExecutorService implements CodePoolExecuto
 				new ArrayBlockingQueue<>(properties.getThreadQueueSize()));
 		this.currentCoreContainerSize = new AtomicInteger(0);
 		this.currentTempContainerSize = new AtomicInteger(0);
+		this.containerExecutions = new ConcurrentHashMap<>();
+		this.maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "code-pool-maintenance");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = Math.max(1L, properties.getHealthCheckIntervalSeconds());
+		this.maintenanceScheduler.scheduleWithFixedDelay(this::checkReadyCoreContainers, interval, interval,
+				TimeUnit.SECONDS);
+		long reapInterval = Math.max(1L, Math.min(60L, properties.getTempContainerAliveTime() * 60L / 2));
+		this.maintenanceScheduler.scheduleWithFixedDelay(this::reapIdleTempContainers, reapInterval, reapInterval,
+				TimeUnit.SECONDS);
 		// Register shutdown hook
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
 			log.info("Shutting down container pool executor...");
@@ -125,251 +203,472 @@ public abstract class AbstractCodePoolExecutorService implements CodePoolExecuto
 	 */
 	protected abstract void removeContainer(String containerId) throws Exception;
 
-	protected void shutdownPool() throws Exception {
-		// Shutdown thread pool
-		this.consumerThreadPool.shutdownNow();
-		// Stop and delete all containers
-		this.tempContainerState.keySet().forEach(id -> this.removeContainerAndState(id, false, true));
-		this.coreContainerState.keySet().forEach(id -> this.removeContainerAndState(id, true, true));
-		this.tempContainerState.clear();
-		this.coreContainerState.clear();
-		this.tempContainerRemoveFuture.clear();
-		this.readyCoreContainer.clear();
-		this.readyTempContainer.clear();
-		this.taskQueue.clear();
+	/**
+	 * 检查空闲容器是否可用，不可用的容器会被删除并在后台补充
+	 * @param containerId 容器ID
+	 * @return 容器是否可用
+	 */
+	protected boolean isContainerHealthy(String containerId) {
+		return true;
 	}
 
-	private void removeContainerAndState(String containerId, boolean isCore, boolean isForce) {
+	/**
+	 * 绑定指标记录器，注册排队任务数指标并记录任务排队与执行耗时
+	 */
+	public void bindMetrics(DataAgentMetrics metrics) {
+		this.metrics = metrics;
+		if (metrics != null) {
+			metrics.registerCodeQueue(this.pendingCount::get,
+					() -> this.readyCoreContainer.size() + this.readyTempContainer.size());
+		}
+	}
+
+	/**
+	 * 当前排队等待容器的任务数
+	 */
+	public int getPendingTaskCount() {
+		return this.pendingCount.get();
+	}
+
+	@Override
+	public TaskResponse runTask(TaskRequest request) {
+		return this.submitTask(DEFAULT_AGENT, request).join();
+	}
+
+	@Override
+	public CompletableFuture<TaskResponse> submitTask(String agentId, TaskRequest request) {
+		String key = agentId == null || agentId.isBlank() ? DEFAULT_AGENT : agentId;
+		PendingTask task = new PendingTask(key, request);
+		this.pendingLock.lock();
 		try {
-			if (isCore) {
-				// Remove core container
-				State state = this.coreContainerState.replace(containerId, State.REMOVING);
-				if (state == State.RUNNING) {
-					if (isForce) {
-						this.stopContainer(containerId);
-					}
-					else {
-						throw new RuntimeException("Container is still Running!");
-					}
-				}
-				this.removeContainer(containerId);
-				this.coreContainerState.remove(containerId);
-				this.currentCoreContainerSize.decrementAndGet();
-				log.info("Core Container {} has been removed successfully", containerId);
+			ArrayDeque<PendingTask> queue = this.pendingTasks.get(key);
+			int queued = queue == null ? 0 : queue.size();
+			if (this.pendingCount.get() >= properties.getMaxPendingTasks()
+					|| queued >= properties.getMaxPendingTasksPerAgent()) {
+				log.warn("Code execution queue is full, agent: {}, agent queued: {}, total queued: {}", key, queued,
+						this.pendingCount.get());
+				this.recordTask("rejected", 0L, 0L);
+				return CompletableFuture.completedFuture(TaskResponse.exception("Code execution queue is full"));
 			}
-			else {
-				// Remove temporary container
-				State state = this.tempContainerState.replace(containerId, State.REMOVING);
-				if (state == State.RUNNING) {
-					if (isForce) {
-						this.stopContainer(containerId);
-					}
-					else {
-						throw new RuntimeException("Container is still Running!");
-					}
+			this.pendingTasks.computeIfAbsent(key, k -> new ArrayDeque<>()).addLast(task);
+			this.pendingCount.incrementAndGet();
+		}
+		finally {
+			this.pendingLock.unlock();
+		}
+		this.scheduleQueueTimeout(task);
+		this.dispatch();
+		return task.future;
+	}
+
+	// 排队超过期限仍未开始执行的任务直接返回失败
+	private void scheduleQueueTimeout(PendingTask task) {
+		long timeout = properties.getTaskQueueTimeoutSeconds();
+		if (timeout <= 0) {
+			return;
+		}
+		try {
+			ScheduledFuture<?> handle = this.maintenanceScheduler.schedule(() -> {
+				if (task.started.compareAndSet(false, true)) {
+					this.removePending(task);
+					log.warn("Code task of agent {} timed out after waiting {}s for a container", task.agentId,
+							timeout);
+					this.finish(task, TaskResponse.exception("Timed out waiting for an idle container"), "timeout",
+							0L);
 				}
-				this.removeContainer(containerId);
-				this.tempContainerState.remove(containerId);
-				this.tempContainerRemoveFuture.remove(containerId);
-				this.currentTempContainerSize.decrementAndGet();
-				log.info("Temp Container {} has been removed successfully", containerId);
-			}
+			}, timeout, TimeUnit.SECONDS);
+			task.future.whenComplete((r, e) -> handle.cancel(false));
 		}
-		catch (Exception e) {
-			log.error("Error when trying to remove a container, containerId: {}, info: {}", containerId, e.getMessage(),
-					e);
+		catch (RejectedExecutionException e) {
+			log.debug("Maintenance scheduler is shut down, skip queue timeout");
 		}
 	}
 
-	// Create thread to delete temporary containers
-	private Future<?> registerRemoveTempContainer(String containerId) {
-		return consumerThreadPool.submit(() -> {
+	/**
+	 * 只要还有排队任务且能获取到容器，就按智能体轮询取出任务放入线程池执行
+	 */
+	private void dispatch() {
+		while (true) {
+			PendingTask task;
+			Slot slot;
+			this.pendingLock.lock();
 			try {
-				Thread.sleep(this.properties.getKeepThreadAliveTime() * 1000L * 60L);
-				if (this.tempContainerState.get(containerId) == State.RUNNING) {
-					throw new InterruptedException("Container " + containerId + " is already running");
+				if (this.pendingCount.get() == 0) {
+					return;
 				}
+				slot = this.acquireSlot();
+				if (slot == null) {
+					return;
+				}
+				task = this.pollNextTask();
+			}
+			finally {
+				this.pendingLock.unlock();
+			}
+			if (task == null || task.future.isDone() || !task.started.compareAndSet(false, true)) {
+				// 任务已超时，归还容器后继续调度
+				this.releaseSlot(slot);
+				continue;
+			}
+			try {
+				this.consumerThreadPool.execute(() -> this.execute(task, slot));
 			}
-			catch (InterruptedException e) {
-				// Cancel temporary container destruction thread due to container running
-				log.debug("Interrupted while waiting for temp container to be removed, info: {}", e.getMessage());
+			catch (RejectedExecutionException e) {
+				this.releaseSlot(slot);
+				if (this.consumerThreadPool.isShutdown()) {
+					this.finish(task, TaskResponse.exception("Code executor is shut down"), "error", 0L);
+					continue;
+				}
+				// 线程池已满，放回队首，等待正在执行的任务完成后再调度
+				this.requeueFirst(task);
 				return;
 			}
-			this.removeContainerAndState(containerId, false, false);
-		});
+		}
 	}
 
-	// Use core container
-	private TaskResponse useCoreContainer(String containerId, TaskRequest request) {
-		try {
-			// Execute task
-			this.coreContainerState.replace(containerId, State.RUNNING);
-			TaskResponse resp = this.execTaskInContainer(request, containerId);
-			// 如果运行代码任务时出现了异常，认为容器损坏，执行容器清除，并将当前任务放进队列里重新执行
-			if (!resp.isSuccess() && !resp.executionSuccessButResultFailed()) {
-				log.error("use core container failed, {}", resp.exceptionMsg());
-				this.coreContainerState.replace(containerId, State.REMOVING);
-				this.removeContainerAndState(containerId, true, true);
-				return this.pushTaskQueue(request);
-			}
-			this.coreContainerState.replace(containerId, State.READY);
-			// Put back into blocking queue
-			this.readyCoreContainer.add(containerId);
-			// Run tasks in task queue if any
-			this.popTaskQueue();
-			return resp;
+	// 依次尝试：空闲核心容器、空闲临时容器、新建核心容器、新建临时容器
+	private Slot acquireSlot() {
+		String freeCoreId = this.readyCoreContainer.poll();
+		if (freeCoreId != null) {
+			return new Slot(freeCoreId, true);
 		}
-		catch (Exception e) {
-			log.error("use core container failed, {}", e.getMessage(), e);
-			return TaskResponse.exception(e.getMessage());
+		String freeTempId = this.readyTempContainer.poll();
+		if (freeTempId != null) {
+			return new Slot(freeTempId, false);
+		}
+		if (this.reserve(this.currentCoreContainerSize, properties.getCoreContainerNum())) {
+			return new Slot(null, true);
 		}
+		if (this.reserve(this.currentTempContainerSize, properties.getTempContainerNum())) {
+			return new Slot(null, false);
+		}
+		return null;
 	}
 
-	// Use temporary container
-	private TaskResponse useTempContainer(String containerId, TaskRequest request) {
-		try {
-			Future<?> future = this.tempContainerRemoveFuture.remove(containerId);
-			// Cancel temporary container destruction thread
-			if (future != null) {
-				if (future.isDone()) {
-					// Container is destroyed, reselect usage strategy
-					log.debug("reselect strategy: {} ...", request.toString());
-					return this.runTask(request);
-				}
-				future.cancel(true);
-			}
-			// Execute task
-			this.tempContainerState.replace(containerId, State.RUNNING);
-			TaskResponse resp = this.execTaskInContainer(request, containerId);
-			// 如果运行代码任务时出现了异常，认为容器损坏，执行容器清除，并将当前任务放进队列里重新执行
-			if (!resp.isSuccess() && !resp.executionSuccessButResultFailed()) {
-				log.error("use temp container failed, {}", resp.exceptionMsg());
-				this.tempContainerState.replace(containerId, State.REMOVING);
-				this.removeContainerAndState(containerId, false, true);
-				return this.pushTaskQueue(request);
+	private boolean reserve(AtomicInteger size, int max) {
+		int current;
+		do {
+			current = size.get();
+			if (current >= max) {
+				return false;
 			}
-			this.tempContainerState.replace(containerId, State.READY);
-			// Put back into blocking queue
-			this.readyTempContainer.add(containerId);
-			// Recreate temporary container destruction thread
-			this.tempContainerRemoveFuture.put(containerId, this.registerRemoveTempContainer(containerId));
-			// Run tasks in task queue if any
-			this.popTaskQueue();
-			return resp;
 		}
-		catch (Exception e) {
-			log.error("use temp container failed, {}", e.getMessage(), e);
-			return TaskResponse.exception(e.getMessage());
+		while (!size.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	// 取出下一个智能体队列的队首任务，并把该智能体移到轮询顺序的末尾
+	private PendingTask pollNextTask() {
+		Iterator<Map.Entry<String, ArrayDeque<PendingTask>>> iterator = this.pendingTasks.entrySet().iterator();
+		if (!iterator.hasNext()) {
+			return null;
+		}
+		Map.Entry<String, ArrayDeque<PendingTask>> entry = iterator.next();
+		iterator.remove();
+		PendingTask task = entry.getValue().pollFirst();
+		if (!entry.getValue().isEmpty()) {
+			this.pendingTasks.put(entry.getKey(), entry.getValue());
 		}
+		if (task != null) {
+			this.pendingCount.decrementAndGet();
+		}
+		return task;
 	}
 
-	// Create and use core container
-	private TaskResponse createAndUseCoreContainer(TaskRequest request) {
-		String containerId;
+	private void requeueFirst(PendingTask task) {
+		task.started.set(false);
+		this.pendingLock.lock();
 		try {
-			containerId = this.createNewContainer();
+			this.pendingTasks.computeIfAbsent(task.agentId, k -> new ArrayDeque<>()).addFirst(task);
+			this.pendingCount.incrementAndGet();
 		}
-		catch (Exception e) {
-			log.error("create new container failed, {}", e.getMessage(), e);
-			return TaskResponse.exception(e.getMessage());
+		finally {
+			this.pendingLock.unlock();
 		}
-		// Record newly added container
-		this.coreContainerState.put(containerId, State.READY);
-		// Use container
-		return this.useCoreContainer(containerId, request);
 	}
 
-	// Create and use temporary container
-	private TaskResponse createAndUseTempContainer(TaskRequest request) {
-		String containerId;
+	private void removePending(PendingTask task) {
+		this.pendingLock.lock();
 		try {
-			containerId = this.createNewContainer();
+			ArrayDeque<PendingTask> queue = this.pendingTasks.get(task.agentId);
+			if (queue != null && queue.remove(task)) {
+				this.pendingCount.decrementAndGet();
+				if (queue.isEmpty()) {
+					this.pendingTasks.remove(task.agentId);
+				}
+			}
 		}
-		catch (Exception e) {
-			log.error("create new container failed, {}", e.getMessage(), e);
-			return TaskResponse.exception(e.getMessage());
+		finally {
+			this.pendingLock.unlock();
 		}
-		// Record newly added container
-		this.tempContainerState.put(containerId, State.READY);
-		// Use container
-		return this.useTempContainer(containerId, request);
 	}
 
-	private TaskResponse pushTaskQueue(TaskRequest request) throws ExecutionException, InterruptedException {
-		FutureTask<CodePoolExecutorService.TaskResponse> ft = new FutureTask<>(() -> {
-			log.info("Execute tasks in the BlockingQueue {} ...", request.toString());
-			return this.runTask(request);
-		});
-		this.taskQueue.put(ft);
-		return ft.get();
+	// 归还未使用的容器或新建名额
+	private void releaseSlot(Slot slot) {
+		if (slot.containerId() == null) {
+			(slot.core() ? this.currentCoreContainerSize : this.currentTempContainerSize).decrementAndGet();
+		}
+		else if (slot.core()) {
+			this.readyCoreContainer.add(slot.containerId());
+		}
+		else {
+			this.readyTempContainer.add(slot.containerId());
+		}
+	}
+
+	private void execute(PendingTask task, Slot slot) {
+		String containerId = slot.containerId();
+		boolean core = slot.core();
+		ConcurrentHashMap<String, State> states = core ? this.coreContainerState : this.tempContainerState;
+		try {
+			if (containerId == null) {
+				try {
+					containerId = this.createNewContainer();
+				}
+				catch (Exception e) {
+					log.error("create new container failed, {}", e.getMessage(), e);
+					(core ? this.currentCoreContainerSize : this.currentTempContainerSize).decrementAndGet();
+					this.finish(task, TaskResponse.exception(e.getMessage()), "error", 0L);
+					return;
+				}
+			}
+			states.put(containerId, State.RUNNING);
+			this.tempContainerLastUsed.remove(containerId);
+			long start = System.nanoTime();
+			TaskResponse resp;
+			try {
+				resp = this.execTaskInContainer(task.request, containerId);
+			}
+			catch (Exception e) {
+				resp = TaskResponse.exception(e.getMessage());
+			}
+			long executionNanos = System.nanoTime() - start;
+			// 如果运行代码任务时出现了异常，认为容器损坏，执行容器清除，并将当前任务放回队首重新执行
+			if (!resp.isSuccess() && !resp.executionSuccessButResultFailed()) {
+				log.error("use {} container failed, {}", core ? "core" : "temp", resp.exceptionMsg());
+				this.removeContainerAndState(containerId, core, true);
+				if (core) {
+					this.replenishCoreContainers();
+				}
+				if (++task.attempts < MAX_TASK_ATTEMPTS && !task.future.isDone()) {
+					this.requeueFirst(task);
+				}
+				else {
+					this.finish(task, resp, "error", executionNanos);
+				}
+				return;
+			}
+			this.finish(task, resp, resp.isSuccess() ? "success" : "failure", executionNanos);
+			this.releaseContainer(containerId, core);
+		}
+		finally {
+			this.dispatch();
+		}
 	}
 
-	// Run tasks in task queue if any
-	private void popTaskQueue() {
-		FutureTask<CodePoolExecutorService.TaskResponse> future = this.taskQueue.poll();
-		if (future == null) {
+	// 任务完成后容器回到就绪队列，达到执行次数上限时在后台回收
+	private void releaseContainer(String containerId, boolean core) {
+		ConcurrentHashMap<String, State> states = core ? this.coreContainerState : this.tempContainerState;
+		states.replace(containerId, State.READY);
+		if (this.recordExecution(containerId)) {
+			log.info("{} container {} reached max executions, recycling", core ? "Core" : "Temp", containerId);
+			this.maintenanceScheduler.execute(() -> {
+				this.removeContainerAndState(containerId, core, false);
+				if (core) {
+					this.replenishCoreContainers();
+				}
+			});
 			return;
 		}
-		log.info("Get task from the BlockingQueue ...");
-		this.consumerThreadPool.submit(future);
+		if (core) {
+			this.readyCoreContainer.add(containerId);
+		}
+		else {
+			this.tempContainerLastUsed.put(containerId, System.currentTimeMillis());
+			this.readyTempContainer.add(containerId);
+		}
 	}
 
-	@Override
-	public TaskResponse runTask(TaskRequest request) {
-		// Use available core container
-		String freeCoreId = this.readyCoreContainer.poll();
-		if (freeCoreId != null) {
-			log.debug("Use free core container to run task {} ...", request.toString());
-			return this.useCoreContainer(freeCoreId, request);
+	private void finish(PendingTask task, TaskResponse response, String outcome, long executionNanos) {
+		this.recordTask(outcome, System.nanoTime() - task.enqueuedNanos - executionNanos, executionNanos);
+		task.future.complete(response);
+	}
+
+	private void recordTask(String outcome, long waitNanos, long executionNanos) {
+		DataAgentMetrics current = this.metrics;
+		if (current != null) {
+			current.recordCodeTask(outcome, waitNanos, executionNanos);
 		}
+	}
 
-		// Use available temporary container
-		String freeTempId = this.readyTempContainer.poll();
-		if (freeTempId != null) {
-			log.debug("Use free temp container to run task {} ...", request.toString());
-			return this.useTempContainer(freeTempId, request);
+	/**
+	 * 在后台线程中创建核心容器直到达到核心容器数量，并放入就绪队列，使任务无需等待容器创建
+	 */
+	protected void warmUpCoreContainers() {
+		if (!this.warmingUp.compareAndSet(false, true)) {
+			return;
 		}
+		Thread warmUp = new Thread(() -> {
+			try {
+				while (this.reserve(this.currentCoreContainerSize, properties.getCoreContainerNum())) {
+					try {
+						String containerId = this.createNewContainer();
+						this.coreContainerState.put(containerId, State.READY);
+						this.readyCoreContainer.add(containerId);
+						log.info("Core container {} has been warmed up", containerId);
+						this.dispatch();
+					}
+					catch (Exception e) {
+						this.currentCoreContainerSize.decrementAndGet();
+						log.warn("Warm up core container failed, containers will be created on demand: {}",
+								e.getMessage());
+						return;
+					}
+				}
+			}
+			finally {
+				this.warmingUp.set(false);
+			}
+		}, "code-pool-warm-up");
+		warmUp.setDaemon(true);
+		warmUp.start();
+	}
 
-		// Create new core container
-		int currentCore;
-		boolean useCoreContainer = true;
-		do {
-			currentCore = this.currentCoreContainerSize.get();
-			if (currentCore >= properties.getCoreContainerNum()) {
-				useCoreContainer = false;
-				break;
+	/**
+	 * 定期检查空闲的核心容器，删除不可用的容器并在后台补充
+	 */
+	protected void checkReadyCoreContainers() {
+		try {
+			for (String containerId : new ArrayList<>(this.readyCoreContainer)) {
+				// 从就绪队列中取出后再检查，避免与任务争用同一个容器
+				if (!this.readyCoreContainer.remove(containerId)) {
+					continue;
+				}
+				boolean healthy;
+				try {
+					healthy = this.isContainerHealthy(containerId);
+				}
+				catch (Exception e) {
+					log.warn("Health check of container {} failed: {}", containerId, e.getMessage());
+					healthy = false;
+				}
+				if (healthy) {
+					this.readyCoreContainer.add(containerId);
+				}
+				else {
+					log.warn("Core container {} is unhealthy, replacing it", containerId);
+					this.removeContainerAndState(containerId, true, true);
+				}
 			}
+			this.replenishCoreContainers();
+			this.dispatch();
 		}
-		while (!this.currentCoreContainerSize.compareAndSet(currentCore, currentCore + 1));
-		if (useCoreContainer) {
-			log.debug("Create new core container to run task {} ...", request.toString());
-			return this.createAndUseCoreContainer(request);
+		catch (Exception e) {
+			log.error("Container health check failed: {}", e.getMessage(), e);
 		}
+	}
 
-		// Create new temporary container
-		int currentTemp;
-		boolean useTempContainer = true;
-		do {
-			currentTemp = this.currentTempContainerSize.get();
-			if (currentTemp >= properties.getTempContainerNum()) {
-				useTempContainer = false;
-				break;
+	/**
+	 * 定期删除空闲超过存活时间的临时容器
+	 */
+	protected void reapIdleTempContainers() {
+		try {
+			long expireBefore = System.currentTimeMillis()
+					- TimeUnit.MINUTES.toMillis(properties.getTempContainerAliveTime());
+			for (String containerId : new ArrayList<>(this.readyTempContainer)) {
+				Long lastUsed = this.tempContainerLastUsed.get(containerId);
+				if (lastUsed != null && lastUsed <= expireBefore && this.readyTempContainer.remove(containerId)) {
+					this.tempContainerLastUsed.remove(containerId);
+					this.removeContainerAndState(containerId, false, false);
+				}
 			}
 		}
-		while (!this.currentTempContainerSize.compareAndSet(currentTemp, currentTemp + 1));
-		if (useTempContainer) {
-			log.debug("Create new temp container to run task {} ...", request.toString());
-			return this.createAndUseTempContainer(request);
+		catch (Exception e) {
+			log.error("Temp container reaper failed: {}", e.getMessage(), e);
+		}
+	}
+
+	private void replenishCoreContainers() {
+		if (Boolean.TRUE.equals(properties.getPrewarmContainers())) {
+			this.warmUpCoreContainers();
 		}
+	}
+
+	// 记录一次执行，返回容器是否达到执行次数上限需要回收
+	private boolean recordExecution(String containerId) {
+		int executions = this.containerExecutions.computeIfAbsent(containerId, id -> new AtomicInteger())
+			.incrementAndGet();
+		Integer max = properties.getMaxExecutionsPerContainer();
+		return max != null && max > 0 && executions >= max;
+	}
 
-		// Put into task queue to wait
+	protected void shutdownPool() throws Exception {
+		// Shutdown thread pool
+		this.maintenanceScheduler.shutdownNow();
+		this.consumerThreadPool.shutdownNow();
+		// Stop and delete all containers
+		this.tempContainerState.keySet().forEach(id -> this.removeContainerAndState(id, false, true));
+		this.coreContainerState.keySet().forEach(id -> this.removeContainerAndState(id, true, true));
+		this.tempContainerState.clear();
+		this.coreContainerState.clear();
+		this.tempContainerLastUsed.clear();
+		this.readyCoreContainer.clear();
+		this.readyTempContainer.clear();
+		// Fail all pending tasks
+		this.pendingLock.lock();
 		try {
-			log.debug("push task into BlockingQueue: {} ...", request.toString());
-			return this.pushTaskQueue(request);
+			this.pendingTasks.values()
+				.forEach(queue -> queue.forEach(
+						task -> task.future.complete(TaskResponse.exception("Code executor is shut down"))));
+			this.pendingTasks.clear();
+			this.pendingCount.set(0);
+		}
+		finally {
+			this.pendingLock.unlock();
+		}
+	}
+
+	private void removeContainerAndState(String containerId, boolean isCore, boolean isForce) {
+		try {
+			if (isCore) {
+				// Remove core container
+				State state = this.coreContainerState.replace(containerId, State.REMOVING);
+				if (state == State.RUNNING) {
+					if (isForce) {
+						this.stopContainer(containerId);
+					}
+					else {
+						throw new RuntimeException("Container is still Running!");
+					}
+				}
+				this.removeContainer(containerId);
+				this.containerExecutions.remove(containerId);
+				this.coreContainerState.remove(containerId);
+				this.currentCoreContainerSize.decrementAndGet();
+				log.info("Core Container {} has been removed successfully", containerId);
+			}
+			else {
+				// Remove temporary container
+				State state = this.tempContainerState.replace(containerId, State.REMOVING);
+				if (state == State.RUNNING) {
+					if (isForce) {
+						this.stopContainer(containerId);
+					}
+					else {
+						throw new RuntimeException("Container is still Running!");
+					}
+				}
+				this.removeContainer(containerId);
+				this.containerExecutions.remove(containerId);
+				this.tempContainerLastUsed.remove(containerId);
+				this.tempContainerState.remove(containerId);
+				this.currentTempContainerSize.decrementAndGet();
+				log.info("Temp Container {} has been removed successfully", containerId);
+			}
 		}
 		catch (Exception e) {
-			log.error("An exception occurred while executing the task: {}", e.getMessage(), e);
-			return TaskResponse.exception(e.getMessage());
+			log.error("Error when trying to remove a container, containerId: {}, info: {}", containerId, e.getMessage(),
+					e);
 		}
 	}
 
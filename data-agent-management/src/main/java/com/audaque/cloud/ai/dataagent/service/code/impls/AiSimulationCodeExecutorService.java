@@ -17,7 +17,13 @@ package com.audaque.cloud.ai.dataagent.service.code.impls;
 
 import com.audaque.cloud.ai.dataagent.service.code.CodePoolExecutorService;
 import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
+import com.audaque.cloud.ai.dataagent.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * 使用AI模拟运行Python代码（便于在无Docker环境测试）
@@ -34,6 +40,11 @@ public class AiSimulationCodeExecutorService implements CodePoolExecutorService
 			**要求**：仅输出模拟运行结果，禁止包含任何额外说明或自然语言。
 			""";
 
+	/**
+	 * 输入数据以列式文件交接时，提供给模型的最大行数
+	 */
+	private static final int MAX_SIMULATION_ROWS = 200;
+
 	private final LlmService llmService;
 
 	public AiSimulationCodeExecutorService(LlmService llmService) {
@@ -51,7 +62,7 @@ public class AiSimulationCodeExecutorService implements CodePoolExecutorService
 				```json
 				%s
 				```
-				""", request.code(), request.input());
+				""", request.code(), this.simulationInput(request));
 		String output = llmService.toStringFlux(llmService.call(SYSTEM_PROMPT, userPrompt))
 			.collect(StringBuilder::new, StringBuilder::append)
 			.map(StringBuilder::toString)
@@ -59,4 +70,20 @@ public class AiSimulationCodeExecutorService implements CodePoolExecutorService
 		return TaskResponse.success(output);
 	}
 
+	// 模拟执行没有文件系统，列式交接的数据以 JSON 形式提供给模型
+	private String simulationInput(TaskRequest request) {
+		if (StringUtils.hasText(request.input()) || request.data() == null) {
+			return request.input();
+		}
+		List<? extends Map<String, ?>> rows = request.data().size() > MAX_SIMULATION_ROWS
+				? request.data().subList(0, MAX_SIMULATION_ROWS) : request.data();
+		try {
+			return JsonUtil.getObjectMapper().writeValueAsString(rows);
+		}
+		catch (JsonProcessingException e) {
+			log.warn("Serialize simulation input failed: {}", e.getMessage());
+			return request.input();
+		}
+	}
+
 }
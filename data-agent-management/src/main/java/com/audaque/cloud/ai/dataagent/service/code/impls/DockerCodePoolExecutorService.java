@@ -17,6 +17,7 @@ package com.audaque.cloud.ai.dataagent.service.code.impls;
 
 import com.audaque.cloud.ai.dataagent.properties.CodeExecutorProperties;
 import com.audaque.cloud.ai.dataagent.service.code.CodePoolExecutorService;
+import com.audaque.cloud.ai.dataagent.util.ColumnarDataUtil;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.CreateContainerResponse;
 import com.github.dockerjava.api.command.InspectContainerResponse;
@@ -36,6 +37,7 @@ import org.springframework.util.StringUtils;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -58,6 +60,11 @@ public class DockerCodePoolExecutorService extends AbstractCodePoolExecutorServi
 
 	private final ConcurrentHashMap<String, Path> containerTempPath;
 
+	// 按requirements缓存的依赖环境（pip --target 目录），未启用时为null
+	private final PythonEnvCache envCache;
+
+	private static final String ENV_MOUNT_PATH = "/envs";
+
 	/**
 	 * 镜像是否已拉取的标志
 	 */
@@ -73,9 +80,17 @@ public class DockerCodePoolExecutorService extends AbstractCodePoolExecutorServi
 			.build();
 		this.dockerClient = this.createDockerClientWithFallback(config);
 		this.containerTempPath = new ConcurrentHashMap<>();
-		// 不在启动时检查/拉取镜像，避免阻塞启动流程
-		// 镜像检查和拉取延迟到首次执行任务时进行
-		log.info("DockerCodePoolExecutorService initialized (image pull deferred to first execution)");
+		this.envCache = this.createEnvCache();
+		// 不在启动线程中检查/拉取镜像，避免阻塞启动流程
+		if (Boolean.TRUE.equals(properties.getPrewarmContainers())) {
+			// 在后台拉取镜像并预先创建核心容器，首个任务无需等待镜像检查和容器创建
+			this.warmUpCoreContainers();
+			log.info("DockerCodePoolExecutorService initialized (image pull and core containers warming up)");
+		}
+		else {
+			// 镜像检查和拉取延迟到首次执行任务时进行
+			log.info("DockerCodePoolExecutorService initialized (image pull deferred to first execution)");
+		}
 	}
 
 	/**
@@ -200,6 +215,17 @@ public class DockerCodePoolExecutorService extends AbstractCodePoolExecutorServi
 				AccessMode.rw));
 		binds.add(new Bind(tempDir.resolve("stderr.txt").toAbsolutePath().toString(), new Volume("/app/stderr.txt"),
 				AccessMode.rw));
+		for (String file : List.of(ColumnarDataUtil.DATA_FILE, ColumnarDataUtil.DTYPES_FILE,
+				ColumnarDataUtil.LOADER_MODULE_FILE)) {
+			binds.add(new Bind(tempDir.resolve(file).toAbsolutePath().toString(), new Volume("/app/" + file),
+					AccessMode.ro));
+		}
+		if (this.envCache != null) {
+			binds.add(new Bind(tempDir.resolve("env.txt").toAbsolutePath().toString(), new Volume("/app/env.txt"),
+					AccessMode.ro));
+			binds.add(new Bind(this.envCache.getRoot().toAbsolutePath().toString(), new Volume(ENV_MOUNT_PATH),
+					AccessMode.ro));
+		}
 
 		return newHostConfig().withMemory(this.properties.getLimitMemory() * 1024L * 1024L)
 			.withCpuCount(this.properties.getCpuCore())
@@ -278,6 +304,9 @@ public class DockerCodePoolExecutorService extends AbstractCodePoolExecutorServi
 		Files.createFile(tempDir.resolve("requirements.txt"));
 		Files.createFile(tempDir.resolve("script.py"));
 		Files.createFile(tempDir.resolve("input_data.txt"));
+		Files.createFile(tempDir.resolve("env.txt"));
+		ColumnarDataUtil.write(null, tempDir);
+		ColumnarDataUtil.writeLoaderModule(tempDir);
 
 		this.createWritableFile(tempDir, "stdout.txt");
 		this.createWritableFile(tempDir, "stderr.txt");
@@ -289,7 +318,8 @@ public class DockerCodePoolExecutorService extends AbstractCodePoolExecutorServi
 			.withWorkingDir("/app")
 			.withHostConfig(hostConfig)
 			.withCmd("sh", "-c", String.format(
-					"if [ -s requirements.txt ]; then pip3 install --no-cache-dir -r requirements.txt > /dev/null 2> stderr.txt; fi && { timeout -s SIGKILL %s python3 -u script.py < input_data.txt; } > stdout.txt 2>> stderr.txt",
+					"if [ -s env.txt ]; then export PYTHONPATH=" + ENV_MOUNT_PATH
+							+ "/$(cat env.txt); fi; if [ -s requirements.txt ]; then pip3 install --no-cache-dir -r requirements.txt > /dev/null 2> stderr.txt; fi && { timeout -s SIGKILL %s python3 -u script.py < input_data.txt; } > stdout.txt 2>> stderr.txt",
 					properties.getCodeTimeout()))
 			.exec();
 		String containerId = container.getId();
@@ -307,13 +337,37 @@ public class DockerCodePoolExecutorService extends AbstractCodePoolExecutorServi
 			return TaskResponse.exception("Container '" + containerId + "' does not exist work dir");
 		}
 
+		// 优先引用按requirements缓存的依赖环境，避免每次执行都在容器内pip install
+		PythonEnvCache.Lease lease = null;
+		if (this.envCache != null && StringUtils.hasText(request.requirement())) {
+			try {
+				lease = this.envCache.acquire(request.requirement());
+			}
+			catch (Exception e) {
+				// 环境构建失败时退化为在容器内pip install
+				log.warn("Prepare python env failed, fallback to pip install in container: {}", e.getMessage());
+			}
+		}
+		try (PythonEnvCache.Lease ignored = lease) {
+			return this.runInContainer(request, containerId, tempDir, lease);
+		}
+	}
+
+	private TaskResponse runInContainer(TaskRequest request, String containerId, Path tempDir,
+			PythonEnvCache.Lease lease) {
 		try {
 			Files.write(tempDir.resolve("script.py"),
 					StringUtils.hasText(request.code()) ? request.code().getBytes() : "".getBytes());
+			// 未启用环境缓存或缓存环境不可用时，与之前一样在容器内每次执行前安装依赖
+			boolean installInContainer = lease == null && StringUtils.hasText(request.requirement());
 			Files.write(tempDir.resolve("requirements.txt"),
-					StringUtils.hasText(request.requirement()) ? request.requirement().getBytes() : "".getBytes());
+					installInContainer ? request.requirement().getBytes() : "".getBytes());
+			if (this.envCache != null) {
+				Files.write(tempDir.resolve("env.txt"), lease != null ? lease.key().getBytes() : "".getBytes());
+			}
 			Files.write(tempDir.resolve("input_data.txt"),
 					StringUtils.hasText(request.input()) ? request.input().getBytes() : "".getBytes());
+			ColumnarDataUtil.write(request.data(), tempDir);
 			Files.write(tempDir.resolve("stdout.txt"), "".getBytes());
 			Files.write(tempDir.resolve("stderr.txt"), "".getBytes());
 		}
@@ -348,6 +402,79 @@ public class DockerCodePoolExecutorService extends AbstractCodePoolExecutorServi
 		}
 	}
 
+	// 创建依赖环境缓存，每个环境为使用执行镜像 pip install --target 构建的目录，执行时通过 PYTHONPATH 引用
+	private PythonEnvCache createEnvCache() {
+		CodeExecutorProperties.EnvCache config = this.properties.getEnvCache();
+		if (!Boolean.TRUE.equals(config.getEnabled())) {
+			return null;
+		}
+		try {
+			return new PythonEnvCache(Paths.get(config.getCacheDir()), config.getMaxEnvironments(),
+					config.getMaxSizeMb(), config.getFailureTtlSeconds(), this::buildEnvInContainer);
+		}
+		catch (IOException e) {
+			log.warn("Create python env cache failed, fallback to pip install per execution: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private void buildEnvInContainer(Path envDir, Path requirementsFile) throws Exception {
+		this.ensureImageAvailable();
+		CodeExecutorProperties.EnvCache config = this.properties.getEnvCache();
+		List<Bind> binds = new ArrayList<>();
+		binds.add(new Bind(envDir.toAbsolutePath().toString(), new Volume("/env"), AccessMode.rw));
+		binds.add(new Bind(requirementsFile.toAbsolutePath().toString(), new Volume("/requirements.txt"),
+				AccessMode.ro));
+		List<String> command = new ArrayList<>(
+				List.of("pip3", "install", "--disable-pip-version-check", "--no-input", "--target", "/env"));
+		if (StringUtils.hasText(config.getWheelhouseDir())) {
+			binds.add(new Bind(Paths.get(config.getWheelhouseDir()).toAbsolutePath().toString(),
+					new Volume("/wheelhouse"), AccessMode.ro));
+			command.addAll(List.of("--no-index", "--find-links", "/wheelhouse"));
+		}
+		command.addAll(List.of("-r", "/requirements.txt"));
+
+		String containerId = this.dockerClient.createContainerCmd(this.properties.getImageName())
+			.withHostConfig(newHostConfig().withMemory(this.properties.getLimitMemory() * 1024L * 1024L)
+				.withBinds(binds.toArray(new Bind[0]))
+				.withNetworkMode(this.properties.getNetworkMode()))
+			.withCmd(command)
+			.exec()
+			.getId();
+		try {
+			this.dockerClient.startContainerCmd(containerId).exec();
+			Integer exitCode = this.dockerClient.waitContainerCmd(containerId)
+				.start()
+				.awaitStatusCode(config.getBuildTimeoutSeconds(), TimeUnit.SECONDS);
+			if (exitCode == null || exitCode != 0) {
+				throw new IllegalStateException("pip install in container exited with code " + exitCode);
+			}
+		}
+		finally {
+			try {
+				this.dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+			}
+			catch (Exception e) {
+				log.warn("Failed to remove env build container {}: {}", containerId, e.getMessage());
+			}
+		}
+	}
+
+	@Override
+	protected boolean isContainerHealthy(String containerId) {
+		Path tempDir = this.containerTempPath.get(containerId);
+		if (tempDir == null || !Files.isDirectory(tempDir)) {
+			return false;
+		}
+		// 容器执行完成后处于 exited 状态，可再次 start；被删除、损坏或仍卡在运行中的容器不可用
+		InspectContainerResponse.ContainerState state = this.dockerClient.inspectContainerCmd(containerId)
+			.exec()
+			.getState();
+		String status = state.getStatus();
+		return !Boolean.TRUE.equals(state.getDead()) && !"removing".equals(status) && !"running".equals(status)
+				&& !"paused".equals(status);
+	}
+
 	@Override
 	protected void stopContainer(String containerId) throws Exception {
 		try {
@@ -17,26 +17,38 @@ package com.audaque.cloud.ai.dataagent.service.code.impls;
 
 import com.audaque.cloud.ai.dataagent.properties.CodeExecutorProperties;
 import com.audaque.cloud.ai.dataagent.service.code.CodePoolExecutorService;
+import com.audaque.cloud.ai.dataagent.util.ColumnarDataUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * 使用本地Python3环境运行代码的实现类，要求本地的Python3需要有pandas等数据分析库。
+ * <p>
+ * 默认每个“容器”绑定一个常驻的 Python Worker 进程（见 {@link LocalPythonWorker}），Worker 预加载常用库并复用解释器，
+ * 执行若干任务或内存增长过多后回收重建；关闭 Worker 池时退化为每个任务单独启动一个 Python 进程。
  *
  */
 @Slf4j
@@ -48,14 +60,53 @@ public class LocalCodePoolExecutorService extends AbstractCodePoolExecutorServic
 
 	private static final String[] pipNames = new String[] { "pip3", "pip" };
 
+	private static final String WORKER_SCRIPT_NAME = ".dataagent_worker.py";
+
+	// Worker启动失败后的退避时间，期间任务直接退化为独立进程运行，不再反复尝试启动
+	private static final long WORKER_START_BACKOFF_MS = 30_000L;
+
+	// 容器ID -> 常驻Python Worker，仅在启用Worker池时使用
+	private final ConcurrentHashMap<String, LocalPythonWorker> workers;
+
+	// 容器ID -> 正在启动的Worker，同一容器同时最多启动一个Worker，其余调用方等待该结果
+	private final ConcurrentHashMap<String, CompletableFuture<LocalPythonWorker>> startingWorkers;
+
+	// 容器ID -> Worker启动失败后允许再次尝试的时间戳
+	private final ConcurrentHashMap<String, Long> workerStartBackoff;
+
+	private final byte[] workerScript;
+
+	// 按requirements缓存的依赖环境，未启用时为null
+	private final PythonEnvCache envCache;
+
+	// 独立进程输出读取和Worker异步重建使用的线程池，不占用公共ForkJoinPool；
+	// 每个容器最多同时需要两个输出读取线程和一个重建线程，按容器上限设置最大线程数
+	private final ExecutorService ioExecutor;
+
 	// 对于本地运行这个实现类，“容器”为临时文件夹
 	public LocalCodePoolExecutorService(CodeExecutorProperties properties) {
 		super(properties);
 		this.containers = new ConcurrentHashMap<>();
+		this.workers = new ConcurrentHashMap<>();
+		this.startingWorkers = new ConcurrentHashMap<>();
+		this.workerStartBackoff = new ConcurrentHashMap<>();
+		this.ioExecutor = new ThreadPoolExecutor(0,
+				3 * (properties.getCoreContainerNum() + properties.getTempContainerNum()), 60L, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), r -> {
+					Thread thread = new Thread(r, "python-io");
+					thread.setDaemon(true);
+					return thread;
+				});
 		if (this.checkProgramExists(pythonNames) == null) {
 			throw new IllegalStateException(
 					"No valid Python interpreter was found for the current system environment variables. Please install Python3 into the system environment variables first.");
 		}
+		this.workerScript = this.loadWorkerScript();
+		this.envCache = this.createEnvCache();
+		if (this.workerScript != null && Boolean.TRUE.equals(properties.getPrewarmContainers())) {
+			// 提前启动核心Worker，使首个任务无需等待解释器启动和库导入
+			this.warmUpCoreContainers();
+		}
 	}
 
 	@Override
@@ -63,6 +114,10 @@ public class LocalCodePoolExecutorService extends AbstractCodePoolExecutorServic
 		Path container = Files.createTempDirectory(this.properties.getContainerNamePrefix());
 		String containerId = container.toString();
 		this.containers.put(containerId, container);
+		ColumnarDataUtil.writeLoaderModule(container);
+		if (this.workerScript != null) {
+			this.ensureWorker(containerId);
+		}
 		return containerId;
 	}
 
@@ -78,13 +133,29 @@ public class LocalCodePoolExecutorService extends AbstractCodePoolExecutorServic
 			Files.write(scriptFile, Optional.ofNullable(request.code()).orElse("").getBytes());
 			Files.write(stdinFile, Optional.ofNullable(request.input()).orElse("").getBytes());
 			Files.write(requirementFile, Optional.ofNullable(request.requirement()).orElse("").getBytes());
+			ColumnarDataUtil.write(request.data(), container);
 		} catch (Exception e) {
 			log.error("Create temp file failed: {}", e.getMessage(), e);
 			return TaskResponse.exception(e.getMessage());
 		}
 
-		// 如果有requirements，则先安装依赖
-		if (this.checkProgramExists(pipNames) != null && StringUtils.hasText(request.requirement())) {
+		// 如果有requirements，优先使用按依赖缓存的环境运行
+		boolean installPerExecution = this.envCache == null;
+		if (this.envCache != null && StringUtils.hasText(request.requirement())) {
+			try (PythonEnvCache.Lease lease = this.envCache.acquire(request.requirement())) {
+				if (lease != null) {
+					return this.runInProcess(container, scriptFile, stdinFile, this.venvPython(lease.dir()));
+				}
+			}
+			catch (Exception e) {
+				// 环境构建失败时退化为每次执行前安装依赖
+				log.warn("Prepare python env failed, fallback to pip install: {}", e.getMessage());
+				installPerExecution = true;
+			}
+		}
+		// 未启用环境缓存或缓存环境不可用时，每次执行前安装依赖
+		if (installPerExecution && this.checkProgramExists(pipNames) != null
+				&& StringUtils.hasText(request.requirement())) {
 			ProcessBuilder pip = new ProcessBuilder(this.checkProgramExists(pipNames), "install", "--no-cache-dir",
 					"-r", requirementFile.toAbsolutePath().toString(), ">", "/dev/null");
 			Process process = null;
@@ -109,11 +180,148 @@ public class LocalCodePoolExecutorService extends AbstractCodePoolExecutorServic
 			}
 		}
 
-		// 运行Python代码
+		if (this.workerScript != null) {
+			TaskResponse response = this.runInWorker(request, containerId);
+			if (response != null) {
+				return response;
+			}
+		}
+		return this.runInProcess(container, scriptFile, stdinFile, this.checkProgramExists(pythonNames));
+	}
+
+	/**
+	 * 在容器绑定的常驻Worker中运行代码
+	 * @return 运行结果，Worker无法启动时返回null，由调用方退化为独立进程运行
+	 */
+	private TaskResponse runInWorker(TaskRequest request, String containerId) {
+		Path container = this.containers.get(containerId);
+		LocalPythonWorker worker = this.ensureWorker(containerId);
+		if (worker == null) {
+			return null;
+		}
+		try {
+			LocalPythonWorker.Result result = worker.execute(Optional.ofNullable(request.code()).orElse(""),
+					Optional.ofNullable(request.input()).orElse(""), container,
+					this.parseToMilliseconds(this.properties.getCodeTimeout()));
+			this.recycleWorkerIfNecessary(containerId, worker);
+			if (result.exitCode() != 0) {
+				return TaskResponse.failure(result.stdout(), result.stderr());
+			}
+			return TaskResponse.success(result.stdout());
+		}
+		catch (TimeoutException e) {
+			// 超时时Worker已被强制结束，异步重建以便容器下次使用
+			this.discardWorker(containerId, worker, true);
+			return TaskResponse.failure("", "python code timeout, Killed.");
+		}
+		catch (IOException e) {
+			// 用户代码导致Worker进程退出（如 os._exit、段错误或被系统OOM Kill），视为执行失败而非容器损坏
+			log.warn("Python worker of container {} exited while running task: {}", containerId, e.getMessage());
+			this.discardWorker(containerId, worker, true);
+			return TaskResponse.failure("", e.getMessage());
+		}
+	}
+
+	/**
+	 * 获取容器绑定的存活Worker，不存在或已退出时启动新的Worker
+	 * @return Worker，启动失败或处于启动失败退避期时返回null
+	 */
+	private LocalPythonWorker ensureWorker(String containerId) {
+		LocalPythonWorker current = this.workers.get(containerId);
+		if (current != null && current.isAlive()) {
+			return current;
+		}
+		if (this.isWorkerStartBackedOff(containerId)) {
+			return null;
+		}
+		CompletableFuture<LocalPythonWorker> starting = new CompletableFuture<>();
+		CompletableFuture<LocalPythonWorker> pending = this.startingWorkers.putIfAbsent(containerId, starting);
+		if (pending != null) {
+			return pending.join();
+		}
+		LocalPythonWorker worker = null;
+		try {
+			current = this.workers.get(containerId);
+			worker = current != null && current.isAlive() ? current : this.startWorker(containerId);
+			return worker;
+		}
+		finally {
+			this.startingWorkers.remove(containerId, starting);
+			starting.complete(worker);
+		}
+	}
+
+	/**
+	 * 在锁外启动Worker进程（可能需要数十秒预加载依赖库），成功后发布到 workers；启动失败时记录退避时间
+	 */
+	private LocalPythonWorker startWorker(String containerId) {
+		Path container = this.containers.get(containerId);
+		if (container == null) {
+			return null;
+		}
+		LocalPythonWorker worker;
+		try {
+			Path script = container.resolve(WORKER_SCRIPT_NAME);
+			if (!Files.exists(script)) {
+				Files.write(script, this.workerScript);
+			}
+			CodeExecutorProperties.Local local = this.properties.getLocal();
+			worker = LocalPythonWorker.start(this.checkProgramExists(pythonNames), script, container,
+					local.getPreloadModules(), local.getWorkerStartTimeoutMs());
+		}
+		catch (Exception e) {
+			log.warn("Start python worker for container {} failed, fallback to standalone process for {}ms: {}",
+					containerId, WORKER_START_BACKOFF_MS, e.getMessage());
+			this.workerStartBackoff.put(containerId, System.currentTimeMillis() + WORKER_START_BACKOFF_MS);
+			return null;
+		}
+		this.workerStartBackoff.remove(containerId);
+		LocalPythonWorker previous = this.workers.put(containerId, worker);
+		if (previous != null && previous != worker) {
+			previous.close();
+		}
+		// removeContainer 先移除容器再移除Worker，发布后再次检查，避免容器删除后遗留进程
+		if (!this.containers.containsKey(containerId) && this.workers.remove(containerId, worker)) {
+			worker.close();
+			return null;
+		}
+		return worker;
+	}
+
+	private boolean isWorkerStartBackedOff(String containerId) {
+		Long retryAt = this.workerStartBackoff.get(containerId);
+		return retryAt != null && System.currentTimeMillis() < retryAt;
+	}
+
+	private void recycleWorkerIfNecessary(String containerId, LocalPythonWorker worker) {
+		CodeExecutorProperties.Local local = this.properties.getLocal();
+		if (worker.getTaskCount() >= local.getMaxTasksPerWorker()
+				|| worker.getPeakRssMb() >= local.getMaxWorkerMemoryMb()) {
+			log.info("Recycle python worker of container {}, tasks: {}, peak rss: {}MB", containerId,
+					worker.getTaskCount(), worker.getPeakRssMb());
+			this.discardWorker(containerId, worker, true);
+		}
+	}
+
+	private void discardWorker(String containerId, LocalPythonWorker worker, boolean restart) {
+		this.workers.remove(containerId, worker);
+		worker.close();
+		if (restart) {
+			try {
+				CompletableFuture.runAsync(() -> this.ensureWorker(containerId), this.ioExecutor);
+			}
+			catch (RejectedExecutionException e) {
+				// 线程已满或已关闭时不预先重建，容器下次使用时会按需启动Worker
+				log.debug("Skip async restart of python worker for container {}: {}", containerId, e.getMessage());
+			}
+		}
+	}
+
+	// 每个任务单独启动一个Python进程运行代码
+	private TaskResponse runInProcess(Path container, Path scriptFile, Path stdinFile, String python) {
 		Process process = null;
 		try {
-			ProcessBuilder pb = new ProcessBuilder(this.checkProgramExists(pythonNames),
-					scriptFile.toAbsolutePath().toString());
+			ProcessBuilder pb = new ProcessBuilder(python, scriptFile.toAbsolutePath().toString());
 			pb.directory(container.toFile());
 			pb.redirectInput(stdinFile.toFile());
 			process = pb.start();
@@ -129,14 +337,14 @@ public class LocalCodePoolExecutorService extends AbstractCodePoolExecutorServic
 					} catch (IOException e) {
 						stderrWriter.write("Error reading stdout: " + e.getMessage());
 					}
-				});
+				}, this.ioExecutor);
 				CompletableFuture<Void> stderrFuture = CompletableFuture.runAsync(() -> {
 					try {
 						stderrReader.transferTo(stderrWriter);
 					} catch (IOException e) {
 						stderrWriter.write("Error reading stderr: " + e.getMessage());
 					}
-				});
+				}, this.ioExecutor);
 
 				// 等待进程完成，带超时限制
 				boolean completed = process.waitFor(this.parseToMilliseconds(this.properties.getCodeTimeout()),
@@ -174,17 +382,141 @@ public class LocalCodePoolExecutorService extends AbstractCodePoolExecutorServic
 		}
 	}
 
+	@Override
+	protected void shutdownPool() throws Exception {
+		try {
+			super.shutdownPool();
+		}
+		finally {
+			this.ioExecutor.shutdownNow();
+		}
+	}
+
 	@Override
 	protected void stopContainer(String containerId) throws Exception {
-		// 临时文件夹没有停止方法
+		// 临时文件夹没有停止方法，仅结束绑定的Worker进程
+		LocalPythonWorker worker = this.workers.get(containerId);
+		if (worker != null) {
+			this.discardWorker(containerId, worker, false);
+		}
 	}
 
 	@Override
 	protected void removeContainer(String containerId) throws Exception {
 		Path container = this.containers.remove(containerId);
+		this.workerStartBackoff.remove(containerId);
+		LocalPythonWorker worker = this.workers.remove(containerId);
+		if (worker != null) {
+			worker.close();
+		}
 		this.clearTempDir(container);
 	}
 
+	@Override
+	protected boolean isContainerHealthy(String containerId) {
+		Path container = this.containers.get(containerId);
+		if (container == null || !Files.isDirectory(container)) {
+			return false;
+		}
+		if (this.workerScript == null) {
+			return true;
+		}
+		LocalPythonWorker worker = this.workers.get(containerId);
+		if (worker != null && worker.isAlive()) {
+			return true;
+		}
+		// 近期启动失败的视为不健康；否则Worker意外退出时在后台就地重建，不阻塞维护线程，也无需替换整个容器
+		if (this.isWorkerStartBackedOff(containerId)) {
+			return false;
+		}
+		if (!this.startingWorkers.containsKey(containerId)) {
+			try {
+				CompletableFuture.runAsync(() -> this.ensureWorker(containerId), this.ioExecutor);
+			}
+			catch (RejectedExecutionException e) {
+				// 线程已满或已关闭时不预先重建，容器下次使用时会按需启动Worker
+				log.debug("Skip async start of python worker for container {}: {}", containerId, e.getMessage());
+			}
+		}
+		return true;
+	}
+
+	// 创建依赖环境缓存，每个环境为继承系统site-packages的venv，只额外安装requirements中的依赖
+	private PythonEnvCache createEnvCache() {
+		CodeExecutorProperties.EnvCache config = this.properties.getEnvCache();
+		if (!Boolean.TRUE.equals(config.getEnabled())) {
+			return null;
+		}
+		try {
+			return new PythonEnvCache(Paths.get(config.getCacheDir()), config.getMaxEnvironments(),
+					config.getMaxSizeMb(), config.getFailureTtlSeconds(), (envDir, requirementsFile) -> {
+						this.runBuildCommand(envDir, List.of(this.checkProgramExists(pythonNames), "-m", "venv",
+								"--system-site-packages", envDir.toAbsolutePath().toString()));
+						List<String> pip = new ArrayList<>(List.of(this.venvPython(envDir), "-m", "pip", "install",
+								"--disable-pip-version-check", "--no-input"));
+						if (StringUtils.hasText(config.getWheelhouseDir())) {
+							pip.addAll(List.of("--no-index", "--find-links", config.getWheelhouseDir()));
+						}
+						pip.addAll(List.of("-r", requirementsFile.toAbsolutePath().toString()));
+						this.runBuildCommand(envDir, pip);
+					});
+		}
+		catch (IOException e) {
+			log.warn("Create python env cache failed, fallback to pip install per execution: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private String venvPython(Path envDir) {
+		boolean isWindows = System.getProperty("os.name").toLowerCase().contains("win");
+		return (isWindows ? envDir.resolve("Scripts").resolve("python.exe") : envDir.resolve("bin").resolve("python"))
+			.toAbsolutePath()
+			.toString();
+	}
+
+	private void runBuildCommand(Path envDir, List<String> command) throws Exception {
+		Path logFile = envDir.resolveSibling(envDir.getFileName() + ".log");
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+			.redirectOutput(logFile.toFile())
+			.start();
+		try {
+			if (!process.waitFor(this.properties.getEnvCache().getBuildTimeoutSeconds(), TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Command timed out: " + String.join(" ", command));
+			}
+			if (process.exitValue() != 0) {
+				String output = Files.readString(logFile);
+				throw new IllegalStateException("Command failed with exit code " + process.exitValue() + ": "
+						+ output.substring(Math.max(0, output.length() - 1000)));
+			}
+		}
+		finally {
+			if (process.isAlive()) {
+				process.destroyForcibly();
+			}
+			Files.deleteIfExists(logFile);
+		}
+	}
+
+	// 读取Worker脚本，未启用Worker池或读取失败时返回null
+	private byte[] loadWorkerScript() {
+		if (!Boolean.TRUE.equals(this.properties.getLocal().getEnableWorkerPool())) {
+			return null;
+		}
+		try (InputStream in = LocalCodePoolExecutorService.class
+			.getResourceAsStream(LocalPythonWorker.WORKER_SCRIPT_RESOURCE)) {
+			if (in == null) {
+				log.warn("Python worker script {} not found, warm worker pool disabled",
+						LocalPythonWorker.WORKER_SCRIPT_RESOURCE);
+				return null;
+			}
+			return in.readAllBytes();
+		}
+		catch (IOException e) {
+			log.warn("Load python worker script failed, warm worker pool disabled: {}", e.getMessage());
+			return null;
+		}
+	}
+
 	/**
 	 * 按顺序检查多个程序是否存在
 	 * 
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.code.impls;
+
+import com.audaque.cloud.ai.dataagent.util.JsonUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 常驻的本地 Python Worker 进程。
+ * <p>
+ * 进程启动时预加载常用数据分析库，之后通过 stdin/stdout 上的长度前缀 JSON 帧逐个接收任务，避免每次执行都重新启动解释器并导入
+ * pandas 等重量级依赖。一个 Worker 同一时刻只会被一个容器（即一个任务）使用，因此不是线程安全的。
+ *
+ */
+@Slf4j
+final class LocalPythonWorker implements Closeable {
+
+	static final String WORKER_SCRIPT_RESOURCE = "/python/warm_worker.py";
+
+	private static final int MAX_HEADER_LENGTH = 20;
+
+	private final Process process;
+
+	private final OutputStream requestStream;
+
+	private final InputStream responseStream;
+
+	// 每个 Worker 独占一个读取线程，阻塞读取不占用公共线程池，避免其他任务占满线程时读取排队导致误判超时
+	private final ExecutorService reader;
+
+	private int taskCount;
+
+	private double peakRssMb;
+
+	/**
+	 * 任务执行结果
+	 * @param exitCode 脚本退出码，异常或 sys.exit(非0) 时不为 0
+	 * @param stdout 标准输出
+	 * @param stderr 标准错误
+	 */
+	record Result(int exitCode, String stdout, String stderr) {
+	}
+
+	private LocalPythonWorker(Process process) {
+		this.process = process;
+		this.requestStream = process.getOutputStream();
+		this.responseStream = new BufferedInputStream(process.getInputStream());
+		this.reader = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "python-worker-reader-" + process.pid());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * 启动 Worker 并等待预加载完成
+	 * @param python Python 解释器
+	 * @param workerScript Worker 脚本路径
+	 * @param workDir 工作目录
+	 * @param preloadModules 需要预加载的模块
+	 * @param readyTimeoutMs 等待预加载完成的超时时间
+	 */
+	static LocalPythonWorker start(String python, Path workerScript, Path workDir, List<String> preloadModules,
+			long readyTimeoutMs) throws IOException, TimeoutException {
+		ProcessBuilder pb = new ProcessBuilder(python, "-u", workerScript.toAbsolutePath().toString(),
+				String.join(",", preloadModules));
+		pb.directory(workDir.toFile());
+		LocalPythonWorker worker = new LocalPythonWorker(pb.start());
+		worker.drainStderr();
+		try {
+			Map<String, Object> ready = worker.readFrame(readyTimeoutMs);
+			worker.updatePeakRss(ready);
+			log.info("Python worker started, pid: {}, preloaded: {}", worker.process.pid(), ready.get("preloaded"));
+			return worker;
+		}
+		catch (IOException | TimeoutException e) {
+			worker.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 在 Worker 中执行一段代码，超时后会强制结束 Worker 进程
+	 * @param code Python 代码
+	 * @param input 标准输入内容
+	 * @param workDir 任务工作目录
+	 * @param timeoutMs 执行超时时间
+	 */
+	Result execute(String code, String input, Path workDir, long timeoutMs) throws IOException, TimeoutException {
+		Map<String, Object> request = new HashMap<>();
+		request.put("code", code);
+		request.put("input", input);
+		request.put("workdir", workDir.toAbsolutePath().toString());
+		this.writeFrame(request);
+		this.taskCount++;
+		Map<String, Object> response = this.readFrame(timeoutMs);
+		this.updatePeakRss(response);
+		return new Result(((Number) response.getOrDefault("exitCode", 1)).intValue(),
+				String.valueOf(response.getOrDefault("stdout", "")), String.valueOf(response.getOrDefault("stderr", "")));
+	}
+
+	boolean isAlive() {
+		return this.process.isAlive();
+	}
+
+	int getTaskCount() {
+		return this.taskCount;
+	}
+
+	double getPeakRssMb() {
+		return this.peakRssMb;
+	}
+
+	@Override
+	public void close() {
+		this.process.destroy();
+		try {
+			if (!this.process.waitFor(1, TimeUnit.SECONDS)) {
+				this.process.destroyForcibly();
+			}
+		}
+		catch (InterruptedException e) {
+			this.process.destroyForcibly();
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			// 进程结束后管道关闭，读取线程随之退出
+			this.reader.shutdownNow();
+		}
+	}
+
+	private void writeFrame(Map<String, Object> payload) throws IOException {
+		byte[] data = JsonUtil.getObjectMapper().writeValueAsBytes(payload);
+		this.requestStream.write((data.length + "\n").getBytes(StandardCharsets.US_ASCII));
+		this.requestStream.write(data);
+		this.requestStream.flush();
+	}
+
+	private Map<String, Object> readFrame(long timeoutMs) throws IOException, TimeoutException {
+		Future<Map<String, Object>> future;
+		try {
+			future = this.reader.submit(this::readFrameBlocking);
+		}
+		catch (RejectedExecutionException e) {
+			throw new IOException("Python worker is closed", e);
+		}
+		try {
+			return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			// 结束进程以解除读取线程的阻塞
+			this.close();
+			throw e;
+		}
+		catch (ExecutionException e) {
+			throw new IOException("Python worker exited unexpectedly: " + e.getCause().getMessage(), e.getCause());
+		}
+		catch (InterruptedException e) {
+			this.close();
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for python worker", e);
+		}
+	}
+
+	private Map<String, Object> readFrameBlocking() throws IOException {
+		StringBuilder header = new StringBuilder();
+		int b;
+		while ((b = this.responseStream.read()) != '\n') {
+			if (b == -1) {
+				throw new IOException("End of stream");
+			}
+			if (header.length() >= MAX_HEADER_LENGTH) {
+				throw new IOException("Invalid frame header");
+			}
+			header.append((char) b);
+		}
+		int length = Integer.parseInt(header.toString().trim());
+		byte[] data = this.responseStream.readNBytes(length);
+		if (data.length != length) {
+			throw new IOException("End of stream");
+		}
+		return JsonUtil.getObjectMapper().readValue(data, new TypeReference<>() {
+		});
+	}
+
+	private void updatePeakRss(Map<String, Object> frame) {
+		if (frame.get("peakRssMb") instanceof Number rss) {
+			this.peakRssMb = rss.doubleValue();
+		}
+	}
+
+	// Worker 预加载失败或用户代码直接写入 fd 的内容会进入 stderr，需要持续读取以免管道写满阻塞进程
+	private void drainStderr() {
+		Thread drainer = new Thread(() -> {
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(this.process.getErrorStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					log.debug("[python-worker-{}] {}", this.process.pid(), line);
+				}
+			}
+			catch (IOException ignored) {
+			}
+		}, "python-worker-stderr-" + this.process.pid());
+		drainer.setDaemon(true);
+		drainer.start();
+	}
+
+}
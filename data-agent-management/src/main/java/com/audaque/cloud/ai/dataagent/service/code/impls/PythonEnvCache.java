@@ -0,0 +1,390 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.code.impls;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 以规范化后的 requirements 为键的 Python 依赖环境缓存。
+ * <p>
+ * 同一组依赖只构建一次（通常从本地 wheelhouse 离线安装），之后的执行直接引用已构建好的环境目录。缓存按环境数量和磁盘占用做 LRU
+ * 淘汰，正在被任务使用的环境不会被淘汰。构建失败会按依赖记录一段时间，期间相同依赖的请求直接失败，不再重复执行耗时的安装。
+ * 具体的构建方式（本地 venv 或容器内 pip --target）由 {@link Builder} 决定。
+ *
+ */
+@Slf4j
+final class PythonEnvCache {
+
+	private static final String READY_MARKER = ".ready";
+
+	private static final String BUILDING_SUFFIX = ".building-";
+
+	private static final String REQUIREMENTS_FILE = "requirements.txt";
+
+	private static final Pattern NAME_PATTERN = Pattern.compile("^([A-Za-z0-9][A-Za-z0-9._-]*)(.*)$");
+
+	private static final Pattern NAME_SEPARATOR_PATTERN = Pattern.compile("[-_.]+");
+
+	/**
+	 * 环境构建器
+	 */
+	@FunctionalInterface
+	interface Builder {
+
+		/**
+		 * 将依赖安装到指定目录
+		 * @param envDir 环境目录（已创建，为空目录）
+		 * @param requirementsFile 规范化后的 requirements 文件
+		 */
+		void build(Path envDir, Path requirementsFile) throws Exception;
+
+	}
+
+	/**
+	 * 对缓存环境的一次引用，关闭后该环境才允许被淘汰
+	 */
+	static final class Lease implements AutoCloseable {
+
+		private final Entry entry;
+
+		private boolean closed;
+
+		private Lease(Entry entry) {
+			this.entry = entry;
+		}
+
+		String key() {
+			return this.entry.key;
+		}
+
+		Path dir() {
+			return this.entry.dir;
+		}
+
+		@Override
+		public void close() {
+			if (!this.closed) {
+				this.closed = true;
+				this.entry.inUse.decrementAndGet();
+			}
+		}
+
+	}
+
+	private static final class Entry {
+
+		private final String key;
+
+		private final Path dir;
+
+		private final long sizeBytes;
+
+		private final AtomicInteger inUse = new AtomicInteger();
+
+		private volatile long lastAccess;
+
+		private Entry(String key, Path dir, long sizeBytes, long lastAccess) {
+			this.key = key;
+			this.dir = dir;
+			this.sizeBytes = sizeBytes;
+			this.lastAccess = lastAccess;
+		}
+
+	}
+
+	private final Path root;
+
+	private final int maxEnvironments;
+
+	private final long maxSizeBytes;
+
+	private final Builder builder;
+
+	private final long failureTtlMillis;
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	// 正在构建的环境，相同依赖的并发请求共享同一次构建
+	private final ConcurrentHashMap<String, CompletableFuture<Entry>> building = new ConcurrentHashMap<>();
+
+	// 最近构建失败的环境，在失败记录过期前相同依赖直接失败
+	private final ConcurrentHashMap<String, Failure> failures = new ConcurrentHashMap<>();
+
+	private record Failure(Exception error, long expiresAt) {
+	}
+
+	PythonEnvCache(Path root, int maxEnvironments, long maxSizeMb, long failureTtlSeconds, Builder builder)
+			throws IOException {
+		this.root = root;
+		this.maxEnvironments = Math.max(1, maxEnvironments);
+		this.maxSizeBytes = Math.max(1L, maxSizeMb) * 1024L * 1024L;
+		this.failureTtlMillis = Math.max(0L, failureTtlSeconds) * 1000L;
+		this.builder = builder;
+		Files.createDirectories(root);
+		this.loadExisting();
+	}
+
+	Path getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * 规范化 requirements：去除注释和空行，包名按 PEP 503 统一大小写和分隔符，去重后排序
+	 * @return 规范化结果，每行一个依赖；没有有效依赖时返回空字符串
+	 */
+	static String normalize(String requirements) {
+		if (!StringUtils.hasText(requirements)) {
+			return "";
+		}
+		TreeSet<String> lines = new TreeSet<>();
+		for (String raw : requirements.split("\\R")) {
+			int comment = raw.indexOf('#');
+			String line = (comment >= 0 ? raw.substring(0, comment) : raw).replaceAll("\\s+", "");
+			if (line.isEmpty()) {
+				continue;
+			}
+			Matcher matcher = NAME_PATTERN.matcher(line);
+			if (matcher.matches()) {
+				String name = NAME_SEPARATOR_PATTERN.matcher(matcher.group(1)).replaceAll("-").toLowerCase(Locale.ROOT);
+				line = name + matcher.group(2);
+			}
+			lines.add(line);
+		}
+		return String.join("\n", lines);
+	}
+
+	/**
+	 * 计算规范化 requirements 对应的缓存键
+	 */
+	static String key(String normalizedRequirements) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+				.digest(normalizedRequirements.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest, 0, 16);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 获取 requirements 对应的环境，不存在时构建；使用完毕后必须关闭返回的 Lease
+	 * @param requirements 原始 requirements 文本
+	 * @return 环境引用，没有有效依赖时返回 null
+	 * @throws Exception 构建失败，或相同依赖最近构建失败且失败记录尚未过期
+	 */
+	Lease acquire(String requirements) throws Exception {
+		String normalized = normalize(requirements);
+		if (normalized.isEmpty()) {
+			return null;
+		}
+		String key = key(normalized);
+		while (true) {
+			Entry entry = this.entries.get(key);
+			if (entry != null) {
+				entry.inUse.incrementAndGet();
+				// 淘汰与获取并发时，确认环境仍在缓存中
+				if (this.entries.get(key) == entry) {
+					entry.lastAccess = System.currentTimeMillis();
+					return new Lease(entry);
+				}
+				entry.inUse.decrementAndGet();
+				continue;
+			}
+			this.checkRecentFailure(key);
+			CompletableFuture<Entry> future = new CompletableFuture<>();
+			CompletableFuture<Entry> existing = this.building.putIfAbsent(key, future);
+			if (existing == null) {
+				try {
+					Entry built = this.build(key, normalized);
+					this.entries.put(key, built);
+					this.failures.remove(key);
+					future.complete(built);
+				}
+				catch (Exception e) {
+					if (this.failureTtlMillis > 0) {
+						this.failures.put(key, new Failure(e, System.currentTimeMillis() + this.failureTtlMillis));
+					}
+					future.completeExceptionally(e);
+					throw e;
+				}
+				finally {
+					this.building.remove(key, future);
+				}
+				this.evict();
+				continue;
+			}
+			try {
+				existing.get();
+			}
+			catch (ExecutionException e) {
+				throw e.getCause() instanceof Exception cause ? cause : e;
+			}
+		}
+	}
+
+	private void checkRecentFailure(String key) {
+		Failure failure = this.failures.get(key);
+		if (failure == null) {
+			return;
+		}
+		if (System.currentTimeMillis() >= failure.expiresAt()) {
+			this.failures.remove(key, failure);
+			return;
+		}
+		throw new IllegalStateException("Python env " + key + " failed to build recently, skip rebuilding until "
+				+ Instant.ofEpochMilli(failure.expiresAt()) + ": " + failure.error().getMessage(), failure.error());
+	}
+
+	private Entry build(String key, String normalized) throws Exception {
+		Path target = this.root.resolve(key);
+		Path staging = this.root.resolve(key + BUILDING_SUFFIX + UUID.randomUUID());
+		long start = System.currentTimeMillis();
+		Files.createDirectories(staging);
+		try {
+			Path requirementsFile = staging.resolve(REQUIREMENTS_FILE);
+			Files.writeString(requirementsFile, normalized + "\n");
+			this.builder.build(staging, requirementsFile);
+			Files.createFile(staging.resolve(READY_MARKER));
+			// 先在临时目录构建，完成后原子地切换到最终目录，避免其他进程看到半成品
+			deleteRecursively(target);
+			Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (Exception e) {
+			deleteRecursively(staging);
+			throw e;
+		}
+		long size = sizeOf(target);
+		log.info("Python env {} built in {}ms, size: {}KB, requirements: {}", key, System.currentTimeMillis() - start,
+				size / 1024, normalized.replace('\n', ' '));
+		return new Entry(key, target, size, System.currentTimeMillis());
+	}
+
+	// 按最近使用时间淘汰超出数量或体积上限的环境
+	private synchronized void evict() {
+		List<Entry> candidates = new ArrayList<>(this.entries.values());
+		candidates.sort(Comparator.comparingLong(e -> e.lastAccess));
+		long totalSize = candidates.stream().mapToLong(e -> e.sizeBytes).sum();
+		int count = candidates.size();
+		for (Entry entry : candidates) {
+			if (count <= this.maxEnvironments && totalSize <= this.maxSizeBytes) {
+				break;
+			}
+			if (entry.inUse.get() > 0 || !this.entries.remove(entry.key, entry)) {
+				continue;
+			}
+			// 移除后再次确认没有并发获取
+			if (entry.inUse.get() > 0) {
+				this.entries.put(entry.key, entry);
+				continue;
+			}
+			count--;
+			totalSize -= entry.sizeBytes;
+			deleteRecursively(entry.dir);
+			log.info("Python env {} evicted from cache", entry.key);
+		}
+	}
+
+	// 加载已有环境，清理上次未完成的构建
+	private void loadExisting() throws IOException {
+		try (DirectoryStream<Path> dirs = Files.newDirectoryStream(this.root, Files::isDirectory)) {
+			for (Path dir : dirs) {
+				String name = dir.getFileName().toString();
+				Path marker = dir.resolve(READY_MARKER);
+				if (name.contains(BUILDING_SUFFIX) || !Files.exists(marker)) {
+					deleteRecursively(dir);
+					continue;
+				}
+				this.entries.put(name,
+						new Entry(name, dir, sizeOf(dir), Files.getLastModifiedTime(marker).toMillis()));
+			}
+		}
+		if (!this.entries.isEmpty()) {
+			log.info("Loaded {} cached python envs from {}", this.entries.size(), this.root);
+			this.evict();
+		}
+	}
+
+	Map<String, Path> snapshot() {
+		Map<String, Path> result = new TreeMap<>();
+		this.entries.forEach((key, entry) -> result.put(key, entry.dir));
+		return result;
+	}
+
+	private static long sizeOf(Path dir) {
+		try (Stream<Path> files = Files.walk(dir)) {
+			return files.filter(Files::isRegularFile).mapToLong(file -> {
+				try {
+					return Files.size(file);
+				}
+				catch (IOException e) {
+					return 0L;
+				}
+			}).sum();
+		}
+		catch (IOException | UncheckedIOException e) {
+			return 0L;
+		}
+	}
+
+	private static void deleteRecursively(Path dir) {
+		if (!Files.exists(dir)) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(dir)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.deleteIfExists(path);
+				}
+				catch (IOException e) {
+					log.warn("Delete {} failed: {}", path, e.getMessage());
+				}
+			});
+		}
+		catch (IOException | UncheckedIOException e) {
+			log.warn("Delete {} failed: {}", dir, e.getMessage());
+		}
+	}
+
+}
@@ -120,4 +120,11 @@ public interface DatasourceService {
 	 */
 	PageResult<Datasource> queryByConditionsWithPage(DatasourceQueryDTO queryDTO);
 
+	/**
+	 * 失效数据源的查询结果缓存
+	 * @param datasourceId 数据源ID
+	 * @param tableName 表名，为空时失效该数据源的全部缓存
+	 */
+	void invalidateQueryResultCache(Integer datasourceId, String tableName);
+
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.datasource;
+
+import com.audaque.cloud.ai.dataagent.entity.LogicalRelation;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据源的逻辑外键关系图，表为顶点、逻辑外键为无向边。
+ * <p>
+ * 图构建后不可变；每个表出发的最短路径树在首次使用时计算并缓存，之后查询任意两表的最短关联路径无需再次遍历。
+ */
+public final class LogicalRelationGraph {
+
+	private static final LogicalRelationGraph EMPTY = new LogicalRelationGraph(Collections.emptyList());
+
+	/**
+	 * 表名 -> 与该表相连的边
+	 */
+	private final Map<String, List<Edge>> adjacency = new HashMap<>();
+
+	/**
+	 * 起点表 -> 到达各表时经过的最后一条边，由广度优先遍历得到
+	 */
+	private final Map<String, Map<String, Edge>> shortestPathTrees = new ConcurrentHashMap<>();
+
+	private final int relationCount;
+
+	private LogicalRelationGraph(List<LogicalRelation> relations) {
+		Set<String> seen = new HashSet<>();
+		for (LogicalRelation relation : relations) {
+			String source = relation.getSourceTableName();
+			String target = relation.getTargetTableName();
+			if (StringUtils.isAnyBlank(source, target, relation.getSourceColumnName(),
+					relation.getTargetColumnName())) {
+				continue;
+			}
+			String foreignKey = String.format("%s.%s=%s.%s", source, relation.getSourceColumnName(), target,
+					relation.getTargetColumnName());
+			if (!seen.add(foreignKey)) {
+				continue;
+			}
+			Edge edge = new Edge(source, target, foreignKey);
+			adjacency.computeIfAbsent(source, key -> new ArrayList<>()).add(edge);
+			if (!source.equals(target)) {
+				adjacency.computeIfAbsent(target, key -> new ArrayList<>()).add(edge);
+			}
+		}
+		this.relationCount = seen.size();
+	}
+
+	public static LogicalRelationGraph of(List<LogicalRelation> relations) {
+		return relations == null || relations.isEmpty() ? EMPTY : new LogicalRelationGraph(relations);
+	}
+
+	public static LogicalRelationGraph empty() {
+		return EMPTY;
+	}
+
+	public int getRelationCount() {
+		return relationCount;
+	}
+
+	/**
+	 * 返回至少一端在给定表集合中的逻辑外键，格式为 源表.字段=目标表.字段
+	 */
+	public List<String> relationsTouching(Collection<String> tableNames) {
+		Set<String> result = new LinkedHashSet<>();
+		for (String tableName : tableNames) {
+			for (Edge edge : adjacency.getOrDefault(tableName, Collections.emptyList())) {
+				result.add(edge.foreignKey());
+			}
+		}
+		return new ArrayList<>(result);
+	}
+
+	/**
+	 * 两表之间经过边数最少的关联路径，不连通时返回空列表
+	 */
+	public List<Edge> shortestPath(String from, String to) {
+		if (from.equals(to) || !adjacency.containsKey(from) || !adjacency.containsKey(to)) {
+			return Collections.emptyList();
+		}
+		Map<String, Edge> tree = shortestPathTrees.computeIfAbsent(from, this::buildShortestPathTree);
+		if (!tree.containsKey(to)) {
+			return Collections.emptyList();
+		}
+		LinkedList<Edge> path = new LinkedList<>();
+		String current = to;
+		while (!current.equals(from)) {
+			Edge edge = tree.get(current);
+			path.addFirst(edge);
+			current = edge.other(current);
+		}
+		return path;
+	}
+
+	/**
+	 * 为给定表集合补充桥接表，使其在关系图中尽可能连通。
+	 * <p>
+	 * 按最短路径长度从短到长依次考察表对，只有路径两端尚不连通时才采用该路径（近似最小斯坦纳树），超过 maxHops 条边的路径不采用。
+	 * @return 需要补充的桥接表及采用的关联路径上的外键
+	 */
+	public JoinPlan planJoins(Collection<String> tableNames, int maxHops) {
+		List<String> tables = tableNames.stream().filter(adjacency::containsKey).distinct().sorted().toList();
+		if (tables.size() < 2) {
+			return JoinPlan.EMPTY;
+		}
+
+		List<JoinPath> candidates = new ArrayList<>();
+		for (int i = 0; i < tables.size(); i++) {
+			for (int j = i + 1; j < tables.size(); j++) {
+				List<Edge> path = shortestPath(tables.get(i), tables.get(j));
+				if (!path.isEmpty() && path.size() <= maxHops) {
+					candidates.add(new JoinPath(tables.get(i), tables.get(j), path));
+				}
+			}
+		}
+		candidates.sort(Comparator.comparingInt(candidate -> candidate.edges().size()));
+
+		Map<String, String> parents = new HashMap<>();
+		Set<String> requested = new HashSet<>(tables);
+		Set<String> bridgingTables = new LinkedHashSet<>();
+		Set<String> joinKeys = new LinkedHashSet<>();
+		for (JoinPath candidate : candidates) {
+			if (find(parents, candidate.from()).equals(find(parents, candidate.to()))) {
+				continue;
+			}
+			String current = candidate.from();
+			for (Edge edge : candidate.edges()) {
+				String next = edge.other(current);
+				union(parents, current, next);
+				if (!requested.contains(next)) {
+					bridgingTables.add(next);
+				}
+				joinKeys.add(edge.foreignKey());
+				current = next;
+			}
+		}
+		return new JoinPlan(new ArrayList<>(bridgingTables), new ArrayList<>(joinKeys));
+	}
+
+	private Map<String, Edge> buildShortestPathTree(String from) {
+		Map<String, Edge> tree = new HashMap<>();
+		Set<String> visited = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>();
+		visited.add(from);
+		queue.add(from);
+		while (!queue.isEmpty()) {
+			String table = queue.poll();
+			for (Edge edge : adjacency.getOrDefault(table, Collections.emptyList())) {
+				String next = edge.other(table);
+				if (visited.add(next)) {
+					tree.put(next, edge);
+					queue.add(next);
+				}
+			}
+		}
+		return tree;
+	}
+
+	private static String find(Map<String, String> parents, String table) {
+		String root = table;
+		while (parents.containsKey(root)) {
+			root = parents.get(root);
+		}
+		return root;
+	}
+
+	private static void union(Map<String, String> parents, String a, String b) {
+		String rootA = find(parents, a);
+		String rootB = find(parents, b);
+		if (!rootA.equals(rootB)) {
+			parents.put(rootA, rootB);
+		}
+	}
+
+	/**
+	 * 一条逻辑外键边
+	 * @param foreignKey 源表.字段=目标表.字段
+	 */
+	public record Edge(String sourceTable, String targetTable, String foreignKey) {
+
+		String other(String table) {
+			return table.equals(sourceTable) ? targetTable : sourceTable;
+		}
+
+	}
+
+	private record JoinPath(String from, String to, List<Edge> edges) {
+	}
+
+	/**
+	 * 关联规划结果
+	 * @param bridgingTables 需要补充进 Schema 的桥接表
+	 * @param joinKeys 关联路径上的外键
+	 */
+	public record JoinPlan(List<String> bridgingTables, List<String> joinKeys) {
+
+		static final JoinPlan EMPTY = new JoinPlan(Collections.emptyList(), Collections.emptyList());
+
+	}
+
+}
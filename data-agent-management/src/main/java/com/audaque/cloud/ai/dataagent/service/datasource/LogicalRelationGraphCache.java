@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.datasource;
+
+import com.audaque.cloud.ai.dataagent.mapper.LogicalRelationMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按数据源缓存逻辑外键关系图，逻辑外键变更时由 DatasourceService 失效对应数据源的缓存
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LogicalRelationGraphCache {
+
+	private final LogicalRelationMapper logicalRelationMapper;
+
+	private final ConcurrentHashMap<Integer, LogicalRelationGraph> graphs = new ConcurrentHashMap<>();
+
+	public LogicalRelationGraph getGraph(Integer datasourceId) {
+		if (datasourceId == null) {
+			return LogicalRelationGraph.empty();
+		}
+		return graphs.computeIfAbsent(datasourceId, id -> {
+			LogicalRelationGraph graph = LogicalRelationGraph.of(logicalRelationMapper.selectByDatasourceId(id));
+			log.info("Loaded logical relation graph for datasource: {}, relations: {}", id,
+					graph.getRelationCount());
+			return graph;
+		});
+	}
+
+	/**
+	 * 失效数据源的关系图。处于事务中时在提交后再失效一次，避免并发请求在提交前重新加载到旧数据
+	 */
+	public void invalidate(Integer datasourceId) {
+		if (datasourceId == null) {
+			return;
+		}
+		graphs.remove(datasourceId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					graphs.remove(datasourceId);
+				}
+			});
+		}
+		log.debug("Invalidated logical relation graph for datasource: {}", datasourceId);
+	}
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.datasource;
+
+import com.audaque.cloud.ai.dataagent.bo.DbConfigBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.ResultSetBO;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.util.ContentHashUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 业务数据源查询结果缓存，按数据源、连接配置指纹和规范化后的 SQL 缓存只读查询的结果。
+ * <p>
+ * 只对 query-result-cache.datasource-ids 中配置的数据源生效，按条目数和估算字节数做 LRU 淘汰，
+ * 过期条目定时清理。数据源配置变更时整体失效，数据加工任务可按表失效；失效期间正在执行的查询结果不会写入缓存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryResultCache {
+
+	private static final Pattern BLOCK_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+
+	private static final Pattern LINE_COMMENT = Pattern.compile("--[^\\r\\n]*");
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private static final Pattern READ_ONLY_START = Pattern.compile("^(select|with)\\b", Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * 写操作、加锁读和结果不确定的函数（包括随执行时间变化的当前时间函数），包含时不缓存
+	 */
+	private static final Pattern NOT_CACHEABLE = Pattern.compile(
+			"\\b(insert|update|delete|merge|upsert|drop|alter|create|truncate|grant|revoke|call|exec|execute|into"
+					+ "|lock|for\\s+update|for\\s+share|nextval|rand|random|uuid|newid|sleep"
+					+ "|now|current_date|current_time|current_timestamp|localtime|localtimestamp|sysdate|systimestamp"
+					+ "|sysdatetime|getdate|getutcdate|curdate|curtime|unix_timestamp|utc_date|utc_timestamp)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	private final DataAgentProperties properties;
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * 每个数据源的失效次数，查询执行期间发生失效时不写入缓存
+	 */
+	private final ConcurrentHashMap<Integer, AtomicLong> invalidations = new ConcurrentHashMap<>();
+
+	private long totalBytes;
+
+	/**
+	 * 命中缓存时返回缓存结果的副本，否则执行查询并在允许时写入缓存
+	 * @param datasourceId 数据源ID，为 null 时不使用缓存
+	 * @param loader 实际执行查询
+	 */
+	public CachedResult getOrExecute(Integer datasourceId, DbConfigBO dbConfig, String sql,
+			Callable<ResultSetBO> loader) throws Exception {
+		String normalizedSql = normalize(sql);
+		if (datasourceId == null || !properties.getQueryResultCache().getDatasourceIds().contains(datasourceId)
+				|| !isReadOnly(normalizedSql)) {
+			return new CachedResult(loader.call(), System.currentTimeMillis(), false);
+		}
+		String key = key(datasourceId, dbConfig, normalizedSql);
+		Entry cached = get(key);
+		if (cached != null) {
+			log.debug("Query result cache hit for datasource {}, cached at {}", datasourceId, cached.cachedAt());
+			return new CachedResult(cached.resultSet().clone(), cached.cachedAt(), true);
+		}
+		long invalidationsBefore = invalidationCount(datasourceId);
+		long executedAt = System.currentTimeMillis();
+		ResultSetBO resultSet = loader.call();
+		if (invalidationCount(datasourceId) == invalidationsBefore) {
+			put(key, datasourceId, normalizedSql, resultSet, executedAt);
+		}
+		return new CachedResult(resultSet, executedAt, false);
+	}
+
+	/**
+	 * 失效数据源的全部缓存结果，处于事务中时在提交后再失效一次
+	 */
+	public void invalidateDatasource(Integer datasourceId) {
+		if (datasourceId == null) {
+			return;
+		}
+		removeIf(datasourceId, null);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					removeIf(datasourceId, null);
+				}
+			});
+		}
+	}
+
+	/**
+	 * 失效引用了指定表的缓存结果，表名按单词匹配，不区分大小写
+	 */
+	public void invalidateTable(Integer datasourceId, String tableName) {
+		if (datasourceId == null || tableName == null || tableName.isBlank()) {
+			return;
+		}
+		removeIf(datasourceId, Pattern.compile("\\b" + Pattern.quote(tableName.trim()) + "\\b",
+				Pattern.CASE_INSENSITIVE));
+	}
+
+	@Scheduled(fixedDelay = 60_000)
+	public synchronized void evictExpired() {
+		long expireBefore = System.currentTimeMillis() - properties.getQueryResultCache().getTtlSeconds() * 1000L;
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.cachedAt() < expireBefore) {
+				totalBytes -= entry.bytes();
+				iterator.remove();
+			}
+		}
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * 去掉注释、合并空白和末尾分号，保留大小写以免改变字符串常量
+	 */
+	static String normalize(String sql) {
+		if (sql == null) {
+			return "";
+		}
+		String normalized = LINE_COMMENT.matcher(BLOCK_COMMENT.matcher(sql).replaceAll(" ")).replaceAll(" ");
+		normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+		while (normalized.endsWith(";")) {
+			normalized = normalized.substring(0, normalized.length() - 1).trim();
+		}
+		return normalized;
+	}
+
+	/**
+	 * 只有单条 SELECT / WITH 查询且不含写操作、加锁和随机函数时才可缓存
+	 */
+	static boolean isReadOnly(String normalizedSql) {
+		return READ_ONLY_START.matcher(normalizedSql).find() && normalizedSql.indexOf(';') < 0
+				&& !NOT_CACHEABLE.matcher(normalizedSql).find();
+	}
+
+	private synchronized Entry get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.cachedAt() < System.currentTimeMillis() - properties.getQueryResultCache().getTtlSeconds() * 1000L) {
+			entries.remove(key);
+			totalBytes -= entry.bytes();
+			return null;
+		}
+		return entry;
+	}
+
+	private synchronized void put(String key, Integer datasourceId, String normalizedSql, ResultSetBO resultSet,
+			long cachedAt) {
+		if (resultSet == null || resultSet.getErrorMsg() != null || resultSet.getColumn() == null
+				|| resultSet.getData() == null) {
+			return;
+		}
+		DataAgentProperties.QueryResultCacheProperties config = properties.getQueryResultCache();
+		long bytes = estimateBytes(normalizedSql, resultSet);
+		if (bytes > config.getMaxEntryBytes()) {
+			log.debug("Query result of datasource {} too large to cache: ~{} bytes", datasourceId, bytes);
+			return;
+		}
+		Entry previous = entries.put(key, new Entry(datasourceId, normalizedSql, resultSet.clone(), cachedAt, bytes));
+		if (previous != null) {
+			totalBytes -= previous.bytes();
+		}
+		totalBytes += bytes;
+		Iterator<Entry> iterator = entries.values().iterator();
+		while ((entries.size() > config.getMaxEntries() || totalBytes > config.getMaxTotalBytes())
+				&& iterator.hasNext()) {
+			totalBytes -= iterator.next().bytes();
+			iterator.remove();
+		}
+	}
+
+	private void removeIf(Integer datasourceId, Pattern sqlPattern) {
+		invalidations.computeIfAbsent(datasourceId, id -> new AtomicLong()).incrementAndGet();
+		int removed = 0;
+		synchronized (this) {
+			Iterator<Entry> iterator = entries.values().iterator();
+			while (iterator.hasNext()) {
+				Entry entry = iterator.next();
+				if (datasourceId.equals(entry.datasourceId())
+						&& (sqlPattern == null || sqlPattern.matcher(entry.sql()).find())) {
+					totalBytes -= entry.bytes();
+					iterator.remove();
+					removed++;
+				}
+			}
+		}
+		log.debug("Invalidated {} cached query results of datasource {}", removed, datasourceId);
+	}
+
+	private long invalidationCount(Integer datasourceId) {
+		AtomicLong count = invalidations.get(datasourceId);
+		return count == null ? 0L : count.get();
+	}
+
+	private static String key(Integer datasourceId, DbConfigBO dbConfig, String normalizedSql) {
+		String connection = dbConfig == null ? ""
+				: dbConfig.getUrl() + '\n' + dbConfig.getUsername() + '\n' + dbConfig.getSchema();
+		return datasourceId + ":" + ContentHashUtil.sha256Hex(connection) + ':' + normalizedSql;
+	}
+
+	/**
+	 * 按字符串长度粗略估算结果占用的堆内存
+	 */
+	private static long estimateBytes(String sql, ResultSetBO resultSet) {
+		long bytes = 256L + sql.length() * 2L;
+		for (String column : resultSet.getColumn()) {
+			bytes += 48L + (column == null ? 0 : column.length() * 2L);
+		}
+		for (Map<String, String> row : resultSet.getData()) {
+			bytes += 64L;
+			for (String value : row.values()) {
+				bytes += 40L + (value == null ? 0 : value.length() * 2L);
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * 查询结果
+	 * @param resultSet 结果集
+	 * @param cachedAt 数据的查询时间（毫秒时间戳）
+	 * @param hit 是否来自缓存
+	 */
+	public record CachedResult(ResultSetBO resultSet, long cachedAt, boolean hit) {
+	}
+
+	private record Entry(Integer datasourceId, String sql, ResultSetBO resultSet, long cachedAt, long bytes) {
+	}
+
+}
@@ -24,6 +24,7 @@ import com.audaque.cloud.ai.dataagent.mapper.AgentDatasourceTablesMapper;
 import com.audaque.cloud.ai.dataagent.service.datasource.AgentDatasourceService;
 import com.audaque.cloud.ai.dataagent.service.datasource.DatasourceService;
 import com.audaque.cloud.ai.dataagent.service.schema.SchemaService;
+import com.audaque.cloud.ai.dataagent.service.semantic.SemanticModelIndex;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -46,6 +47,8 @@ public class AgentDatasourceServiceImpl implements AgentDatasourceService {
 
 	private final AgentDatasourceTablesMapper tablesMapper;
 
+	private final SemanticModelIndex semanticModelIndex;
+
 	@Override
 	public Boolean initializeSchemaForAgentWithDatasource(Long agentId, Integer datasourceId, List<String> tables) {
 		Assert.notNull(agentId, "Agent ID cannot be null");
@@ -142,6 +145,7 @@ public class AgentDatasourceServiceImpl implements AgentDatasourceService {
 			log.info("Created new datasource relation for agent: {}, datasource: {}", agentId, datasourceId);
 		}
 		result.setSelectTables(List.of());
+		semanticModelIndex.invalidate(agentId.longValue());
 		return result;
 	}
 
@@ -149,6 +153,7 @@ public class AgentDatasourceServiceImpl implements AgentDatasourceService {
 	public void removeDatasourceFromAgent(Integer agentId, Integer datasourceId) {
 		log.info("Removing datasource: {} from agent: {}", datasourceId, agentId);
 		agentDatasourceMapper.removeRelation(agentId, datasourceId);
+		semanticModelIndex.invalidate(agentId.longValue());
 		log.info("Successfully removed datasource: {} from agent: {}", datasourceId, agentId);
 	}
 
@@ -176,6 +181,7 @@ public class AgentDatasourceServiceImpl implements AgentDatasourceService {
 			throw new RuntimeException("Datasource relation not found");
 		}
 
+		semanticModelIndex.invalidate(agentId.longValue());
 		AgentDatasource result = agentDatasourceMapper.selectByAgentIdAndDatasourceId(agentId, datasourceId);
 		log.info("Successfully toggled datasource: {} for agent: {} to active: {}", datasourceId, agentId, isActive);
 		return result;
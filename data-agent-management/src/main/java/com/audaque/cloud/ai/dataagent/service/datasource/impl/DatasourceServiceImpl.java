@@ -34,6 +34,8 @@ import com.audaque.cloud.ai.dataagent.mapper.DatasourceMapper;
 import com.audaque.cloud.ai.dataagent.mapper.AgentDatasourceMapper;
 import com.audaque.cloud.ai.dataagent.mapper.LogicalRelationMapper;
 import com.audaque.cloud.ai.dataagent.service.datasource.DatasourceService;
+import com.audaque.cloud.ai.dataagent.service.datasource.LogicalRelationGraphCache;
+import com.audaque.cloud.ai.dataagent.service.datasource.QueryResultCache;
 import com.audaque.cloud.ai.dataagent.vo.PageResult;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -67,6 +69,10 @@ public class DatasourceServiceImpl implements DatasourceService {
 
 	private final DatasourceTypeHandlerRegistry datasourceTypeHandlerRegistry;
 
+	private final LogicalRelationGraphCache logicalRelationGraphCache;
+
+	private final QueryResultCache queryResultCache;
+
 	@Override
 	public List<Datasource> getAllDatasource() {
 		return datasourceMapper.selectAll();
@@ -130,6 +136,8 @@ public class DatasourceServiceImpl implements DatasourceService {
 		if (updated == 0) {
 			throw new RuntimeException("数据源更新失败，可能记录不存在");
 		}
+		// 连接信息可能已指向其他库，已缓存的查询结果不再可信
+		queryResultCache.invalidateDatasource(id);
 		return datasource;
 	}
 
@@ -144,6 +152,8 @@ public class DatasourceServiceImpl implements DatasourceService {
 		if (deleted == 0) {
 			throw new RuntimeException("数据源删除失败，可能记录不存在");
 		}
+		logicalRelationGraphCache.invalidate(id);
+		queryResultCache.invalidateDatasource(id);
 	}
 
 	@Override
@@ -319,6 +329,7 @@ public class DatasourceServiceImpl implements DatasourceService {
 			throw new RuntimeException("逻辑外键插入失败");
 		}
 		log.info("Logical relation added successfully with id: {}", logicalRelation.getId());
+		logicalRelationGraphCache.invalidate(datasourceId);
 
 		return logicalRelation;
 	}
@@ -350,6 +361,7 @@ public class DatasourceServiceImpl implements DatasourceService {
 		}
 
 		log.info("Logical relation updated successfully: {}", logicalRelationId);
+		logicalRelationGraphCache.invalidate(datasourceId);
 
 		// 返回更新后的数据
 		return logicalRelationMapper.selectById(logicalRelationId);
@@ -376,6 +388,7 @@ public class DatasourceServiceImpl implements DatasourceService {
 		}
 
 		log.info("Logical relation deleted successfully: {}", logicalRelationId);
+		logicalRelationGraphCache.invalidate(datasourceId);
 	}
 
 	@Override
@@ -456,6 +469,7 @@ public class DatasourceServiceImpl implements DatasourceService {
 
 		log.info("Saved logical relations for datasource {}: {} inserted, {} updated, {} deleted", datasourceId,
 				insertedCount, updatedCount, deletedCount);
+		logicalRelationGraphCache.invalidate(datasourceId);
 
 		return logicalRelationMapper.selectByDatasourceId(datasourceId);
 	}
@@ -480,4 +494,14 @@ public class DatasourceServiceImpl implements DatasourceService {
 		return pageResult;
 	}
 
+	@Override
+	public void invalidateQueryResultCache(Integer datasourceId, String tableName) {
+		if (StringUtils.isBlank(tableName)) {
+			queryResultCache.invalidateDatasource(datasourceId);
+		} else {
+			queryResultCache.invalidateTable(datasourceId, tableName);
+		}
+		log.info("Invalidated query result cache of datasource {}, table: {}", datasourceId, tableName);
+	}
+
 }
@@ -51,6 +51,15 @@ public interface FileStorageService {
 	 */
 	String storeFile(byte[] data, String fileName, String subPath);
 
+	/**
+	 * 按内容寻址存储字节数组，文件名为内容的 SHA-256，相同内容只存储一份
+	 * @param data 文件字节内容
+	 * @param extension 扩展名（如 .png）
+	 * @param subPath 子目录（如 charts）
+	 * @return 存储后的文件路径，内容不变则路径不变，可长期缓存
+	 */
+	String storeContentAddressedFile(byte[] data, String extension, String subPath);
+
 	/**
 	 * 获取文件资源对象
 	 * @param filePath 文件路径
@@ -17,6 +17,7 @@ package com.audaque.cloud.ai.dataagent.service.file.impls;
 
 import com.audaque.cloud.ai.dataagent.properties.FileStorageProperties;
 import com.audaque.cloud.ai.dataagent.service.file.FileStorageService;
+import com.audaque.cloud.ai.dataagent.util.ContentHashUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.FileSystemResource;
@@ -26,9 +27,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.UUID;
 
 @Slf4j
@@ -88,6 +91,35 @@ public class LocalFileStorageServiceImpl implements FileStorageService {
 		}
 	}
 
+	@Override
+	public String storeContentAddressedFile(byte[] data, String extension, String subPath) {
+		String hash = ContentHashUtil.sha256Hex(data);
+		String storagePath = buildStoragePath(contentAddressedDir(subPath, hash), hash + extension);
+		Path filePath = Paths.get(fileStorageProperties.getPath(), storagePath);
+		if (Files.exists(filePath)) {
+			log.debug("Content-addressed file already exists, reusing: {}", storagePath);
+			return storagePath;
+		}
+		try {
+			Files.createDirectories(filePath.getParent());
+			// 先写临时文件再原子移动，并发写入相同内容时不会读到不完整的文件
+			Path tempFile = Files.createTempFile(filePath.getParent(), hash, ".tmp");
+			try {
+				Files.write(tempFile, data);
+				Files.move(tempFile, filePath, StandardCopyOption.ATOMIC_MOVE);
+			} catch (FileAlreadyExistsException e) {
+				log.debug("Content-addressed file stored concurrently: {}", storagePath);
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+			log.info("Content-addressed file stored successfully: {}", storagePath);
+			return storagePath;
+		} catch (IOException e) {
+			log.error("Content-addressed file storage failed", e);
+			throw new RuntimeException("文件存储失败: " + e.getMessage(), e);
+		}
+	}
+
 	@Override
 	public boolean deleteFile(String filePath) {
 		try {
@@ -119,8 +151,12 @@ public class LocalFileStorageServiceImpl implements FileStorageService {
 	@Override
 	public Resource getFileResource(String filePath) {
 		String internalPath = resolveInternalPath(filePath);
-		Path fullPath = Paths.get(fileStorageProperties.getPath(), internalPath);
-		if (Files.exists(fullPath)) {
+		Path root = Paths.get(fileStorageProperties.getPath()).toAbsolutePath().normalize();
+		Path fullPath = root.resolve(internalPath).normalize();
+		if (!fullPath.startsWith(root)) {
+			throw new IllegalArgumentException("Invalid file path: " + internalPath);
+		}
+		if (Files.isRegularFile(fullPath)) {
 			return new FileSystemResource(fullPath);
 		} else {
 			throw new RuntimeException("File is not exist: " + internalPath);
@@ -161,6 +197,14 @@ public class LocalFileStorageServiceImpl implements FileStorageService {
 		return path;
 	}
 
+	/**
+	 * 按哈希前两位分目录，避免单个目录下文件过多
+	 */
+	static String contentAddressedDir(String subPath, String hash) {
+		String shard = hash.substring(0, 2);
+		return StringUtils.hasText(subPath) ? subPath + "/" + shard : shard;
+	}
+
 	/**
 	 * 构建本地存储路径
 	 */
@@ -18,6 +18,7 @@ package com.audaque.cloud.ai.dataagent.service.file.impls;
 import com.audaque.cloud.ai.dataagent.properties.FileStorageProperties;
 import com.audaque.cloud.ai.dataagent.properties.OssStorageProperties;
 import com.audaque.cloud.ai.dataagent.service.file.FileStorageService;
+import com.audaque.cloud.ai.dataagent.util.ContentHashUtil;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
 import com.aliyun.oss.model.ObjectMetadata;
@@ -25,6 +26,7 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -39,6 +41,8 @@ import java.util.UUID;
 @Slf4j
 public class OssFileStorageServiceImpl implements FileStorageService {
 
+	private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
 	private final FileStorageProperties fileStorageProperties;
 
 	private final OssStorageProperties ossProperties;
@@ -135,6 +139,35 @@ public class OssFileStorageServiceImpl implements FileStorageService {
 		}
 	}
 
+	@Override
+	public String storeContentAddressedFile(byte[] data, String extension, String subPath) {
+		if (data == null || data.length == 0) {
+			log.warn("Data is empty, cannot upload to OSS");
+			return null;
+		}
+		String hash = ContentHashUtil.sha256Hex(data);
+		String objectKey = buildObjectKey(LocalFileStorageServiceImpl.contentAddressedDir(subPath, hash),
+				hash + extension);
+		try {
+			if (ossClient.doesObjectExist(ossProperties.getBucketName(), objectKey)) {
+				log.debug("Content-addressed object already exists, reusing: {}", objectKey);
+				return objectKey;
+			}
+			ObjectMetadata metadata = new ObjectMetadata();
+			metadata.setContentLength(data.length);
+			MediaTypeFactory.getMediaType(objectKey)
+				.ifPresent(mediaType -> metadata.setContentType(mediaType.toString()));
+			// 对象内容由键决定，不会变化：浏览器和 CDN 可长期缓存，OSS 对简单上传的对象返回强 ETag 并支持 Range 请求
+			metadata.setCacheControl(IMMUTABLE_CACHE_CONTROL);
+			ossClient.putObject(ossProperties.getBucketName(), objectKey, new ByteArrayInputStream(data), metadata);
+			log.info("Content-addressed object uploaded successfully: {}", objectKey);
+			return objectKey;
+		} catch (Exception e) {
+			log.error("File storage failed, OSS upload error", e);
+			throw new RuntimeException("文件存储失败: " + e.getMessage(), e);
+		}
+	}
+
 	@Override
 	public boolean deleteFile(String filePath) {
 		if (!StringUtils.hasText(filePath)) {
@@ -18,16 +18,27 @@ package com.audaque.cloud.ai.dataagent.service.graph.Context;
 import com.audaque.cloud.ai.dataagent.entity.ConversationTurn;
 import com.audaque.cloud.ai.dataagent.mapper.ConversationTurnMapper;
 import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -36,23 +47,54 @@ import java.util.stream.Collectors;
  * history of user questions and the corresponding planner outputs so downstream
  * prompts
  * can reference prior turns.
+ * <p>
+ * 内存中的历史按最近最少使用和空闲时间淘汰，被淘汰的线程再次访问时从 conversation_turn 重新加载；
+ * 对话记录的写入、删除通过单线程写队列异步落库，同一线程的操作按入队顺序执行，应用关闭时会刷完队列。
  */
 @Slf4j
 @Component
-@AllArgsConstructor
-public class MultiTurnContextManager {
+public class MultiTurnContextManager implements DisposableBean {
+
+	private static final long WRITER_POLL_MILLIS = 500;
+
+	private static final long SHUTDOWN_WAIT_MILLIS = 10_000;
 
 	private final DataAgentProperties properties;
 
 	private final ConversationTurnMapper conversationTurnMapper;
 
-	private final Map<String, Deque<ConversationTurn>> history = new ConcurrentHashMap<>();
+	/**
+	 * 已加载的线程历史，按访问顺序排列，超出容量时淘汰最久未访问的线程，访问需持有该对象的锁
+	 */
+	private final LinkedHashMap<String, ThreadHistory> history;
 
-	// 缓存标志，标记哪些线程的历史已从数据库加载到内存
-	private final Map<String, Boolean> loadedFlags = new ConcurrentHashMap<>();
+	/**
+	 * 仍有未落库操作的线程历史。淘汰后再次访问时优先从这里恢复，保证不会从数据库读到落后的数据
+	 */
+	private final Map<String, ThreadHistory> unflushed = new ConcurrentHashMap<>();
 
 	private final Map<String, PendingTurn> pendingTurns = new ConcurrentHashMap<>();
 
+	private final BlockingQueue<TurnWrite> writeQueue = new LinkedBlockingQueue<>();
+
+	private final Thread writer;
+
+	private volatile boolean running = true;
+
+	public MultiTurnContextManager(DataAgentProperties properties, ConversationTurnMapper conversationTurnMapper) {
+		this.properties = properties;
+		this.conversationTurnMapper = conversationTurnMapper;
+		this.history = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ThreadHistory> eldest) {
+				return size() > Math.max(1, properties.getMaxCachedTurnThreads());
+			}
+		};
+		this.writer = new Thread(this::drainWrites, "multi-turn-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
 	/**
 	 * Start tracking a new turn for the given thread.
 	 * 
@@ -79,11 +121,26 @@ public class MultiTurnContextManager {
 		PendingTurn pending = pendingTurns.get(threadId);
 		if (pending != null) {
 			pending.planBuilder.append(chunk);
+			pending.touch();
+		}
+	}
+
+	/**
+	 * Mark the pending turn as active, e.g. when a run resumes after human feedback, so
+	 * that it is not evicted while waiting for the user.
+	 *
+	 * @param threadId conversation thread id
+	 */
+	public void touchPending(String threadId) {
+		PendingTurn pending = threadId == null ? null : pendingTurns.get(threadId);
+		if (pending != null) {
+			pending.touch();
 		}
 	}
 
 	/**
 	 * Finalize current turn and add to history if planner output is available.
+	 * The turn is persisted asynchronously by the write-behind queue.
 	 * 
 	 * @param threadId conversation thread id
 	 */
@@ -99,20 +156,24 @@ public class MultiTurnContextManager {
 		}
 
 		String trimmedPlan = StringUtils.abbreviate(plan, properties.getMaxplanlength());
-
-		// 确保该线程的历史已加载
-		ensureHistoryLoaded(threadId);
-
-		Deque<ConversationTurn> deque = history.computeIfAbsent(threadId, k -> new ArrayDeque<>());
-		synchronized (deque) {
-			// 持久化到数据库
-			persistTurnToDatabase(threadId, pending.userQuestion, trimmedPlan);
+		ThreadHistory threadHistory = getHistory(threadId);
+		synchronized (threadHistory) {
+			LocalDateTime now = LocalDateTime.now();
+			ConversationTurn turn = ConversationTurn.builder()
+					.threadId(threadId)
+					.userQuestion(pending.userQuestion)
+					.plan(trimmedPlan)
+					.sequenceNumber(++threadHistory.lastSequence)
+					.createTime(now)
+					.updateTime(now)
+					.build();
 
 			// 内存中维护历史记录
-			while (deque.size() >= properties.getMaxturnhistory()) {
-				deque.pollFirst();
+			while (threadHistory.turns.size() >= properties.getMaxturnhistory()) {
+				threadHistory.turns.pollFirst();
 			}
-			deque.addLast(new ConversationTurn(pending.userQuestion, trimmedPlan));
+			threadHistory.turns.addLast(turn);
+			enqueue(threadHistory, TurnWrite.insert(threadId, turn));
 		}
 	}
 
@@ -135,22 +196,18 @@ public class MultiTurnContextManager {
 	 * @param threadId conversation thread id
 	 */
 	public void restartLastTurn(String threadId) {
-		// 确保该线程的历史已加载
-		ensureHistoryLoaded(threadId);
-
-		Deque<ConversationTurn> deque = history.get(threadId);
-		if (deque == null || deque.isEmpty()) {
-			return;
-		}
+		ThreadHistory threadHistory = getHistory(threadId);
 		ConversationTurn lastTurn;
-		synchronized (deque) {
-			lastTurn = deque.pollLast();
-		}
-		if (lastTurn != null) {
-			// 从数据库中删除最后一条记录
-			conversationTurnMapper.deleteLastTurnByThreadId(threadId);
-			pendingTurns.put(threadId, new PendingTurn(lastTurn.getUserQuestion()));
+		synchronized (threadHistory) {
+			lastTurn = threadHistory.turns.pollLast();
+			if (lastTurn == null) {
+				return;
+			}
+			threadHistory.lastSequence--;
+			// 从数据库中删除最后一条记录，与之前入队的写入保持顺序
+			enqueue(threadHistory, TurnWrite.deleteLast(threadId));
 		}
+		pendingTurns.put(threadId, new PendingTurn(lastTurn.getUserQuestion()));
 	}
 
 	/**
@@ -160,111 +217,265 @@ public class MultiTurnContextManager {
 	 * @return formatted history string
 	 */
 	public String buildContext(String threadId) {
-		// 确保该线程的历史已加载
-		ensureHistoryLoaded(threadId);
+		ThreadHistory threadHistory = getHistory(threadId);
+		synchronized (threadHistory) {
+			if (threadHistory.turns.isEmpty()) {
+				return "(无)";
+			}
+			return threadHistory.turns.stream()
+					.map(turn -> "用户: " + turn.getUserQuestion() + "\nAI计划: " + turn.getPlan())
+					.collect(Collectors.joining("\n"));
+		}
+	}
 
-		Deque<ConversationTurn> deque = history.get(threadId);
-		if (deque == null || deque.isEmpty()) {
-			return "(无)";
+	/**
+	 * 清除指定线程的所有历史记录（内存和数据库）
+	 * 
+	 * @param threadId 线程ID
+	 */
+	public void clearHistory(String threadId) {
+		pendingTurns.remove(threadId);
+		ThreadHistory threadHistory = getHistory(threadId);
+		synchronized (threadHistory) {
+			threadHistory.turns.clear();
+			threadHistory.lastSequence = 0;
+			enqueue(threadHistory, TurnWrite.clear(threadId));
 		}
-		return deque.stream()
-				.map(turn -> "用户: " + turn.getUserQuestion() + "\nAI计划: " + turn.getPlan())
-				.collect(Collectors.joining("\n"));
+		log.info("Cleared all conversation history for thread: {}", threadId);
 	}
 
 	/**
-	 * 确保指定线程的历史记录已从数据库加载到内存
+	 * 获取指定线程的历史记录数量
 	 * 
 	 * @param threadId 线程ID
+	 * @return 历史记录数量
+	 */
+	public int getHistorySize(String threadId) {
+		ThreadHistory threadHistory = getHistory(threadId);
+		synchronized (threadHistory) {
+			return threadHistory.turns.size();
+		}
+	}
+
+	/**
+	 * 定期淘汰空闲的线程历史和长时间未完成的进行中轮次
 	 */
-	private void ensureHistoryLoaded(String threadId) {
-		if (loadedFlags.putIfAbsent(threadId, Boolean.TRUE) == null) {
-			// 首次访问该线程，从数据库加载历史
-			loadHistoryFromDatabase(threadId);
+	@Scheduled(fixedDelay = 60_000)
+	public void evictIdle() {
+		long idleMillis = TimeUnit.MINUTES.toMillis(properties.getTurnCacheIdleMinutes());
+		long deadline = System.currentTimeMillis() - idleMillis;
+		int evicted;
+		synchronized (history) {
+			int before = history.size();
+			history.values().removeIf(threadHistory -> threadHistory.lastAccess <= deadline);
+			evicted = before - history.size();
+		}
+		long pendingDeadline = System.currentTimeMillis()
+				- TimeUnit.MINUTES.toMillis(properties.getPendingTurnIdleMinutes());
+		pendingTurns.values().removeIf(pending -> pending.lastAccess <= pendingDeadline);
+		if (evicted > 0) {
+			log.debug("Evicted {} idle conversation histories", evicted);
 		}
 	}
 
 	/**
-	 * 从数据库加载历史记录到内存
+	 * 获取线程历史，依次从内存缓存、未落库集合、数据库中查找
+	 */
+	private ThreadHistory getHistory(String threadId) {
+		synchronized (history) {
+			ThreadHistory cached = history.get(threadId);
+			if (cached != null) {
+				cached.touch();
+				return cached;
+			}
+		}
+		ThreadHistory loaded = unflushed.get(threadId);
+		if (loaded == null) {
+			loaded = loadHistoryFromDatabase(threadId);
+		}
+		synchronized (history) {
+			ThreadHistory existing = history.putIfAbsent(threadId, loaded);
+			ThreadHistory result = existing != null ? existing : loaded;
+			result.touch();
+			return result;
+		}
+	}
+
+	/**
+	 * 从数据库加载历史记录
 	 * 
 	 * @param threadId 线程ID
 	 */
-	private void loadHistoryFromDatabase(String threadId) {
+	private ThreadHistory loadHistoryFromDatabase(String threadId) {
+		ThreadHistory threadHistory = new ThreadHistory();
 		try {
 			List<ConversationTurn> turns = conversationTurnMapper.selectByThreadId(threadId);
-			Deque<ConversationTurn> deque = new ArrayDeque<>(turns);
-			history.put(threadId, deque);
+			threadHistory.turns.addAll(turns);
+			threadHistory.lastSequence = turns.stream()
+					.map(ConversationTurn::getSequenceNumber)
+					.filter(Objects::nonNull)
+					.mapToInt(Integer::intValue)
+					.max()
+					.orElse(0);
 			log.debug("Loaded {} conversation turns from database for thread {}", turns.size(), threadId);
 		} catch (Exception e) {
 			log.error("Failed to load conversation history from database for thread {}", threadId, e);
-			history.putIfAbsent(threadId, new ArrayDeque<>());
 		}
+		return threadHistory;
 	}
 
 	/**
-	 * 将对话记录持久化到数据库
-	 * 
-	 * @param threadId     线程ID
-	 * @param userQuestion 用户问题
-	 * @param plan         AI规划
+	 * 登记未落库操作并入队，调用方需持有线程历史的锁
 	 */
-	private void persistTurnToDatabase(String threadId, String userQuestion, String plan) {
-		try {
-			int maxSequence = conversationTurnMapper.getMaxSequenceNumberByThreadId(threadId);
+	private void enqueue(ThreadHistory threadHistory, TurnWrite write) {
+		unflushed.compute(write.threadId, (key, current) -> {
+			threadHistory.pendingWrites.incrementAndGet();
+			return threadHistory;
+		});
+		if (!running) {
+			// 关闭过程中不再有后台线程消费，直接落库
+			apply(List.of(write));
+			return;
+		}
+		writeQueue.add(write);
+	}
 
-			ConversationTurn turn = ConversationTurn.builder()
-					.threadId(threadId)
-					.userQuestion(userQuestion)
-					.plan(plan)
-					.sequenceNumber(maxSequence + 1)
-					.createTime(java.time.LocalDateTime.now())
-					.updateTime(java.time.LocalDateTime.now())
-					.build();
+	private void drainWrites() {
+		List<TurnWrite> batch = new ArrayList<>();
+		while (running || !writeQueue.isEmpty()) {
+			try {
+				TurnWrite first = writeQueue.poll(WRITER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				writeQueue.drainTo(batch, Math.max(1, properties.getTurnWriteBatchSize()) - 1);
+				apply(batch);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			catch (Exception e) {
+				log.error("Unexpected error in conversation turn writer", e);
+			}
+			finally {
+				batch.clear();
+			}
+		}
+	}
 
-			conversationTurnMapper.insert(turn);
+	/**
+	 * 按顺序执行一批写操作，连续的插入合并为一次批量插入
+	 */
+	private void apply(List<TurnWrite> batch) {
+		List<TurnWrite> inserts = new ArrayList<>();
+		for (TurnWrite write : batch) {
+			if (write.type == WriteType.INSERT) {
+				inserts.add(write);
+				continue;
+			}
+			flushInserts(inserts);
+			try {
+				if (write.type == WriteType.DELETE_LAST) {
+					conversationTurnMapper.deleteLastTurnByThreadId(write.threadId);
+				}
+				else {
+					conversationTurnMapper.deleteByThreadId(write.threadId);
+				}
+			}
+			catch (Exception e) {
+				log.error("Failed to apply {} for conversation thread {}", write.type, write.threadId, e);
+			}
+			finally {
+				markFlushed(write.threadId);
+			}
+		}
+		flushInserts(inserts);
+	}
 
+	private void flushInserts(List<TurnWrite> inserts) {
+		if (inserts.isEmpty()) {
+			return;
+		}
+		Set<String> threadIds = new LinkedHashSet<>();
+		try {
+			List<ConversationTurn> turns = new ArrayList<>(inserts.size());
+			for (TurnWrite write : inserts) {
+				turns.add(write.turn);
+				threadIds.add(write.threadId);
+			}
+			conversationTurnMapper.insertBatch(turns);
 			// 清理超出最大历史记录数的旧记录
 			int maxHistory = properties.getMaxturnhistory();
-			conversationTurnMapper.cleanupOldTurns(threadId, maxHistory);
-
-			log.debug("Persisted conversation turn to database: threadId={}, sequence={}", threadId,
-					turn.getSequenceNumber());
+			for (String threadId : threadIds) {
+				conversationTurnMapper.cleanupOldTurns(threadId, maxHistory);
+			}
+			log.debug("Persisted {} conversation turns for {} threads", turns.size(), threadIds.size());
 		} catch (Exception e) {
-			log.error("Failed to persist conversation turn to database: threadId={}", threadId, e);
+			log.error("Failed to persist conversation turns for threads {}", threadIds, e);
+		} finally {
+			inserts.forEach(write -> markFlushed(write.threadId));
+			inserts.clear();
 		}
 	}
 
+	private void markFlushed(String threadId) {
+		unflushed.computeIfPresent(threadId,
+				(key, threadHistory) -> threadHistory.pendingWrites.decrementAndGet() > 0 ? threadHistory : null);
+	}
+
 	/**
-	 * 清除指定线程的所有历史记录（内存和数据库）
-	 * 
-	 * @param threadId 线程ID
+	 * 停止写线程并刷完队列中剩余的对话记录
 	 */
-	public void clearHistory(String threadId) {
-		try {
-			// 清除内存中的历史
-			history.remove(threadId);
-			loadedFlags.remove(threadId);
-			pendingTurns.remove(threadId);
+	@Override
+	public void destroy() throws InterruptedException {
+		running = false;
+		writer.join(SHUTDOWN_WAIT_MILLIS);
+		List<TurnWrite> remaining = new ArrayList<>();
+		writeQueue.drainTo(remaining);
+		if (!remaining.isEmpty()) {
+			log.info("Flushing {} remaining conversation turn writes on shutdown", remaining.size());
+			apply(remaining);
+		}
+	}
 
-			// 清除数据库中的历史
-			conversationTurnMapper.deleteByThreadId(threadId);
+	private enum WriteType {
 
-			log.info("Cleared all conversation history for thread: {}", threadId);
-		} catch (Exception e) {
-			log.error("Failed to clear conversation history for thread: {}", threadId, e);
+		INSERT, DELETE_LAST, CLEAR
+
+	}
+
+	private record TurnWrite(WriteType type, String threadId, ConversationTurn turn) {
+
+		private static TurnWrite insert(String threadId, ConversationTurn turn) {
+			return new TurnWrite(WriteType.INSERT, threadId, turn);
 		}
+
+		private static TurnWrite deleteLast(String threadId) {
+			return new TurnWrite(WriteType.DELETE_LAST, threadId, null);
+		}
+
+		private static TurnWrite clear(String threadId) {
+			return new TurnWrite(WriteType.CLEAR, threadId, null);
+		}
+
 	}
 
-	/**
-	 * 获取指定线程的历史记录数量
-	 * 
-	 * @param threadId 线程ID
-	 * @return 历史记录数量
-	 */
-	public int getHistorySize(String threadId) {
-		ensureHistoryLoaded(threadId);
-		Deque<ConversationTurn> deque = history.get(threadId);
-		return deque != null ? deque.size() : 0;
+	private static class ThreadHistory {
+
+		private final Deque<ConversationTurn> turns = new ArrayDeque<>();
+
+		private int lastSequence;
+
+		private final AtomicInteger pendingWrites = new AtomicInteger();
+
+		private volatile long lastAccess = System.currentTimeMillis();
+
+		private void touch() {
+			lastAccess = System.currentTimeMillis();
+		}
+
 	}
 
 	private static class PendingTurn {
@@ -273,9 +484,15 @@ public class MultiTurnContextManager {
 
 		private final StringBuilder planBuilder = new StringBuilder();
 
+		private volatile long lastAccess = System.currentTimeMillis();
+
 		private PendingTurn(String userQuestion) {
 			this.userQuestion = userQuestion;
 		}
 
+		private void touch() {
+			lastAccess = System.currentTimeMillis();
+		}
+
 	}
 }
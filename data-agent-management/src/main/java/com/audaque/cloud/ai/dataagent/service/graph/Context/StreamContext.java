@@ -18,25 +18,45 @@ package com.audaque.cloud.ai.dataagent.service.graph.Context;
 import com.audaque.cloud.ai.dataagent.enums.TextType;
 import com.audaque.cloud.ai.dataagent.vo.GraphNodeResponse;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.codec.ServerSentEvent;
 import reactor.core.Disposable;
 import reactor.core.publisher.Sinks;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.audaque.cloud.ai.dataagent.constant.Constant.STREAM_EVENT_COMPLETE;
+import static com.audaque.cloud.ai.dataagent.constant.Constant.STREAM_EVENT_ERROR;
 
 /**
  * 流式处理上下文，封装每个 threadId 的所有相关状态
- *
+ * <p>
+ * sink 为有界缓冲，客户端消费过慢导致缓冲区已满时：同一节点、同一文本类型的连续片段合并为一个待发送片段；
+ * 图表修正等非关键事件直接丢弃；其他事件最多等待 emitTimeoutMs，超时后返回失败，由调用方停止处理。
  */
+@Slf4j
 @Data
 public class StreamContext {
 
+	private static final long OVERFLOW_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+	private final int maxCoalescedTextLength;
+
+	private final long emitTimeoutMs;
+
 	private Disposable disposable;
 
 	private Sinks.Many<ServerSentEvent<GraphNodeResponse>> sink;
 
 	private TextType textType;
 
+	/**
+	 * 缓冲区已满时合并的文本片段，在下一次推送前优先发送
+	 */
+	private ServerSentEvent<GraphNodeResponse> pending;
+
 	/**
 	 * 标记是否已经清理，用于防止重复清理
 	 */
@@ -74,6 +94,116 @@ public class StreamContext {
 		}
 	}
 
+	/**
+	 * 串行化地向 sink 推送事件，避免节点输出与异步事件（如图表配置修正）并发推送导致 FAIL_NON_SERIALIZED，缓冲区已满时的处理见类注释
+	 */
+	public synchronized Sinks.EmitResult emitNext(ServerSentEvent<GraphNodeResponse> event) {
+		if (pending != null) {
+			if (!isCritical(event)) {
+				flushPending(false);
+				if (pending != null) {
+					log.debug("Stream buffer full, dropping non-critical event: {}", event.event());
+					return Sinks.EmitResult.FAIL_OVERFLOW;
+				}
+			}
+			else if (canCoalesce(pending, event)) {
+				pending = coalesce(pending, event);
+				return flushPending(false);
+			}
+			else {
+				Sinks.EmitResult flushed = flushPending(true);
+				if (flushed.isFailure()) {
+					return flushed;
+				}
+			}
+		}
+		Sinks.EmitResult result = tryEmit(event);
+		if (result != Sinks.EmitResult.FAIL_OVERFLOW) {
+			return result;
+		}
+		if (isCoalescable(event)) {
+			pending = event;
+			return Sinks.EmitResult.OK;
+		}
+		if (!isCritical(event)) {
+			log.debug("Stream buffer full, dropping non-critical event: {}", event.event());
+			return result;
+		}
+		return emitWithinTimeout(event);
+	}
+
+	/**
+	 * 发送待发送的合并片段
+	 * @param wait 缓冲区仍满时是否等待
+	 */
+	private Sinks.EmitResult flushPending(boolean wait) {
+		Sinks.EmitResult result = wait ? emitWithinTimeout(pending) : tryEmit(pending);
+		if (result.isSuccess()) {
+			pending = null;
+			return result;
+		}
+		// 不等待时缓冲区已满属于正常情况，片段继续保留
+		return !wait && result == Sinks.EmitResult.FAIL_OVERFLOW ? Sinks.EmitResult.OK : result;
+	}
+
+	/**
+	 * 有界 unicast sink 在客户端订阅前缓冲区已满时返回 FAIL_ZERO_SUBSCRIBER，与订阅后的 FAIL_OVERFLOW 同样视为缓冲区已满
+	 */
+	private Sinks.EmitResult tryEmit(ServerSentEvent<GraphNodeResponse> event) {
+		Sinks.EmitResult result = sink.tryEmitNext(event);
+		return result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER ? Sinks.EmitResult.FAIL_OVERFLOW : result;
+	}
+
+	private Sinks.EmitResult emitWithinTimeout(ServerSentEvent<GraphNodeResponse> event) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(emitTimeoutMs);
+		Sinks.EmitResult result = tryEmit(event);
+		while (result == Sinks.EmitResult.FAIL_OVERFLOW && System.nanoTime() < deadline && !isCleaned()) {
+			LockSupport.parkNanos(OVERFLOW_PARK_NANOS);
+			result = tryEmit(event);
+		}
+		return result;
+	}
+
+	private boolean canCoalesce(ServerSentEvent<GraphNodeResponse> previous, ServerSentEvent<GraphNodeResponse> next) {
+		if (!isCoalescable(next)) {
+			return false;
+		}
+		GraphNodeResponse a = previous.data();
+		GraphNodeResponse b = next.data();
+		return a.getNodeName() != null && a.getNodeName().equals(b.getNodeName()) && a.getTextType() == b.getTextType()
+				&& a.getText().length() + b.getText().length() <= maxCoalescedTextLength;
+	}
+
+	private static ServerSentEvent<GraphNodeResponse> coalesce(ServerSentEvent<GraphNodeResponse> previous,
+			ServerSentEvent<GraphNodeResponse> next) {
+		GraphNodeResponse a = previous.data();
+		GraphNodeResponse merged = GraphNodeResponse.builder()
+			.agentId(a.getAgentId())
+			.threadId(a.getThreadId())
+			.nodeName(a.getNodeName())
+			.textType(a.getTextType())
+			.text(a.getText() + next.data().getText())
+			.build();
+		return ServerSentEvent.builder(merged).build();
+	}
+
+	/**
+	 * 普通节点输出片段可以合并，前端按节点和文本类型拼接连续片段；结果集片段需单独解析，不可合并
+	 */
+	private static boolean isCoalescable(ServerSentEvent<GraphNodeResponse> event) {
+		GraphNodeResponse data = event.data();
+		return event.event() == null && data != null && data.getText() != null
+				&& data.getTextType() != TextType.RESULT_SET;
+	}
+
+	/**
+	 * 普通节点输出和完成/错误事件是关键事件，其余命名事件（如图表修正）可丢弃
+	 */
+	private static boolean isCritical(ServerSentEvent<GraphNodeResponse> event) {
+		return event.event() == null || STREAM_EVENT_COMPLETE.equals(event.event())
+				|| STREAM_EVENT_ERROR.equals(event.event());
+	}
+
 	/**
 	 * 检查是否已经清理
 	 */
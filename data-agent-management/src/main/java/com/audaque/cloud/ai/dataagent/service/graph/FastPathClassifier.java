@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.agent.PresetQuestionIndex;
+import com.audaque.cloud.ai.dataagent.util.QuestionTextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 意图识别前的本地快速分类：只对能够确定的问题给出结论，其余交给大模型判断。
+ * <p>
+ * 规则依次为：内置及配置的问候、致谢、自我介绍类完整语句判定为闲聊；与启用的预设问题足够相似判定为预设问题；
+ * 包含智能体配置的数据分析关键词判定为数据分析请求。闲聊规则只用于会话首轮，多轮对话中的"好的"、"谢谢"等
+ * 可能是对上一轮澄清问题的回答，需要由大模型结合上下文判断。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FastPathClassifier {
+
+	/**
+	 * 内置闲聊语句，均为规范化后的形式
+	 */
+	private static final Set<String> BUILTIN_CHAT_PHRASES = Set.of("hi", "hello", "hey", "你好", "您好", "嗨", "哈喽", "在吗",
+			"在么", "早上好", "上午好", "中午好", "下午好", "晚上好", "thanks", "thank you", "谢谢", "多谢", "感谢", "谢谢你", "好的",
+			"ok", "再见", "bye", "拜拜", "你是谁", "你叫什么", "你能做什么", "你可以做什么", "你会什么", "who are you",
+			"what can you do");
+
+	private final DataAgentProperties properties;
+
+	private final PresetQuestionIndex presetQuestionIndex;
+
+	public enum Decision {
+
+		/**
+		 * 明确的闲聊或无关指令
+		 */
+		CHAT,
+
+		/**
+		 * 明确的数据分析请求，仍需经过可行性评估
+		 */
+		DATA,
+
+		/**
+		 * 命中预设问题，可跳过可行性评估
+		 */
+		PRESET,
+
+		/**
+		 * 无法确定，由大模型判断
+		 */
+		NONE
+
+	}
+
+	public Decision classify(String agentId, String question, String multiTurn) {
+		DataAgentProperties.FastPathProperties config = properties.getFastPath();
+		if (!config.isEnabled() || StringUtils.isBlank(question)) {
+			return Decision.NONE;
+		}
+		String normalized = QuestionTextUtil.normalize(question);
+		if (isFirstTurn(multiTurn) && (BUILTIN_CHAT_PHRASES.contains(normalized)
+				|| config.getChatPhrases().stream().map(QuestionTextUtil::normalize).anyMatch(normalized::equals))) {
+			return Decision.CHAT;
+		}
+		if (StringUtils.isNumeric(agentId) && presetQuestionIndex.findSimilar(Long.valueOf(agentId), question,
+				config.getPresetSimilarityThreshold()) != null) {
+			return Decision.PRESET;
+		}
+		List<String> keywords = agentId == null ? null : config.getAgentDataKeywords().get(agentId);
+		if (keywords != null && keywords.stream()
+			.map(QuestionTextUtil::normalize)
+			.anyMatch(keyword -> !keyword.isEmpty() && normalized.contains(keyword))) {
+			return Decision.DATA;
+		}
+		return Decision.NONE;
+	}
+
+	private static boolean isFirstTurn(String multiTurn) {
+		return StringUtils.isBlank(multiTurn) || "(无)".equals(multiTurn.trim());
+	}
+
+	/**
+	 * 预设问题的可行性评估结果，格式与 feasibility-assessment 模板的输出一致
+	 */
+	public static String presetFeasibilityOutput(String canonicalQuery) {
+		String language = QuestionTextUtil.containsCjk(canonicalQuery) ? "《中文》" : "《英文》";
+		return "【需求类型】：《数据分析》\n【语种类型】：" + language + "\n【需求内容】：" + canonicalQuery;
+	}
+
+}
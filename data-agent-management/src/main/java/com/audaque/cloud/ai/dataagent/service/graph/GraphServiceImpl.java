@@ -15,17 +15,24 @@
  */
 package com.audaque.cloud.ai.dataagent.service.graph;
 
+import com.audaque.cloud.ai.dataagent.bo.schema.ResultBO;
 import com.audaque.cloud.ai.dataagent.enums.TextType;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.event.ChartConfigRefinedEvent;
+import com.audaque.cloud.ai.dataagent.util.JsonUtil;
 import com.audaque.cloud.ai.dataagent.workflow.node.PlannerNode;
+import com.audaque.cloud.ai.dataagent.workflow.node.SqlExecuteNode;
 import com.audaque.cloud.ai.dataagent.dto.GraphRequest;
 import com.audaque.cloud.ai.dataagent.service.graph.Context.MultiTurnContextManager;
 import com.audaque.cloud.ai.dataagent.service.graph.Context.StreamContext;
+import com.audaque.cloud.ai.dataagent.service.metrics.DataAgentMetrics;
 import com.audaque.cloud.ai.dataagent.vo.GraphNodeResponse;
 import com.alibaba.cloud.ai.graph.*;
 import com.alibaba.cloud.ai.graph.exception.GraphRunnerException;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -54,12 +61,22 @@ public class GraphServiceImpl implements GraphService {
 
 	private final MultiTurnContextManager multiTurnContextManager;
 
+	private final SpeculativeRecallService speculativeRecallService;
+
+	private final DataAgentMetrics metrics;
+
+	private final DataAgentProperties.SseProperties sseProperties;
+
 	public GraphServiceImpl(StateGraph stateGraph, ExecutorService executorService,
-			MultiTurnContextManager multiTurnContextManager) throws GraphStateException {
+			MultiTurnContextManager multiTurnContextManager, SpeculativeRecallService speculativeRecallService,
+			DataAgentMetrics metrics, DataAgentProperties dataAgentProperties) throws GraphStateException {
 		this.compiledGraph = stateGraph.compile(CompileConfig.builder().interruptBefore(HUMAN_FEEDBACK_NODE).build());
 		this.compiledGraph.setMaxIterations(100);
 		this.executor = executorService;
 		this.multiTurnContextManager = multiTurnContextManager;
+		this.speculativeRecallService = speculativeRecallService;
+		this.metrics = metrics;
+		this.sseProperties = dataAgentProperties.getSse();
 	}
 
 	@Override
@@ -78,7 +95,8 @@ public class GraphServiceImpl implements GraphService {
 		}
 		String threadId = graphRequest.getThreadId();
 		// 创建或获取 StreamContext
-		StreamContext context = streamContextMap.computeIfAbsent(threadId, k -> new StreamContext());
+		StreamContext context = streamContextMap.computeIfAbsent(threadId, k -> new StreamContext(sseProperties.getMaxCoalescedTextLength(),
+				sseProperties.getEmitTimeoutMs()));
 		context.setSink(sink);
 		if (StringUtils.hasText(graphRequest.getHumanFeedbackContent())) {
 			handleHumanFeedback(graphRequest);
@@ -99,6 +117,8 @@ public class GraphServiceImpl implements GraphService {
 		}
 		log.info("Stopping stream processing for threadId: {}", threadId);
 		multiTurnContextManager.discardPending(threadId);
+		speculativeRecallService.discard(threadId);
+		metrics.finishRun(threadId, DataAgentMetrics.OUTCOME_CANCELLED, null);
 		StreamContext context = streamContextMap.remove(threadId);
 		if (context != null) {
 			context.cleanup();
@@ -127,8 +147,9 @@ public class GraphServiceImpl implements GraphService {
 		String multiTurnContext = multiTurnContextManager.buildContext(threadId);
 		multiTurnContextManager.beginTurn(threadId, query);
 		Flux<NodeOutput> nodeOutputFlux = compiledGraph.stream(Map.of(IS_ONLY_NL2SQL, nl2sqlOnly, INPUT_KEY, query,
-				AGENT_ID, agentId, HUMAN_REVIEW_ENABLED, humanReviewEnabled, PLAIN_REPORT, graphRequest.isPlainReport(),
-				MULTI_TURN_CONTEXT, multiTurnContext), RunnableConfig.builder().threadId(threadId).build());
+				AGENT_ID, agentId, THREAD_ID, threadId, HUMAN_REVIEW_ENABLED, humanReviewEnabled, PLAIN_REPORT,
+				graphRequest.isPlainReport(), MULTI_TURN_CONTEXT, multiTurnContext),
+				RunnableConfig.builder().threadId(threadId).build());
 		subscribeToFlux(context, nodeOutputFlux, graphRequest, agentId, threadId);
 	}
 
@@ -152,6 +173,9 @@ public class GraphServiceImpl implements GraphService {
 		if (graphRequest.isRejectedPlan()) {
 			multiTurnContextManager.restartLastTurn(threadId);
 		}
+		else {
+			multiTurnContextManager.touchPending(threadId);
+		}
 		Map<String, Object> stateUpdate = new HashMap<>();
 		stateUpdate.put(HUMAN_FEEDBACK_DATA, feedbackData);
 		stateUpdate.put(MULTI_TURN_CONTEXT, multiTurnContextManager.buildContext(threadId));
@@ -188,6 +212,7 @@ public class GraphServiceImpl implements GraphService {
 				log.trace("StreamContext cleaned before subscription for threadId: {}", threadId);
 				return;
 			}
+			metrics.startRun(threadId, agentId);
 			Disposable disposable = nodeOutputFlux.subscribe(output -> handleNodeOutput(graphRequest, output),
 					error -> handleStreamError(agentId, threadId, error),
 					() -> handleStreamComplete(agentId, threadId));
@@ -212,16 +237,17 @@ public class GraphServiceImpl implements GraphService {
 	 */
 	private void handleStreamError(String agentId, String threadId, Throwable error) {
 		log.error("Error in stream processing for threadId: {}: ", threadId, error);
+		speculativeRecallService.discard(threadId);
+		metrics.finishRun(threadId, DataAgentMetrics.OUTCOME_ERROR, error);
 		StreamContext context = streamContextMap.remove(threadId);
 		if (context != null && !context.isCleaned() && context.getSink() != null) {
 			// 检查 sink 是否还有订阅者
 			if (context.getSink().currentSubscriberCount() > 0) {
-				context.getSink()
-					.tryEmitNext(ServerSentEvent
-						.builder(GraphNodeResponse.error(agentId, threadId,
-								"Error in stream processing: " + error.getMessage()))
-						.event(STREAM_EVENT_ERROR)
-						.build());
+				context.emitNext(ServerSentEvent
+					.builder(GraphNodeResponse.error(agentId, threadId,
+							"Error in stream processing: " + error.getMessage()))
+					.event(STREAM_EVENT_ERROR)
+					.build());
 				context.getSink().tryEmitComplete();
 			}
 			// 清理资源（cleanup 内部已经保证只执行一次）
@@ -235,19 +261,54 @@ public class GraphServiceImpl implements GraphService {
 	private void handleStreamComplete(String agentId, String threadId) {
 		log.info("Stream processing completed successfully for threadId: {}", threadId);
 		multiTurnContextManager.finishTurn(threadId);
+		speculativeRecallService.discard(threadId);
+		metrics.finishRun(threadId, DataAgentMetrics.OUTCOME_SUCCESS, null);
 		StreamContext context = streamContextMap.remove(threadId);
 		if (context != null && !context.isCleaned() && context.getSink() != null) {
 			if (context.getSink().currentSubscriberCount() > 0) {
-				context.getSink()
-					.tryEmitNext(ServerSentEvent.builder(GraphNodeResponse.complete(agentId, threadId))
-						.event(STREAM_EVENT_COMPLETE)
-						.build());
+				context.emitNext(ServerSentEvent.builder(GraphNodeResponse.complete(agentId, threadId))
+					.event(STREAM_EVENT_COMPLETE)
+					.build());
 				context.getSink().tryEmitComplete();
 			}
 			context.cleanup();
 		}
 	}
 
+	/**
+	 * 推送异步修正后的图表配置，流已结束或客户端已断开时直接丢弃
+	 */
+	@EventListener
+	public void handleChartConfigRefined(ChartConfigRefinedEvent event) {
+		String threadId = event.getThreadId();
+		StreamContext context = threadId == null ? null : streamContextMap.get(threadId);
+		if (context == null || context.isCleaned() || context.getSink() == null) {
+			log.debug("Stream already finished for threadId: {}, dropping refined chart config", threadId);
+			return;
+		}
+		try {
+			ResultBO update = ResultBO.builder()
+				.resultId(event.getResultId())
+				.displayStyle(event.getDisplayStyle())
+				.build();
+			GraphNodeResponse response = GraphNodeResponse.builder()
+				.agentId(event.getAgentId())
+				.threadId(threadId)
+				.nodeName(SqlExecuteNode.class.getSimpleName())
+				.text(JsonUtil.getObjectMapper().writeValueAsString(update))
+				.textType(TextType.JSON)
+				.build();
+			Sinks.EmitResult result = context
+				.emitNext(ServerSentEvent.builder(response).event(STREAM_EVENT_CHART_UPDATE).build());
+			if (result.isFailure()) {
+				log.debug("Failed to emit refined chart config for threadId: {}, result: {}", threadId, result);
+			}
+		}
+		catch (Exception e) {
+			log.warn("Failed to push refined chart config for threadId: {}: {}", threadId, e.getMessage());
+		}
+	}
+
 	/**
 	 * 处理节点输出
 	 */
@@ -305,7 +366,7 @@ public class GraphServiceImpl implements GraphService {
 				.textType(textType)
 				.build();
 			// 检查发送是否成功，如果失败说明客户端已断开
-			Sinks.EmitResult result = context.getSink().tryEmitNext(ServerSentEvent.builder(response).build());
+			Sinks.EmitResult result = context.emitNext(ServerSentEvent.builder(response).build());
 			if (result.isFailure()) {
 				log.warn("Failed to emit data to sink for threadId: {}, result: {}. Stopping stream processing.",
 						threadId, result);
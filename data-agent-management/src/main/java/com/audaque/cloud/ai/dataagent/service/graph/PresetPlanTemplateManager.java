@@ -0,0 +1,256 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.audaque.cloud.ai.dataagent.dto.planner.ExecutionStep;
+import com.audaque.cloud.ai.dataagent.dto.planner.Plan;
+import com.audaque.cloud.ai.dataagent.dto.prompt.QueryEnhanceOutputDTO;
+import com.audaque.cloud.ai.dataagent.dto.schema.ColumnDTO;
+import com.audaque.cloud.ai.dataagent.dto.schema.SchemaDTO;
+import com.audaque.cloud.ai.dataagent.dto.schema.TableDTO;
+import com.audaque.cloud.ai.dataagent.entity.AgentPresetQuestion;
+import com.audaque.cloud.ai.dataagent.mapper.AgentPresetQuestionMapper;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.agent.PresetQuestionIndex;
+import com.audaque.cloud.ai.dataagent.util.ContentHashUtil;
+import com.audaque.cloud.ai.dataagent.util.JsonUtil;
+import com.audaque.cloud.ai.dataagent.util.PlanProcessUtil;
+import com.audaque.cloud.ai.dataagent.util.QuestionTextUtil;
+import com.audaque.cloud.ai.dataagent.util.StateUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import static com.audaque.cloud.ai.dataagent.constant.Constant.*;
+
+/**
+ * 预设问题的预编译执行计划管理。
+ * <p>
+ * 预设问题首次成功运行后，把执行计划连同每个 SQL 步骤最终执行成功的 SQL 保存到预设问题上；之后与预设问题完全相同的提问直接复用该计划和
+ * SQL，跳过规划、SQL 生成和语义一致性校验。计划模板记录生成时召回 Schema、规范化问题和证据的指纹，任一变化或模板 SQL 执行失败时丢弃，
+ * 下次成功运行后重新生成。
+ * <p>
+ * 只包含 SQL 和报告步骤的计划才会被预编译；带多轮上下文、经过计划修复或用户反馈的运行不会保存模板，包含相对时间（如"本月"、"最近7天"）的
+ * 预设问题从不预编译，因为查询增强会按当前时间把它们改写为固定日期。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PresetPlanTemplateManager {
+
+	private static final double EXACT_MATCH = 1.0;
+
+	private static final String NO_MULTI_TURN_CONTEXT = "(无)";
+
+	private static final Pattern RELATIVE_TIME = Pattern.compile(
+			"今天|今日|昨天|昨日|前天|明天|后天|本周|上周|下周|本月|当月|上月|上个月|下月|下个月|本季度|上季度|下季度|今年|本年|去年|前年|明年"
+					+ "|最近|近期|近\\s*\\d+|近[一二两三四五六七八九十半几]|过去|至今|迄今|目前|当前|截至|截止"
+					+ "|\\b(today|yesterday|tomorrow|this\\s+(week|month|quarter|year)"
+					+ "|last|past|recent|current|ytd|mtd)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	private final DataAgentProperties properties;
+
+	private final PresetQuestionIndex presetQuestionIndex;
+
+	private final AgentPresetQuestionMapper agentPresetQuestionMapper;
+
+	/**
+	 * 查找当前问题可直接复用的预编译计划
+	 * @return 计划 JSON，其中 SQL 步骤的 sql_query 已填充；没有可用模板时返回 null
+	 */
+	public String findPlan(OverAllState state) {
+		AgentPresetQuestion preset = matchPreset(state);
+		if (preset == null || StringUtils.isBlank(preset.getPlanTemplate())) {
+			return null;
+		}
+		String fingerprint = planFingerprint(state);
+		if (fingerprint == null || !fingerprint.equals(preset.getPlanSchemaVersion())) {
+			log.info("Schema or canonical query changed since plan template of preset question {} was compiled, "
+					+ "discarding it", preset.getId());
+			clear(preset);
+			return null;
+		}
+		return preset.getPlanTemplate();
+	}
+
+	/**
+	 * 丢弃当前问题对应预设问题的计划模板，用于模板中的 SQL 执行失败时
+	 */
+	public void discard(OverAllState state) {
+		AgentPresetQuestion preset = matchPreset(state);
+		if (preset != null && preset.getPlanTemplate() != null) {
+			log.info("Plan template of preset question {} failed to execute, discarding it", preset.getId());
+			clear(preset);
+		}
+	}
+
+	/**
+	 * 计划全部执行成功后，为匹配的预设问题保存计划模板；模板未变化时不重复写入
+	 */
+	@SuppressWarnings("unchecked")
+	public void capture(OverAllState state) {
+		AgentPresetQuestion preset = matchPreset(state);
+		if (preset == null || !isCompilable(state, preset)) {
+			return;
+		}
+		try {
+			Map<String, String> executedQueries = StateUtil.getObjectValue(state, SQL_EXECUTED_QUERIES, Map.class,
+					new HashMap<>());
+			String template = buildTemplate(PlanProcessUtil.getPlan(state), executedQueries);
+			String fingerprint = planFingerprint(state);
+			if (template == null || fingerprint == null) {
+				return;
+			}
+			if (template.equals(preset.getPlanTemplate()) && fingerprint.equals(preset.getPlanSchemaVersion())) {
+				return;
+			}
+			agentPresetQuestionMapper.updatePlanTemplate(preset.getId(), template, fingerprint, LocalDateTime.now());
+			presetQuestionIndex.invalidate(preset.getAgentId());
+			log.info("Compiled plan template for preset question {} of agent {}", preset.getId(), preset.getAgentId());
+		}
+		catch (Exception e) {
+			// 预编译失败不影响本次运行结果
+			log.warn("Failed to compile plan template for preset question {}: {}", preset.getId(), e.getMessage());
+		}
+	}
+
+	/**
+	 * 把执行计划和各步骤执行成功的 SQL 合并为计划模板
+	 * @return 计划 JSON；包含 SQL、报告以外的步骤或有 SQL 步骤缺少执行记录时返回 null
+	 */
+	static String buildTemplate(Plan plan, Map<String, String> executedQueries) throws Exception {
+		List<ExecutionStep> steps = plan.getExecutionPlan();
+		if (steps == null || steps.isEmpty()) {
+			return null;
+		}
+		boolean hasSql = false;
+		for (int i = 0; i < steps.size(); i++) {
+			ExecutionStep step = steps.get(i);
+			if (REPORT_GENERATOR_NODE.equals(step.getToolToUse())) {
+				continue;
+			}
+			String sql = executedQueries.get("step_" + (i + 1));
+			if (!SQL_GENERATE_NODE.equals(step.getToolToUse()) || step.getToolParameters() == null
+					|| StringUtils.isBlank(sql)) {
+				return null;
+			}
+			step.getToolParameters().setSqlQuery(sql);
+			hasSql = true;
+		}
+		return hasSql ? JsonUtil.getObjectMapper().writeValueAsString(plan) : null;
+	}
+
+	/**
+	 * 本次运行是否可以作为所有用户共用的计划模板：不依赖多轮上下文、未经计划修复或用户反馈，且问题不含相对时间
+	 */
+	private boolean isCompilable(OverAllState state, AgentPresetQuestion preset) {
+		String multiTurn = StateUtil.getStringValue(state, MULTI_TURN_CONTEXT, "");
+		if (StringUtils.isNotBlank(multiTurn) && !NO_MULTI_TURN_CONTEXT.equals(multiTurn.trim())) {
+			log.debug("Run of preset question {} depends on multi-turn context, not compiling", preset.getId());
+			return false;
+		}
+		if (StateUtil.getStringValue(state, PLAN_VALIDATION_ERROR, null) != null
+				|| StateUtil.getObjectValue(state, PLAN_REPAIR_COUNT, Integer.class, 0) > 0) {
+			log.debug("Plan of preset question {} was repaired or revised by feedback, not compiling", preset.getId());
+			return false;
+		}
+		if (RELATIVE_TIME.matcher(preset.getQuestion()).find()) {
+			log.debug("Preset question {} contains relative time, not compiling", preset.getId());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * 计划模板的指纹，由召回 Schema 指纹、查询增强后的规范化问题和召回证据计算；缺少 Schema 或规范化问题时返回 null
+	 */
+	static String planFingerprint(OverAllState state) {
+		String schemaVersion = schemaVersion(
+				StateUtil.getObjectValue(state, TABLE_RELATION_OUTPUT, SchemaDTO.class, (SchemaDTO) null));
+		QueryEnhanceOutputDTO queryEnhanceOutput = StateUtil.getObjectValue(state, QUERY_ENHANCE_NODE_OUTPUT,
+				QueryEnhanceOutputDTO.class, (QueryEnhanceOutputDTO) null);
+		if (schemaVersion == null || queryEnhanceOutput == null
+				|| StringUtils.isBlank(queryEnhanceOutput.getCanonicalQuery())) {
+			return null;
+		}
+		return ContentHashUtil.sha256Hex(schemaVersion + '\n' + queryEnhanceOutput.getCanonicalQuery().trim() + '\n'
+				+ StateUtil.getStringValue(state, EVIDENCE, "").trim());
+	}
+
+	/**
+	 * 召回 Schema 的指纹，由库名、表名、列名和列类型按名称排序后计算
+	 */
+	static String schemaVersion(SchemaDTO schemaDTO) {
+		if (schemaDTO == null) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder(Objects.toString(schemaDTO.getName(), ""));
+		List<TableDTO> tables = new ArrayList<>(schemaDTO.getTable() == null ? List.of() : schemaDTO.getTable());
+		tables.sort(Comparator.comparing(TableDTO::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+		for (TableDTO table : tables) {
+			sb.append('|').append(table.getName());
+			List<ColumnDTO> columns = new ArrayList<>(table.getColumn() == null ? List.of() : table.getColumn());
+			columns.sort(Comparator.comparing(ColumnDTO::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+			for (ColumnDTO column : columns) {
+				sb.append(',').append(column.getName()).append(':').append(column.getType());
+			}
+		}
+		List<String> foreignKeys = new ArrayList<>(
+				schemaDTO.getForeignKeys() == null ? List.of() : schemaDTO.getForeignKeys());
+		foreignKeys.sort(Comparator.naturalOrder());
+		sb.append('|').append(String.join(",", foreignKeys));
+		return ContentHashUtil.sha256Hex(sb.toString());
+	}
+
+	/**
+	 * 匹配与当前问题完全相同（规范化后）的启用预设问题，NL2SQL 模式和非预设问题不参与预编译。
+	 * 直接查询预设问题索引，不依赖意图识别快速分类是否开启
+	 */
+	private AgentPresetQuestion matchPreset(OverAllState state) {
+		if (!properties.isEnablePresetPlanTemplate() || state.value(IS_ONLY_NL2SQL, false)) {
+			return null;
+		}
+		String agentId = StateUtil.getStringValue(state, AGENT_ID, null);
+		String input = StateUtil.getStringValue(state, INPUT_KEY, null);
+		if (!StringUtils.isNumeric(agentId) || input == null) {
+			return null;
+		}
+		AgentPresetQuestion preset = presetQuestionIndex.findSimilar(Long.valueOf(agentId), input, EXACT_MATCH);
+		if (preset == null
+				|| !QuestionTextUtil.normalize(preset.getQuestion()).equals(QuestionTextUtil.normalize(input))) {
+			return null;
+		}
+		return preset;
+	}
+
+	private void clear(AgentPresetQuestion preset) {
+		agentPresetQuestionMapper.clearPlanTemplate(preset.getId());
+		presetQuestionIndex.invalidate(preset.getAgentId());
+	}
+
+}
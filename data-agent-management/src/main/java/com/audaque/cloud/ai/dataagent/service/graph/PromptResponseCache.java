@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.prompt.PromptLoader;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.util.ContentHashUtil;
+import com.audaque.cloud.ai.dataagent.util.QuestionTextUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 意图识别、证据查询重写等小型分类/改写调用的大模型输出缓存。
+ * <p>
+ * 缓存键由模板名称、模板版本、智能体ID、多轮上下文摘要和规范化后的问题组成；Prompt 模板重新加载后版本号变化，
+ * 旧条目整体失效。条目数量按最近最少使用淘汰，并在过期时间后失效。
+ */
+@Slf4j
+@Component
+public class PromptResponseCache {
+
+	public static final String INTENT_RECOGNITION = "intent-recognition";
+
+	public static final String EVIDENCE_QUERY_REWRITE = "evidence-query-rewrite";
+
+	private final DataAgentProperties properties;
+
+	private final LinkedHashMap<String, Entry> entries;
+
+	private long templateVersion = PromptLoader.getVersion();
+
+	public PromptResponseCache(DataAgentProperties properties) {
+		this.properties = properties;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > Math.max(1, properties.getPromptResponseCacheSize());
+			}
+		};
+	}
+
+	/**
+	 * 读取缓存的大模型输出，未命中、已过期或未启用时返回 null
+	 */
+	public String get(String promptName, String agentId, String question, String multiTurn) {
+		if (!properties.isEnablePromptResponseCache() || StringUtils.isAnyBlank(agentId, question)) {
+			return null;
+		}
+		String key = key(promptName, agentId, question, multiTurn);
+		synchronized (entries) {
+			checkTemplateVersion();
+			Entry entry = entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.isExpired(System.currentTimeMillis(), ttlMillis())) {
+				entries.remove(key);
+				return null;
+			}
+			log.debug("Prompt response cache hit for {} of agent {}", promptName, agentId);
+			return entry.output;
+		}
+	}
+
+	/**
+	 * 缓存一次成功解析的大模型输出
+	 */
+	public void put(String promptName, String agentId, String question, String multiTurn, String output) {
+		if (!properties.isEnablePromptResponseCache() || StringUtils.isAnyBlank(agentId, question, output)) {
+			return;
+		}
+		String key = key(promptName, agentId, question, multiTurn);
+		synchronized (entries) {
+			checkTemplateVersion();
+			entries.put(key, new Entry(output, System.currentTimeMillis()));
+		}
+	}
+
+	@Scheduled(fixedDelay = 60_000)
+	public void evictExpired() {
+		long now = System.currentTimeMillis();
+		long ttl = ttlMillis();
+		synchronized (entries) {
+			entries.values().removeIf(entry -> entry.isExpired(now, ttl));
+		}
+	}
+
+	int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Prompt 模板重新加载后清空全部条目
+	 */
+	private void checkTemplateVersion() {
+		long current = PromptLoader.getVersion();
+		if (current != templateVersion) {
+			log.info("Prompt templates reloaded, clearing {} cached prompt responses", entries.size());
+			entries.clear();
+			templateVersion = current;
+		}
+	}
+
+	private long ttlMillis() {
+		return TimeUnit.MINUTES.toMillis(Math.max(1, properties.getPromptResponseCacheTtlMinutes()));
+	}
+
+	private static String key(String promptName, String agentId, String question, String multiTurn) {
+		return promptName + ':' + PromptLoader.getVersion() + ':' + agentId + ':'
+				+ ContentHashUtil.sha256Hex(multiTurn == null ? "" : multiTurn) + ':'
+				+ QuestionTextUtil.normalize(question);
+	}
+
+	private record Entry(String output, long createdAt) {
+
+		private boolean isExpired(long now, long ttlMillis) {
+			return now - createdAt >= ttlMillis;
+		}
+
+	}
+
+}
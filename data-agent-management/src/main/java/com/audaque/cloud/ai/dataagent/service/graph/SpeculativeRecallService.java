@@ -0,0 +1,256 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.prompt.PromptHelper;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
+import com.audaque.cloud.ai.dataagent.service.schema.SchemaService;
+import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 投机召回服务：在意图识别的同时提前执行证据召回（知识库检查、查询重写）和 Schema 预热（表召回）。
+ * <p>
+ * 意图识别判定为数据分析请求时，EvidenceRecallNode / SchemaRecallNode 直接复用投机结果，节省一次完整的大模型往返；
+ * 判定为闲聊时，由 IntentRecognitionDispatcher 取消并丢弃投机任务。投机结果按 threadId 保存，且只在问题和多轮上下文
+ * 与实际执行一致时才会被复用。
+ */
+@Slf4j
+@Service
+public class SpeculativeRecallService {
+
+	private final LlmService llmService;
+
+	private final AgentVectorStoreService vectorStoreService;
+
+	private final SchemaService schemaService;
+
+	private final DataAgentProperties properties;
+
+	private final Executor executor;
+
+	private final PromptResponseCache promptResponseCache;
+
+	private final ConcurrentHashMap<String, Speculation> speculations = new ConcurrentHashMap<>();
+
+	public SpeculativeRecallService(LlmService llmService, AgentVectorStoreService vectorStoreService,
+			SchemaService schemaService, DataAgentProperties properties,
+			@Qualifier("dbOperationExecutor") Executor executor, PromptResponseCache promptResponseCache) {
+		this.llmService = llmService;
+		this.vectorStoreService = vectorStoreService;
+		this.schemaService = schemaService;
+		this.properties = properties;
+		this.executor = executor;
+		this.promptResponseCache = promptResponseCache;
+	}
+
+	/**
+	 * 为指定线程启动投机召回，同一线程上未消费的旧投机任务会被取消
+	 * @param threadId 线程ID，为空时不启动
+	 * @param agentId 智能体ID
+	 * @param question 用户原始问题
+	 * @param multiTurn 多轮上下文
+	 */
+	public void start(String threadId, String agentId, String question, String multiTurn) {
+		if (!properties.isEnableSpeculativeRecall() || StringUtils.isAnyBlank(threadId, agentId, question)) {
+			return;
+		}
+		log.debug("Starting speculative evidence recall and schema pre-warming for thread {}", threadId);
+		// 先启动全部任务再发布句柄，并发的 takeEvidence / takeTableDocuments 不会看到未赋值的字段
+		CompletableFuture<Boolean> hasDocumentsFuture = CompletableFuture
+			.supplyAsync(() -> vectorStoreService.hasDocuments(agentId), executor);
+		// 多轮追问的原始问题通常缺少上下文，按原始问题召回的表不可用，只对首轮问题预热
+		CompletableFuture<List<Document>> tableDocumentsFuture = isFirstTurn(multiTurn)
+				? CompletableFuture.supplyAsync(() -> schemaService.getTableDocumentsForAgent(agentId, question),
+						executor)
+				: null;
+		Speculation speculation = new Speculation(agentId, question, multiTurn, hasDocumentsFuture,
+				tableDocumentsFuture);
+		hasDocumentsFuture.whenComplete((hasDocuments, error) -> {
+			if (error != null) {
+				speculation.rewriteOutput.completeExceptionally(error);
+			}
+			else if (!Boolean.TRUE.equals(hasDocuments)) {
+				speculation.rewriteOutput.complete(null);
+			}
+			else {
+				String cached = promptResponseCache.get(PromptResponseCache.EVIDENCE_QUERY_REWRITE, agentId, question,
+						multiTurn);
+				if (cached != null) {
+					speculation.rewriteOutput.complete(cached);
+				}
+				else {
+					speculation.subscribeRewrite(llmService,
+							PromptHelper.buildEvidenceQueryRewritePrompt(multiTurn, question));
+				}
+			}
+		});
+		Speculation previous = speculations.put(threadId, speculation);
+		if (previous != null) {
+			previous.cancel();
+		}
+	}
+
+	/**
+	 * 取出可供证据召回复用的投机结果，问题或上下文不一致时返回 null
+	 */
+	public Speculation takeEvidence(String threadId, String agentId, String question, String multiTurn) {
+		Speculation speculation = threadId == null ? null : speculations.get(threadId);
+		if (speculation == null || !speculation.matches(agentId, question, multiTurn)
+				|| !speculation.evidenceTaken.compareAndSet(false, true)) {
+			return null;
+		}
+		log.debug("Reusing speculative evidence recall for thread {}", threadId);
+		return speculation;
+	}
+
+	/**
+	 * 取出预热的表召回结果，取出后清除该线程的投机记录。
+	 * <p>
+	 * 预热按原始问题召回，只有本次执行的原始问题与投机时一致、且查询增强后的规范化问题与原始问题相同时才可复用；
+	 * 规范化问题不同（补充了时间范围、同义词等）时预热只起到预热向量库的作用，调用方需按规范化问题重新召回。
+	 * @param question 本次执行的原始问题
+	 * @param canonicalQuery 查询增强后的规范化问题
+	 */
+	public CompletableFuture<List<Document>> takeTableDocuments(String threadId, String agentId, String question,
+			String canonicalQuery) {
+		Speculation speculation = threadId == null ? null : speculations.remove(threadId);
+		if (speculation == null) {
+			return null;
+		}
+		if (!Objects.equals(speculation.agentId, agentId) || !Objects.equals(speculation.question, question)
+				|| speculation.tableDocuments == null) {
+			speculation.cancel();
+			return null;
+		}
+		if (canonicalQuery == null || !canonicalQuery.trim().equals(question.trim())) {
+			log.debug("Canonical query differs from the raw question, not reusing pre-warmed table recall for {}",
+					threadId);
+			return null;
+		}
+		log.debug("Reusing pre-warmed table recall for thread {}", threadId);
+		return speculation.tableDocuments;
+	}
+
+	private static boolean isFirstTurn(String multiTurn) {
+		return StringUtils.isBlank(multiTurn) || "(无)".equals(multiTurn.trim());
+	}
+
+	/**
+	 * 取消并丢弃指定线程的投机任务，用于闲聊分支、流程终止或出错时
+	 */
+	public void discard(String threadId) {
+		Speculation speculation = threadId == null ? null : speculations.remove(threadId);
+		if (speculation != null) {
+			log.debug("Discarding speculative recall for thread {}", threadId);
+			speculation.cancel();
+		}
+	}
+
+	/**
+	 * 单次投机召回的任务句柄
+	 */
+	public static final class Speculation {
+
+		private final String agentId;
+
+		private final String question;
+
+		private final String multiTurn;
+
+		private final CompletableFuture<String> rewriteOutput = new CompletableFuture<>();
+
+		private final AtomicBoolean evidenceTaken = new AtomicBoolean(false);
+
+		private final CompletableFuture<Boolean> hasDocuments;
+
+		private final CompletableFuture<List<Document>> tableDocuments;
+
+		private volatile Disposable rewriteSubscription;
+
+		private volatile boolean cancelled;
+
+		private Speculation(String agentId, String question, String multiTurn,
+				CompletableFuture<Boolean> hasDocuments, CompletableFuture<List<Document>> tableDocuments) {
+			this.agentId = agentId;
+			this.question = question;
+			this.multiTurn = multiTurn;
+			this.hasDocuments = hasDocuments;
+			this.tableDocuments = tableDocuments;
+		}
+
+		/**
+		 * 智能体是否存在知识库文档
+		 */
+		public CompletableFuture<Boolean> hasDocuments() {
+			return hasDocuments;
+		}
+
+		/**
+		 * 查询重写的大模型原始输出，无知识库时结果为 null
+		 */
+		public CompletableFuture<String> rewriteOutput() {
+			return rewriteOutput;
+		}
+
+		private boolean matches(String agentId, String question, String multiTurn) {
+			return !cancelled && Objects.equals(this.agentId, agentId) && Objects.equals(this.question, question)
+					&& Objects.equals(this.multiTurn, multiTurn);
+		}
+
+		private synchronized void subscribeRewrite(LlmService llmService, String prompt) {
+			if (cancelled) {
+				return;
+			}
+			try {
+				rewriteSubscription = llmService.toStringFlux(llmService.callUser(prompt))
+					.collect(StringBuilder::new, StringBuilder::append)
+					.map(StringBuilder::toString)
+					.subscribe(rewriteOutput::complete, rewriteOutput::completeExceptionally);
+			}
+			catch (Exception e) {
+				// 回调中的异常会被 CompletableFuture 吞掉，必须显式结束，否则等待方会一直阻塞
+				rewriteOutput.completeExceptionally(e);
+			}
+		}
+
+		private synchronized void cancel() {
+			cancelled = true;
+			if (rewriteSubscription != null && !rewriteSubscription.isDisposed()) {
+				rewriteSubscription.dispose();
+			}
+			rewriteOutput.cancel(false);
+			if (tableDocuments != null) {
+				tableDocuments.cancel(false);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SSE 连接的公共支持：全局连接数上限、有界的问答流 Sink 以及心跳。
+ */
+@Slf4j
+@Component
+public class SseStreamSupport {
+
+	/**
+	 * 合并事件流与心跳流时每个来源的预取数量，避免在合并处额外缓冲大量事件
+	 */
+	private static final int MERGE_PREFETCH = 8;
+
+	private final DataAgentProperties.SseProperties properties;
+
+	private final Semaphore permits;
+
+	public SseStreamSupport(DataAgentProperties dataAgentProperties) {
+		this.properties = dataAgentProperties.getSse();
+		this.permits = new Semaphore(Math.max(1, properties.getMaxConnections()));
+	}
+
+	/**
+	 * 申请一个 SSE 连接名额
+	 * @return 连接名额，已达上限时返回 null
+	 */
+	public Permit tryAcquire() {
+		if (!permits.tryAcquire()) {
+			log.warn("Rejected SSE connection, active connections reached limit: {}", properties.getMaxConnections());
+			return null;
+		}
+		return new Permit(permits);
+	}
+
+	/**
+	 * 当前活跃的 SSE 连接数
+	 */
+	public int activeConnections() {
+		return Math.max(1, properties.getMaxConnections()) - permits.availablePermits();
+	}
+
+	/**
+	 * 创建单个问答流使用的有界 Sink，缓冲区满时 tryEmitNext 返回 FAIL_OVERFLOW
+	 */
+	public <T> Sinks.Many<ServerSentEvent<T>> newStreamSink() {
+		return Sinks.many()
+			.unicast()
+			.onBackpressureBuffer(Queues.<ServerSentEvent<T>>get(properties.getStreamBufferSize()).get());
+	}
+
+	/**
+	 * 为事件流附加心跳，并在连接结束（完成、出错或客户端断开）时归还连接名额
+	 */
+	public <T> Flux<ServerSentEvent<T>> attach(Flux<ServerSentEvent<T>> events, Permit permit) {
+		Duration interval = Duration.ofSeconds(Math.max(1, properties.getHeartbeatIntervalSeconds()));
+		Sinks.Empty<Void> finished = Sinks.empty();
+		Flux<ServerSentEvent<T>> heartbeats = Flux.interval(interval, interval)
+			.onBackpressureDrop()
+			.map(tick -> ServerSentEvent.<T>builder().comment("heartbeat").build())
+			.takeUntilOther(finished.asMono());
+		return Flux.merge(MERGE_PREFETCH, events.doFinally(signal -> finished.tryEmitEmpty()), heartbeats)
+			.doFinally(signal -> permit.release());
+	}
+
+	/**
+	 * 拒绝连接时建议客户端重连的等待时间
+	 */
+	public Duration rejectRetryAfter() {
+		return Duration.ofSeconds(Math.max(1, properties.getRejectRetrySeconds()));
+	}
+
+	/**
+	 * 一个 SSE 连接名额，release 可重复调用，只归还一次
+	 */
+	public static final class Permit {
+
+		private final Semaphore permits;
+
+		private final AtomicBoolean released = new AtomicBoolean(false);
+
+		private Permit(Semaphore permits) {
+			this.permits = permits;
+		}
+
+		public void release() {
+			if (released.compareAndSet(false, true)) {
+				permits.release();
+			}
+		}
+
+	}
+
+}
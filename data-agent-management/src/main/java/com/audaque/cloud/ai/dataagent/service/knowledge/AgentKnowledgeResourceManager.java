@@ -25,17 +25,30 @@ import com.audaque.cloud.ai.dataagent.service.file.FileStorageService;
 import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.reader.tika.TikaDocumentReader;
+import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.transformer.splitter.TextSplitter;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // 智能体知识的向量资源和文件资源管理
 @Slf4j
@@ -43,69 +56,112 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AgentKnowledgeResourceManager {
 
+	// 解析片段的长度范围（字符），片段内再按配置的切割方式切分为文本块
+	private static final int MIN_SEGMENT_CHARS = 8000;
+
+	private static final int MAX_SEGMENT_CHARS = 32000;
+
+	// 待向量化文本块累积到该数量后按 token 批次写入向量库
+	private static final int PENDING_CHUNK_LIMIT = 100;
+
+	private static final long PROGRESS_REPORT_INTERVAL_MS = 1000L;
+
+	private static final String SOURCE_METADATA = "source";
+
 	private final TextSplitterFactory textSplitterFactory;
 
 	private final FileStorageService fileStorageService;
 
 	private final AgentVectorStoreService agentVectorStoreService;
 
-	public void doEmbedingToVectorStore(AgentKnowledge agentKnowledge) throws Exception {
-		// delete old data
-		this.deleteFromVectorStore(agentKnowledge.getAgentId(), agentKnowledge.getId());
+	private final BatchingStrategy batchingStrategy;
 
+	public CompletableFuture<Void> doEmbedingToVectorStore(AgentKnowledge agentKnowledge) throws Exception {
+		return doEmbedingToVectorStore(agentKnowledge, (chunkCount, embeddedCount) -> {
+		});
+	}
+
+	/**
+	 * 解析并提交向量写入，文件解析失败时直接抛出；返回的 Future 在全部向量写入向量库后完成
+	 */
+	public CompletableFuture<Void> doEmbedingToVectorStore(AgentKnowledge agentKnowledge,
+			ProgressListener progressListener) throws Exception {
 		if (KnowledgeType.QA.equals(agentKnowledge.getType()) || KnowledgeType.FAQ.equals(agentKnowledge.getType())) {
-			processQaKnowledge(agentKnowledge);
+			// delete old data
+			this.deleteFromVectorStore(agentKnowledge.getAgentId(), agentKnowledge.getId());
+			return processQaKnowledge(agentKnowledge);
 		} else if (KnowledgeType.DOCUMENT.equals(agentKnowledge.getType())) {
-			processDocumentKnowledge(agentKnowledge);
+			return processDocumentKnowledge(agentKnowledge, progressListener);
 		} else {
 			throw new RuntimeException("Unsupported KnowledgeType: " + agentKnowledge.getType());
 		}
 	}
 
-	private void processQaKnowledge(AgentKnowledge knowledge) {
+	private CompletableFuture<Void> processQaKnowledge(AgentKnowledge knowledge) {
 		Document document = DocumentConverterUtil.convertQaFaqKnowledgeToDocument(knowledge);
-		agentVectorStoreService.addDocuments(knowledge.getAgentId().toString(), List.of(document));
-		log.info("Successfully vectorized AgentKnowledge: id={}, type={}", knowledge.getId(), knowledge.getType());
+		return agentVectorStoreService.addDocuments(knowledge.getAgentId().toString(), List.of(document))
+			.thenRun(() -> log.info("Successfully vectorized AgentKnowledge: id={}, type={}", knowledge.getId(),
+					knowledge.getType()));
 	}
 
-	private void processDocumentKnowledge(AgentKnowledge knowledge) {
-
-		// 处理文档
-		List<Document> documents = getAndSplitDocument(knowledge);
-		if (documents == null || documents.isEmpty()) {
+	/**
+	 * 流式解析文档：边解析边切分，按内容哈希只向量化新增或变化的文本块，并删除已不存在的文本块
+	 */
+	private CompletableFuture<Void> processDocumentKnowledge(AgentKnowledge knowledge,
+			ProgressListener progressListener) {
+		String agentId = knowledge.getAgentId().toString();
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put(DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID, knowledge.getId());
+		Set<String> existingIds = agentVectorStoreService.getDocumentIdsByMetadata(agentId, metadata);
+
+		ChunkIngestion ingestion = new ChunkIngestion(knowledge, getTextSplitter(knowledge), existingIds,
+				progressListener);
+		readDocumentSegments(knowledge, ingestion);
+		ingestion.finish();
+
+		if (ingestion.chunkCount == 0) {
 			log.error("No documents extracted from file: knowledgeId={}, filePath={}", knowledge.getId(),
 					knowledge.getFilePath());
 			throw new RuntimeException("No documents extracted from file");
 		}
 
-		// 使用工具类为文档添加元数据
-		List<Document> documentsWithMetadata = DocumentConverterUtil
-				.convertAgentKnowledgeDocumentsWithMetadata(documents, knowledge);
-
-		// 添加到向量存储
-		agentVectorStoreService.addDocuments(knowledge.getAgentId().toString(), documentsWithMetadata);
-		log.info("Successfully vectorized DOCUMENT knowledge: id={}, filePath={}, documentCount={}", knowledge.getId(),
-				knowledge.getFilePath(), documentsWithMetadata.size());
-
+		// 新文本块全部写入后再删除旧文本块，中途失败时重试只会补齐缺失的文本块
+		List<String> staleIds = existingIds.stream().filter(id -> !ingestion.seenIds.contains(id)).toList();
+		return CompletableFuture.allOf(ingestion.writes.toArray(CompletableFuture[]::new))
+			.thenCompose(v -> agentVectorStoreService.deleteDocumentsByIds(agentId, staleIds))
+			.thenRun(() -> {
+				ingestion.reportProgress(true);
+				log.info(
+						"Successfully vectorized DOCUMENT knowledge: id={}, filePath={}, chunkCount={}, embedded={}, reused={}, removed={}",
+						knowledge.getId(), knowledge.getFilePath(), ingestion.chunkCount,
+						ingestion.embeddedCount.get(), ingestion.chunkCount - ingestion.embeddedCount.get(),
+						staleIds.size());
+			});
 	}
 
-	private List<Document> getAndSplitDocument(AgentKnowledge knowledge) {
+	private void readDocumentSegments(AgentKnowledge knowledge, ChunkIngestion ingestion) {
 		// 使用FileStorageService获取文件资源对象
 		Resource resource = fileStorageService.getFileResource(knowledge.getFilePath());
 
-		// 使用TikaDocumentReader读取文件
-		TikaDocumentReader tikaDocumentReader = new TikaDocumentReader(resource);
-		List<Document> documents;
-		try {
-			documents = tikaDocumentReader.read();
+		try (InputStream inputStream = resource.getInputStream()) {
+			TextSegmentContentHandler handler = new TextSegmentContentHandler(MIN_SEGMENT_CHARS, MAX_SEGMENT_CHARS,
+					ingestion::acceptSegment);
+			Metadata metadata = new Metadata();
+			new AutoDetectParser().parse(inputStream, handler, metadata, new ParseContext());
+			log.info("Parsed file into {} segments: knowledgeId={}", handler.getSegmentCount(), knowledge.getId());
 		} catch (StackOverflowError e) {
 			log.error(
-					"TikaDocumentReader read failed due to StackOverflowError, possibly caused by problematic regex in Tika when processing file: {}",
+					"Tika parse failed due to StackOverflowError, possibly caused by problematic regex in Tika when processing file: {}",
 					knowledge.getFilePath(), e);
 			// 尝试使用简化的读取方式作为后备方案
 			log.warn("Attempting fallback document reading method for file: {}", knowledge.getFilePath());
 			try {
-				documents = readDocumentWithFallback(resource, knowledge.getFilePath());
+				ingestion.restart();
+				TextSegmentContentHandler handler = new TextSegmentContentHandler(MIN_SEGMENT_CHARS,
+						MAX_SEGMENT_CHARS, ingestion::acceptSegment);
+				for (Document document : readDocumentWithFallback(resource, knowledge.getFilePath())) {
+					handler.accept(document.getText());
+				}
 			} catch (Exception fallbackException) {
 				log.error("Fallback document reading also failed for file: {}", knowledge.getFilePath(),
 						fallbackException);
@@ -115,32 +171,186 @@ public class AgentKnowledgeResourceManager {
 						fallbackException);
 			}
 		} catch (Exception e) {
-			log.error("TikaDocumentReader read failed for file: {}", knowledge.getFilePath(), e);
+			// 切分或向量化失败时直接抛出原始错误，不当作文件解析失败
+			for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+				if (cause instanceof ChunkIngestionException ingestionException) {
+					throw ingestionException;
+				}
+			}
+			log.error("Tika parse failed for file: {}", knowledge.getFilePath(), e);
 			throw new RuntimeException("File processing failed: " + knowledge.getFilePath(), e);
 		}
+	}
+
+	private TextSplitter getTextSplitter(AgentKnowledge knowledge) {
+		// 根据知识配置的切割方式获取对应的 TextSplitter
+		String splitterType = knowledge.getSplitterType();
+		if (!StringUtils.hasText(splitterType)) {
+			splitterType = SplitterType.TOKEN.getValue(); // 默认使用 token 切割
+			log.warn("Splitter type is empty for knowledgeId: {}, using default: token", knowledge.getId());
+		}
+		log.info("Using splitter type: {} for knowledgeId: {}", splitterType, knowledge.getId());
+		return textSplitterFactory.getSplitter(splitterType);
+	}
+
+	/**
+	 * 文本块ID由所属知识、内容哈希和该内容在文档中出现的序号决定，内容不变则ID不变
+	 */
+	static String chunkId(AgentKnowledge knowledge, String contentHash, int occurrence) {
+		String key = knowledge.getAgentId() + ":" + knowledge.getId() + ":" + contentHash + ":" + occurrence;
+		return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+	}
 
+	static String contentHash(String text) {
 		try {
-			// 根据知识配置的切割方式获取对应的 TextSplitter
-			String splitterType = knowledge.getSplitterType();
-			if (!StringUtils.hasText(splitterType)) {
-				splitterType = SplitterType.TOKEN.getValue(); // 默认使用 token 切割
-				log.warn("Splitter type is empty for knowledgeId: {}, using default: token", knowledge.getId());
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 向量化进度回调
+	 */
+	@FunctionalInterface
+	public interface ProgressListener {
+
+		/**
+		 * @param chunkCount 已解析的文本块数
+		 * @param embeddedCount 其中新向量化的文本块数，其余复用已有向量
+		 */
+		void onProgress(int chunkCount, int embeddedCount);
+
+	}
+
+	private static final class ChunkIngestionException extends RuntimeException {
+
+		private ChunkIngestionException(String message, Throwable cause) {
+			super(message, cause);
+		}
+
+	}
+
+	/**
+	 * 单个文档的增量向量化状态：切分片段、计算内容哈希，并按 token 批次写入新增文本块
+	 */
+	private final class ChunkIngestion {
+
+		private final AgentKnowledge knowledge;
+
+		private final TextSplitter textSplitter;
+
+		private final Set<String> existingIds;
+
+		private final ProgressListener progressListener;
+
+		private final String source;
+
+		private final Set<String> seenIds = new HashSet<>();
+
+		private final Map<String, Integer> occurrences = new HashMap<>();
+
+		private final List<Document> pending = new ArrayList<>();
+
+		private final List<CompletableFuture<Void>> writes = new ArrayList<>();
+
+		private volatile int chunkCount;
+
+		// 由写入队列的后台线程在文本块写入向量库后累加
+		private final AtomicInteger embeddedCount = new AtomicInteger();
+
+		private long lastReportTime;
+
+		private ChunkIngestion(AgentKnowledge knowledge, TextSplitter textSplitter, Set<String> existingIds,
+				ProgressListener progressListener) {
+			this.knowledge = knowledge;
+			this.textSplitter = textSplitter;
+			this.existingIds = new HashSet<>(existingIds);
+			this.progressListener = progressListener;
+			String filename = StringUtils.getFilename(knowledge.getFilePath());
+			this.source = filename == null ? "" : filename;
+		}
+
+		private void acceptSegment(String segment) {
+			List<Document> chunks;
+			try {
+				chunks = textSplitter.apply(List.of(new Document(segment, Map.of(SOURCE_METADATA, source))));
+			} catch (StackOverflowError e) {
+				log.error("TextSplitter apply failed due to StackOverflowError for file: {}", knowledge.getFilePath(),
+						e);
+				throw new ChunkIngestionException(
+						"Text splitting failed due to stack overflow, possibly caused by complex document content: "
+								+ knowledge.getFilePath(),
+						e);
+			} catch (Exception e) {
+				log.error("TextSplitter apply failed for file: {}", knowledge.getFilePath(), e);
+				throw new ChunkIngestionException("Text splitting failed: " + knowledge.getFilePath(), e);
 			}
 
-			TextSplitter textSplitter = textSplitterFactory.getSplitter(splitterType);
-			log.info("Using splitter type: {} for knowledgeId: {}", splitterType, knowledge.getId());
+			for (Document chunk : chunks) {
+				if (!StringUtils.hasText(chunk.getText())) {
+					continue;
+				}
+				String hash = contentHash(chunk.getText());
+				int occurrence = occurrences.merge(hash, 1, Integer::sum);
+				String id = chunkId(knowledge, hash, occurrence);
+				seenIds.add(id);
+				chunkCount++;
+				if (!existingIds.contains(id)) {
+					Map<String, Object> metadata = new HashMap<>(chunk.getMetadata());
+					metadata.put(DocumentMetadataConstant.CHUNK_HASH, hash);
+					pending.add(new Document(id, chunk.getText(), metadata));
+				}
+			}
+			if (pending.size() >= PENDING_CHUNK_LIMIT) {
+				embedPending();
+			}
+			reportProgress(false);
+		}
 
-			return textSplitter.apply(documents);
-		} catch (StackOverflowError e) {
-			log.error("TextSplitter apply failed due to StackOverflowError for file: {}", knowledge.getFilePath(), e);
-			throw new RuntimeException(
-					"Text splitting failed due to stack overflow, possibly caused by complex document content: "
-							+ knowledge.getFilePath(),
-					e);
-		} catch (Exception e) {
-			log.error("TextSplitter apply failed for file: {}", knowledge.getFilePath(), e);
-			throw new RuntimeException("Text splitting failed: " + knowledge.getFilePath(), e);
+		private void embedPending() {
+			if (pending.isEmpty()) {
+				return;
+			}
+			String agentId = knowledge.getAgentId().toString();
+			List<Document> documents = DocumentConverterUtil.convertAgentKnowledgeDocumentsWithMetadata(pending,
+					knowledge);
+			try {
+				for (List<Document> batch : batchingStrategy.batch(documents)) {
+					writes.add(agentVectorStoreService.addDocuments(agentId, batch)
+						.thenRun(() -> embeddedCount.addAndGet(batch.size())));
+					batch.forEach(document -> existingIds.add(document.getId()));
+				}
+			} catch (Exception e) {
+				throw new ChunkIngestionException("Queueing vector writes failed: " + e.getMessage(), e);
+			}
+			pending.clear();
 		}
+
+		private void reportProgress(boolean force) {
+			long now = System.currentTimeMillis();
+			if (force || now - lastReportTime >= PROGRESS_REPORT_INTERVAL_MS) {
+				lastReportTime = now;
+				progressListener.onProgress(chunkCount, embeddedCount.get());
+			}
+		}
+
+		/**
+		 * 后备读取时从头重新统计，已写入的文本块视为已存在
+		 */
+		private void restart() {
+			pending.clear();
+			seenIds.clear();
+			occurrences.clear();
+			chunkCount = 0;
+		}
+
+		private void finish() {
+			embedPending();
+			reportProgress(true);
+		}
+
 	}
 
 	/**
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.knowledge;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 将 Tika 解析输出的 XHTML 事件按段落累积为文本片段，片段达到长度后立即交给下游切分，避免整篇文档驻留内存。
+ * <p>
+ * 片段边界由段落内容决定（长度达到下限后，在内容哈希命中的段落处切分），文档局部修改后其余片段的边界保持不变，
+ * 切分出的文本块也随之保持不变，便于按内容哈希复用已有向量。
+ */
+final class TextSegmentContentHandler extends DefaultHandler {
+
+	private static final Set<String> BLOCK_ELEMENTS = Set.of("p", "div", "li", "tr", "h1", "h2", "h3", "h4", "h5",
+			"h6", "pre", "blockquote", "br", "table", "dt", "dd");
+
+	private static final int BOUNDARY_DIVISOR = 8;
+
+	private final int minSegmentChars;
+
+	private final int maxSegmentChars;
+
+	private final Consumer<String> segmentConsumer;
+
+	private final StringBuilder paragraph = new StringBuilder();
+
+	private final StringBuilder segment = new StringBuilder();
+
+	private boolean inBody;
+
+	private int segmentCount;
+
+	TextSegmentContentHandler(int minSegmentChars, int maxSegmentChars, Consumer<String> segmentConsumer) {
+		this.minSegmentChars = minSegmentChars;
+		this.maxSegmentChars = maxSegmentChars;
+		this.segmentConsumer = segmentConsumer;
+	}
+
+	/**
+	 * 直接输入纯文本，用于 Tika 解析失败后的后备读取
+	 */
+	void accept(String text) {
+		inBody = true;
+		append(text.toCharArray(), 0, text.length());
+		finish();
+	}
+
+	int getSegmentCount() {
+		return segmentCount;
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes attributes) {
+		String name = elementName(localName, qName);
+		if ("body".equals(name)) {
+			inBody = true;
+		}
+		else if (inBody && BLOCK_ELEMENTS.contains(name)) {
+			endParagraph();
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) {
+		String name = elementName(localName, qName);
+		if ("body".equals(name)) {
+			inBody = false;
+			endParagraph();
+		}
+		else if (inBody && BLOCK_ELEMENTS.contains(name)) {
+			endParagraph();
+		}
+		else if (inBody && ("td".equals(name) || "th".equals(name))) {
+			paragraph.append(' ');
+		}
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) {
+		if (inBody) {
+			append(ch, start, length);
+		}
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) {
+		characters(ch, start, length);
+	}
+
+	@Override
+	public void endDocument() {
+		finish();
+	}
+
+	private void append(char[] ch, int start, int length) {
+		for (int i = start; i < start + length; i++) {
+			char c = ch[i];
+			if (c == '\n') {
+				endParagraph();
+			}
+			else {
+				paragraph.append(c);
+				if (paragraph.length() >= maxSegmentChars) {
+					endParagraph();
+				}
+			}
+		}
+	}
+
+	private void endParagraph() {
+		String text = paragraph.toString().strip();
+		paragraph.setLength(0);
+		if (text.isEmpty()) {
+			return;
+		}
+		segment.append(text).append('\n');
+		if (segment.length() >= maxSegmentChars
+				|| (segment.length() >= minSegmentChars && Math.floorMod(text.hashCode(), BOUNDARY_DIVISOR) == 0)) {
+			flushSegment();
+		}
+	}
+
+	private void finish() {
+		endParagraph();
+		flushSegment();
+	}
+
+	private void flushSegment() {
+		if (segment.isEmpty()) {
+			return;
+		}
+		String text = segment.toString();
+		segment.setLength(0);
+		segmentCount++;
+		segmentConsumer.accept(text);
+	}
+
+	private static String elementName(String localName, String qName) {
+		return (localName == null || localName.isEmpty() ? qName : localName).toLowerCase();
+	}
+
+}
@@ -16,8 +16,10 @@
 package com.audaque.cloud.ai.dataagent.service.llm;
 
 import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.metrics.DataAgentMetrics;
 import com.audaque.cloud.ai.dataagent.service.aimodelconfig.AiModelRegistry;
 import com.audaque.cloud.ai.dataagent.service.llm.impls.BlockLlmService;
+import com.audaque.cloud.ai.dataagent.service.llm.impls.MeteredLlmService;
 import com.audaque.cloud.ai.dataagent.service.llm.impls.StreamLlmService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.FactoryBean;
@@ -31,14 +33,18 @@ public class LlmServiceFactory implements FactoryBean<LlmService> {
 
 	private final AiModelRegistry aiModelRegistry;
 
+	private final DataAgentMetrics metrics;
+
 	@Override
 	public LlmService getObject() {
+		LlmService llmService;
 		if (LlmServiceEnum.BLOCK.equals(properties.getLlmServiceType())) {
-			return new BlockLlmService(aiModelRegistry);
+			llmService = new BlockLlmService(aiModelRegistry);
 		}
 		else {
-			return new StreamLlmService(aiModelRegistry);
+			llmService = new StreamLlmService(aiModelRegistry);
 		}
+		return new MeteredLlmService(llmService, metrics);
 	}
 
 	@Override
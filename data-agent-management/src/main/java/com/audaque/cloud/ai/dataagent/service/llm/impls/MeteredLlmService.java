@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.llm.impls;
+
+import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
+import com.audaque.cloud.ai.dataagent.service.metrics.DataAgentMetrics;
+import lombok.AllArgsConstructor;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Supplier;
+
+/**
+ * 为大模型调用采集耗时、首包时间、token 用量等指标的装饰器
+ */
+@AllArgsConstructor
+public class MeteredLlmService implements LlmService {
+
+	private final LlmService delegate;
+
+	private final DataAgentMetrics metrics;
+
+	@Override
+	public Flux<ChatResponse> call(String system, String user) {
+		return measure(() -> delegate.call(system, user));
+	}
+
+	@Override
+	public Flux<ChatResponse> callSystem(String system) {
+		return measure(() -> delegate.callSystem(system));
+	}
+
+	@Override
+	public Flux<ChatResponse> callUser(String user) {
+		return measure(() -> delegate.callUser(user));
+	}
+
+	private Flux<ChatResponse> measure(Supplier<Flux<ChatResponse>> call) {
+		return Flux.deferContextual(ctx -> {
+			String node = ctx.getOrDefault(DataAgentMetrics.NODE_CONTEXT_KEY, DataAgentMetrics.UNKNOWN);
+			CallStats stats = new CallStats();
+			return call.get().doOnNext(stats::onResponse).doFinally(signal -> {
+				String outcome = switch (signal) {
+					case ON_COMPLETE -> DataAgentMetrics.OUTCOME_SUCCESS;
+					case CANCEL -> DataAgentMetrics.OUTCOME_CANCELLED;
+					default -> DataAgentMetrics.OUTCOME_ERROR;
+				};
+				metrics.recordLlmCall(stats.model, node, outcome, System.nanoTime() - stats.start,
+						stats.firstResponseNanos, stats.promptTokens, stats.completionTokens);
+			});
+		});
+	}
+
+	/**
+	 * 单次调用的统计信息，流式响应中用量通常只出现在最后一个响应块，因此取各块中的最大值
+	 */
+	private static final class CallStats {
+
+		private final long start = System.nanoTime();
+
+		private volatile long firstResponseNanos = -1;
+
+		private volatile String model = DataAgentMetrics.UNKNOWN;
+
+		private volatile Integer promptTokens;
+
+		private volatile Integer completionTokens;
+
+		private void onResponse(ChatResponse response) {
+			if (firstResponseNanos < 0) {
+				firstResponseNanos = System.nanoTime() - start;
+			}
+			ChatResponseMetadata metadata = response == null ? null : response.getMetadata();
+			if (metadata == null) {
+				return;
+			}
+			if (StringUtils.hasText(metadata.getModel())) {
+				model = metadata.getModel();
+			}
+			Usage usage = metadata.getUsage();
+			if (usage != null) {
+				promptTokens = max(promptTokens, usage.getPromptTokens());
+				completionTokens = max(completionTokens, usage.getCompletionTokens());
+			}
+		}
+
+		private static Integer max(Integer current, Integer candidate) {
+			if (candidate == null) {
+				return current;
+			}
+			return current == null ? candidate : Math.max(current, candidate);
+		}
+
+	}
+
+}
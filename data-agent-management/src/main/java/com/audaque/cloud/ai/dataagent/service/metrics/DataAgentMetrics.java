@@ -0,0 +1,266 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 工作流指标记录器，统一维护节点、大模型调用、SQL 执行和单次图运行的 Micrometer 指标。
+ * <p>
+ * 指标通过 actuator 的 /actuator/prometheus 端点以 Prometheus 格式暴露；图运行使用 Observation 记录，
+ * 引入 micrometer-tracing 的 OpenTelemetry 桥接后会自动生成对应的 Span。
+ */
+@Slf4j
+@Component
+public class DataAgentMetrics {
+
+	/**
+	 * Reactor Context 中标记当前节点名称的键，用于将大模型调用归属到发起调用的节点
+	 */
+	public static final String NODE_CONTEXT_KEY = "dataagent.node";
+
+	public static final String UNKNOWN = "unknown";
+
+	public static final String OUTCOME_SUCCESS = "success";
+
+	public static final String OUTCOME_ERROR = "error";
+
+	public static final String OUTCOME_CANCELLED = "cancelled";
+
+	private static final String NODE_DURATION = "dataagent.node.duration";
+
+	private static final String NODE_RETRIES = "dataagent.node.retries";
+
+	private static final String LLM_DURATION = "dataagent.llm.duration";
+
+	private static final String LLM_TIME_TO_FIRST_TOKEN = "dataagent.llm.time.to.first.token";
+
+	private static final String LLM_TOKENS = "dataagent.llm.tokens";
+
+	private static final String SQL_DURATION = "dataagent.sql.duration";
+
+	private static final String SQL_ROWS = "dataagent.sql.rows";
+
+	private static final String GRAPH_RUN = "dataagent.graph.run";
+
+	private static final String CODE_QUEUE_DEPTH = "dataagent.code.queue.depth";
+
+	private static final String CODE_IDLE_CONTAINERS = "dataagent.code.containers.idle";
+
+	private static final String CODE_QUEUE_WAIT = "dataagent.code.queue.wait";
+
+	private static final String CODE_EXECUTION_DURATION = "dataagent.code.execution.duration";
+
+	private final MeterRegistry meterRegistry;
+
+	private final ObservationRegistry observationRegistry;
+
+	/**
+	 * 进行中的图运行，按 threadId 保存，用于统计节点重试次数并在运行结束时关闭 Observation
+	 */
+	private final ConcurrentHashMap<String, GraphRun> runs = new ConcurrentHashMap<>();
+
+	public DataAgentMetrics(MeterRegistry meterRegistry, ObjectProvider<ObservationRegistry> observationRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.observationRegistry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+	}
+
+	/**
+	 * 开始一次图运行（新问题或人工反馈后的恢复执行），同一线程上未结束的运行会被视为取消
+	 */
+	public void startRun(String threadId, String agentId) {
+		if (threadId == null) {
+			return;
+		}
+		Observation observation = Observation.createNotStarted(GRAPH_RUN, observationRegistry)
+			.contextualName("data-agent graph run")
+			.highCardinalityKeyValue("thread.id", threadId)
+			.highCardinalityKeyValue("agent.id", agentId == null ? UNKNOWN : agentId)
+			.start();
+		GraphRun previous = runs.put(threadId, new GraphRun(observation));
+		if (previous != null) {
+			previous.stop(OUTCOME_CANCELLED, null);
+		}
+	}
+
+	/**
+	 * 结束一次图运行
+	 * @param outcome 运行结果：success / error / cancelled
+	 * @param error 失败原因，可为 null
+	 */
+	public void finishRun(String threadId, String outcome, Throwable error) {
+		GraphRun run = threadId == null ? null : runs.remove(threadId);
+		if (run != null) {
+			run.stop(outcome, error);
+		}
+	}
+
+	/**
+	 * 记录节点一次执行，若该节点在本次运行中已执行过则计为一次重试
+	 */
+	public void recordNodeEntry(String threadId, String node) {
+		GraphRun run = threadId == null ? null : runs.get(threadId);
+		if (run != null && !run.visitedNodes.add(node)) {
+			Counter.builder(NODE_RETRIES)
+				.description("Workflow node re-executions within one graph run")
+				.tag("node", node)
+				.register(meterRegistry)
+				.increment();
+		}
+	}
+
+	/**
+	 * 记录节点耗时，流式节点包含输出流消费完成前的全部时间
+	 */
+	public void recordNode(String node, String outcome, long durationNanos) {
+		Timer.builder(NODE_DURATION)
+			.description("Workflow node execution time including streamed output")
+			.tag("node", node)
+			.tag("outcome", outcome)
+			.register(meterRegistry)
+			.record(Duration.ofNanos(durationNanos));
+	}
+
+	/**
+	 * 记录一次大模型调用
+	 * @param firstTokenNanos 首个响应块到达耗时，未收到响应时为负数
+	 * @param promptTokens 提示词 token 数，模型未返回用量时为 null
+	 * @param completionTokens 生成 token 数，模型未返回用量时为 null
+	 */
+	public void recordLlmCall(String model, String node, String outcome, long durationNanos, long firstTokenNanos,
+			Integer promptTokens, Integer completionTokens) {
+		Timer.builder(LLM_DURATION)
+			.description("LLM call time until the response is fully received")
+			.tag("model", model)
+			.tag("node", node)
+			.tag("outcome", outcome)
+			.register(meterRegistry)
+			.record(Duration.ofNanos(durationNanos));
+		if (firstTokenNanos >= 0) {
+			Timer.builder(LLM_TIME_TO_FIRST_TOKEN)
+				.description("LLM time to first response chunk")
+				.tag("model", model)
+				.tag("node", node)
+				.register(meterRegistry)
+				.record(Duration.ofNanos(firstTokenNanos));
+		}
+		recordTokens(model, node, "prompt", promptTokens);
+		recordTokens(model, node, "completion", completionTokens);
+	}
+
+	private void recordTokens(String model, String node, String type, Integer tokens) {
+		if (tokens == null || tokens <= 0) {
+			return;
+		}
+		DistributionSummary.builder(LLM_TOKENS)
+			.description("Tokens consumed per LLM call")
+			.baseUnit("tokens")
+			.tag("model", model)
+			.tag("node", node)
+			.tag("type", type)
+			.register(meterRegistry)
+			.record(tokens);
+	}
+
+	/**
+	 * 记录一次业务数据源 SQL 执行
+	 * @param rows 返回行数，执行失败时为负数
+	 */
+	public void recordSqlExecution(String datasourceType, String outcome, long durationNanos, int rows) {
+		Timer.builder(SQL_DURATION)
+			.description("SQL execution time against business datasources")
+			.tag("datasource", datasourceType)
+			.tag("outcome", outcome)
+			.register(meterRegistry)
+			.record(Duration.ofNanos(durationNanos));
+		if (rows >= 0) {
+			DistributionSummary.builder(SQL_ROWS)
+				.description("Rows returned per SQL execution")
+				.baseUnit("rows")
+				.tag("datasource", datasourceType)
+				.register(meterRegistry)
+				.record(rows);
+		}
+	}
+
+	/**
+	 * 注册 Python 执行容器池的排队任务数和空闲容器数
+	 */
+	public void registerCodeQueue(Supplier<Number> queueDepth, Supplier<Number> idleContainers) {
+		Gauge.builder(CODE_QUEUE_DEPTH, queueDepth)
+			.description("Python tasks waiting for an idle container")
+			.strongReference(true)
+			.register(meterRegistry);
+		Gauge.builder(CODE_IDLE_CONTAINERS, idleContainers)
+			.description("Idle Python execution containers")
+			.strongReference(true)
+			.register(meterRegistry);
+	}
+
+	/**
+	 * 记录一次 Python 任务的排队等待和执行耗时
+	 * @param outcome success / failure（代码执行失败）/ error / timeout（排队超时）/ rejected（队列已满）
+	 */
+	public void recordCodeTask(String outcome, long waitNanos, long executionNanos) {
+		Timer.builder(CODE_QUEUE_WAIT)
+			.description("Time Python tasks wait for an idle container")
+			.tag("outcome", outcome)
+			.register(meterRegistry)
+			.record(Duration.ofNanos(Math.max(0L, waitNanos)));
+		if (executionNanos > 0) {
+			Timer.builder(CODE_EXECUTION_DURATION)
+				.description("Python task execution time inside a container")
+				.tag("outcome", outcome)
+				.register(meterRegistry)
+				.record(Duration.ofNanos(executionNanos));
+		}
+	}
+
+	private static final class GraphRun {
+
+		private final Observation observation;
+
+		private final Set<String> visitedNodes = ConcurrentHashMap.newKeySet();
+
+		private GraphRun(Observation observation) {
+			this.observation = observation;
+		}
+
+		private void stop(String outcome, Throwable error) {
+			observation.lowCardinalityKeyValue("outcome", outcome);
+			if (error != null) {
+				observation.error(error);
+			}
+			observation.stop();
+		}
+
+	}
+
+}
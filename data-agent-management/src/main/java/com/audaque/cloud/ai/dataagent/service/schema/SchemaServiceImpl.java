@@ -24,6 +24,7 @@ import com.audaque.cloud.ai.dataagent.enums.DatabaseDialectEnum;
 import com.audaque.cloud.ai.dataagent.util.JsonUtil;
 import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
 import com.audaque.cloud.ai.dataagent.connector.accessor.Accessor;
+import com.audaque.cloud.ai.dataagent.connector.accessor.AccessorSession;
 import com.audaque.cloud.ai.dataagent.connector.accessor.AccessorFactory;
 import com.audaque.cloud.ai.dataagent.bo.DbConfigBO;
 import com.audaque.cloud.ai.dataagent.dto.datasource.SchemaInitRequest;
@@ -135,17 +136,22 @@ public class SchemaServiceImpl implements SchemaService {
 
 			// 处理外键
 			log.debug("Fetching foreign keys for agent: {}", agentId);
-			List<ForeignKeyInfoBO> foreignKeys = dbAccessor.showForeignKeys(config, dqp);
-			log.info("Found {} foreign keys for agent: {}", foreignKeys.size(), agentId);
+			List<ForeignKeyInfoBO> foreignKeys;
+			List<TableInfoBO> tables;
+			// 外键和表信息在同一个连接上读取
+			try (AccessorSession session = dbAccessor.openSession(config)) {
+				foreignKeys = session.showForeignKeys(dqp);
+				log.info("Found {} foreign keys for agent: {}", foreignKeys.size(), agentId);
+
+				// 处理表和列
+				log.debug("Fetching tables for agent: {}", agentId);
+				tables = session.fetchTables(dqp);
+				log.info("Found {} tables for agent: {}", tables.size(), agentId);
+			}
 
 			Map<String, List<String>> foreignKeyMap = buildForeignKeyMap(foreignKeys);
 			log.debug("Built foreign key map with {} entries for agent: {}", foreignKeyMap.size(), agentId);
 
-			// 处理表和列
-			log.debug("Fetching tables for agent: {}", agentId);
-			List<TableInfoBO> tables = dbAccessor.fetchTables(config, dqp);
-			log.info("Found {} tables for agent: {}", tables.size(), agentId);
-
 			if (tables.size() > 5) {
 				// 对于大量表，使用并行处理
 				log.info("Processing {} tables in parallel mode for agent: {}", tables.size(), agentId);
@@ -237,15 +243,17 @@ public class SchemaServiceImpl implements SchemaService {
 
 	protected void storeSchemaDocuments(String agentId, List<Document> columns, List<Document> tables) {
 		// 串行去批写入，并行流的时候有API限速了
+		List<CompletableFuture<Void>> writes = new ArrayList<>();
 		List<List<Document>> columnBatches = batchingStrategy.batch(columns);
 		for (List<Document> batch : columnBatches) {
-			agentVectorStoreService.addDocuments(agentId, batch);
+			writes.add(agentVectorStoreService.addDocuments(agentId, batch));
 		}
 		List<List<Document>> tableBatches = batchingStrategy.batch(tables);
 		for (List<Document> batch : tableBatches) {
-			agentVectorStoreService.addDocuments(agentId, batch);
+			writes.add(agentVectorStoreService.addDocuments(agentId, batch));
 		}
-
+		// 等待所有批次真正落库，写入失败时抛出异常，避免在向量化完成前报告初始化成功
+		CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
 	}
 
 	protected Map<String, List<String>> buildForeignKeyMap(List<ForeignKeyInfoBO> foreignKeys) {
@@ -20,8 +20,8 @@ import com.audaque.cloud.ai.dataagent.connector.DbQueryParameter;
 import com.audaque.cloud.ai.dataagent.bo.schema.ResultSetBO;
 import com.audaque.cloud.ai.dataagent.bo.schema.TableInfoBO;
 import com.audaque.cloud.ai.dataagent.util.SqlUtil;
-import com.audaque.cloud.ai.dataagent.connector.accessor.Accessor;
 import com.audaque.cloud.ai.dataagent.connector.accessor.AccessorFactory;
+import com.audaque.cloud.ai.dataagent.connector.accessor.AccessorSession;
 import com.audaque.cloud.ai.dataagent.bo.DbConfigBO;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -57,12 +57,16 @@ public class TableMetadataService {
 	public void batchEnrichTableMetadata(List<TableInfoBO> tables, DbConfigBO dbConfig,
 			Map<String, List<String>> foreignKeyMap) throws Exception {
 
-		// 1. 批量获取所有表的列信息
-		Map<String, List<ColumnInfoBO>> tableColumnsMap = fetchTableColumns(tables, dbConfig);
+		Map<String, List<ColumnInfoBO>> tableColumnsMap;
+		Map<String, Map<String, List<String>>> allTablesSampleData;
+		// 列信息和样本数据在同一个连接上读取，避免每张表都重新借出连接、初始化会话
+		try (AccessorSession session = accessorFactory.getAccessorByDbConfig(dbConfig).openSession(dbConfig)) {
+			// 1. 批量获取所有表的列信息
+			tableColumnsMap = fetchTableColumns(tables, dbConfig, session);
 
-		// 2. 批量获取所有表的列样本数据
-		Map<String, Map<String, List<String>>> allTablesSampleData = batchGetSampleDataForTables(dbConfig,
-				tableColumnsMap);
+			// 2. 批量获取所有表的列样本数据
+			allTablesSampleData = batchGetSampleDataForTables(dbConfig, session, tableColumnsMap);
+		}
 
 		// 3. 处理每个表的元数据
 		enrichTablesWithMetadata(tables, tableColumnsMap, allTablesSampleData, foreignKeyMap);
@@ -73,19 +77,19 @@ public class TableMetadataService {
 	 * 
 	 * @param tables   表列表
 	 * @param dbConfig 数据库配置
+	 * @param session  数据库访问会话
 	 * @return 表名到列信息的映射
 	 * @throws Exception 获取列信息失败时抛出异常
 	 */
-	private Map<String, List<ColumnInfoBO>> fetchTableColumns(List<TableInfoBO> tables, DbConfigBO dbConfig)
-			throws Exception {
+	private Map<String, List<ColumnInfoBO>> fetchTableColumns(List<TableInfoBO> tables, DbConfigBO dbConfig,
+			AccessorSession session) throws Exception {
 		Map<String, List<ColumnInfoBO>> tableColumnsMap = new HashMap<>();
-		Accessor accessor = accessorFactory.getAccessorByDbConfig(dbConfig);
 
 		log.debug("Starting to get column info for {} tables, dialect: {}", tables.size(), dbConfig.getDialectType());
 
 		for (TableInfoBO table : tables) {
 			DbQueryParameter tableDqp = DbQueryParameter.from(dbConfig).setTable(table.getName());
-			List<ColumnInfoBO> columnInfoBOS = accessor.showColumns(dbConfig, tableDqp);
+			List<ColumnInfoBO> columnInfoBOS = session.showColumns(tableDqp);
 			tableColumnsMap.put(table.getName(), columnInfoBOS);
 			log.debug("Table [{}] retrieved {} columns: {}", table.getName(), columnInfoBOS.size(),
 					columnInfoBOS.stream().map(ColumnInfoBO::getName).collect(Collectors.joining(", ")));
@@ -209,11 +213,12 @@ public class TableMetadataService {
 	 * 批量获取多个表的样本数据，减少数据库查询次数
 	 * 
 	 * @param dbConfig        数据库配置
+	 * @param session         数据库访问会话
 	 * @param tableColumnsMap 表名到列信息的映射
 	 * @return 表名到列样本数据的映射
 	 */
 	private Map<String, Map<String, List<String>>> batchGetSampleDataForTables(DbConfigBO dbConfig,
-			Map<String, List<ColumnInfoBO>> tableColumnsMap) {
+			AccessorSession session, Map<String, List<ColumnInfoBO>> tableColumnsMap) {
 
 		// 外层Map 键:表名，值:该表的列样本数据Map
 		// 内层Map 键:列名，值:该列的样本数据
@@ -225,7 +230,6 @@ public class TableMetadataService {
 		// }
 		// }
 		Map<String, Map<String, List<String>>> result = new HashMap<>();
-		Accessor accessor = accessorFactory.getAccessorByDbConfig(dbConfig);
 
 		// 为每个表的数据列生成样本数据
 		for (Map.Entry<String, List<ColumnInfoBO>> entry : tableColumnsMap.entrySet()) {
@@ -237,7 +241,7 @@ public class TableMetadataService {
 				continue;
 			}
 
-			Map<String, List<String>> tableSampleData = fetchTableSampleData(dbConfig, accessor, tableName, columns);
+			Map<String, List<String>> tableSampleData = fetchTableSampleData(dbConfig, session, tableName, columns);
 			result.put(tableName, tableSampleData);
 		}
 
@@ -248,13 +252,13 @@ public class TableMetadataService {
 	 * 获取单个表的样本数据
 	 * 
 	 * @param dbConfig  数据库配置
-	 * @param accessor  数据库访问器
+	 * @param session   数据库访问会话
 	 * @param tableName 表名
 	 * @param columns   列信息列表
 	 * @return 表的样本数据映射
 	 */
-	private Map<String, List<String>> fetchTableSampleData(DbConfigBO dbConfig, Accessor accessor, String tableName,
-			List<ColumnInfoBO> columns) {
+	private Map<String, List<String>> fetchTableSampleData(DbConfigBO dbConfig, AccessorSession session,
+			String tableName, List<ColumnInfoBO> columns) {
 
 		try {
 			// 构建批量查询SQL，一次查询多个列的样本数据
@@ -268,7 +272,7 @@ public class TableMetadataService {
 			batchParam.setSchema(dbConfig.getSchema());
 			batchParam.setSql(sql);
 
-			ResultSetBO resultSet = accessor.executeSqlAndReturnObject(dbConfig, batchParam);
+			ResultSetBO resultSet = session.executeSqlAndReturnObject(batchParam);
 			log.info("Embedding for table: {}, result size: {}", tableName, resultSet.getData().size());
 			log.debug("Table [{}] query returned {} rows", tableName, resultSet.getData().size());
 
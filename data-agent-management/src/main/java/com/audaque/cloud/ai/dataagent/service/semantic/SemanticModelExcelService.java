@@ -17,12 +17,21 @@ package com.audaque.cloud.ai.dataagent.service.semantic;
 
 import com.audaque.cloud.ai.dataagent.dto.schema.SemanticModelImportItem;
 import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.exception.ExcelAnalysisException;
+import com.alibaba.excel.exception.ExcelDataConvertException;
+import com.alibaba.excel.read.listener.ReadListener;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Excel解析服务
@@ -32,59 +41,74 @@ import java.util.List;
 public class SemanticModelExcelService {
 
 	/**
-	 * 解析Excel文件
+	 * 以事件方式流式读取 Excel，每累计 batchSize 条记录回调一次，不会一次性将整个工作簿加载到内存
+	 * @param batchConsumer 按批接收解析出的记录，记录序号为数据行序号（表头不计）
+	 * @param rowErrorConsumer 接收无法解析的行：记录序号和错误信息
 	 */
-	public List<SemanticModelImportItem> parseExcel(MultipartFile file) throws IOException {
-		log.info("Starting to parse Excel file: {}", file.getOriginalFilename());
+	public void readExcel(MultipartFile file, int batchSize, Consumer<List<SemanticModelImportRow>> batchConsumer,
+			BiConsumer<Integer, String> rowErrorConsumer) throws IOException {
+		log.info("Starting to stream Excel file: {}", file.getOriginalFilename());
 
-		try {
-			// 使用 EasyExcel 同步读取，自动根据 @ExcelProperty 注解映射列
-			List<SemanticModelImportItem> items = EasyExcel.read(file.getInputStream())
-					.head(SemanticModelImportItem.class)
-					.sheet()
-					.doReadSync();
+		try (InputStream inputStream = file.getInputStream()) {
+			EasyExcel.read(inputStream, SemanticModelImportItem.class, new ReadListener<SemanticModelImportItem>() {
 
-			if (items == null || items.isEmpty()) {
-				throw new IllegalArgumentException("No valid data in Excel file");
-			}
+				private List<SemanticModelImportRow> batch = new ArrayList<>(batchSize);
 
-			// 验证必填字段
-			for (int i = 0; i < items.size(); i++) {
-				SemanticModelImportItem item = items.get(i);
-				int rowNum = i + 2;
+				private int rowCount;
 
-				if (item.getTableName() == null || item.getTableName().trim().isEmpty()) {
-					throw new IllegalArgumentException("Row " + rowNum + ": Table name cannot be empty");
+				@Override
+				public void invoke(SemanticModelImportItem item, AnalysisContext context) {
+					rowCount++;
+					batch.add(new SemanticModelImportRow(context.readRowHolder().getRowIndex(), trim(item)));
+					if (batch.size() >= batchSize) {
+						flush();
+					}
 				}
-				if (item.getColumnName() == null || item.getColumnName().trim().isEmpty()) {
-					throw new IllegalArgumentException("Row " + rowNum + ": Column name cannot be empty");
-				}
-				if (item.getBusinessName() == null || item.getBusinessName().trim().isEmpty()) {
-					throw new IllegalArgumentException("Row " + rowNum + ": Business name cannot be empty");
-				}
-				if (item.getDataType() == null || item.getDataType().trim().isEmpty()) {
-					throw new IllegalArgumentException("Row " + rowNum + ": Data type cannot be empty");
+
+				@Override
+				public void onException(Exception exception, AnalysisContext context) {
+					// 单元格转换失败只跳过当前行，其余行继续导入
+					if (exception instanceof ExcelDataConvertException convertException) {
+						rowCount++;
+						rowErrorConsumer.accept(convertException.getRowIndex(),
+								String.format("第%d列数据格式错误: %s", convertException.getColumnIndex() + 1,
+										convertException.getMessage()));
+						return;
+					}
+					throw new ExcelAnalysisException(exception.getMessage(), exception);
 				}
 
-				// 清理字段值
-				item.setTableName(item.getTableName().trim());
-				item.setColumnName(item.getColumnName().trim());
-				item.setBusinessName(item.getBusinessName().trim());
-				item.setDataType(item.getDataType().trim());
-				if (item.getSynonyms() != null) {
-					item.setSynonyms(item.getSynonyms().trim());
+				@Override
+				public void doAfterAllAnalysed(AnalysisContext context) {
+					flush();
+					log.info("Successfully streamed Excel file, total {} records", rowCount);
 				}
-				if (item.getBusinessDescription() != null) {
-					item.setBusinessDescription(item.getBusinessDescription().trim());
+
+				private void flush() {
+					if (!batch.isEmpty()) {
+						batchConsumer.accept(batch);
+						batch = new ArrayList<>(batchSize);
+					}
 				}
-			}
 
-			log.info("Successfully parsed Excel file, total {} records", items.size());
-			return items;
+			}).sheet().doRead();
 		} catch (Exception e) {
 			log.error("Failed to parse Excel file: {}", file.getOriginalFilename(), e);
 			throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * 清理字段值
+	 */
+	private static SemanticModelImportItem trim(SemanticModelImportItem item) {
+		item.setTableName(StringUtils.trimWhitespace(item.getTableName()));
+		item.setColumnName(StringUtils.trimWhitespace(item.getColumnName()));
+		item.setBusinessName(StringUtils.trimWhitespace(item.getBusinessName()));
+		item.setDataType(StringUtils.trimWhitespace(item.getDataType()));
+		item.setSynonyms(StringUtils.trimWhitespace(item.getSynonyms()));
+		item.setBusinessDescription(StringUtils.trimWhitespace(item.getBusinessDescription()));
+		return item;
+	}
+
 }
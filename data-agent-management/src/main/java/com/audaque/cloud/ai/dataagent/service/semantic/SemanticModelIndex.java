@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.semantic;
+
+import com.audaque.cloud.ai.dataagent.entity.AgentDatasource;
+import com.audaque.cloud.ai.dataagent.entity.SemanticModel;
+import com.audaque.cloud.ai.dataagent.mapper.AgentDatasourceMapper;
+import com.audaque.cloud.ai.dataagent.mapper.SemanticModelMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 智能体语义模型内存索引：表名 -> 字段名 -> 语义模型（业务名称、同义词、业务描述）。
+ * <p>
+ * 每个智能体首次使用时加载其当前数据源下启用的语义模型，语义模型或智能体数据源变更时失效，下次使用时重新加载。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SemanticModelIndex {
+
+	/**
+	 * 参与问题匹配的业务名称或同义词的最小长度，过短的词容易误匹配
+	 */
+	private static final int MIN_TERM_LENGTH = 2;
+
+	private final SemanticModelMapper semanticModelMapper;
+
+	private final AgentDatasourceMapper agentDatasourceMapper;
+
+	private final ConcurrentHashMap<Long, AgentIndex> indexes = new ConcurrentHashMap<>();
+
+	/**
+	 * 获取指定表下启用的语义模型
+	 */
+	public List<SemanticModel> getByTableNames(Long agentId, Collection<String> tableNames) {
+		if (agentId == null || tableNames == null || tableNames.isEmpty()) {
+			return List.of();
+		}
+		AgentIndex index = getIndex(agentId);
+		List<SemanticModel> result = new ArrayList<>();
+		for (String tableName : new LinkedHashSet<>(tableNames)) {
+			result.addAll(index.tables().getOrDefault(tableName, Collections.emptyMap()).values());
+		}
+		return result;
+	}
+
+	/**
+	 * 查找业务名称或同义词出现在文本中的字段，不区分大小写
+	 */
+	public List<SemanticModel> matchColumns(Long agentId, String text) {
+		if (agentId == null || !StringUtils.hasText(text)) {
+			return List.of();
+		}
+		String normalized = text.toLowerCase(Locale.ROOT);
+		Set<SemanticModel> matched = new LinkedHashSet<>();
+		for (Map.Entry<String, List<SemanticModel>> entry : getIndex(agentId).terms().entrySet()) {
+			if (normalized.contains(entry.getKey())) {
+				matched.addAll(entry.getValue());
+			}
+		}
+		return new ArrayList<>(matched);
+	}
+
+	/**
+	 * 失效智能体的索引。处于事务中时在提交后再失效一次，避免并发请求在提交前重新加载到旧数据
+	 */
+	public void invalidate(Long agentId) {
+		if (agentId == null) {
+			return;
+		}
+		indexes.remove(agentId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					indexes.remove(agentId);
+				}
+			});
+		}
+		log.debug("Invalidated semantic model index for agent: {}", agentId);
+	}
+
+	private AgentIndex getIndex(Long agentId) {
+		return indexes.computeIfAbsent(agentId, this::load);
+	}
+
+	private AgentIndex load(Long agentId) {
+		Integer datasourceId = findDatasourceId(agentId);
+		if (datasourceId == null) {
+			return AgentIndex.EMPTY;
+		}
+		List<SemanticModel> models = semanticModelMapper.selectEnabledByAgentIdAndDatasourceId(agentId,
+				datasourceId);
+
+		Map<String, Map<String, SemanticModel>> tables = new HashMap<>();
+		Map<String, List<SemanticModel>> terms = new HashMap<>();
+		for (SemanticModel model : models) {
+			tables.computeIfAbsent(model.getTableName(), key -> new LinkedHashMap<>())
+				.putIfAbsent(model.getColumnName(), model);
+			for (String term : termsOf(model)) {
+				terms.computeIfAbsent(term, key -> new ArrayList<>()).add(model);
+			}
+		}
+		log.info("Loaded semantic model index for agent: {}, datasource: {}, models: {}, terms: {}", agentId,
+				datasourceId, models.size(), terms.size());
+		return new AgentIndex(tables, terms);
+	}
+
+	/**
+	 * 与 SemanticModelService 一致：优先使用启用的数据源，否则使用第一个数据源
+	 */
+	private Integer findDatasourceId(Long agentId) {
+		List<AgentDatasource> agentDatasources = agentDatasourceMapper.selectByAgentId(agentId.intValue());
+		if (agentDatasources.isEmpty()) {
+			return null;
+		}
+		for (AgentDatasource ad : agentDatasources) {
+			if (ad.getIsActive() != null && ad.getIsActive() == 1) {
+				return ad.getDatasourceId();
+			}
+		}
+		return agentDatasources.get(0).getDatasourceId();
+	}
+
+	private static Set<String> termsOf(SemanticModel model) {
+		Set<String> terms = new HashSet<>();
+		addTerm(terms, model.getBusinessName());
+		if (StringUtils.hasText(model.getSynonyms())) {
+			for (String synonym : model.getSynonyms().split("[,，、;；]")) {
+				addTerm(terms, synonym);
+			}
+		}
+		return terms;
+	}
+
+	private static void addTerm(Set<String> terms, String term) {
+		if (term != null) {
+			String normalized = term.trim().toLowerCase(Locale.ROOT);
+			if (normalized.length() >= MIN_TERM_LENGTH) {
+				terms.add(normalized);
+			}
+		}
+	}
+
+	/**
+	 * @param tables 表名 -> 字段名 -> 语义模型
+	 * @param terms 小写的业务名称或同义词 -> 语义模型
+	 */
+	private record AgentIndex(Map<String, Map<String, SemanticModel>> tables, Map<String, List<SemanticModel>> terms) {
+
+		private static final AgentIndex EMPTY = new AgentIndex(Map.of(), Map.of());
+
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package com.audaque.cloud.ai.dataagent.service.semantic;
 
+import com.audaque.cloud.ai.dataagent.constant.DocumentMetadataConstant;
 import com.audaque.cloud.ai.dataagent.dto.schema.SemanticModelAddDTO;
 import com.audaque.cloud.ai.dataagent.dto.schema.SemanticModelBatchImportDTO;
 import com.audaque.cloud.ai.dataagent.dto.schema.SemanticModelImportItem;
@@ -30,19 +31,34 @@ import com.audaque.cloud.ai.dataagent.vo.PageResult;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class SemanticModelServiceImpl implements SemanticModelService {
 
+	/**
+	 * 批量导入时每块的记录数，每块在一个事务中写入
+	 */
+	private static final int IMPORT_CHUNK_SIZE = 500;
+
 	private final SemanticModelMapper semanticModelMapper;
 
 	private final AgentDatasourceMapper agentDatasourceMapper;
@@ -51,6 +67,12 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 
 	private final AgentVectorStoreService agentVectorStoreService;
 
+	private final TransactionTemplate transactionTemplate;
+
+	private final BatchingStrategy batchingStrategy;
+
+	private final SemanticModelIndex semanticModelIndex;
+
 	@Override
 	public List<SemanticModel> getAll() {
 		return semanticModelMapper.selectAll();
@@ -63,13 +85,8 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 
 	@Override
 	public List<SemanticModel> getByAgentIdAndTableNames(Long agentId, List<String> tableNames) {
-		Integer datasourceId = findDatasourceIdByAgentId(agentId);
-
-		if (datasourceId == null || tableNames == null || tableNames.isEmpty()) {
-			return List.of();
-		}
-
-		return semanticModelMapper.selectByDatasourceIdAndTableNames(datasourceId, tableNames);
+		// 从内存索引读取，无需每次查询数据源和语义模型表
+		return semanticModelIndex.getByTableNames(agentId, tableNames);
 	}
 
 	@Override
@@ -87,6 +104,7 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 			semanticModel.setIsDeleted(0);
 		}
 		semanticModelMapper.insert(semanticModel);
+		invalidateIndex(semanticModel.getAgentId());
 	}
 
 	@Override
@@ -114,6 +132,7 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 		semanticModel.setCreatedTime(now);
 		semanticModel.setUpdatedTime(now);
 		semanticModelMapper.insert(semanticModel);
+		invalidateIndex(semanticModel.getAgentId());
 
 		// 同步到向量数据库
 		syncSemanticModelToVectorStore(semanticModel);
@@ -145,11 +164,26 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 	@Override
 	public void enableSemanticModel(Long id) {
 		semanticModelMapper.enableById(id);
+		invalidateIndexOf(id);
 	}
 
 	@Override
 	public void disableSemanticModel(Long id) {
 		semanticModelMapper.disableById(id);
+		invalidateIndexOf(id);
+	}
+
+	private void invalidateIndexOf(Long id) {
+		SemanticModel semanticModel = semanticModelMapper.selectById(id);
+		if (semanticModel != null) {
+			invalidateIndex(semanticModel.getAgentId());
+		}
+	}
+
+	private void invalidateIndex(Integer agentId) {
+		if (agentId != null) {
+			semanticModelIndex.invalidate(agentId.longValue());
+		}
 	}
 
 	@Override
@@ -171,6 +205,7 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 
 			// 软删除：更新 is_deleted = 1
 			semanticModelMapper.softDeleteById(id);
+			invalidateIndex(semanticModel.getAgentId());
 			log.info("Soft deleted semantic model: id={}", id);
 		}
 	}
@@ -180,6 +215,7 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 		semanticModel.setId(id);
 		semanticModel.setUpdatedTime(LocalDateTime.now());
 		semanticModelMapper.updateById(semanticModel);
+		invalidateIndexOf(id);
 
 		// 重新同步到向量数据库
 		syncSemanticModelToVectorStore(semanticModel);
@@ -204,69 +240,206 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 			return result;
 		}
 
-		// 遍历导入项
+		// 按块导入，每块一次查询已有记录、一次批量插入、一次批量更新
+		List<SemanticModelImportRow> rows = new ArrayList<>(dto.getItems().size());
 		for (int i = 0; i < dto.getItems().size(); i++) {
-			SemanticModelImportItem item = dto.getItems().get(i);
-			try {
-				// 检查是否已存在
-				SemanticModel existing = semanticModelMapper.selectByAgentIdAndTableNameAndColumnName(
-						dto.getAgentId().intValue(), item.getTableName(), item.getColumnName());
-
-				if (existing != null) {
-					// 更新已存在的记录
-					existing.setBusinessName(item.getBusinessName());
+			rows.add(new SemanticModelImportRow(i + 1, dto.getItems().get(i)));
+		}
+		for (int from = 0; from < rows.size(); from += IMPORT_CHUNK_SIZE) {
+			importChunk(dto.getAgentId(), datasourceId, rows.subList(from, Math.min(from + IMPORT_CHUNK_SIZE,
+					rows.size())), result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * 导入一块记录：一次查询该块涉及表的已有字段，新增记录多行插入，已有记录单语句批量更新，并在同一事务中提交。
+	 * 批量写入失败时逐行重试，以便定位具体失败的记录
+	 */
+	private void importChunk(Long agentId, Integer datasourceId, List<SemanticModelImportRow> rows,
+			BatchImportResult result) {
+		// 校验必填字段，同一块内相同表名和字段名的记录以最后一条为准
+		Map<String, SemanticModelImportRow> validRows = new LinkedHashMap<>();
+		int duplicateCount = 0;
+		for (SemanticModelImportRow row : rows) {
+			String error = validateImportItem(row.item());
+			if (error != null) {
+				recordImportFailure(result, row, error);
+				continue;
+			}
+			if (validRows.put(importKey(row.item().getTableName(), row.item().getColumnName()), row) != null) {
+				duplicateCount++;
+			}
+		}
+		if (validRows.isEmpty()) {
+			return;
+		}
+
+		Set<String> tableNames = validRows.values()
+				.stream()
+				.map(row -> row.item().getTableName())
+				.collect(Collectors.toSet());
+		Map<String, SemanticModel> existingModels = new HashMap<>();
+		for (SemanticModel model : semanticModelMapper.selectByAgentIdAndTableNames(agentId.intValue(), tableNames)) {
+			existingModels.putIfAbsent(importKey(model.getTableName(), model.getColumnName()), model);
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		List<SemanticModel> toInsert = new ArrayList<>();
+		List<SemanticModel> toUpdate = new ArrayList<>();
+		Map<SemanticModel, SemanticModelImportRow> rowOfModel = new IdentityHashMap<>();
+		validRows.forEach((key, row) -> {
+			SemanticModelImportItem item = row.item();
+			SemanticModel existing = existingModels.get(key);
+			SemanticModel model;
+			if (existing != null) {
+				// 更新已存在的记录，未提供的字段保持原值
+				existing.setBusinessName(item.getBusinessName());
+				existing.setDataType(item.getDataType());
+				if (item.getSynonyms() != null) {
 					existing.setSynonyms(item.getSynonyms());
+				}
+				if (item.getBusinessDescription() != null) {
 					existing.setBusinessDescription(item.getBusinessDescription());
+				}
+				if (item.getColumnComment() != null) {
 					existing.setColumnComment(item.getColumnComment());
-					existing.setDataType(item.getDataType());
-					existing.setUpdatedTime(LocalDateTime.now());
-					semanticModelMapper.updateById(existing);
-
-					// 重新同步到向量数据库
-					syncSemanticModelToVectorStore(existing);
-
-					log.info("Updated semantic model: agentId={}, tableName={}, columnName={}", dto.getAgentId(),
-							item.getTableName(),
-							item.getColumnName());
-				} else {
-					// 插入新记录
-					SemanticModel newModel = SemanticModel.builder()
-							.agentId(dto.getAgentId().intValue())
-							.datasourceId(datasourceId)
-							.tableName(item.getTableName())
-							.columnName(item.getColumnName())
-							.businessName(item.getBusinessName())
-							.synonyms(item.getSynonyms())
-							.businessDescription(item.getBusinessDescription())
-							.columnComment(item.getColumnComment())
-							.dataType(item.getDataType())
-							.status(1) // 默认启用
-							.isDeleted(0) // 显式设置未删除状态
-							.createdTime(item.getCreateTime() != null ? item.getCreateTime() : LocalDateTime.now())
-							.updatedTime(LocalDateTime.now())
-							.build();
-					semanticModelMapper.insert(newModel);
-
-					// 同步到向量数据库
-					syncSemanticModelToVectorStore(newModel);
-
-					log.info("Inserted semantic model: agentId={}, tableName={}, columnName={}", dto.getAgentId(),
-							item.getTableName(),
-							item.getColumnName());
 				}
+				existing.setUpdatedTime(now);
+				model = existing;
+				toUpdate.add(model);
+			} else {
+				model = SemanticModel.builder()
+						.agentId(agentId.intValue())
+						.datasourceId(datasourceId)
+						.tableName(item.getTableName())
+						.columnName(item.getColumnName())
+						.businessName(item.getBusinessName())
+						.synonyms(item.getSynonyms())
+						.businessDescription(item.getBusinessDescription())
+						.columnComment(item.getColumnComment())
+						.dataType(item.getDataType())
+						.status(1) // 默认启用
+						.isDeleted(0) // 显式设置未删除状态
+						.createdTime(item.getCreateTime() != null ? item.getCreateTime() : now)
+						.updatedTime(now)
+						.build();
+				toInsert.add(model);
+			}
+			rowOfModel.put(model, row);
+		});
 
-				result.setSuccessCount(result.getSuccessCount() + 1);
-			} catch (Exception e) {
-				log.error("Failed to import record {}: tableName={}, columnName={}", i + 1, item.getTableName(),
-						item.getColumnName(),
-						e);
-				result.setFailCount(result.getFailCount() + 1);
-				result.addError(String.format("第%d条记录失败 (%s.%s): %s", i + 1, item.getTableName(), item.getColumnName(),
-						e.getMessage()));
+		List<SemanticModel> written = new ArrayList<>(validRows.size());
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				if (!toInsert.isEmpty()) {
+					semanticModelMapper.batchInsert(toInsert);
+				}
+				if (!toUpdate.isEmpty()) {
+					semanticModelMapper.batchUpdateImportedFields(toUpdate, now);
+				}
+			});
+			written.addAll(toUpdate);
+			written.addAll(toInsert);
+			result.setSuccessCount(result.getSuccessCount() + validRows.size() + duplicateCount);
+		} catch (Exception e) {
+			log.warn("Batch import of {} semantic models failed, retrying row by row: agentId={}, error={}",
+					validRows.size(), agentId, e.getMessage());
+			for (SemanticModel model : toUpdate) {
+				writeImportRow(model, rowOfModel.get(model), () -> semanticModelMapper.updateById(model), written,
+						result);
 			}
+			for (SemanticModel model : toInsert) {
+				writeImportRow(model, rowOfModel.get(model), () -> semanticModelMapper.insert(model), written,
+						result);
+			}
+			result.setSuccessCount(result.getSuccessCount() + duplicateCount);
 		}
+		log.info("Imported semantic model chunk: agentId={}, inserted={}, updated={}, written={}", agentId,
+				toInsert.size(), toUpdate.size(), written.size());
+		semanticModelIndex.invalidate(agentId);
 
-		return result;
+		syncImportedModelsToVectorStore(agentId, tableNames, toUpdate, written, result);
+	}
+
+	private void writeImportRow(SemanticModel model, SemanticModelImportRow row, Runnable write,
+			List<SemanticModel> written, BatchImportResult result) {
+		try {
+			write.run();
+			written.add(model);
+			result.setSuccessCount(result.getSuccessCount() + 1);
+		} catch (Exception e) {
+			log.error("Failed to import record {}: tableName={}, columnName={}", row.recordNo(), model.getTableName(),
+					model.getColumnName(), e);
+			recordImportFailure(result, row, e.getMessage());
+		}
+	}
+
+	/**
+	 * 批量同步导入的语义模型到向量数据库：先合并删除被更新记录的旧向量，再按批写入新向量
+	 */
+	private void syncImportedModelsToVectorStore(Long agentId, Set<String> tableNames, List<SemanticModel> updated,
+			List<SemanticModel> written, BatchImportResult result) {
+		if (written.isEmpty()) {
+			return;
+		}
+		String agentIdStr = agentId.toString();
+		try {
+			Set<SemanticModel> writtenModels = Collections.newSetFromMap(new IdentityHashMap<>());
+			writtenModels.addAll(written);
+			List<Long> updatedIds = updated.stream().filter(writtenModels::contains).map(SemanticModel::getId).toList();
+			agentVectorStoreService.deleteDocumentsByMetadataIn(agentIdStr,
+					Map.of(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.SEMANTIC_MODEL),
+					DocumentMetadataConstant.DB_SEMANTIC_MODEL_ID, updatedIds);
+
+			// 多行插入不一定能取回自增主键，按表重新查询一次以获得新记录的ID
+			Set<String> writtenKeys = written.stream()
+					.map(model -> importKey(model.getTableName(), model.getColumnName()))
+					.collect(Collectors.toSet());
+			List<Document> documents = semanticModelMapper.selectByAgentIdAndTableNames(agentId.intValue(), tableNames)
+					.stream()
+					.filter(model -> writtenKeys.contains(importKey(model.getTableName(), model.getColumnName())))
+					.map(DocumentConverterUtil::convertSemanticModelToDocument)
+					.toList();
+			List<CompletableFuture<Void>> writes = new ArrayList<>();
+			for (List<Document> batch : batchingStrategy.batch(documents)) {
+				writes.add(agentVectorStoreService.addDocuments(agentIdStr, batch));
+			}
+			CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+			log.info("Stored {} semantic model documents in vector store: agentId={}", documents.size(), agentId);
+		} catch (Exception e) {
+			// 不抛出异常，允许数据库操作成功但向量化失败，失败原因记录到导入结果中
+			log.error("Failed to sync imported semantic models to vector store: agentId={}", agentId, e);
+			result.addError("向量化同步失败: " + e.getMessage());
+		}
+	}
+
+	private static String validateImportItem(SemanticModelImportItem item) {
+		if (!StringUtils.hasText(item.getTableName())) {
+			return "表名不能为空";
+		}
+		if (!StringUtils.hasText(item.getColumnName())) {
+			return "字段名不能为空";
+		}
+		if (!StringUtils.hasText(item.getBusinessName())) {
+			return "业务名称不能为空";
+		}
+		if (!StringUtils.hasText(item.getDataType())) {
+			return "数据类型不能为空";
+		}
+		return null;
+	}
+
+	private static void recordImportFailure(BatchImportResult result, SemanticModelImportRow row, String message) {
+		SemanticModelImportItem item = row.item();
+		result.setFailCount(result.getFailCount() + 1);
+		result.addError(String.format("第%d条记录失败 (%s.%s): %s", row.recordNo(),
+				item == null ? null : item.getTableName(), item == null ? null : item.getColumnName(), message));
+	}
+
+	private static String importKey(String tableName, String columnName) {
+		return tableName + "." + columnName;
 	}
 
 	/**
@@ -280,7 +453,7 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 			Document document = DocumentConverterUtil.convertSemanticModelToDocument(semanticModel);
 
 			// 添加到向量数据库
-			agentVectorStoreService.addDocuments(semanticModel.getAgentId().toString(), List.of(document));
+			agentVectorStoreService.addDocuments(semanticModel.getAgentId().toString(), List.of(document)).join();
 
 			log.info(
 					"Successfully synced semantic model to vector store: id={}, agentId={}, tableName={}, columnName={}",
@@ -320,18 +493,22 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 	public BatchImportResult importFromExcel(MultipartFile file, Long agentId) {
 		log.info("Starting Excel import: agentId={}, filename={}", agentId, file.getOriginalFilename());
 
+		BatchImportResult result = BatchImportResult.builder().total(0).successCount(0).failCount(0).build();
 		try {
-			// 解析Excel文件
-			List<SemanticModelImportItem> items = excelService.parseExcel(file);
-
-			// 组装DTO
-			SemanticModelBatchImportDTO dto = SemanticModelBatchImportDTO.builder()
-					.agentId(agentId)
-					.items(items)
-					.build();
-
-			// 执行批量导入
-			BatchImportResult result = batchImport(dto);
+			Integer datasourceId = findDatasourceIdByAgentId(agentId);
+
+			// 流式解析Excel，每解析出一块记录立即导入
+			excelService.readExcel(file, IMPORT_CHUNK_SIZE, rows -> {
+				result.setTotal(result.getTotal() + rows.size());
+				importChunk(agentId, datasourceId, rows, result);
+			}, (recordNo, message) -> {
+				result.setTotal(result.getTotal() + 1);
+				recordImportFailure(result, new SemanticModelImportRow(recordNo, null), message);
+			});
+
+			if (result.getTotal() == 0) {
+				result.addError("Excel导入失败: No valid data in Excel file");
+			}
 			log.info("Excel import completed: total={}, success={}, failed={}", result.getTotal(),
 					result.getSuccessCount(),
 					result.getFailCount());
@@ -339,7 +516,6 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 			return result;
 		} catch (Exception e) {
 			log.error("Excel import failed", e);
-			BatchImportResult result = BatchImportResult.builder().total(0).successCount(0).failCount(0).build();
 			result.addError("Excel导入失败: " + e.getMessage());
 			return result;
 		}
@@ -377,16 +553,18 @@ public class SemanticModelServiceImpl implements SemanticModelService {
 			throw new IllegalArgumentException("IDs cannot be empty");
 		}
 
-		// Delete from vector store first
-		ids.forEach(id -> {
-			SemanticModel model = semanticModelMapper.selectById(id);
-			if (model != null) {
-				deleteSemanticModelFromVectorStore(model);
-			}
-		});
+		// Delete from vector store first, one coalesced delete for the whole batch
+		try {
+			agentVectorStoreService.deleteDocumentsByMetadataIn(agentId.toString(),
+					Map.of(DocumentMetadataConstant.VECTOR_TYPE, DocumentMetadataConstant.SEMANTIC_MODEL),
+					DocumentMetadataConstant.DB_SEMANTIC_MODEL_ID, ids);
+		} catch (Exception e) {
+			log.error("Failed to delete semantic models from vector store: agentId={}", agentId, e);
+		}
 
 		// Delete from database
 		int affected = semanticModelMapper.batchDeleteByIds(agentId, ids);
+		semanticModelIndex.invalidate(agentId);
 
 		log.info("Batch delete completed: requested={}, affected={}", ids.size(), affected);
 		return affected;
@@ -19,8 +19,11 @@ import com.audaque.cloud.ai.dataagent.dto.search.AgentSearchRequest;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.filter.Filter;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public interface AgentVectorStoreService {
 
@@ -30,15 +33,23 @@ public interface AgentVectorStoreService {
 	List<Document> search(AgentSearchRequest searchRequest);
 
 	/**
-	 * 手动触发 Milvus flush 操作
-	 * 当 auto flush 被禁用时使用
+	 * 请求后台立即执行一次 Milvus flush
 	 */
 	void manualFlush();
 
 	Boolean deleteDocumentsByVectorType(String agentId, String vectorType) throws Exception;
 
+	/**
+	 * 按元数据删除文档，删除操作写入预写日志后即返回，由后台写入向量库
+	 */
 	Boolean deleteDocumentsByMetedata(String agentId, Map<String, Object> metadata);
 
+	/**
+	 * 按元数据删除指定字段取值在给定集合中的文档，批量操作只需提交一次合并后的删除，返回的 Future 在删除写入向量库后完成
+	 */
+	CompletableFuture<Void> deleteDocumentsByMetadataIn(String agentId, Map<String, Object> metadata, String key,
+			Collection<?> values);
+
 	/**
 	 * Get documents for specified agent
 	 */
@@ -51,6 +62,20 @@ public interface AgentVectorStoreService {
 
 	boolean hasDocuments(String agentId);
 
-	void addDocuments(String agentId, List<Document> documents);
+	/**
+	 * 按元数据精确查询智能体下的文档ID，不返回向量和内容
+	 */
+	Set<String> getDocumentIdsByMetadata(String agentId, Map<String, Object> metadata);
+
+	/**
+	 * 按ID删除文档，返回的 Future 在删除写入向量库后完成
+	 */
+	CompletableFuture<Void> deleteDocumentsByIds(String agentId, List<String> ids);
+
+	/**
+	 * 写入文档，文档写入预写日志后即返回，返回的 Future 在写入向量库后完成，多次重试仍失败时异常完成。
+	 * 同一智能体之后的查询会等待写入完成
+	 */
+	CompletableFuture<Void> addDocuments(String agentId, List<Document> documents);
 
 }
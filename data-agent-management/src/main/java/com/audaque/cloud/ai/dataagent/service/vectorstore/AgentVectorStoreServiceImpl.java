@@ -24,7 +24,14 @@ import com.audaque.cloud.ai.dataagent.service.hybrid.retrieval.HybridRetrievalSt
 import io.milvus.client.MilvusServiceClient;
 import io.milvus.param.R;
 import io.milvus.param.collection.FlushParam;
+import io.milvus.orm.iterator.QueryIterator;
+import io.milvus.param.dml.QueryIteratorParam;
+import io.milvus.param.dml.QueryParam;
+import io.milvus.grpc.QueryResults;
+import io.milvus.response.QueryResultsWrapper;
 import io.milvus.grpc.FlushResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
@@ -32,16 +39,16 @@ import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
 
 import static com.audaque.cloud.ai.dataagent.service.vectorstore.DynamicFilterService.buildFilterExpressionString;
+import static com.audaque.cloud.ai.dataagent.service.vectorstore.DynamicFilterService.buildInFilterExpressionString;
 
 @Slf4j
 @Service
@@ -49,6 +56,11 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 
 	private static final String DEFAULT = "default";
 
+	/**
+	 * 单个 in 过滤表达式包含的最大取值数
+	 */
+	private static final int DELETE_IN_BATCH_SIZE = 1000;
+
 	private final VectorStore vectorStore;
 
 	private final Optional<HybridRetrievalStrategy> hybridRetrievalStrategy;
@@ -62,22 +74,16 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 	@Value("${spring.ai.vectorstore.milvus.collection-name:data_agent_vector}")
 	private String collectionName;
 
-	@Value("${spring.ai.vectorstore.milvus.flush-delay-ms:1000}")
-	private int flushDelayMs;
-
-	@Value("${spring.ai.vectorstore.milvus.flush-retry-count:3}")
-	private int flushRetryCount;
+	@Value("${spring.ai.vectorstore.milvus.id-field-name:doc_id}")
+	private String idFieldName;
 
-	@Value("${spring.ai.vectorstore.milvus.flush-initial-backoff-ms:1000}")
-	private int flushInitialBackoffMs;
+	@Value("${spring.ai.vectorstore.milvus.metadata-field-name:metadata}")
+	private String metadataFieldName;
 
-	@Value("${spring.ai.vectorstore.milvus.flush-max-concurrency:1}")
-	private int flushMaxConcurrency;
-
-	@Value("${spring.ai.vectorstore.milvus.flush-auto:false}")
+	@Value("${spring.ai.vectorstore.milvus.flush-auto:true}")
 	private boolean flushAuto;
 
-	private final Semaphore flushSemaphore = new Semaphore(flushMaxConcurrency);
+	private VectorWriteQueue writeQueue;
 
 	public AgentVectorStoreServiceImpl(VectorStore vectorStore,
 			Optional<HybridRetrievalStrategy> hybridRetrievalStrategy, DataAgentProperties dataAgentProperties,
@@ -89,8 +95,34 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 		this.milvusClient = milvusClient;
 		log.info("VectorStore type: {}, MilvusClient present: {}",
 				vectorStore.getClass().getSimpleName(), milvusClient.isPresent());
-		log.info("Milvus configuration - Collection: {}, Auto Flush: {}, Max Concurrency: {}, Delay: {}ms",
-				collectionName, flushAuto, flushMaxConcurrency, flushDelayMs);
+	}
+
+	/**
+	 * 启动向量写入队列，先回放上次退出时预写日志中未完成的写操作
+	 */
+	@PostConstruct
+	public void startWriteQueue() throws IOException {
+		DataAgentProperties.VectorStoreProperties properties = dataAgentProperties.getVectorStore();
+		Path walDir = Path.of(properties.getWriteAheadLogDir()).toAbsolutePath();
+		writeQueue = new VectorWriteQueue(new VectorWriteAheadLog(walDir, properties.getWriteAheadLogSegmentBytes()),
+				new VectorStoreWriteApplier(), properties, flushAuto && milvusClient.isPresent());
+		writeQueue.start();
+		log.info("Vector write queue started - walDir: {}, collection: {}, autoFlush: {}, flushInterval: {}ms",
+				walDir, collectionName, flushAuto, properties.getFlushIntervalMs());
+	}
+
+	@PreDestroy
+	public void stopWriteQueue() throws IOException {
+		if (writeQueue != null) {
+			writeQueue.close();
+		}
+	}
+
+	/**
+	 * 等待智能体已提交的写操作写入向量库后再读取
+	 */
+	private void awaitAgentWrites(String agentId) {
+		writeQueue.awaitApplied(agentId, dataAgentProperties.getVectorStore().getReadYourWritesTimeoutMs());
 	}
 
 	@Override
@@ -106,6 +138,7 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 		Assert.hasText(searchRequest.getAgentId(), "AgentId cannot be empty");
 		Assert.hasText(searchRequest.getDocVectorType(), "DocVectorType cannot be empty");
 
+		awaitAgentWrites(searchRequest.getAgentId());
 		log.debug("Building dynamic filter for agentId: {}, vectorType: {}",
 				searchRequest.getAgentId(), searchRequest.getDocVectorType());
 		Filter.Expression filter = dynamicFilterService.buildDynamicFilter(searchRequest.getAgentId(),
@@ -168,7 +201,7 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 	}
 
 	@Override
-	public void addDocuments(String agentId, List<Document> documents) {
+	public CompletableFuture<Void> addDocuments(String agentId, List<Document> documents) {
 		Assert.notNull(agentId, "AgentId cannot be null.");
 		Assert.notEmpty(documents, "Documents cannot be empty.");
 
@@ -214,131 +247,33 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 			}
 		}
 
-		log.info("Starting VectorStore.add() to insert documents...");
-		try {
-			vectorStore.add(documents);
-			log.info("Successfully inserted {} documents into Milvus", documents.size());
-
-			// 根据配置决定是否执行异步 flush
-			if (flushAuto) {
-				log.info("Auto flush is enabled, triggering async flush operation");
-				flushMilvusAsync();
-			} else {
-				log.info("Auto flush is disabled, documents inserted but not immediately searchable. " +
-						"Use manualFlush() API or enable auto flush for immediate availability.");
-			}
-		} catch (Exception e) {
-			log.error("Failed to insert documents into Milvus: {}", e.getMessage(), e);
-			throw e;
-		}
+		return writeQueue.upsert(agentId, documents);
 	}
 
 	/**
-	 * 手动触发 Milvus flush 操作
-	 * 当 auto flush 被禁用时，可以通过此方法手动执行 flush
+	 * 请求后台立即 flush Milvus 集合
 	 */
 	public void manualFlush() {
-		if (!flushAuto) {
-			log.info("Manual flush triggered, executing flush operation");
-			flushMilvus();
-		} else {
-			log.info("Auto flush is enabled, manual flush not needed");
-		}
-	}
-
-	/**
-	 * 异步 flush Milvus 集合，确保数据持久化并立即可搜索，不阻塞主线程
-	 */
-	@Async
-	public CompletableFuture<Void> flushMilvusAsync() {
-		try {
-			flushMilvus();
-			return CompletableFuture.completedFuture(null);
-		} catch (Exception e) {
-			log.error("Async flush Milvus failed: {}", e.getMessage(), e);
-			return CompletableFuture.failedFuture(e);
-		}
+		log.info("Manual flush requested, pending vector writes: {}", writeQueue.getPendingCount());
+		writeQueue.requestFlush();
 	}
 
 	/**
-	 * 显式 flush Milvus 集合，确保数据持久化并立即可搜索
+	 * flush Milvus 集合，使已写入的数据落盘为封存段，失败时由写入队列在下个周期重试
 	 */
-	private void flushMilvus() {
+	private boolean flushMilvus() {
 		if (milvusClient.isEmpty()) {
-			log.debug("MilvusClient not available, skip flush");
-			return;
+			return true;
 		}
-
-		// 使用信号量控制并发 flush 操作，避免超出 Milvus 速率限制
-		try {
-			if (!flushSemaphore.tryAcquire(10, TimeUnit.SECONDS)) {
-				log.warn("Cannot acquire flush semaphore, timed out after 10 seconds. " +
-						"This may indicate high concurrent load or Milvus rate limiting. " +
-						"Consider enabling auto flush or reducing concurrent operations.");
-				return;
-			}
-		} catch (InterruptedException e) {
-			log.warn("Acquiring flush semaphore interrupted: {}", e.getMessage());
-			Thread.currentThread().interrupt();
-			return;
-		}
-
-		try {
-			// 先等待基础延迟时间
-			try {
-				log.debug("Waiting {} ms before flush operation to avoid rate limiting", flushDelayMs);
-				Thread.sleep(flushDelayMs);
-			} catch (InterruptedException e) {
-				log.warn("Initial delay wait interrupted: {}", e.getMessage());
-				Thread.currentThread().interrupt(); // 重新设置中断状态
-				return;
-			}
-
-			// 执行带重试的 flush 操作
-			int attempt = 0;
-			int backoffMs = flushInitialBackoffMs;
-			while (attempt < flushRetryCount) {
-				try {
-					FlushParam flushParam = FlushParam.newBuilder()
-							.addCollectionName(collectionName)
-							.build();
-					R<FlushResponse> response = milvusClient.get().flush(flushParam);
-					if (response.getStatus() == R.Status.Success.getCode()) {
-						log.info("Milvus flush successful, collection: {}, attempt: {}", collectionName, attempt + 1);
-						return; // 成功则直接返回
-					} else {
-						log.warn("Milvus flush returned non-success status: {}, message: {}, attempt: {}",
-								response.getStatus(), response.getMessage(), attempt + 1);
-					}
-				} catch (Exception e) {
-					String errorMessage = e.getMessage();
-					if (errorMessage != null && errorMessage.contains("rate limit exceeded")) {
-						log.warn("Rate limit error detected, waiting longer before retry: {}", errorMessage);
-						// 如果是速率限制错误，使用更长的退避时间
-						backoffMs = Math.max(backoffMs, 15000); // 至少等待15秒
-					}
-					log.warn("Milvus flush attempt {} failed: {}", attempt + 1, e.getMessage());
-				}
-
-				attempt++;
-				if (attempt < flushRetryCount) {
-					try {
-						log.debug("Waiting {} ms before retry attempt {}", backoffMs, attempt + 1);
-						Thread.sleep(backoffMs);
-						backoffMs = (int) (backoffMs * 2.5); // 更激进的指数退避（从2倍改为2.5倍）
-					} catch (InterruptedException ie) {
-						log.warn("Flush retry wait interrupted: {}", ie.getMessage());
-						Thread.currentThread().interrupt(); // 重新设置中断状态
-						return;
-					}
-				}
-			}
-
-			log.error("Milvus flush reached maximum retry count {}, operation failed", flushRetryCount);
-		} finally {
-			// 释放信号量
-			flushSemaphore.release();
+		FlushParam flushParam = FlushParam.newBuilder().addCollectionName(collectionName).build();
+		R<FlushResponse> response = milvusClient.get().flush(flushParam);
+		if (response.getStatus() != R.Status.Success.getCode()) {
+			log.warn("Milvus flush returned non-success status: {}, message: {}", response.getStatus(),
+					response.getMessage());
+			return false;
 		}
+		log.info("Milvus flush successful, collection: {}", collectionName);
+		return true;
 	}
 
 	@Override
@@ -354,6 +289,41 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 		String filterExpression = buildFilterExpressionString(metadata);
 		log.debug("Built filter expression for deletion: {}", filterExpression);
 
+		writeQueue.deleteByFilter(agentId, filterExpression);
+		log.info("=== DeleteDocumentsByMetedata operation queued ===");
+		return true;
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteDocumentsByMetadataIn(String agentId, Map<String, Object> metadata,
+			String key, Collection<?> values) {
+		if (values == null || values.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		Assert.hasText(agentId, "AgentId cannot be empty.");
+		Assert.notNull(metadata, "Metadata cannot be null.");
+
+		Map<String, Object> conditions = new HashMap<>(metadata);
+		conditions.put(Constant.AGENT_ID, agentId);
+		String baseExpression = buildFilterExpressionString(conditions);
+
+		// 取值过多时按批拆分，避免单个过滤表达式过长
+		List<?> valueList = new ArrayList<>(values);
+		List<CompletableFuture<Void>> deletes = new ArrayList<>();
+		for (int from = 0; from < valueList.size(); from += DELETE_IN_BATCH_SIZE) {
+			List<?> slice = valueList.subList(from, Math.min(from + DELETE_IN_BATCH_SIZE, valueList.size()));
+			deletes.add(writeQueue.deleteByFilter(agentId,
+					baseExpression + " && " + buildInFilterExpressionString(key, slice)));
+		}
+		log.info("Queued {} filter deletion(s) for agentId: {}, {} values of {}", deletes.size(), agentId,
+				valueList.size(), key);
+		return CompletableFuture.allOf(deletes.toArray(CompletableFuture[]::new));
+	}
+
+	/**
+	 * 按过滤表达式删除文档，由写入队列的后台线程调用
+	 */
+	private void deleteByFilter(String filterExpression) {
 		// es的可以直接元数据删除
 		if (vectorStore instanceof SimpleVectorStore) {
 			log.info("Using SimpleVectorStore, proceeding with batch deletion by filter");
@@ -363,9 +333,6 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 			log.info("Using vectorStore.delete() with filter expression");
 			vectorStore.delete(filterExpression);
 		}
-
-		log.info("=== DeleteDocumentsByMetedata operation completed successfully ===");
-		return true;
 	}
 
 	private void batchDelDocumentsWithFilter(String filterExpression) {
@@ -491,6 +458,14 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 	public boolean hasDocuments(String agentId) {
 		log.info("=== Starting hasDocuments check ===");
 		log.info("Checking if documents exist for agentId: {}", agentId);
+		awaitAgentWrites(agentId);
+
+		// Milvus 直接按元数据查询，不需要对查询文本做向量化
+		Boolean exists = hasDocumentsByMetadata(agentId);
+		if (exists != null) {
+			log.info("=== hasDocuments metadata check completed for agentId: {}, result: {} ===", agentId, exists);
+			return exists;
+		}
 
 		// 类似 MySQL 的 LIMIT 1,只检查是否存在文档
 		String filterExpression = buildFilterExpressionString(Map.of(Constant.AGENT_ID, agentId));
@@ -509,4 +484,151 @@ public class AgentVectorStoreServiceImpl implements AgentVectorStoreService {
 		return hasDocuments;
 	}
 
+	/**
+	 * 通过 Milvus 标量查询判断智能体是否已有文档
+	 * @return 是否存在文档，无法使用元数据查询时返回 null
+	 */
+	private Boolean hasDocumentsByMetadata(String agentId) {
+		if (milvusClient.isEmpty()) {
+			return null;
+		}
+		try {
+			QueryParam queryParam = QueryParam.newBuilder()
+					.withCollectionName(collectionName)
+					.withExpr(buildMilvusMetadataExpr(Map.of(Constant.AGENT_ID, agentId)))
+					.withOutFields(List.of(idFieldName))
+					.withLimit(1L)
+					.build();
+			R<QueryResults> response = milvusClient.get().query(queryParam);
+			if (response.getStatus() != R.Status.Success.getCode()) {
+				log.warn("Milvus metadata query returned non-success status: {}, message: {}", response.getStatus(),
+						response.getMessage());
+				return null;
+			}
+			return new QueryResultsWrapper(response.getData()).getRowCount() > 0;
+		} catch (Exception e) {
+			log.warn("Milvus metadata query failed for agentId: {}, falling back to similarity search: {}", agentId,
+					e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public Set<String> getDocumentIdsByMetadata(String agentId, Map<String, Object> metadata) {
+		Assert.hasText(agentId, "AgentId cannot be empty.");
+		Map<String, Object> conditions = new HashMap<>(metadata);
+		conditions.put(Constant.AGENT_ID, agentId);
+		awaitAgentWrites(agentId);
+
+		Set<String> ids = getDocumentIdsFromMilvus(conditions);
+		if (ids != null) {
+			return ids;
+		}
+
+		// 其他向量库只能通过相似度搜索按元数据过滤，最多返回 batchDelTopkLimit 个文档
+		List<Document> documents = vectorStore.similaritySearch(org.springframework.ai.vectorstore.SearchRequest
+				.builder()
+				.query(DEFAULT)
+				.filterExpression(buildFilterExpressionString(conditions))
+				.similarityThreshold(0.0)
+				.topK(dataAgentProperties.getVectorStore().getBatchDelTopkLimit())
+				.build());
+		ids = new HashSet<>();
+		for (Document document : documents) {
+			ids.add(document.getId());
+		}
+		return ids;
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteDocumentsByIds(String agentId, List<String> ids) {
+		if (ids == null || ids.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		Assert.hasText(agentId, "AgentId cannot be empty.");
+		return writeQueue.deleteByIds(agentId, ids);
+	}
+
+	/**
+	 * 通过 Milvus 查询迭代器按元数据分页获取全部文档ID
+	 * @return 文档ID集合，无法使用 Milvus 查询时返回 null
+	 */
+	private Set<String> getDocumentIdsFromMilvus(Map<String, Object> conditions) {
+		if (milvusClient.isEmpty()) {
+			return null;
+		}
+		try {
+			QueryIteratorParam param = QueryIteratorParam.newBuilder()
+					.withCollectionName(collectionName)
+					.withExpr(buildMilvusMetadataExpr(conditions))
+					.withOutFields(List.of(idFieldName))
+					.withBatchSize(1000L)
+					.build();
+			R<QueryIterator> response = milvusClient.get().queryIterator(param);
+			if (response.getStatus() != R.Status.Success.getCode()) {
+				log.warn("Milvus query iterator returned non-success status: {}, message: {}",
+						response.getStatus(), response.getMessage());
+				return null;
+			}
+			QueryIterator iterator = response.getData();
+			Set<String> ids = new HashSet<>();
+			try {
+				List<QueryResultsWrapper.RowRecord> rows;
+				while (!(rows = iterator.next()).isEmpty()) {
+					rows.forEach(row -> ids.add(String.valueOf(row.get(idFieldName))));
+				}
+			} finally {
+				iterator.close();
+			}
+			return ids;
+		} catch (Exception e) {
+			log.warn("Milvus metadata id query failed, falling back to similarity search: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	// 构建 Milvus JSON 元数据字段的标量过滤表达式，字符串值加引号，数值直接比较
+	private String buildMilvusMetadataExpr(Map<String, Object> conditions) {
+		StringJoiner expr = new StringJoiner(" && ");
+		conditions.forEach((key, value) -> {
+			String literal = value instanceof Number ? value.toString()
+					: "\"" + String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+			expr.add(String.format("%s[\"%s\"] == %s", metadataFieldName, key, literal));
+		});
+		return expr.toString();
+	}
+
+	/**
+	 * 写入队列后台线程实际执行的向量库写操作
+	 */
+	private final class VectorStoreWriteApplier implements VectorWriteQueue.Applier {
+
+		@Override
+		public void upsert(List<Document> documents, boolean replace) {
+			if (replace) {
+				// 回放或重试的文档可能已写入，先按ID删除避免重复
+				vectorStore.delete(documents.stream().map(Document::getId).toList());
+			}
+			vectorStore.add(documents);
+			log.info("Successfully inserted {} documents into vector store", documents.size());
+		}
+
+		@Override
+		public void deleteByIds(List<String> ids) {
+			vectorStore.delete(ids);
+			log.info("Deleted {} documents by id", ids.size());
+		}
+
+		@Override
+		public void deleteByFilter(String filterExpression) {
+			AgentVectorStoreServiceImpl.this.deleteByFilter(filterExpression);
+		}
+
+		@Override
+		public boolean flush() {
+			return flushMilvus();
+		}
+
+	}
+
 }
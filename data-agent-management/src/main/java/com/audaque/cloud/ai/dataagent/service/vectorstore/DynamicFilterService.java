@@ -24,8 +24,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -183,6 +185,19 @@ public class DynamicFilterService {
 		}).collect(Collectors.joining(" && "));
 	}
 
+	/**
+	 * 构建 key in [v1, v2, ...] 形式的过滤表达式字符串，数值直接使用，其余取值按字符串转义
+	 */
+	public static String buildInFilterExpressionString(String key, Collection<?> values) {
+		if (!key.matches("[a-zA-Z_][a-zA-Z0-9_]*")) {
+			throw new IllegalArgumentException("Invalid key name: " + key);
+		}
+		Assert.notEmpty(values, "Values cannot be empty.");
+		return values.stream()
+			.map(value -> value instanceof Number ? value.toString() : "'" + escapeStringLiteral(value.toString()) + "'")
+			.collect(Collectors.joining(", ", key + " in [", "]"));
+	}
+
 	/**
 	 * 转义字符串字面量中的特殊字符
 	 */
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.vectorstore;
+
+import com.audaque.cloud.ai.dataagent.util.JsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * 向量写操作的本地预写日志
+ * <p>
+ * 操作按序追加到分段文件并强制刷盘后才返回，写入向量库后记录检查点，并删除检查点之前的分段文件；
+ * 进程重启时回放检查点之后的全部操作。
+ */
+@Slf4j
+final class VectorWriteAheadLog implements Closeable {
+
+	private static final String SEGMENT_PREFIX = "segment-";
+
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	private static final String CHECKPOINT_FILE = "checkpoint";
+
+	private static final String DEAD_LETTER_FILE = "dead-letter.log";
+
+	private final ObjectMapper objectMapper = JsonUtil.getObjectMapper();
+
+	private final Path directory;
+
+	private final long segmentBytes;
+
+	/**
+	 * 分段文件首个序号 -> 分段文件
+	 */
+	private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+	private FileChannel activeChannel;
+
+	private long activeSize;
+
+	private long nextSeq = 1;
+
+	private long checkpointSeq;
+
+	VectorWriteAheadLog(Path directory, long segmentBytes) {
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+	}
+
+	/**
+	 * 打开日志目录并返回检查点之后尚未写入向量库的操作
+	 */
+	synchronized List<VectorWriteOperation> open() throws IOException {
+		Files.createDirectories(directory);
+		Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+		if (Files.exists(checkpoint)) {
+			checkpointSeq = Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+		}
+		nextSeq = checkpointSeq + 1;
+
+		try (Stream<Path> files = Files.list(directory)) {
+			files.filter(this::isSegment).forEach(path -> segments.put(segmentSeq(path), path));
+		}
+		List<VectorWriteOperation> pending = new ArrayList<>();
+		for (Path segment : segments.values()) {
+			readSegment(segment, pending);
+		}
+		removeSegmentsBefore(checkpointSeq + 1);
+		if (!pending.isEmpty()) {
+			log.info("Recovered {} pending vector write operations from {}", pending.size(), directory);
+		}
+		return pending;
+	}
+
+	private void readSegment(Path segment, List<VectorWriteOperation> pending) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+				VectorWriteOperation operation;
+				try {
+					operation = objectMapper.readValue(line, VectorWriteOperation.class);
+				}
+				catch (IOException e) {
+					// 只有进程在追加过程中退出才会留下不完整的行，该操作未确认写入，直接丢弃
+					log.warn("Skipping unreadable vector write log entry in {}: {}", segment.getFileName(),
+							e.getMessage());
+					continue;
+				}
+				nextSeq = Math.max(nextSeq, operation.seq() + 1);
+				if (operation.seq() > checkpointSeq) {
+					pending.add(operation);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 追加一条操作并刷盘，返回分配了序号的操作
+	 */
+	synchronized VectorWriteOperation append(VectorWriteOperation.Type type, String agentId,
+			List<VectorWriteOperation.Entry> documents, List<String> ids, String filterExpression)
+			throws IOException {
+		VectorWriteOperation operation = new VectorWriteOperation(nextSeq, type, agentId, documents, ids,
+				filterExpression);
+		byte[] line = (objectMapper.writeValueAsString(operation) + "\n").getBytes(StandardCharsets.UTF_8);
+		if (activeChannel == null || activeSize >= segmentBytes) {
+			rollSegment(operation.seq());
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(line);
+		while (buffer.hasRemaining()) {
+			activeChannel.write(buffer);
+		}
+		activeChannel.force(false);
+		activeSize += line.length;
+		nextSeq++;
+		return operation;
+	}
+
+	private void rollSegment(long firstSeq) throws IOException {
+		if (activeChannel != null) {
+			activeChannel.close();
+		}
+		Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+		activeChannel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		activeSize = activeChannel.size();
+		segments.put(firstSeq, segment);
+	}
+
+	/**
+	 * 记录已写入向量库的最大序号，并删除其中操作已全部写入的分段文件
+	 */
+	synchronized void checkpoint(long seq) throws IOException {
+		if (seq <= checkpointSeq) {
+			return;
+		}
+		Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+		Files.writeString(temp, Long.toString(seq), StandardCharsets.UTF_8);
+		Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		checkpointSeq = seq;
+		removeSegmentsBefore(seq + 1);
+	}
+
+	/**
+	 * 删除最后一个序号小于 seq 的分段文件，正在写入的分段文件保留
+	 */
+	private void removeSegmentsBefore(long seq) throws IOException {
+		Long activeFirstSeq = activeChannel == null ? null : segments.lastKey();
+		while (segments.size() > 1 || (!segments.isEmpty() && activeFirstSeq == null)) {
+			Long first = segments.firstKey();
+			Long next = segments.higherKey(first);
+			long lastSeqInSegment = next == null ? nextSeq - 1 : next - 1;
+			if (first.equals(activeFirstSeq) || lastSeqInSegment >= seq) {
+				return;
+			}
+			Files.deleteIfExists(segments.remove(first));
+		}
+	}
+
+	/**
+	 * 记录多次重试后仍无法写入向量库的操作，便于人工排查和补录
+	 */
+	synchronized void deadLetter(VectorWriteOperation operation, Throwable error) {
+		try {
+			String line = objectMapper.writeValueAsString(operation) + "\n";
+			Files.writeString(directory.resolve(DEAD_LETTER_FILE), line, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+		catch (IOException e) {
+			log.error("Failed to record dead vector write operation seq {}", operation.seq(), e);
+		}
+		log.error("Dropped vector write operation seq {} ({}, agentId: {}) after retries: {}", operation.seq(),
+				operation.type(), operation.agentId(), error.getMessage());
+	}
+
+	synchronized long getCheckpointSeq() {
+		return checkpointSeq;
+	}
+
+	private boolean isSegment(Path path) {
+		String name = path.getFileName().toString();
+		return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+	}
+
+	private long segmentSeq(Path path) {
+		String name = path.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (activeChannel != null) {
+			activeChannel.close();
+			activeChannel = null;
+		}
+	}
+
+}
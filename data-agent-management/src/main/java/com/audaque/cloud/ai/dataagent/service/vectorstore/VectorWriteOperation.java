@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.vectorstore;
+
+import org.springframework.ai.document.Document;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预写日志中的一条向量写操作，以 JSON 行的形式落盘
+ *
+ * @param seq 日志序号，按写入顺序单调递增
+ * @param type 操作类型
+ * @param agentId 发起写入的智能体ID，用于读己之写
+ * @param documents UPSERT 的文档
+ * @param ids DELETE_IDS 的文档ID
+ * @param filterExpression DELETE_FILTER 的元数据过滤表达式
+ */
+record VectorWriteOperation(long seq, Type type, String agentId, List<Entry> documents, List<String> ids,
+		String filterExpression) {
+
+	enum Type {
+
+		UPSERT, DELETE_IDS, DELETE_FILTER
+
+	}
+
+	/**
+	 * 待写入文档的可序列化形式，向量在写入向量库时再计算
+	 */
+	record Entry(String id, String text, Map<String, Object> metadata) {
+
+		static Entry of(Document document) {
+			return new Entry(document.getId(), document.getText(), document.getMetadata());
+		}
+
+		Document toDocument() {
+			return new Document(id, text, metadata);
+		}
+
+	}
+
+	int size() {
+		return switch (type) {
+			case UPSERT -> documents.size();
+			case DELETE_IDS -> ids.size();
+			case DELETE_FILTER -> 1;
+		};
+	}
+
+}
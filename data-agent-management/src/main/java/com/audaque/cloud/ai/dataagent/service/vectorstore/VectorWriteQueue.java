@@ -0,0 +1,400 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.vectorstore;
+
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于预写日志的向量写入队列
+ * <p>
+ * 调用方的写操作落盘后立即返回，由单个后台写线程按序取出，将相邻的同类操作合并为一次批量写入；
+ * 失败的操作退避后单独重试，多次失败后转入死信文件。Milvus flush 统一由后台按累计写入数或时间间隔触发。
+ * 同一智能体的读操作可等待其已提交的写操作全部写入，实现读己之写。
+ */
+@Slf4j
+final class VectorWriteQueue implements Closeable {
+
+	private final VectorWriteAheadLog writeAheadLog;
+
+	private final Applier applier;
+
+	private final DataAgentProperties.VectorStoreProperties properties;
+
+	private final boolean flushEnabled;
+
+	private final LinkedBlockingDeque<PendingWrite> queue = new LinkedBlockingDeque<>();
+
+	/**
+	 * 智能体ID -> 该智能体最近提交的写操作序号
+	 */
+	private final Map<String, Long> issuedSeqByAgent = new ConcurrentHashMap<>();
+
+	private final ReentrantLock appliedLock = new ReentrantLock();
+
+	private final Condition appliedCondition = appliedLock.newCondition();
+
+	private long appliedSeq;
+
+	private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+	private final AtomicLong unflushedOperations = new AtomicLong();
+
+	/**
+	 * 写入失败后的重试时间，之前触发的写入直接返回，由退避后的任务继续处理
+	 */
+	private volatile long retryNotBeforeNanos = System.nanoTime();
+
+	private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(daemon("vector-writer"));
+
+	private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(daemon("vector-flusher"));
+
+	VectorWriteQueue(VectorWriteAheadLog writeAheadLog, Applier applier,
+			DataAgentProperties.VectorStoreProperties properties, boolean flushEnabled) {
+		this.writeAheadLog = writeAheadLog;
+		this.applier = applier;
+		this.properties = properties;
+		this.flushEnabled = flushEnabled;
+	}
+
+	/**
+	 * 打开预写日志，回放上次进程退出时尚未写入的操作，并启动后台写入和定时 flush
+	 */
+	void start() throws IOException {
+		List<VectorWriteOperation> recovered = writeAheadLog.open();
+		appliedSeq = writeAheadLog.getCheckpointSeq();
+		for (VectorWriteOperation operation : recovered) {
+			enqueue(new PendingWrite(operation, true));
+		}
+		if (flushEnabled && properties.getFlushIntervalMs() > 0) {
+			flusher.scheduleWithFixedDelay(this::flushPending, properties.getFlushIntervalMs(),
+					properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+		}
+		scheduleDrain();
+	}
+
+	CompletableFuture<Void> upsert(String agentId, List<Document> documents) {
+		return submit(VectorWriteOperation.Type.UPSERT, agentId,
+				documents.stream().map(VectorWriteOperation.Entry::of).toList(), null, null);
+	}
+
+	CompletableFuture<Void> deleteByIds(String agentId, List<String> ids) {
+		return submit(VectorWriteOperation.Type.DELETE_IDS, agentId, null, List.copyOf(ids), null);
+	}
+
+	CompletableFuture<Void> deleteByFilter(String agentId, String filterExpression) {
+		return submit(VectorWriteOperation.Type.DELETE_FILTER, agentId, null, null, filterExpression);
+	}
+
+	private synchronized CompletableFuture<Void> submit(VectorWriteOperation.Type type, String agentId,
+			List<VectorWriteOperation.Entry> documents, List<String> ids, String filterExpression) {
+		VectorWriteOperation operation;
+		try {
+			operation = writeAheadLog.append(type, agentId, documents, ids, filterExpression);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to append vector write operation to write-ahead log", e);
+		}
+		PendingWrite pendingWrite = new PendingWrite(operation, false);
+		enqueue(pendingWrite);
+		scheduleDrain();
+		return pendingWrite.future;
+	}
+
+	private void enqueue(PendingWrite pendingWrite) {
+		issuedSeqByAgent.merge(pendingWrite.operation.agentId(), pendingWrite.operation.seq(), Math::max);
+		queue.addLast(pendingWrite);
+	}
+
+	/**
+	 * 等待智能体已提交的写操作全部写入向量库
+	 * @return 是否在超时前全部写入
+	 */
+	boolean awaitApplied(String agentId, long timeoutMs) {
+		Long target = agentId == null ? null : issuedSeqByAgent.get(agentId);
+		if (target == null) {
+			return true;
+		}
+		appliedLock.lock();
+		try {
+			long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+			while (appliedSeq < target) {
+				if (remaining <= 0) {
+					log.warn("Timed out waiting for pending vector writes of agentId: {}, reading possibly stale data",
+							agentId);
+					return false;
+				}
+				remaining = appliedCondition.awaitNanos(remaining);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		finally {
+			appliedLock.unlock();
+		}
+		issuedSeqByAgent.remove(agentId, target);
+		return true;
+	}
+
+	/**
+	 * 请求在后台立即执行一次 flush
+	 */
+	void requestFlush() {
+		if (flushRequested.compareAndSet(false, true)) {
+			flusher.execute(() -> {
+				flushRequested.set(false);
+				flushPending();
+			});
+		}
+	}
+
+	int getPendingCount() {
+		return queue.size();
+	}
+
+	private void scheduleDrain() {
+		if (drainScheduled.compareAndSet(false, true)) {
+			writer.execute(this::drain);
+		}
+	}
+
+	private void drain() {
+		drainScheduled.set(false);
+		if (System.nanoTime() - retryNotBeforeNanos < 0) {
+			return;
+		}
+		while (!queue.isEmpty()) {
+			List<PendingWrite> batch = nextBatch();
+			try {
+				applyBatch(batch);
+			}
+			catch (Exception e) {
+				if (!handleFailure(batch, e)) {
+					return;
+				}
+				continue;
+			}
+			complete(batch, null);
+		}
+	}
+
+	/**
+	 * 从队首取出可合并的相邻同类操作，重试中的操作单独写入以便定位失败的操作
+	 */
+	private List<PendingWrite> nextBatch() {
+		List<PendingWrite> batch = new ArrayList<>();
+		Iterator<PendingWrite> iterator = queue.iterator();
+		PendingWrite first = iterator.next();
+		batch.add(first);
+		if (first.attempts > 0 || first.operation.type() == VectorWriteOperation.Type.DELETE_FILTER) {
+			return batch;
+		}
+		int size = first.operation.size();
+		while (iterator.hasNext()) {
+			PendingWrite next = iterator.next();
+			if (next.attempts > 0 || next.operation.type() != first.operation.type()
+					|| size + next.operation.size() > properties.getWriteBatchSize()) {
+				break;
+			}
+			batch.add(next);
+			size += next.operation.size();
+		}
+		return batch;
+	}
+
+	private void applyBatch(List<PendingWrite> batch) {
+		VectorWriteOperation.Type type = batch.get(0).operation.type();
+		switch (type) {
+			case UPSERT -> {
+				List<Document> documents = new ArrayList<>();
+				boolean replace = false;
+				for (PendingWrite pendingWrite : batch) {
+					pendingWrite.operation.documents().forEach(entry -> documents.add(entry.toDocument()));
+					replace |= pendingWrite.recovered || pendingWrite.attempts > 0;
+				}
+				applier.upsert(documents, replace);
+			}
+			case DELETE_IDS -> {
+				List<String> ids = new ArrayList<>();
+				batch.forEach(pendingWrite -> ids.addAll(pendingWrite.operation.ids()));
+				applier.deleteByIds(ids);
+			}
+			case DELETE_FILTER -> applier.deleteByFilter(batch.get(0).operation.filterExpression());
+		}
+	}
+
+	/**
+	 * 处理写入失败：未达到最大重试次数时退避后重试，否则转入死信
+	 * @return 是否继续处理后续操作
+	 */
+	private boolean handleFailure(List<PendingWrite> batch, Exception error) {
+		batch.forEach(pendingWrite -> pendingWrite.attempts++);
+		PendingWrite first = batch.get(0);
+		if (batch.size() == 1 && first.attempts >= properties.getWriteMaxAttempts()) {
+			writeAheadLog.deadLetter(first.operation, error);
+			complete(batch, error);
+			return true;
+		}
+		long backoffMs = properties.getWriteRetryBackoffMs() * first.attempts;
+		log.warn("Vector write of {} operation(s) starting at seq {} failed (attempt {}), retrying in {} ms: {}",
+				batch.size(), first.operation.seq(), first.attempts, backoffMs, error.getMessage());
+		retryNotBeforeNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+		writer.schedule(this::drain, backoffMs, TimeUnit.MILLISECONDS);
+		return false;
+	}
+
+	private void complete(List<PendingWrite> batch, Throwable error) {
+		long lastSeq = 0;
+		long operations = 0;
+		for (int i = 0; i < batch.size(); i++) {
+			PendingWrite pendingWrite = queue.pollFirst();
+			lastSeq = pendingWrite.operation.seq();
+			operations += pendingWrite.operation.size();
+		}
+		try {
+			writeAheadLog.checkpoint(lastSeq);
+		}
+		catch (IOException e) {
+			// 检查点未更新时重启会重复写入，UPSERT 回放时先删除同ID文档，结果不变
+			log.error("Failed to checkpoint vector write-ahead log at seq {}", lastSeq, e);
+		}
+		appliedLock.lock();
+		try {
+			appliedSeq = lastSeq;
+			appliedCondition.signalAll();
+		}
+		finally {
+			appliedLock.unlock();
+		}
+		for (PendingWrite pendingWrite : batch) {
+			if (error == null) {
+				pendingWrite.future.complete(null);
+			}
+			else {
+				pendingWrite.future.completeExceptionally(error);
+			}
+		}
+		if (error == null && unflushedOperations.addAndGet(operations) >= properties.getFlushBatchSize()
+				&& flushEnabled) {
+			requestFlush();
+		}
+	}
+
+	private void flushPending() {
+		long pending = unflushedOperations.get();
+		if (pending == 0) {
+			return;
+		}
+		try {
+			if (applier.flush()) {
+				unflushedOperations.addAndGet(-pending);
+			}
+		}
+		catch (Exception e) {
+			// 失败的 flush 留到下一个周期重试
+			log.warn("Vector store flush failed, will retry on next schedule: {}", e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.shutdown();
+		flusher.shutdown();
+		try {
+			if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+				log.warn("Vector writer did not stop in time, {} operations will be replayed on restart",
+						queue.size());
+				writer.shutdownNow();
+			}
+		}
+		catch (InterruptedException e) {
+			writer.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		writeAheadLog.close();
+	}
+
+	private static ThreadFactory daemon(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * 向量库写入方式
+	 */
+	interface Applier {
+
+		/**
+		 * @param replace 是否先删除同ID文档，回放和重试的操作可能已部分写入
+		 */
+		void upsert(List<Document> documents, boolean replace);
+
+		void deleteByIds(List<String> ids);
+
+		void deleteByFilter(String filterExpression);
+
+		/**
+		 * @return 是否 flush 成功
+		 */
+		boolean flush();
+
+	}
+
+	private static final class PendingWrite {
+
+		private final VectorWriteOperation operation;
+
+		private final boolean recovered;
+
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+		private int attempts;
+
+		private PendingWrite(VectorWriteOperation operation, boolean recovered) {
+			this.operation = operation;
+			this.recovered = recovered;
+		}
+
+	}
+
+}
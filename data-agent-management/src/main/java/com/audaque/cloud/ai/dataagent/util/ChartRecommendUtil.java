@@ -0,0 +1,237 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.util;
+
+import com.audaque.cloud.ai.dataagent.bo.schema.DisplayStyleBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.ResultSetBO;
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 基于规则的图表推荐工具，根据列类型、基数、时间序列特征和行数为 SQL 结果集推荐展示样式。
+ * <p>
+ * 推荐结果在 SQL 执行完成后立即可用，无需等待大模型；大模型的图表建议可作为后续的异步修正。
+ *
+ */
+public final class ChartRecommendUtil {
+
+	public static final String TYPE_TABLE = "table";
+
+	public static final String TYPE_LINE = "line";
+
+	public static final String TYPE_COLUMN = "column";
+
+	public static final String TYPE_BAR = "bar";
+
+	public static final String TYPE_PIE = "pie";
+
+	/**
+	 * 用于推断列类型的最大采样行数
+	 */
+	private static final int TYPE_SAMPLE_ROWS = 200;
+
+	/**
+	 * 饼图允许的最大分类数
+	 */
+	private static final int PIE_MAX_CATEGORIES = 8;
+
+	/**
+	 * 柱状图（纵向）允许的最大分类数，超过后改用条形图
+	 */
+	private static final int COLUMN_MAX_CATEGORIES = 12;
+
+	/**
+	 * 条形图允许的最大分类数，超过后退化为表格
+	 */
+	private static final int BAR_MAX_CATEGORIES = 30;
+
+	/**
+	 * 纵轴最多展示的指标列数
+	 */
+	private static final int MAX_Y_COLUMNS = 5;
+
+	private static final int MAX_TITLE_LENGTH = 30;
+
+	private static final Pattern TEMPORAL_VALUE_PATTERN = Pattern
+		.compile("^\\d{4}([-/.年]\\d{1,2}([-/.月]\\d{1,2}日?)?月?)?([ T]\\d{1,2}:\\d{2}(:\\d{2}(\\.\\d+)?)?)?$"
+				+ "|^\\d{4}[-]?[Qq]\\d$|^\\d{4}(0[1-9]|1[0-2])$");
+
+	private static final Pattern TEMPORAL_NAME_PATTERN = Pattern
+		.compile("(date|time|day|month|year|week|quarter|period|dt|日期|时间|年|月|日|周|季度)", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern PROPORTION_QUERY_PATTERN = Pattern.compile("(占比|比例|构成|份额|分布|proportion|share|percent)",
+			Pattern.CASE_INSENSITIVE);
+
+	private enum ColumnKind {
+
+		NUMERIC, TEMPORAL, CATEGORICAL
+
+	}
+
+	private ChartRecommendUtil() {
+	}
+
+	/**
+	 * 根据结果集推荐图表展示样式
+	 * @param resultSetBO SQL 执行结果
+	 * @param userQuery 用户问题，仅用于标题和占比类问题识别，可为空
+	 * @return 推荐的展示样式，不会返回 null
+	 */
+	public static DisplayStyleBO recommend(ResultSetBO resultSetBO, String userQuery) {
+		DisplayStyleBO table = DisplayStyleBO.builder().type(TYPE_TABLE).title(buildTitle(userQuery)).build();
+		if (resultSetBO == null || resultSetBO.getColumn() == null || resultSetBO.getColumn().isEmpty()
+				|| resultSetBO.getData() == null || resultSetBO.getData().size() < 2) {
+			// 空结果或单行记录，图表没有意义
+			return table;
+		}
+
+		List<Map<String, String>> rows = resultSetBO.getData();
+		List<Map<String, String>> sample = rows.size() > TYPE_SAMPLE_ROWS ? rows.subList(0, TYPE_SAMPLE_ROWS) : rows;
+
+		List<String> numericColumns = new ArrayList<>();
+		List<String> temporalColumns = new ArrayList<>();
+		List<String> categoricalColumns = new ArrayList<>();
+		for (String column : resultSetBO.getColumn()) {
+			switch (classify(column, sample)) {
+				case NUMERIC -> numericColumns.add(column);
+				case TEMPORAL -> temporalColumns.add(column);
+				default -> categoricalColumns.add(column);
+			}
+		}
+		// 形如 id / xxx_id 的数值列是标识而非指标
+		numericColumns.removeIf(ChartRecommendUtil::isIdentifierColumn);
+		if (numericColumns.isEmpty()) {
+			return table;
+		}
+		List<String> yColumns = numericColumns.size() > MAX_Y_COLUMNS ? numericColumns.subList(0, MAX_Y_COLUMNS)
+				: numericColumns;
+
+		// 时间序列：单个时间维度 + 指标 → 折线图
+		if (temporalColumns.size() == 1 && categoricalColumns.isEmpty()) {
+			return chart(TYPE_LINE, userQuery, temporalColumns.get(0), yColumns);
+		}
+
+		// 单个分类维度 + 指标 → 饼图 / 柱状图 / 条形图
+		if (categoricalColumns.size() == 1 && temporalColumns.isEmpty()) {
+			String category = categoricalColumns.get(0);
+			int cardinality = cardinality(rows, category);
+			if (cardinality != rows.size()) {
+				// 分类值存在重复，说明结果并非按该维度聚合
+				return table;
+			}
+			if (yColumns.size() == 1 && cardinality <= PIE_MAX_CATEGORIES && isProportionQuery(userQuery)
+					&& allNonNegative(rows, yColumns.get(0))) {
+				return chart(TYPE_PIE, userQuery, category, yColumns);
+			}
+			if (cardinality <= COLUMN_MAX_CATEGORIES) {
+				return chart(TYPE_COLUMN, userQuery, category, yColumns);
+			}
+			if (cardinality <= BAR_MAX_CATEGORIES) {
+				return chart(TYPE_BAR, userQuery, category, yColumns);
+			}
+		}
+		return table;
+	}
+
+	private static DisplayStyleBO chart(String type, String userQuery, String x, List<String> y) {
+		return DisplayStyleBO.builder().type(type).title(buildTitle(userQuery)).x(x).y(new ArrayList<>(y)).build();
+	}
+
+	private static ColumnKind classify(String column, List<Map<String, String>> sample) {
+		int nonBlank = 0;
+		int numeric = 0;
+		int temporal = 0;
+		for (Map<String, String> row : sample) {
+			String value = row.get(column);
+			if (StringUtils.isBlank(value)) {
+				continue;
+			}
+			nonBlank++;
+			String trimmed = value.trim();
+			if (TEMPORAL_VALUE_PATTERN.matcher(trimmed).matches()) {
+				temporal++;
+			}
+			if (isNumber(trimmed)) {
+				numeric++;
+			}
+		}
+		if (nonBlank == 0) {
+			return ColumnKind.CATEGORICAL;
+		}
+		// 纯数字的年份 / 年月（如 2024、202401）只有在列名提示为时间时才视为时间列
+		boolean temporalName = TEMPORAL_NAME_PATTERN.matcher(column).find();
+		if (temporal == nonBlank && (numeric < nonBlank || temporalName)) {
+			return ColumnKind.TEMPORAL;
+		}
+		if (numeric == nonBlank) {
+			return ColumnKind.NUMERIC;
+		}
+		return ColumnKind.CATEGORICAL;
+	}
+
+	private static boolean isNumber(String value) {
+		try {
+			new BigDecimal(value);
+			return true;
+		}
+		catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static boolean isIdentifierColumn(String column) {
+		String lower = column.toLowerCase(Locale.ROOT);
+		return "id".equals(lower) || lower.endsWith("_id") || lower.endsWith("编号");
+	}
+
+	private static int cardinality(List<Map<String, String>> rows, String column) {
+		Set<String> distinct = new HashSet<>();
+		for (Map<String, String> row : rows) {
+			distinct.add(row.get(column));
+			if (distinct.size() > BAR_MAX_CATEGORIES) {
+				break;
+			}
+		}
+		return distinct.size();
+	}
+
+	private static boolean allNonNegative(List<Map<String, String>> rows, String column) {
+		for (Map<String, String> row : rows) {
+			String value = row.get(column);
+			if (StringUtils.isNotBlank(value) && isNumber(value.trim()) && new BigDecimal(value.trim()).signum() < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isProportionQuery(String userQuery) {
+		return userQuery != null && PROPORTION_QUERY_PATTERN.matcher(userQuery).find();
+	}
+
+	private static String buildTitle(String userQuery) {
+		return StringUtils.isBlank(userQuery) ? null : StringUtils.abbreviate(userQuery.trim(), MAX_TITLE_LENGTH);
+	}
+
+}
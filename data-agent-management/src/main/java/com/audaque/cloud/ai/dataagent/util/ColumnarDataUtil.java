@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 结果到 Python 执行环境的列式数据交接工具。
+ * <p>
+ * 结果集以 CSV 写入工作目录，并附带记录列类型的 JSON 描述文件；Python 端通过 {@code dataagent_io.load_input_df()}
+ * 按类型直接读取为 DataFrame，避免整份结果序列化为 JSON 经 stdin 传递后再解析。
+ *
+ */
+public final class ColumnarDataUtil {
+
+	public static final String DATA_FILE = "input_data.csv";
+
+	public static final String DTYPES_FILE = "input_data.dtypes.json";
+
+	public static final String LOADER_MODULE_FILE = "dataagent_io.py";
+
+	private static final String LOADER_MODULE_RESOURCE = "/python/dataagent_io.py";
+
+	/**
+	 * CSV 中表示 NULL 的占位符，用于区分 NULL 与空字符串
+	 */
+	public static final String NULL_VALUE = "\\N";
+
+	public static final String TYPE_INT = "int";
+
+	public static final String TYPE_FLOAT = "float";
+
+	public static final String TYPE_BOOL = "bool";
+
+	public static final String TYPE_DATETIME = "datetime";
+
+	public static final String TYPE_STRING = "string";
+
+	private static final Pattern INT_PATTERN = Pattern.compile("^[-+]?\\d{1,18}$");
+
+	private static final Pattern FLOAT_PATTERN = Pattern.compile("^[-+]?(\\d+\\.?\\d*|\\.\\d+)([eE][-+]?\\d+)?$");
+
+	private static final Pattern DATETIME_PATTERN = Pattern
+		.compile("^\\d{4}-\\d{1,2}-\\d{1,2}([ T]\\d{1,2}:\\d{2}(:\\d{2}(\\.\\d+)?)?)?$");
+
+	private static volatile byte[] loaderModule;
+
+	private ColumnarDataUtil() {
+	}
+
+	/**
+	 * 将结果集写入目录下的 CSV 与类型描述文件；rows 为 null 时写入空文件，表示本次没有列式输入
+	 * @param rows 结果集，每行为列名到值的映射
+	 * @param dir 目标目录
+	 */
+	public static void write(List<? extends Map<String, ?>> rows, Path dir) throws IOException {
+		Path dataFile = dir.resolve(DATA_FILE);
+		Path dtypesFile = dir.resolve(DTYPES_FILE);
+		if (rows == null) {
+			Files.write(dataFile, new byte[0]);
+			Files.write(dtypesFile, new byte[0]);
+			return;
+		}
+		List<String> columns = columns(rows);
+		try (BufferedWriter writer = Files.newBufferedWriter(dataFile, StandardCharsets.UTF_8)) {
+			writeRow(writer, columns);
+			List<String> values = new ArrayList<>(columns.size());
+			for (Map<String, ?> row : rows) {
+				values.clear();
+				for (String column : columns) {
+					Object value = row.get(column);
+					values.add(value == null ? NULL_VALUE : String.valueOf(value));
+				}
+				writeRow(writer, values);
+			}
+		}
+
+		List<Map<String, String>> columnTypes = new ArrayList<>(columns.size());
+		for (String column : columns) {
+			Map<String, String> columnType = new LinkedHashMap<>();
+			columnType.put("name", column);
+			columnType.put("type", inferType(rows, column));
+			columnTypes.add(columnType);
+		}
+		Map<String, Object> meta = new LinkedHashMap<>();
+		meta.put("rows", rows.size());
+		meta.put("null", NULL_VALUE);
+		meta.put("columns", columnTypes);
+		JsonUtil.getObjectMapper().writeValue(dtypesFile.toFile(), meta);
+	}
+
+	/**
+	 * 写入 Python 端的数据加载模块
+	 */
+	public static void writeLoaderModule(Path dir) throws IOException {
+		Files.write(dir.resolve(LOADER_MODULE_FILE), loaderModule());
+	}
+
+	/**
+	 * 按首次出现的顺序返回所有行的列名并集
+	 */
+	public static List<String> columns(List<? extends Map<String, ?>> rows) {
+		Set<String> columns = new LinkedHashSet<>();
+		for (Map<String, ?> row : rows) {
+			columns.addAll(row.keySet());
+		}
+		return new ArrayList<>(columns);
+	}
+
+	/**
+	 * 根据列的全部非空值推断类型，无法统一时按字符串处理
+	 */
+	public static String inferType(List<? extends Map<String, ?>> rows, String column) {
+		boolean isInt = true;
+		boolean isFloat = true;
+		boolean isBool = true;
+		boolean isDatetime = true;
+		boolean hasValue = false;
+		for (Map<String, ?> row : rows) {
+			Object raw = row.get(column);
+			if (raw == null) {
+				continue;
+			}
+			String value = String.valueOf(raw).trim();
+			if (value.isEmpty()) {
+				// 空字符串只能作为字符串列的值
+				return TYPE_STRING;
+			}
+			hasValue = true;
+			isInt = isInt && INT_PATTERN.matcher(value).matches();
+			isFloat = isFloat && FLOAT_PATTERN.matcher(value).matches();
+			String lower = value.toLowerCase(Locale.ROOT);
+			isBool = isBool && ("true".equals(lower) || "false".equals(lower));
+			isDatetime = isDatetime && DATETIME_PATTERN.matcher(value).matches();
+			if (!isInt && !isFloat && !isBool && !isDatetime) {
+				return TYPE_STRING;
+			}
+		}
+		if (!hasValue) {
+			return TYPE_STRING;
+		}
+		if (isInt) {
+			return TYPE_INT;
+		}
+		if (isFloat) {
+			return TYPE_FLOAT;
+		}
+		if (isBool) {
+			return TYPE_BOOL;
+		}
+		return isDatetime ? TYPE_DATETIME : TYPE_STRING;
+	}
+
+	private static void writeRow(Writer writer, List<String> values) throws IOException {
+		for (int i = 0; i < values.size(); i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write(escape(values.get(i)));
+		}
+		writer.write('\n');
+	}
+
+	private static String escape(String value) {
+		boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+				|| value.indexOf('\r') >= 0;
+		if (!quote) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private static byte[] loaderModule() {
+		byte[] module = loaderModule;
+		if (module == null) {
+			try (InputStream in = ColumnarDataUtil.class.getResourceAsStream(LOADER_MODULE_RESOURCE)) {
+				if (in == null) {
+					throw new IllegalStateException("Resource not found: " + LOADER_MODULE_RESOURCE);
+				}
+				module = in.readAllBytes();
+				loaderModule = module;
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return module;
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 内容哈希工具，用于按内容寻址的存储和缓存键
+ */
+public final class ContentHashUtil {
+
+	// 按内容寻址的文件名：64 位十六进制 SHA-256 加可选扩展名
+	private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("^([0-9a-f]{64})(\\.[A-Za-z0-9]+)?$");
+
+	private ContentHashUtil() {
+	}
+
+	public static String sha256Hex(byte[] data) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static String sha256Hex(String text) {
+		return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 从按内容寻址的文件名中取出内容哈希
+	 * @return 内容哈希，文件名不是按内容寻址时返回 null
+	 */
+	public static String hashOfFileName(String fileName) {
+		if (fileName == null) {
+			return null;
+		}
+		Matcher matcher = CONTENT_ADDRESSED_NAME.matcher(fileName);
+		return matcher.matches() ? matcher.group(1) : null;
+	}
+
+}
@@ -52,6 +52,10 @@ public class DatabaseUtil {
 		return dbConfig;
 	}
 
+	public Integer getAgentDatasourceId(Integer agentId) {
+		return agentDatasourceService.getCurrentAgentDatasource(agentId).getDatasourceId();
+	}
+
 	public Accessor getAgentAccessor(Integer agentId) {
 		DbConfigBO dbConfig = getAgentDbConfig(agentId);
 		return accessorFactory.getAccessorByDbConfig(dbConfig);
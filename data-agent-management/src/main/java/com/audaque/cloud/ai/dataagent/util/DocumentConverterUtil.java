@@ -26,6 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.ai.document.Document;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -120,7 +121,16 @@ public class DocumentConverterUtil {
 		metadata.put(Constant.AGENT_ID, businessKnowledge.getAgentId().toString());
 		metadata.put(DocumentMetadataConstant.DB_BUSINESS_TERM_ID, businessKnowledge.getId());
 
-		return new Document(UUID.randomUUID().toString(), content, metadata);
+		return new Document(businessKnowledgeDocumentId(businessKnowledge, content), content, metadata);
+	}
+
+	/**
+	 * 业务知识向量ID由所属智能体、知识ID和内容哈希决定，内容不变则ID不变，刷新时据此判断是否需要重新向量化
+	 */
+	static String businessKnowledgeDocumentId(BusinessKnowledge businessKnowledge, String content) {
+		String key = DocumentMetadataConstant.BUSINESS_TERM + ":" + businessKnowledge.getAgentId() + ":"
+				+ businessKnowledge.getId() + ":" + ContentHashUtil.sha256Hex(content);
+		return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
 	}
 
 	public static Document convertQaFaqKnowledgeToDocument(AgentKnowledge knowledge) {
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.util;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 用户问题文本工具，用于缓存键和问题的快速匹配
+ */
+public final class QuestionTextUtil {
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s?？!！。.~～]+$");
+
+	private QuestionTextUtil() {
+	}
+
+	/**
+	 * 规范化问题：去除首尾空白和句末标点，合并连续空白，统一小写
+	 */
+	public static String normalize(String question) {
+		if (question == null) {
+			return "";
+		}
+		String normalized = WHITESPACE.matcher(question.trim()).replaceAll(" ");
+		normalized = TRAILING_PUNCTUATION.matcher(normalized).replaceAll("");
+		return normalized.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * 两段已规范化文本的字符二元组 Dice 相似度，取值 0-1，忽略空白
+	 */
+	public static double similarity(String a, String b) {
+		String left = WHITESPACE.matcher(a).replaceAll("");
+		String right = WHITESPACE.matcher(b).replaceAll("");
+		if (left.equals(right)) {
+			return 1.0;
+		}
+		if (left.length() < 2 || right.length() < 2) {
+			return 0.0;
+		}
+		Map<String, Integer> bigrams = new HashMap<>();
+		for (int i = 0; i < left.length() - 1; i++) {
+			bigrams.merge(left.substring(i, i + 2), 1, Integer::sum);
+		}
+		int intersection = 0;
+		for (int i = 0; i < right.length() - 1; i++) {
+			Integer count = bigrams.get(right.substring(i, i + 2));
+			if (count != null && count > 0) {
+				bigrams.put(right.substring(i, i + 2), count - 1);
+				intersection++;
+			}
+		}
+		return 2.0 * intersection / (left.length() - 1 + right.length() - 1);
+	}
+
+	/**
+	 * 是否包含中日韩文字
+	 */
+	public static boolean containsCjk(String text) {
+		return text != null && text.codePoints()
+			.anyMatch(codePoint -> Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN);
+	}
+
+}
@@ -52,6 +52,12 @@ public class AgentKnowledgeVO {
 	// 操作失败的错误信息
 	private String errorMsg;
 
+	// 文档已解析的文本块数
+	private Integer chunkCount;
+
+	// 本次新向量化的文本块数，内容未变化的文本块复用已有向量
+	private Integer embeddedChunkCount;
+
 	@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
 	private LocalDateTime createdTime;
 
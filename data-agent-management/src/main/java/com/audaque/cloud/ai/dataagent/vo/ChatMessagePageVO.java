@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.vo;
+
+import com.audaque.cloud.ai.dataagent.entity.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 会话消息游标分页结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessagePageVO {
+
+	/**
+	 * 本页消息，按 id 升序排列
+	 */
+	private List<ChatMessage> messages;
+
+	/**
+	 * 查询方向上是否还有更多消息（向前翻页时为更早的消息，向后翻页时为更新的消息）
+	 */
+	private Boolean hasMore;
+
+	/**
+	 * 本页最早一条消息的 id，作为继续向前翻页的 beforeId
+	 */
+	private Long firstId;
+
+	/**
+	 * 本页最新一条消息的 id，作为继续向后拉取的 afterId
+	 */
+	private Long lastId;
+
+}
@@ -16,23 +16,38 @@
 package com.audaque.cloud.ai.dataagent.workflow.dispatcher;
 
 import com.audaque.cloud.ai.dataagent.dto.prompt.IntentRecognitionOutputDTO;
+import com.audaque.cloud.ai.dataagent.service.graph.SpeculativeRecallService;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.EdgeAction;
 import com.audaque.cloud.ai.dataagent.util.StateUtil;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import static com.audaque.cloud.ai.dataagent.constant.Constant.CHAT_RESPONSE_NODE;
 import static com.audaque.cloud.ai.dataagent.constant.Constant.EVIDENCE_RECALL_NODE;
 import static com.audaque.cloud.ai.dataagent.constant.Constant.INTENT_RECOGNITION_NODE_OUTPUT;
+import static com.audaque.cloud.ai.dataagent.constant.Constant.THREAD_ID;
 
 /**
  * 根据意图识别结果决定下一个节点的分发器
  */
 @Slf4j
+@AllArgsConstructor
 public class IntentRecognitionDispatcher implements EdgeAction {
 
+	private final SpeculativeRecallService speculativeRecallService;
+
 	@Override
 	public String apply(OverAllState state) throws Exception {
+		String next = route(state);
+		if (CHAT_RESPONSE_NODE.equals(next)) {
+			// 闲聊分支不需要证据和Schema，取消投机召回
+			speculativeRecallService.discard(StateUtil.getStringValue(state, THREAD_ID, null));
+		}
+		return next;
+	}
+
+	private String route(OverAllState state) {
 		// 获取意图识别结果
 		IntentRecognitionOutputDTO intentResult = StateUtil.getObjectValue(state, INTENT_RECOGNITION_NODE_OUTPUT,
 				IntentRecognitionOutputDTO.class);
@@ -46,7 +61,7 @@ public class IntentRecognitionDispatcher implements EdgeAction {
 		String classification = intentResult.getClassification();
 
 		// 根据分类结果决定下一个节点
-		if ("《闲聊或无关指令》".equals(classification)) {
+		if (IntentRecognitionOutputDTO.CHAT_OR_IRRELEVANT.equals(classification)) {
 			log.info("Intent classified as chat or irrelevant, routing to ChatResponseNode");
 			return CHAT_RESPONSE_NODE;
 		} else {
@@ -139,6 +139,10 @@ public class SqlGenerateDispatcher implements EdgeAction {
 		if (END.equals(sqlGenerateOutput)) {
 			log.info("Detected workflow end flag: {}", END);
 			return END;
+		} else if (state.value(SQL_FROM_PLAN_TEMPLATE, false)) {
+			// 预编译计划中的 SQL 已在首次运行时通过语义校验和执行验证
+			log.info("SQL taken from preset plan template, skipping semantic consistency check");
+			return SQL_EXECUTE_NODE;
 		} else {
 			log.info("SQL generation successful, entering semantic consistency check node: {}",
 					SEMANTIC_CONSISTENCY_NODE);
@@ -22,6 +22,8 @@ import com.audaque.cloud.ai.dataagent.dto.prompt.EvidenceQueryRewriteDTO;
 import com.audaque.cloud.ai.dataagent.entity.AgentKnowledge;
 import com.audaque.cloud.ai.dataagent.mapper.AgentKnowledgeMapper;
 import com.audaque.cloud.ai.dataagent.prompt.PromptHelper;
+import com.audaque.cloud.ai.dataagent.service.graph.PromptResponseCache;
+import com.audaque.cloud.ai.dataagent.service.graph.SpeculativeRecallService;
 import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
 import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
 import com.audaque.cloud.ai.dataagent.util.*;
@@ -36,6 +38,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 
 import java.util.ArrayList;
@@ -44,6 +47,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import static com.audaque.cloud.ai.dataagent.constant.Constant.*;
 
@@ -61,14 +65,21 @@ public class EvidenceRecallNode implements NodeAction {
 
 	private final Executor executor;
 
+	private final SpeculativeRecallService speculativeRecallService;
+
+	private final PromptResponseCache promptResponseCache;
+
 	public EvidenceRecallNode(LlmService llmService, AgentVectorStoreService vectorStoreService,
 			JsonParseUtil jsonParseUtil, AgentKnowledgeMapper agentKnowledgeMapper,
-			@Qualifier("dbOperationExecutor") Executor executor) {
+			@Qualifier("dbOperationExecutor") Executor executor, SpeculativeRecallService speculativeRecallService,
+			PromptResponseCache promptResponseCache) {
 		this.llmService = llmService;
 		this.vectorStoreService = vectorStoreService;
 		this.jsonParseUtil = jsonParseUtil;
 		this.agentKnowledgeMapper = agentKnowledgeMapper;
 		this.executor = executor;
+		this.speculativeRecallService = speculativeRecallService;
+		this.promptResponseCache = promptResponseCache;
 	}
 
 	@Override
@@ -82,23 +93,37 @@ public class EvidenceRecallNode implements NodeAction {
 		log.info("Rewriting query before getting evidence in question: {}", question);
 		log.debug("Agent ID: {}", agentId);
 
+		String multiTurn = StateUtil.getStringValue(state, MULTI_TURN_CONTEXT, "(无)");
+
+		// 意图识别阶段已投机启动的知识库检查和查询重写，输入一致时直接复用
+		SpeculativeRecallService.Speculation speculation = speculativeRecallService
+			.takeEvidence(StateUtil.getStringValue(state, THREAD_ID, null), agentId, question, multiTurn);
+
 		// 【性能优化】在调用 LLM 之前先检查是否有知识库文档
 		// 如果没有知识库，直接跳过查询重写和向量检索，节省 LLM 调用和向量库查询时间
-		boolean hasKnowledge = vectorStoreService.hasDocuments(agentId);
+		boolean hasKnowledge = hasDocuments(agentId, speculation);
 		if (!hasKnowledge) {
 			log.info("No knowledge base documents found for agent {}, skipping evidence recall", agentId);
 			return Map.of(EVIDENCE, "无");
 		}
 
-		String multiTurn = StateUtil.getStringValue(state, MULTI_TURN_CONTEXT, "(无)");
-
 		// 构建查询重写提示
 		// 不需要扩展为多个子查询，因为此时LLM不能理解不同公司的个性化业务知识，比如 PV,KMV等专业名词，扩展反而引入噪音。
 		String prompt = PromptHelper.buildEvidenceQueryRewritePrompt(multiTurn, question);
 		log.debug("Built evidence-query-rewrite prompt as follows \n {} \n", prompt);
 
-		// 调用LLM进行查询重写
-		Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
+		// 调用LLM进行查询重写，相同问题和上下文的重写结果直接复用缓存（投机召回同样会先查缓存）
+		String cached = speculation == null ? promptResponseCache.get(PromptResponseCache.EVIDENCE_QUERY_REWRITE,
+				agentId, question, multiTurn) : null;
+		Flux<ChatResponse> responseFlux = cached != null ? Flux.just(ChatResponseUtil.createPureResponse(cached))
+				: speculation == null ? llmService.callUser(prompt)
+				: Mono.fromFuture(speculation.rewriteOutput())
+					.map(ChatResponseUtil::createPureResponse)
+					.flux()
+					.onErrorResume(e -> {
+						log.warn("Speculative query rewrite failed, calling LLM directly: {}", e.getMessage());
+						return llmService.callUser(prompt);
+					});
 		Sinks.Many<String> evidenceDisplaySink = Sinks.many().multicast().onBackpressureBuffer();
 
 		final Map<String, Object> resultMap = new HashMap<>();
@@ -109,7 +134,12 @@ public class EvidenceRecallNode implements NodeAction {
 				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getEndSign()),
 						ChatResponseUtil.createResponse("\n查询重写完成！")),
 				result -> {
-					resultMap.putAll(getEvidences(result, agentId, evidenceDisplaySink));
+					resultMap.putAll(getEvidences(result, agentId, evidenceDisplaySink, standaloneQuery -> {
+						if (cached == null) {
+							promptResponseCache.put(PromptResponseCache.EVIDENCE_QUERY_REWRITE, agentId, question,
+									multiTurn, result);
+						}
+					}));
 					return resultMap;
 				});
 
@@ -119,7 +149,23 @@ public class EvidenceRecallNode implements NodeAction {
 		return Map.of(EVIDENCE, generator.concatWith(evidenceFlux));
 	}
 
-	private Map<String, Object> getEvidences(String llmOutput, String agentId, Sinks.Many<String> sink) {
+	private boolean hasDocuments(String agentId, SpeculativeRecallService.Speculation speculation) {
+		if (speculation != null) {
+			try {
+				return speculation.hasDocuments().join();
+			}
+			catch (Exception e) {
+				log.warn("Speculative knowledge check failed, checking directly: {}", e.getMessage());
+			}
+		}
+		return vectorStoreService.hasDocuments(agentId);
+	}
+
+	/**
+	 * @param onRewritten 成功解析出重写后查询时的回调，用于缓存大模型输出
+	 */
+	private Map<String, Object> getEvidences(String llmOutput, String agentId, Sinks.Many<String> sink,
+			Consumer<String> onRewritten) {
 		try {
 			String standaloneQuery = extractStandaloneQuery(llmOutput);
 
@@ -128,6 +174,7 @@ public class EvidenceRecallNode implements NodeAction {
 				sink.tryEmitNext("未能进行查询重写！\n");
 				return Map.of(EVIDENCE, "无");
 			}
+			onRewritten.accept(standaloneQuery);
 
 			// 输出重写后的查询
 			outputRewrittenQuery(standaloneQuery, sink);
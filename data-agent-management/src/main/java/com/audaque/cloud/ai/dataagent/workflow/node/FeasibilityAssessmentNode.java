@@ -21,7 +21,9 @@ import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import com.audaque.cloud.ai.dataagent.prompt.PromptHelper;
+import com.audaque.cloud.ai.dataagent.service.graph.FastPathClassifier;
 import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
+import com.audaque.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.audaque.cloud.ai.dataagent.util.FluxUtil;
 import com.audaque.cloud.ai.dataagent.util.StateUtil;
 import lombok.AllArgsConstructor;
@@ -55,13 +57,22 @@ public class FeasibilityAssessmentNode implements NodeAction {
 
 		String multiTurn = StateUtil.getStringValue(state, MULTI_TURN_CONTEXT, "(无)");
 
-		// 构建可行性评估提示词
-		String prompt = PromptHelper.buildFeasibilityAssessmentPrompt(canonicalQuery, recalledSchema, evidence,
-				multiTurn);
-		log.debug("Built feasibility assessment prompt as follows \n {} \n", prompt);
+		Flux<ChatResponse> responseFlux;
+		if (isPresetQuestion(state, recalledSchema)) {
+			// 预设问题由管理员维护，召回到表时直接判定为数据分析
+			log.info("Preset question matched, skipping LLM feasibility assessment");
+			responseFlux = Flux
+				.just(ChatResponseUtil.createPureResponse(FastPathClassifier.presetFeasibilityOutput(canonicalQuery)));
+		}
+		else {
+			// 构建可行性评估提示词
+			String prompt = PromptHelper.buildFeasibilityAssessmentPrompt(canonicalQuery, recalledSchema, evidence,
+					multiTurn);
+			log.debug("Built feasibility assessment prompt as follows \n {} \n", prompt);
 
-		// 调用LLM进行可行性评估
-		Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
+			// 调用LLM进行可行性评估
+			responseFlux = llmService.callUser(prompt);
+		}
 
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
 				state, "正在进行可行性评估...", "可行性评估完成！", llmOutput -> {
@@ -74,4 +85,10 @@ public class FeasibilityAssessmentNode implements NodeAction {
 		return Map.of(FEASIBILITY_ASSESSMENT_NODE_OUTPUT, generator);
 	}
 
+	private static boolean isPresetQuestion(OverAllState state, SchemaDTO recalledSchema) {
+		String decision = StateUtil.getStringValue(state, FAST_PATH_DECISION, FastPathClassifier.Decision.NONE.name());
+		return FastPathClassifier.Decision.PRESET.name().equals(decision) && recalledSchema != null
+				&& recalledSchema.getTable() != null && !recalledSchema.getTable().isEmpty();
+	}
+
 }
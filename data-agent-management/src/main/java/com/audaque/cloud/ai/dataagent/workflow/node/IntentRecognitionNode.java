@@ -23,6 +23,9 @@ import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import com.audaque.cloud.ai.dataagent.prompt.PromptHelper;
+import com.audaque.cloud.ai.dataagent.service.graph.FastPathClassifier;
+import com.audaque.cloud.ai.dataagent.service.graph.PromptResponseCache;
+import com.audaque.cloud.ai.dataagent.service.graph.SpeculativeRecallService;
 import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
 import com.audaque.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.audaque.cloud.ai.dataagent.util.FluxUtil;
@@ -49,6 +52,12 @@ public class IntentRecognitionNode implements NodeAction {
 
 	private final JsonParseUtil jsonParseUtil;
 
+	private final SpeculativeRecallService speculativeRecallService;
+
+	private final PromptResponseCache promptResponseCache;
+
+	private final FastPathClassifier fastPathClassifier;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 
@@ -57,13 +66,37 @@ public class IntentRecognitionNode implements NodeAction {
 		log.info("User input for intent recognition: {}", userInput);
 
 		String multiTurn = StateUtil.getStringValue(state, MULTI_TURN_CONTEXT, "(无)");
+		String agentId = StateUtil.getStringValue(state, AGENT_ID, null);
+
+		// 本地规则能确定的问题（问候、预设问题等）不再调用LLM
+		FastPathClassifier.Decision decision = fastPathClassifier.classify(agentId, userInput, multiTurn);
 
-		// 构建意图识别提示
-		String prompt = PromptHelper.buildIntentRecognitionPrompt(multiTurn, userInput);
-		log.debug("Built intent recognition prompt as follows \n {} \n", prompt);
+		// 与意图识别并行地投机执行证据召回和Schema预热，闲聊分支会在分发时取消
+		if (decision != FastPathClassifier.Decision.CHAT) {
+			speculativeRecallService.start(StateUtil.getStringValue(state, THREAD_ID, null), agentId, userInput,
+					multiTurn);
+		}
 
-		// 调用LLM进行意图识别
-		Flux<ChatResponse> responseFlux = llmService.callUser(prompt);
+		// 相同问题和上下文的意图识别结果直接复用缓存，否则调用LLM进行意图识别
+		String cached = decision == FastPathClassifier.Decision.NONE
+				? promptResponseCache.get(PromptResponseCache.INTENT_RECOGNITION, agentId, userInput, multiTurn) : null;
+		Flux<ChatResponse> responseFlux;
+		if (decision != FastPathClassifier.Decision.NONE) {
+			log.info("Intent fast-path classified as {} for agent {}", decision, agentId);
+			String classification = decision == FastPathClassifier.Decision.CHAT
+					? IntentRecognitionOutputDTO.CHAT_OR_IRRELEVANT : IntentRecognitionOutputDTO.POSSIBLE_DATA_ANALYSIS;
+			responseFlux = Flux
+				.just(ChatResponseUtil.createPureResponse("{\"classification\": \"" + classification + "\"}"));
+		}
+		else if (cached != null) {
+			log.info("Reusing cached intent recognition result for agent {}", agentId);
+			responseFlux = Flux.just(ChatResponseUtil.createPureResponse(cached));
+		}
+		else {
+			String prompt = PromptHelper.buildIntentRecognitionPrompt(multiTurn, userInput);
+			log.debug("Built intent recognition prompt as follows \n {} \n", prompt);
+			responseFlux = llmService.callUser(prompt);
+		}
 
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGenerator(this.getClass(), state,
 				responseFlux,
@@ -75,7 +108,13 @@ public class IntentRecognitionNode implements NodeAction {
 					// 使用JsonParseUtil解析JSON并转换为IntentRecognitionOutputDTO对象
 					IntentRecognitionOutputDTO intentRecognitionOutput = jsonParseUtil.tryConvertToObject(result,
 							IntentRecognitionOutputDTO.class);
-					return Map.of(INTENT_RECOGNITION_NODE_OUTPUT, intentRecognitionOutput);
+					if (decision == FastPathClassifier.Decision.NONE && cached == null
+							&& intentRecognitionOutput != null) {
+						promptResponseCache.put(PromptResponseCache.INTENT_RECOGNITION, agentId, userInput, multiTurn,
+								result);
+					}
+					return Map.of(INTENT_RECOGNITION_NODE_OUTPUT, intentRecognitionOutput, FAST_PATH_DECISION,
+							decision.name());
 				});
 		return Map.of(INTENT_RECOGNITION_NODE_OUTPUT, generator);
 	}
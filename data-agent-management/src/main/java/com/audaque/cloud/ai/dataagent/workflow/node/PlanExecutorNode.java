@@ -20,7 +20,9 @@ import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.audaque.cloud.ai.dataagent.dto.planner.ExecutionStep;
 import com.audaque.cloud.ai.dataagent.dto.planner.Plan;
+import com.audaque.cloud.ai.dataagent.service.graph.PresetPlanTemplateManager;
 import com.audaque.cloud.ai.dataagent.util.PlanProcessUtil;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -41,12 +43,15 @@ import static com.audaque.cloud.ai.dataagent.constant.Constant.*;
  */
 @Slf4j
 @Component
+@AllArgsConstructor
 public class PlanExecutorNode implements NodeAction {
 
 	// Supported node types
 	private static final Set<String> SUPPORTED_NODES = Set.of(SQL_GENERATE_NODE, PYTHON_GENERATE_NODE,
 			REPORT_GENERATOR_NODE);
 
+	private final PresetPlanTemplateManager presetPlanTemplateManager;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 		log.debug("Executing plan step...");
@@ -73,6 +78,8 @@ public class PlanExecutorNode implements NodeAction {
 		// 3. Check if the plan is completed
 		if (currentStep > executionPlan.size()) {
 			log.info("Plan completed, current step: {}, total steps: {}", currentStep, executionPlan.size());
+			// 预设问题的计划全部执行成功，保存为预编译计划供后续直接复用
+			presetPlanTemplateManager.capture(state);
 			return Map.of(
 				PLAN_CURRENT_STEP, 1, 
 				PLAN_NEXT_NODE, isOnlyNl2Sql ? StateGraph.END : REPORT_GENERATOR_NODE,
@@ -85,6 +92,10 @@ public class PlanExecutorNode implements NodeAction {
 		String toolToUse = executionStep.getToolToUse();
 
 		log.info("Executing step {}: {}", currentStep, toolToUse);
+		if (currentStep == executionPlan.size() && REPORT_GENERATOR_NODE.equals(toolToUse)) {
+			// 只剩最后的报告步骤时，前面的数据步骤已全部执行成功
+			presetPlanTemplateManager.capture(state);
+		}
 		return determineNextNode(toolToUse);
 	}
 
@@ -24,6 +24,7 @@ import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import com.audaque.cloud.ai.dataagent.prompt.PromptConstant;
 import com.audaque.cloud.ai.dataagent.prompt.PromptHelper;
+import com.audaque.cloud.ai.dataagent.service.graph.PresetPlanTemplateManager;
 import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
 import com.audaque.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.audaque.cloud.ai.dataagent.util.FluxUtil;
@@ -47,19 +48,33 @@ public class PlannerNode implements NodeAction {
 
 	private final LlmService llmService;
 
+	private final PresetPlanTemplateManager presetPlanTemplateManager;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 		// 是否为NL2SQL模式
 		Boolean onlyNl2sql = state.value(IS_ONLY_NL2SQL, false);
 
-		Flux<ChatResponse> flux = onlyNl2sql ? handleNl2SqlOnly() : handlePlanGenerate(state);
+		// 预设问题已有预编译计划时直接复用，用户反馈修复计划时仍然重新规划
+		String templatePlan = onlyNl2sql || StateUtil.getStringValue(state, PLAN_VALIDATION_ERROR, null) != null
+				? null : presetPlanTemplateManager.findPlan(state);
+		boolean presetPlanHit = templatePlan != null;
+
+		Flux<ChatResponse> flux;
+		if (presetPlanHit) {
+			log.info("Reusing precompiled plan template of preset question");
+			flux = Flux.just(ChatResponseUtil.createPureResponse(templatePlan));
+		}
+		else {
+			flux = onlyNl2sql ? handleNl2SqlOnly() : handlePlanGenerate(state);
+		}
 
 		Flux<ChatResponse> chatResponseFlux = Flux.concat(
 				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getStartSign())), flux,
 				Flux.just(ChatResponseUtil.createPureResponse(TextType.JSON.getEndSign())));
 		Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(this.getClass(),
 				state, v -> Map.of(PLANNER_NODE_OUTPUT, v.substring(TextType.JSON.getStartSign().length(),
-						v.length() - TextType.JSON.getEndSign().length())),
+						v.length() - TextType.JSON.getEndSign().length()), PRESET_PLAN_HIT, presetPlanHit),
 				chatResponseFlux);
 
 		return Map.of(PLANNER_NODE_OUTPUT, generator);
@@ -27,6 +27,7 @@ import com.audaque.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.audaque.cloud.ai.dataagent.util.FluxUtil;
 import com.audaque.cloud.ai.dataagent.util.JsonUtil;
 import com.audaque.cloud.ai.dataagent.util.StateUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -34,12 +35,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.audaque.cloud.ai.dataagent.constant.Constant.*;
 
@@ -81,131 +84,34 @@ public class PythonExecuteNode implements NodeAction {
 			List<Map<String, String>> sqlResults = StateUtil.hasValue(state, SQL_RESULT_LIST_MEMORY)
 					? StateUtil.getListValue(state, SQL_RESULT_LIST_MEMORY)
 					: new ArrayList<>();
+			String agentId = StateUtil.getStringValue(state, AGENT_ID, null);
 
 			// 检查重试次数
 			int triesCount = StateUtil.getObjectValue(state, PYTHON_TRIES_COUNT, Integer.class, 0);
 
+			// 结果集以列式文件交给 Python；小结果集同时通过 stdin 传递 JSON，兼容仍从 stdin 读取数据的代码
+			String stdinJson = sqlResults.size() <= codeExecutorProperties.getMaxStdinJsonRows()
+					? objectMapper.writeValueAsString(sqlResults) : "";
 			CodePoolExecutorService.TaskRequest taskRequest = new CodePoolExecutorService.TaskRequest(pythonCode,
-					objectMapper.writeValueAsString(sqlResults), null);
-
-			// Run Python code
-			CodePoolExecutorService.TaskResponse taskResponse = this.codePoolExecutor.runTask(taskRequest);
-			if (!taskResponse.isSuccess()) {
-				String errorMsg = "Python Execute Failed!\nStdOut: " + taskResponse.stdOut() + "\nStdErr: "
-						+ taskResponse.stdErr() + "\nExceptionMsg: " + taskResponse.exceptionMsg();
-				log.error(errorMsg);
-
-				// 检查是否超过最大重试次数
-				if (triesCount >= codeExecutorProperties.getPythonMaxTriesCount()) {
-					log.error(
-							"Python execution failed and exceeded maximum retry count (attempts: {}), activating fallback logic. Error: {}",
-							triesCount, errorMsg);
-
-					String fallbackOutput = "{}";
-
-					Flux<ChatResponse> fallbackDisplayFlux = Flux.create(emitter -> {
-						emitter.next(ChatResponseUtil.createResponse("开始执行 Python 代码..."));
-						emitter.next(ChatResponseUtil.createResponse("Python 代码执行失败已超过最大重试次数，采用降级策略继续处理。"));
-						emitter.complete();
-					});
-
-					Flux<GraphResponse<StreamingOutput>> fallbackGenerator = FluxUtil
-							.createStreamingGeneratorWithMessages(this.getClass(), state,
-									v -> Map.of(PYTHON_EXECUTE_NODE_OUTPUT, fallbackOutput, PYTHON_IS_SUCCESS, false,
-											PYTHON_FALLBACK_MODE, true),
-									fallbackDisplayFlux);
-
-					return Map.of(PYTHON_EXECUTE_NODE_OUTPUT, fallbackGenerator);
-				}
-
-				throw new RuntimeException(errorMsg);
-			}
-
-			// Python 输出的 JSON 字符串可能有 Unicode 转义形式，需要解析回汉字
-			String stdout = taskResponse.stdOut();
-			String stderr = taskResponse.stdErr();
-
-			// 记录 Python 执行的完整输出，便于调试
-			log.info("Python Execute - StdOut length: {}, StdErr length: {}", stdout.length(), stderr != null ? stderr.length() : 0);
-			if (stderr != null && !stderr.isEmpty()) {
-				log.info("Python Execute - StdErr: {}", stderr);
-			}
-			log.info("Python Execute - StdOut (first 500 chars): {}", stdout.length() > 500 ? stdout.substring(0, 500) : stdout);
-
-			Object value = jsonParseUtil.tryConvertToObject(stdout, Object.class);
-			if (value != null) {
-				stdout = objectMapper.writeValueAsString(value);
-			}
-			String originalStdout = stdout;
-
-			log.info("Python Execute Success! StdOut: {}", originalStdout);
-
-			// Check if result contains chart image (base64 encoded)
-			JsonNode jsonNode = null;
-			String chartImageBase64 = null;
-			String chartImageUrl = null;
-			String outputStdout = originalStdout;
-			try {
-				jsonNode = objectMapper.readTree(originalStdout);
-				if (jsonNode.has("chart_image")) {
-					chartImageBase64 = jsonNode.get("chart_image").asText();
-					if (chartImageBase64 == null || chartImageBase64.isEmpty() || chartImageBase64.equals("null")) {
-						log.info("Chart image is null/empty, Python code did not generate chart");
-					} else {
-						log.info("Chart image detected, length: {} chars", chartImageBase64.length());
-						// Decode base64 and persist to storage
-						if (isValidBase64Image(chartImageBase64)) {
-							chartImageUrl = persistChartImage(chartImageBase64);
-							if (chartImageUrl != null) {
-								// Replace base64 with URL in the JSON for downstream nodes
-								((ObjectNode) jsonNode).put("chart_image", chartImageUrl);
-								outputStdout = objectMapper.writeValueAsString(jsonNode);
-								log.info("Chart image persisted, URL: {}", chartImageUrl);
-							}
-						} else {
-							log.warn("Invalid or oversized chart image, skipping persistence");
-						}
-					}
-				} else {
-					log.warn("chart_image field NOT found in Python output JSON!");
-				}
-			} catch (Exception e) {
-				log.error("Failed to parse JSON for chart image detection: {}. JSON: {}", e.getMessage(), originalStdout);
-			}
-			String finalStdout = outputStdout;
-			String finalChartImageUrl = chartImageUrl;
-			String finalChartImageBase64 = chartImageBase64;
-
-			// Create display flux for user experience only
-			Flux<ChatResponse> displayFlux = Flux.create(emitter -> {
-				emitter.next(ChatResponseUtil.createResponse("开始执行 Python 代码..."));
-
-				// If chart image URL exists, display it with HTML img tag
-				if (finalChartImageUrl != null && !finalChartImageUrl.isEmpty()) {
-					String imgTag = String.format(
-							"<img src=\"%s\" alt=\"chart\" style=\"max-width: 100%%; height: auto;\" />",
-							finalChartImageUrl);
-					emitter.next(ChatResponseUtil.createPureResponse(imgTag));
-				}
-				// Fallback: if persistence failed but base64 is valid, use inline base64
-				else if (finalChartImageBase64 != null && !finalChartImageBase64.isEmpty()
-						&& isValidBase64Image(finalChartImageBase64)) {
-					String imgTag = String.format(
-							"<img src=\"data:image/png;base64,%s\" alt=\"chart\" style=\"max-width: 100%%; height: auto;\" />",
-							finalChartImageBase64);
-					emitter.next(ChatResponseUtil.createPureResponse(imgTag));
-				}
-
-				// 不再显示标准输出的 JSON 原始数据，直接进入下一节点处理
-				emitter.next(ChatResponseUtil.createResponse("Python 代码执行成功！"));
-				emitter.complete();
-			});
-
-			// Create generator using utility class, returning pre-computed business logic
-			// result
-			Flux<GraphResponse<StreamingOutput>> generator = FluxUtil.createStreamingGeneratorWithMessages(
-					this.getClass(), state,
-					v -> Map.of(PYTHON_EXECUTE_NODE_OUTPUT, finalStdout, PYTHON_IS_SUCCESS, true), displayFlux);
+					stdinJson, null, sqlResults);
+
+			// 异步提交 Python 任务，排队等待容器期间不占用图执行线程
+			CompletableFuture<CodePoolExecutorService.TaskResponse> future = this.codePoolExecutor
+				.submitTask(agentId, taskRequest);
+			AtomicReference<Map<String, Object>> result = new AtomicReference<>();
+			Flux<ChatResponse> displayFlux = Flux.just(ChatResponseUtil.createResponse("开始执行 Python 代码..."))
+				.concatWith(Mono.fromFuture(future)
+					.flatMapMany(taskResponse -> this.handleResponse(taskResponse, triesCount, result)))
+				.onErrorResume(e -> {
+					log.error("Python Execute Exception: {}", e.getMessage(), e);
+					result.set(Map.of(PYTHON_EXECUTE_NODE_OUTPUT, String.valueOf(e.getMessage()), PYTHON_IS_SUCCESS,
+							false));
+					return Flux.just(ChatResponseUtil.createResponse("Python 代码执行失败：" + e.getMessage()));
+				});
+
+			// Create generator using utility class, result is available once the display flux completes
+			Flux<GraphResponse<StreamingOutput>> generator = FluxUtil
+				.createStreamingGeneratorWithMessages(this.getClass(), state, v -> result.get(), displayFlux);
 
 			return Map.of(PYTHON_EXECUTE_NODE_OUTPUT, generator);
 		} catch (Exception e) {
@@ -232,16 +138,117 @@ public class PythonExecuteNode implements NodeAction {
 	}
 
 	/**
-	 * 持久化图表图片：解码 base64 → 存储到文件服务 → 返回访问 URL
-	 * 失败时返回 null，不影响主流程
+	 * 处理 Python 执行结果：写入节点输出并返回展示给用户的消息
+	 */
+	private Flux<ChatResponse> handleResponse(CodePoolExecutorService.TaskResponse taskResponse, int triesCount,
+			AtomicReference<Map<String, Object>> result) {
+		if (!taskResponse.isSuccess()) {
+			String errorMsg = "Python Execute Failed!\nStdOut: " + taskResponse.stdOut() + "\nStdErr: "
+					+ taskResponse.stdErr() + "\nExceptionMsg: " + taskResponse.exceptionMsg();
+			log.error(errorMsg);
+
+			// 检查是否超过最大重试次数
+			if (triesCount >= codeExecutorProperties.getPythonMaxTriesCount()) {
+				log.error(
+						"Python execution failed and exceeded maximum retry count (attempts: {}), activating fallback logic. Error: {}",
+						triesCount, errorMsg);
+				result.set(Map.of(PYTHON_EXECUTE_NODE_OUTPUT, "{}", PYTHON_IS_SUCCESS, false, PYTHON_FALLBACK_MODE,
+						true));
+				return Flux.just(ChatResponseUtil.createResponse("Python 代码执行失败已超过最大重试次数，采用降级策略继续处理。"));
+			}
+
+			result.set(Map.of(PYTHON_EXECUTE_NODE_OUTPUT, errorMsg, PYTHON_IS_SUCCESS, false));
+			return Flux.just(ChatResponseUtil.createResponse("Python 代码执行失败：" + errorMsg));
+		}
+
+		// Python 输出的 JSON 字符串可能有 Unicode 转义形式，需要解析回汉字
+		String stdout = taskResponse.stdOut();
+		String stderr = taskResponse.stdErr();
+
+		// 记录 Python 执行的完整输出，便于调试
+		log.info("Python Execute - StdOut length: {}, StdErr length: {}", stdout.length(), stderr != null ? stderr.length() : 0);
+		if (stderr != null && !stderr.isEmpty()) {
+			log.info("Python Execute - StdErr: {}", stderr);
+		}
+		log.info("Python Execute - StdOut (first 500 chars): {}", stdout.length() > 500 ? stdout.substring(0, 500) : stdout);
+
+		Object value = jsonParseUtil.tryConvertToObject(stdout, Object.class);
+		if (value != null) {
+			try {
+				stdout = objectMapper.writeValueAsString(value);
+			} catch (JsonProcessingException e) {
+				log.warn("Failed to normalize Python output JSON: {}", e.getMessage());
+			}
+		}
+		String originalStdout = stdout;
+
+		log.info("Python Execute Success! StdOut: {}", originalStdout);
+
+		// Check if result contains chart image (base64 encoded)
+		JsonNode jsonNode = null;
+		String chartImageBase64 = null;
+		String chartImageUrl = null;
+		String outputStdout = originalStdout;
+		try {
+			jsonNode = objectMapper.readTree(originalStdout);
+			if (jsonNode.has("chart_image")) {
+				chartImageBase64 = jsonNode.get("chart_image").asText();
+				if (chartImageBase64 == null || chartImageBase64.isEmpty() || chartImageBase64.equals("null")) {
+					log.info("Chart image is null/empty, Python code did not generate chart");
+				} else {
+					log.info("Chart image detected, length: {} chars", chartImageBase64.length());
+					// Decode base64 and persist to storage
+					if (isValidBase64Image(chartImageBase64)) {
+						chartImageUrl = persistChartImage(chartImageBase64);
+						if (chartImageUrl != null) {
+							// Replace base64 with URL in the JSON for downstream nodes
+							((ObjectNode) jsonNode).put("chart_image", chartImageUrl);
+							outputStdout = objectMapper.writeValueAsString(jsonNode);
+							log.info("Chart image persisted, URL: {}", chartImageUrl);
+						}
+					} else {
+						log.warn("Invalid or oversized chart image, skipping persistence");
+					}
+				}
+			} else {
+				log.warn("chart_image field NOT found in Python output JSON!");
+			}
+		} catch (Exception e) {
+			log.error("Failed to parse JSON for chart image detection: {}. JSON: {}", e.getMessage(), originalStdout);
+		}
+		result.set(Map.of(PYTHON_EXECUTE_NODE_OUTPUT, outputStdout, PYTHON_IS_SUCCESS, true));
+
+		List<ChatResponse> messages = new ArrayList<>();
+		// If chart image URL exists, display it with HTML img tag
+		if (chartImageUrl != null && !chartImageUrl.isEmpty()) {
+			String imgTag = String.format(
+					"<img src=\"%s\" alt=\"chart\" style=\"max-width: 100%%; height: auto;\" />",
+					chartImageUrl);
+			messages.add(ChatResponseUtil.createPureResponse(imgTag));
+		}
+		// Fallback: if persistence failed but base64 is valid, use inline base64
+		else if (chartImageBase64 != null && !chartImageBase64.isEmpty() && isValidBase64Image(chartImageBase64)) {
+			String imgTag = String.format(
+					"<img src=\"data:image/png;base64,%s\" alt=\"chart\" style=\"max-width: 100%%; height: auto;\" />",
+					chartImageBase64);
+			messages.add(ChatResponseUtil.createPureResponse(imgTag));
+		}
+
+		// 不再显示标准输出的 JSON 原始数据，直接进入下一节点处理
+		messages.add(ChatResponseUtil.createResponse("Python 代码执行成功！"));
+		return Flux.fromIterable(messages);
+	}
+
+	/**
+	 * 持久化图表图片：解码 base64 → 按内容哈希存储到文件服务 → 返回访问 URL
+	 * 重复生成的相同图表复用同一文件和 URL；失败时返回 null，不影响主流程
 	 */
 	private String persistChartImage(String base64) {
 		try {
 			byte[] imageBytes = Base64.getDecoder().decode(base64);
-			String fileName = "chart_" + UUID.randomUUID() + ".png";
-			String storagePath = fileStorageService.storeFile(imageBytes, fileName, "charts");
+			String storagePath = fileStorageService.storeContentAddressedFile(imageBytes, ".png", "charts");
 			String url = fileStorageService.getFileUrl(storagePath);
-			log.info("Chart image persisted: {} -> {}", fileName, url);
+			log.info("Chart image persisted: {} -> {}", storagePath, url);
 			return url;
 		} catch (Exception e) {
 			log.warn("Failed to persist chart image, falling back to base64: {}", e.getMessage());
@@ -20,7 +20,10 @@ import com.alibaba.cloud.ai.graph.GraphResponse;
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import com.audaque.cloud.ai.dataagent.service.graph.SpeculativeRecallService;
+import com.audaque.cloud.ai.dataagent.entity.SemanticModel;
 import com.audaque.cloud.ai.dataagent.service.schema.SchemaService;
+import com.audaque.cloud.ai.dataagent.service.semantic.SemanticModelIndex;
 import com.audaque.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.audaque.cloud.ai.dataagent.util.FluxUtil;
 import com.audaque.cloud.ai.dataagent.util.StateUtil;
@@ -32,9 +35,11 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static com.audaque.cloud.ai.dataagent.constant.Constant.*;
 
@@ -54,6 +59,34 @@ public class SchemaRecallNode implements NodeAction {
 
 	private final SchemaService schemaService;
 
+	private final SpeculativeRecallService speculativeRecallService;
+
+	private final SemanticModelIndex semanticModelIndex;
+
+	/**
+	 * 通过语义模型业务名称或同义词补充召回的表数量上限
+	 */
+	private static final int MAX_SEMANTIC_MATCHED_TABLES = 3;
+
+	/**
+	 * 增强后的问题与原始问题相同时复用意图识别阶段预热的表文档，否则按增强后的问题直接召回
+	 */
+	private List<Document> recallTableDocuments(OverAllState state, String agentId, String input) {
+		CompletableFuture<List<Document>> speculative = speculativeRecallService.takeTableDocuments(
+				StateUtil.getStringValue(state, THREAD_ID, null), agentId, StateUtil.getStringValue(state, INPUT_KEY),
+				input);
+		if (speculative != null) {
+			try {
+				log.debug("Reusing speculative table recall for agent {}", agentId);
+				return speculative.join();
+			}
+			catch (Exception e) {
+				log.warn("Speculative table recall failed, falling back to direct recall: {}", e.getMessage());
+			}
+		}
+		return schemaService.getTableDocumentsForAgent(agentId, input);
+	}
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 
@@ -64,12 +97,13 @@ public class SchemaRecallNode implements NodeAction {
 		String agentId = StateUtil.getStringValue(state, AGENT_ID);
 
 		// Execute business logic first - recall schema information immediately
-		List<Document> rawTableDocuments = new ArrayList<>(schemaService.getTableDocumentsForAgent(agentId, input));
+		List<Document> rawTableDocuments = new ArrayList<>(recallTableDocuments(state, agentId, input));
 		
 		// 过滤系统表并提取表名
 		List<Document> tableDocuments = filterSystemTableDocuments(rawTableDocuments);
 		List<String> recalledTableNames = extractTableNames(tableDocuments);
-		
+		addSemanticMatchedTables(agentId, input, tableDocuments, recalledTableNames);
+
 		List<Document> columnDocuments = schemaService.getColumnDocumentsByTableName(agentId, recalledTableNames);
 
 		String failMessage = """
@@ -104,6 +138,35 @@ public class SchemaRecallNode implements NodeAction {
 		return Map.of(SCHEMA_RECALL_NODE_OUTPUT, generator);
 	}
 
+	/**
+	 * 问题中出现语义模型的业务名称或同义词、但向量召回遗漏的表，从内存索引中补充，无需查询数据库
+	 */
+	private void addSemanticMatchedTables(String agentId, String input, List<Document> tableDocuments,
+			List<String> recalledTableNames) {
+		if (agentId == null) {
+			return;
+		}
+		Set<String> matchedTableNames = new LinkedHashSet<>();
+		for (SemanticModel model : semanticModelIndex.matchColumns(Long.valueOf(agentId), input)) {
+			String tableName = model.getTableName();
+			if (tableName != null && !recalledTableNames.contains(tableName)
+					&& !SYSTEM_TABLES.contains(tableName.toLowerCase())) {
+				matchedTableNames.add(tableName);
+			}
+			if (matchedTableNames.size() >= MAX_SEMANTIC_MATCHED_TABLES) {
+				break;
+			}
+		}
+		if (matchedTableNames.isEmpty()) {
+			return;
+		}
+		List<Document> matchedDocuments = schemaService.getTableDocuments(agentId, new ArrayList<>(matchedTableNames));
+		List<String> addedTableNames = extractTableNames(matchedDocuments);
+		tableDocuments.addAll(matchedDocuments);
+		recalledTableNames.addAll(addedTableNames);
+		log.info("Added tables matched by semantic model terms: {}", addedTableNames);
+	}
+
 	/**
 	 * DataAgent系统表列表 - 这些表不应该出现在用户查询的Schema中
 	 * 当用户的数据源连接到DataAgent同一数据库时，需要过滤掉这些系统表
@@ -16,12 +16,14 @@
 package com.audaque.cloud.ai.dataagent.workflow.node;
 
 import static com.audaque.cloud.ai.dataagent.constant.Constant.PLAN_CURRENT_STEP;
+import static com.audaque.cloud.ai.dataagent.constant.Constant.SQL_EXECUTED_QUERIES;
 import static com.audaque.cloud.ai.dataagent.constant.Constant.SQL_EXECUTE_NODE_OUTPUT;
 import static com.audaque.cloud.ai.dataagent.constant.Constant.SQL_FAILURE_HISTORY;
 import static com.audaque.cloud.ai.dataagent.constant.Constant.SQL_GENERATE_COUNT;
 import static com.audaque.cloud.ai.dataagent.constant.Constant.SQL_GENERATE_OUTPUT;
 import static com.audaque.cloud.ai.dataagent.constant.Constant.SQL_REGENERATE_REASON;
 import static com.audaque.cloud.ai.dataagent.constant.Constant.SQL_RESULT_LIST_MEMORY;
+import static com.audaque.cloud.ai.dataagent.constant.Constant.THREAD_ID;
 
 import com.audaque.cloud.ai.dataagent.bo.DbConfigBO;
 import com.audaque.cloud.ai.dataagent.bo.schema.DisplayStyleBO;
@@ -33,10 +35,13 @@ import com.audaque.cloud.ai.dataagent.constant.Constant;
 import com.audaque.cloud.ai.dataagent.dto.datasource.SqlRetryDto;
 import com.audaque.cloud.ai.dataagent.dto.planner.ExecutionStep;
 import com.audaque.cloud.ai.dataagent.enums.TextType;
+import com.audaque.cloud.ai.dataagent.event.ChartConfigRefinedEvent;
 import com.audaque.cloud.ai.dataagent.prompt.PromptLoader;
 import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.datasource.QueryResultCache;
 import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
 import com.audaque.cloud.ai.dataagent.service.nl2sql.Nl2SqlService;
+import com.audaque.cloud.ai.dataagent.util.ChartRecommendUtil;
 import com.audaque.cloud.ai.dataagent.util.ChatResponseUtil;
 import com.audaque.cloud.ai.dataagent.util.DatabaseUtil;
 import com.audaque.cloud.ai.dataagent.util.FluxUtil;
@@ -49,15 +54,25 @@ import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * SQL execution node that executes SQL queries against the database.
@@ -82,6 +97,12 @@ public class SqlExecuteNode implements NodeAction {
 
 	private final DataAgentProperties properties;
 
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final QueryResultCache queryResultCache;
+
+	private static final DateTimeFormatter CACHED_AT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
 	private static final int SAMPLE_DATA_NUMBER = 20;
 
 	@Override
@@ -149,6 +170,7 @@ public class SqlExecuteNode implements NodeAction {
 		log.debug("[SqlExecuteNode] DbQueryParameter created with schema: {}", dbConfig.getSchema());
 
 		Accessor dbAccessor = databaseUtil.getAgentAccessor(agentId);
+		Integer datasourceId = databaseUtil.getAgentDatasourceId(agentId);
 		log.debug("[SqlExecuteNode] DB accessor obtained: {}", dbAccessor.getClass().getSimpleName());
 		final Map<String, Object> result = new HashMap<>();
 
@@ -166,24 +188,26 @@ public class SqlExecuteNode implements NodeAction {
 				log.debug("[SqlExecuteNode] Executing SQL via accessor: {}", sqlQuery);
 				log.debug("[SqlExecuteNode] DB config: url={}, schema={}", dbConfig.getUrl(), dbConfig.getSchema());
 				// Execute SQL query and get results immediately
-				ResultSetBO resultSetBO = dbAccessor.executeSqlAndReturnObject(dbConfig, dbQueryParameter);
+				// 只读查询在启用了结果缓存的数据源上可直接命中缓存
+				QueryResultCache.CachedResult queryResult = queryResultCache.getOrExecute(datasourceId, dbConfig,
+						sqlQuery, () -> dbAccessor.executeSqlAndReturnObject(dbConfig, dbQueryParameter));
+				ResultSetBO resultSetBO = queryResult.resultSet();
 				log.debug("[SqlExecuteNode] SQL execution successful, result set obtained");
 				log.debug("[SqlExecuteNode] Result columns: {}", resultSetBO.getColumn());
 				log.debug("[SqlExecuteNode] Result data size: {}",
 						resultSetBO.getData() != null ? resultSetBO.getData().size() : "null");
-				// 调用大模型获取图表配置信息并填充到 ResultSetBO 中
-				log.debug("[SqlExecuteNode] Enriching result with chart config");
-				DisplayStyleBO displayStyleBO;
-				try {
-					displayStyleBO = enrichResultSetWithChartConfig(state, resultSetBO);
-				} catch (Exception e) {
-					log.warn("[SqlExecuteNode] Chart config enrichment failed, using null display style: {}", e.getMessage());
-					displayStyleBO = null;
-				}
-				log.debug("[SqlExecuteNode] Chart config enrichment completed, display type: {}",
-						displayStyleBO != null ? displayStyleBO.getType() : "null");
+				// 基于规则立即给出图表配置，大模型修正在结果推送后异步进行，不阻塞结果返回
+				String userQuery = StateUtil.getCanonicalQuery(state);
+				DisplayStyleBO displayStyleBO = recommendDisplayStyle(userQuery, resultSetBO);
+				log.debug("[SqlExecuteNode] Heuristic chart recommendation: type={}, x={}, y={}",
+						displayStyleBO.getType(), displayStyleBO.getX(), displayStyleBO.getY());
+				String resultId = UUID.randomUUID().toString();
+				resultBO.setResultId(resultId);
 				resultBO.setResultSet(resultSetBO);
 				resultBO.setDisplayStyle(displayStyleBO);
+				if (queryResult.hit()) {
+					resultBO.setCachedAt(queryResult.cachedAt());
+				}
 
 				String strResultSetJson = JsonUtil.getObjectMapper().writeValueAsString(resultSetBO);
 				String strResultJson = JsonUtil.getObjectMapper().writeValueAsString(resultBO);
@@ -191,11 +215,18 @@ public class SqlExecuteNode implements NodeAction {
 
 				// 数据执行成功 - 先输出文本提示，再根据是否有数据决定输出内容
 				emitter.next(ChatResponseUtil.createResponse("执行 SQL 完成"));
+				if (queryResult.hit()) {
+					String cachedAt = LocalDateTime
+						.ofInstant(Instant.ofEpochMilli(queryResult.cachedAt()), ZoneId.systemDefault())
+						.format(CACHED_AT_FORMATTER);
+					emitter.next(ChatResponseUtil.createResponse("（结果来自缓存，数据查询于 " + cachedAt + "）"));
+				}
 				emitter.next(ChatResponseUtil.createResponse("SQL 查询结果："));
 				if (resultSetBO.getData() != null && !resultSetBO.getData().isEmpty()) {
 					emitter.next(ChatResponseUtil.createPureResponse(TextType.RESULT_SET.getStartSign()));
 					emitter.next(ChatResponseUtil.createPureResponse(strResultJson));
 					emitter.next(ChatResponseUtil.createPureResponse(TextType.RESULT_SET.getEndSign()));
+					scheduleChartRefinement(state, userQuery, resultSetBO, displayStyleBO, resultId);
 				} else {
 					emitter.next(ChatResponseUtil.createResponse("（无数据返回）"));
 				}
@@ -217,6 +248,10 @@ public class SqlExecuteNode implements NodeAction {
 						currentStep, strResultSetJson), SQL_REGENERATE_REASON, SqlRetryDto.empty(),
 						SQL_RESULT_LIST_MEMORY, resultSetBO.getData(), PLAN_CURRENT_STEP, currentStep + 1,
 						SQL_GENERATE_COUNT, 0));
+				// 记录各步骤执行成功的 SQL，供预设问题预编译计划使用
+				result.put(SQL_EXECUTED_QUERIES, PlanProcessUtil.addStepResult(
+						StateUtil.getObjectValue(state, SQL_EXECUTED_QUERIES, Map.class, new HashMap<>()),
+						currentStep, sqlQuery));
 				log.debug("[SqlExecuteNode] Result map prepared, next step: {}", currentStep + 1);
 			} catch (Exception e) {
 				String errorMessage = e.getMessage();
@@ -254,25 +289,65 @@ public class SqlExecuteNode implements NodeAction {
 	}
 
 	/**
-	 * 调用大模型获取图表配置信息并填充到 ResultSetBO 中
+	 * 基于列类型、基数和时间序列特征立即推荐图表配置，关闭图表化时固定为表格
 	 *
-	 * @param state       整体状态
+	 * @param userQuery   用户查询
 	 * @param resultSetBO SQL 执行结果
 	 */
-	private DisplayStyleBO enrichResultSetWithChartConfig(OverAllState state, ResultSetBO resultSetBO) {
-		log.debug("[SqlExecuteNode] Entering enrichResultSetWithChartConfig");
-		// 创建 ResultDisplayStyleBO 对象
-		DisplayStyleBO displayStyle = new DisplayStyleBO();
+	private DisplayStyleBO recommendDisplayStyle(String userQuery, ResultSetBO resultSetBO) {
 		if (!this.properties.isEnableSqlResultChart()) {
 			log.debug("[SqlExecuteNode] SQL result chart is disabled, set display style as table default");
-			displayStyle.setType("table");
-			return displayStyle;
+			return DisplayStyleBO.builder().type(ChartRecommendUtil.TYPE_TABLE).build();
 		}
-		log.debug("[SqlExecuteNode] Chart enrichment enabled, proceeding with LLM call");
+		return ChartRecommendUtil.recommend(resultSetBO, userQuery);
+	}
 
-		try {
-			// 获取用户查询
-			String userQuery = StateUtil.getCanonicalQuery(state);
+	/**
+	 * 在线程池中异步调用大模型修正图表配置，结果与规则推荐不一致时通过事件推送给前端
+	 *
+	 * @param state          整体状态
+	 * @param userQuery      用户查询
+	 * @param resultSetBO    SQL 执行结果
+	 * @param heuristicStyle 规则推荐的图表配置
+	 * @param resultId       结果标识
+	 */
+	private void scheduleChartRefinement(OverAllState state, String userQuery, ResultSetBO resultSetBO,
+			DisplayStyleBO heuristicStyle, String resultId) {
+		if (!properties.isEnableSqlResultChart() || !properties.isEnableSqlResultChartLlmRefine()) {
+			return;
+		}
+		String threadId = StateUtil.getStringValue(state, THREAD_ID, null);
+		if (StringUtils.isBlank(threadId)) {
+			// 非流式调用（如 nl2sql 接口）没有可推送的会话
+			log.debug("[SqlExecuteNode] No thread id in state, skip async chart refinement");
+			return;
+		}
+		String agentId = StateUtil.getStringValue(state, Constant.AGENT_ID, null);
+		// 非阻塞模式的大模型调用会占用订阅线程，放到 boundedElastic 上，不占用图执行线程和数据库线程池
+		refineChartConfig(userQuery, resultSetBO).subscribeOn(Schedulers.boundedElastic())
+			.subscribe(refinedStyle -> {
+				if (isSameDisplayStyle(heuristicStyle, refinedStyle)) {
+					log.debug("[SqlExecuteNode] Refined chart config unchanged, nothing to push");
+					return;
+				}
+				eventPublisher.publishEvent(
+						new ChartConfigRefinedEvent(this, agentId, threadId, resultId, refinedStyle));
+			}, e -> log.warn("[SqlExecuteNode] Async chart refinement failed: {}", e.getMessage()));
+	}
+
+	private boolean isSameDisplayStyle(DisplayStyleBO a, DisplayStyleBO b) {
+		return Objects.equals(a.getType(), b.getType()) && Objects.equals(a.getX(), b.getX())
+				&& Objects.equals(a.getY(), b.getY());
+	}
+
+	/**
+	 * 调用大模型获取图表配置信息，返回的 Mono 在订阅后才发起调用，超时或解析失败时为空
+	 *
+	 * @param userQuery   用户查询
+	 * @param resultSetBO SQL 执行结果
+	 */
+	private Mono<DisplayStyleBO> refineChartConfig(String userQuery, ResultSetBO resultSetBO) {
+		return Mono.fromCallable(() -> {
 			log.debug("[SqlExecuteNode] User query for chart config: {}", userQuery);
 
 			// 将 SQL 结果转换为 JSON 字符串，限制数据量以避免提示词过长
@@ -284,7 +359,7 @@ public class SqlExecuteNode implements NodeAction {
 					sqlResultJson.length(), SAMPLE_DATA_NUMBER);
 
 			// 构建用户提示词，包含 SQL 结果数据
-			String userPrompt = String.format("""
+			return String.format("""
 					# 正式任务
 
 					<最新>用户输入：%s
@@ -292,7 +367,7 @@ public class SqlExecuteNode implements NodeAction {
 
 					# 输出
 					""", userQuery != null ? userQuery : "数据可视化", sqlResultJson);
-
+		}).flatMap(userPrompt -> {
 			// 加载 data-view-analyze 提示词模板（系统提示词）
 			String fullPrompt = PromptLoader.loadPrompt("data-view-analyze");
 			// 分割系统提示词和用户提示词模板
@@ -305,61 +380,72 @@ public class SqlExecuteNode implements NodeAction {
 
 			// 调用 LLM 生成图表配置（使用系统提示词和用户提示词）
 			log.debug("[SqlExecuteNode] Calling LLM for chart config generation");
-			String chartConfigJson = llmService.toStringFlux(llmService.call(systemPrompt, userPrompt))
-					.collect(StringBuilder::new, StringBuilder::append)
-					.map(StringBuilder::toString)
-					.block(Duration.ofMillis(properties.getEnrichSqlResultTimeout()));
-			log.debug("[SqlExecuteNode] LLM returned chart config, length: {}",
-					chartConfigJson != null ? chartConfigJson.length() : "null");
-
-			if (chartConfigJson != null && !chartConfigJson.trim().isEmpty()) {
-				log.debug("[SqlExecuteNode] Raw chart config from LLM: [{}]", chartConfigJson.trim());
-				String content = MarkdownParserUtil.extractText(chartConfigJson.trim());
-				log.debug("[SqlExecuteNode] Extracted chart config content: [{}]", content);
-				// Clean up escape characters that LLM may have incorrectly added
-				// e.g., \{"type":"bar"...\} -> {"type":"bar"...}
-				if (content != null) {
-					content = content.replace("\\\\", "").replace("\\{", "{").replace("\\}", "}");
-					log.debug("[SqlExecuteNode] Chart config after escape cleanup: [{}]", content);
-				}
-				// Parse JSON and fill into ResultSetBO
-				Map<String, Object> chartConfig = JsonUtil.getObjectMapper().readValue(content, Map.class);
+			return llmService.toStringFlux(llmService.call(systemPrompt, userPrompt))
+				.collect(StringBuilder::new, StringBuilder::append)
+				.map(StringBuilder::toString);
+		})
+			.timeout(Duration.ofMillis(properties.getEnrichSqlResultTimeout()))
+			.mapNotNull(this::parseChartConfig);
+	}
 
-				// 提取图表配置信息并设置到 ResultDisplayStyleBO
-				if (chartConfig.containsKey("type")) {
-					displayStyle.setType((String) chartConfig.get("type"));
-				} else {
-					displayStyle.setType("table");
-				}
-				if (chartConfig.containsKey("title")) {
-					displayStyle.setTitle((String) chartConfig.get("title"));
-				}
-				if (chartConfig.containsKey("x")) {
-					displayStyle.setX((String) chartConfig.get("x"));
-				}
-				if (chartConfig.containsKey("y")) {
-					Object yValue = chartConfig.get("y");
-					if (yValue instanceof String) {
-						String yStr = (String) yValue;
-						// 将逗号分隔的字符串转换为列表
-						displayStyle.setY(java.util.Arrays.asList(yStr.split(",")));
-					} else if (yValue instanceof List) {
-						displayStyle.setY((List<String>) yValue);
-					}
-				}
-				log.debug(
-						"[SqlExecuteNode] Successfully enriched ResultSetBO with chart config: type={}, title={}, x={}, y={}",
-						displayStyle.getType(), displayStyle.getTitle(), displayStyle.getX(), displayStyle.getY());
-				return displayStyle;
+	/**
+	 * 解析大模型返回的图表配置，内容为空或无法解析时返回 null
+	 *
+	 * @param chartConfigJson 大模型返回的图表配置
+	 */
+	@SuppressWarnings("unchecked")
+	private DisplayStyleBO parseChartConfig(String chartConfigJson) {
+		log.debug("[SqlExecuteNode] LLM returned chart config, length: {}", chartConfigJson.length());
+		if (chartConfigJson.trim().isEmpty()) {
+			log.warn("[SqlExecuteNode] LLM returned empty chart config, using default settings");
+			return null;
+		}
+		// 创建 ResultDisplayStyleBO 对象
+		DisplayStyleBO displayStyle = new DisplayStyleBO();
+		try {
+			log.debug("[SqlExecuteNode] Raw chart config from LLM: [{}]", chartConfigJson.trim());
+			String content = MarkdownParserUtil.extractText(chartConfigJson.trim());
+			log.debug("[SqlExecuteNode] Extracted chart config content: [{}]", content);
+			// Clean up escape characters that LLM may have incorrectly added
+			// e.g., \{"type":"bar"...\} -> {"type":"bar"...}
+			if (content != null) {
+				content = content.replace("\\\\", "").replace("\\{", "{").replace("\\}", "}");
+				log.debug("[SqlExecuteNode] Chart config after escape cleanup: [{}]", content);
+			}
+			// Parse JSON and fill into ResultSetBO
+			Map<String, Object> chartConfig = JsonUtil.getObjectMapper().readValue(content, Map.class);
+
+			// 提取图表配置信息并设置到 ResultDisplayStyleBO
+			if (chartConfig.containsKey("type")) {
+				displayStyle.setType((String) chartConfig.get("type"));
 			} else {
-				log.warn("[SqlExecuteNode] LLM returned empty chart config, using default settings");
+				displayStyle.setType("table");
+			}
+			if (chartConfig.containsKey("title")) {
+				displayStyle.setTitle((String) chartConfig.get("title"));
+			}
+			if (chartConfig.containsKey("x")) {
+				displayStyle.setX((String) chartConfig.get("x"));
 			}
+			if (chartConfig.containsKey("y")) {
+				Object yValue = chartConfig.get("y");
+				if (yValue instanceof String) {
+					String yStr = (String) yValue;
+					// 将逗号分隔的字符串转换为列表
+					displayStyle.setY(java.util.Arrays.asList(yStr.split(",")));
+				} else if (yValue instanceof List) {
+					displayStyle.setY((List<String>) yValue);
+				}
+			}
+			log.debug(
+					"[SqlExecuteNode] Successfully enriched ResultSetBO with chart config: type={}, title={}, x={}, y={}",
+					displayStyle.getType(), displayStyle.getTitle(), displayStyle.getX(), displayStyle.getY());
+			return displayStyle;
 		} catch (Exception e) {
 			log.error("[SqlExecuteNode] Failed to enrich ResultSetBO with chart config: {}", e.getMessage(), e);
 			// 不抛出异常，允许流程继续执行
+			return null;
 		}
-		log.debug("[SqlExecuteNode] Returning null display style");
-		return null;
 	}
 
 }
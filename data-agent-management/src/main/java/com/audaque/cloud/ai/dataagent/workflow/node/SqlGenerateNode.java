@@ -25,6 +25,7 @@ import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
 import com.audaque.cloud.ai.dataagent.dto.datasource.SqlRetryDto;
 import com.audaque.cloud.ai.dataagent.dto.prompt.SqlGenerationDTO;
 import com.audaque.cloud.ai.dataagent.dto.schema.SchemaDTO;
+import com.audaque.cloud.ai.dataagent.service.graph.PresetPlanTemplateManager;
 import com.audaque.cloud.ai.dataagent.service.nl2sql.Nl2SqlService;
 import com.alibaba.cloud.ai.graph.GraphResponse;
 import com.alibaba.cloud.ai.graph.OverAllState;
@@ -67,6 +68,8 @@ public class SqlGenerateNode implements NodeAction {
 
 	private final DataAgentProperties properties;
 
+	private final PresetPlanTemplateManager presetPlanTemplateManager;
+
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
 		// Get current fine-grained error counters
@@ -114,6 +117,7 @@ public class SqlGenerateNode implements NodeAction {
 		// 准备生成 SQL
 		String displayMessage;
 		Flux<String> sqlFlux;
+		boolean fromTemplate = false;
 		SqlRetryDto retryDto = StateUtil.getObjectValue(state, SQL_REGENERATE_REASON, SqlRetryDto.class,
 				SqlRetryDto.empty());
 
@@ -121,6 +125,10 @@ public class SqlGenerateNode implements NodeAction {
 				retryDto.errorType(), count);
 
 		if (retryDto.sqlExecuteFail()) {
+			if (state.value(SQL_FROM_PLAN_TEMPLATE, false)) {
+				// 预编译计划中的 SQL 已不可用，丢弃模板，本次成功后重新生成
+				presetPlanTemplateManager.discard(state);
+			}
 			displayMessage = "检测到 SQL 执行异常，开始重新生成 SQL...";
 			log.info("SQL execution failed, retrying - error type: {}, reason: {}", retryDto.errorType(),
 					retryDto.reason());
@@ -133,9 +141,17 @@ public class SqlGenerateNode implements NodeAction {
 			sqlFlux = handleRetryGenerateSql(state, StateUtil.getStringValue(state, SQL_GENERATE_OUTPUT, ""),
 					retryDto.reason(), promptForSql);
 		} else {
-			displayMessage = "开始生成 SQL...";
-			log.info("Starting initial SQL generation for step {}", count + 1);
-			sqlFlux = handleGenerateSql(state, promptForSql);
+			String templateSql = getTemplateSql(state);
+			if (templateSql != null) {
+				displayMessage = "使用预设问题预编译的 SQL...";
+				log.info("Using precompiled SQL from preset plan template");
+				sqlFlux = Flux.just(templateSql);
+				fromTemplate = true;
+			} else {
+				displayMessage = "开始生成 SQL...";
+				log.info("Starting initial SQL generation for step {}", count + 1);
+				sqlFlux = handleGenerateSql(state, promptForSql);
+			}
 		}
 
 		// 准备返回结果，同时需要清除一些状态数据
@@ -143,6 +159,7 @@ public class SqlGenerateNode implements NodeAction {
 		Map<String, Object> result = new HashMap<>();
 		result.put(SQL_GENERATE_COUNT, count + 1);
 		result.put(SQL_REGENERATE_REASON, SqlRetryDto.empty());
+		result.put(SQL_FROM_PLAN_TEMPLATE, fromTemplate);
 
 		// Update fine-grained error counters based on retry type
 		if (retryDto.errorType() == SqlRetryDto.ErrorType.SYNTAX) {
@@ -204,6 +221,18 @@ public class SqlGenerateNode implements NodeAction {
 		return Map.of(SQL_GENERATE_OUTPUT, generator);
 	}
 
+	/**
+	 * 计划来自预设问题的预编译计划时，返回当前步骤已验证的 SQL
+	 */
+	private String getTemplateSql(OverAllState state) {
+		if (!state.value(PRESET_PLAN_HIT, false)) {
+			return null;
+		}
+		ExecutionStep.ToolParameters params = PlanProcessUtil.getCurrentExecutionStep(state).getToolParameters();
+		return params == null || params.getSqlQuery() == null || params.getSqlQuery().isBlank() ? null
+				: params.getSqlQuery();
+	}
+
 	private Flux<String> handleRetryGenerateSql(OverAllState state, String originalSql, String errorMsg,
 			String executionDescription) {
 		String evidence = StateUtil.getStringValue(state, EVIDENCE);
@@ -19,11 +19,11 @@ import com.audaque.cloud.ai.dataagent.bo.DbConfigBO;
 import com.audaque.cloud.ai.dataagent.dto.schema.SchemaDTO;
 import com.audaque.cloud.ai.dataagent.dto.schema.TableDTO;
 import com.audaque.cloud.ai.dataagent.entity.AgentDatasource;
-import com.audaque.cloud.ai.dataagent.entity.LogicalRelation;
 import com.audaque.cloud.ai.dataagent.entity.SemanticModel;
 import com.audaque.cloud.ai.dataagent.enums.TextType;
 import com.audaque.cloud.ai.dataagent.service.datasource.AgentDatasourceService;
-import com.audaque.cloud.ai.dataagent.service.datasource.DatasourceService;
+import com.audaque.cloud.ai.dataagent.service.datasource.LogicalRelationGraph;
+import com.audaque.cloud.ai.dataagent.service.datasource.LogicalRelationGraphCache;
 import com.audaque.cloud.ai.dataagent.util.DatabaseUtil;
 import com.alibaba.cloud.ai.graph.GraphResponse;
 import com.alibaba.cloud.ai.graph.OverAllState;
@@ -63,6 +63,11 @@ import static com.audaque.cloud.ai.dataagent.prompt.PromptHelper.buildSemanticMo
 @AllArgsConstructor
 public class TableRelationNode implements NodeAction {
 
+	/**
+	 * 召回表之间通过逻辑外键补充桥接表时，关联路径允许的最大边数
+	 */
+	private static final int MAX_JOIN_HOPS = 3;
+
 	private final SchemaService schemaService;
 
 	private final Nl2SqlService nl2SqlService;
@@ -71,7 +76,7 @@ public class TableRelationNode implements NodeAction {
 
 	private final DatabaseUtil databaseUtil;
 
-	private final DatasourceService datasourceService;
+	private final LogicalRelationGraphCache logicalRelationGraphCache;
 
 	private final AgentDatasourceService agentDatasourceService;
 
@@ -89,9 +94,20 @@ public class TableRelationNode implements NodeAction {
 		// Execute business logic first - get final result immediately
 		DbConfigBO agentDbConfig = databaseUtil.getAgentDbConfig(Integer.valueOf(agentIdStr));
 
-		List<String> logicalForeignKeys = getLogicalForeignKeys(Integer.valueOf(agentIdStr), tableDocuments);
+		LogicalRelations logicalRelations = resolveLogicalRelations(Integer.valueOf(agentIdStr), tableDocuments);
+		List<String> logicalForeignKeys = logicalRelations.foreignKeys();
 		log.info("Found {} logical foreign keys for agent: {}", logicalForeignKeys.size(), agentIdStr);
 
+		// 通过逻辑外键关联路径补充桥接表，避免由大模型自行推断缺失的中间表
+		if (!logicalRelations.bridgingTables().isEmpty()) {
+			tableDocuments = new ArrayList<>(tableDocuments);
+			tableDocuments.addAll(schemaService.getTableDocuments(agentIdStr, logicalRelations.bridgingTables()));
+			columnDocuments = new ArrayList<>(columnDocuments);
+			columnDocuments
+				.addAll(schemaService.getColumnDocumentsByTableName(agentIdStr, logicalRelations.bridgingTables()));
+			log.info("Added bridging tables {} for agent: {}", logicalRelations.bridgingTables(), agentIdStr);
+		}
+
 		SchemaDTO initialSchema = buildInitialSchema(agentIdStr, columnDocuments, tableDocuments, agentDbConfig,
 				logicalForeignKeys);
 
@@ -199,15 +215,15 @@ public class TableRelationNode implements NodeAction {
 	}
 
 	/**
-	 * 获取逻辑外键信息，并过滤只保留与当前召回表相关的外键
+	 * 获取与当前召回表相关的逻辑外键，并根据缓存的关系图计算连通召回表所需的桥接表
 	 */
-	private List<String> getLogicalForeignKeys(Integer agentId, List<Document> tableDocuments) {
+	private LogicalRelations resolveLogicalRelations(Integer agentId, List<Document> tableDocuments) {
 		try {
 			// 获取当前 agent 激活的数据源
 			AgentDatasource agentDatasource = agentDatasourceService.getCurrentAgentDatasource(agentId);
 			if (agentDatasource == null || agentDatasource.getDatasourceId() == null) {
 				log.warn("No active datasource found for agent: {}", agentId);
-				return Collections.emptyList();
+				return LogicalRelations.EMPTY;
 			}
 
 			Integer datasourceId = agentDatasource.getDatasourceId();
@@ -220,26 +236,29 @@ public class TableRelationNode implements NodeAction {
 
 			log.info("Recalled table names for agent {}: {}", agentId, recalledTableNames);
 
-			// 查询该数据源的所有逻辑外键
-			List<LogicalRelation> allLogicalRelations = datasourceService.getLogicalRelations(datasourceId);
-			log.info("Found {} logical relations in datasource: {}", allLogicalRelations.size(), datasourceId);
-
-			// 过滤只保留与召回表相关的外键（源表或目标表在召回列表中）
-			List<String> formattedForeignKeys = allLogicalRelations.stream()
-				.filter(lr -> recalledTableNames.contains(lr.getSourceTableName())
-						|| recalledTableNames.contains(lr.getTargetTableName()))
-				.map(lr -> String.format("%s.%s=%s.%s", lr.getSourceTableName(), lr.getSourceColumnName(),
-						lr.getTargetTableName(), lr.getTargetColumnName()))
-				.distinct()
-				.collect(Collectors.toList());
-
-			log.info("Filtered {} relevant logical relations for recalled tables", formattedForeignKeys.size());
-			return formattedForeignKeys;
+			LogicalRelationGraph graph = logicalRelationGraphCache.getGraph(datasourceId);
+			LogicalRelationGraph.JoinPlan joinPlan = graph.planJoins(recalledTableNames, MAX_JOIN_HOPS);
+
+			// 只保留与召回表或桥接表相关的外键（源表或目标表在其中）
+			Set<String> relevantTableNames = new HashSet<>(recalledTableNames);
+			relevantTableNames.addAll(joinPlan.bridgingTables());
+			List<String> formattedForeignKeys = graph.relationsTouching(relevantTableNames);
+
+			log.info("Filtered {} relevant logical relations for recalled tables, bridging tables: {}",
+					formattedForeignKeys.size(), joinPlan.bridgingTables());
+			return new LogicalRelations(formattedForeignKeys, joinPlan.bridgingTables());
 		}
 		catch (Exception e) {
 			log.error("Error fetching logical foreign keys for agent: {}", agentId, e);
-			return Collections.emptyList();
+			return LogicalRelations.EMPTY;
 		}
 	}
 
+	private record LogicalRelations(List<String> foreignKeys, List<String> bridgingTables) {
+
+		private static final LogicalRelations EMPTY = new LogicalRelations(Collections.emptyList(),
+				Collections.emptyList());
+
+	}
+
 }
@@ -0,0 +1,93 @@
+# Copyright 2024-2026 the original author or authors.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     https://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+"""
+DataAgent 输入数据加载工具。
+
+SQL 查询结果以列式 CSV（input_data.csv）加类型描述（input_data.dtypes.json）的形式写入工作目录，
+生成的 Python 代码通过本模块直接加载为 DataFrame，无需经过 stdin 上的 JSON 序列化和解析。
+数据文件不存在时退化为从 stdin 读取 JSON。
+"""
+
+import csv
+import json
+import os
+import sys
+
+DATA_FILE = 'input_data.csv'
+DTYPES_FILE = 'input_data.dtypes.json'
+
+_PANDAS_DTYPES = {'int': 'Int64', 'float': 'float64', 'bool': 'boolean', 'string': 'string'}
+
+
+def _read_meta():
+    if not os.path.exists(DATA_FILE) or not os.path.exists(DTYPES_FILE) or os.path.getsize(DTYPES_FILE) == 0:
+        return None
+    with open(DTYPES_FILE, encoding='utf-8') as f:
+        return json.load(f)
+
+
+def _stdin_records():
+    text = sys.stdin.read()
+    return json.loads(text) if text.strip() else []
+
+
+def load_input_df():
+    """加载输入数据为 pandas.DataFrame，列类型由数据文件的类型描述决定。"""
+    import pandas as pd
+    meta = _read_meta()
+    if meta is None:
+        return pd.DataFrame(_stdin_records())
+    columns = meta.get('columns', [])
+    if not columns:
+        return pd.DataFrame()
+    dtypes, dates = {}, []
+    for column in columns:
+        kind = column.get('type', 'string')
+        if kind == 'datetime':
+            dates.append(column['name'])
+            dtypes[column['name']] = 'string'
+        else:
+            dtypes[column['name']] = _PANDAS_DTYPES.get(kind, 'string')
+    df = pd.read_csv(DATA_FILE, dtype=dtypes, keep_default_na=False, na_values=[meta.get('null', '\\N')],
+                     encoding='utf-8')
+    for name in dates:
+        df[name] = pd.to_datetime(df[name], errors='coerce')
+    return df
+
+
+def _convert(value, kind, null):
+    if value == null:
+        return None
+    try:
+        if kind == 'int':
+            return int(value)
+        if kind == 'float':
+            return float(value)
+        if kind == 'bool':
+            return value.lower() == 'true'
+    except ValueError:
+        return value
+    return value
+
+
+def load_input_records():
+    """加载输入数据为 List[Dict]，数值列会转换为 int/float，不依赖 pandas。"""
+    meta = _read_meta()
+    if meta is None:
+        return _stdin_records()
+    null = meta.get('null', '\\N')
+    kinds = {column['name']: column.get('type', 'string') for column in meta.get('columns', [])}
+    with open(DATA_FILE, newline='', encoding='utf-8') as f:
+        return [{k: _convert(v, kinds.get(k, 'string'), null) for k, v in row.items()} for row in csv.DictReader(f)]
@@ -0,0 +1,215 @@
+# Copyright 2024-2026 the original author or authors.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     https://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+"""
+DataAgent 本地常驻 Python Worker。
+
+与 Java 端 LocalPythonWorker 通过 stdin/stdout 上的长度前缀帧通信：每帧为一行十进制字节长度，
+随后是对应长度的 UTF-8 JSON。启动时预加载常用数据分析库并回复 ready 帧，之后循环执行任务，
+每个任务都在全新的命名空间中运行，标准输入/输出/错误被重定向到内存缓冲区。
+
+Worker 在容器池中被不同智能体的任务复用，因此任务结束后还会恢复进程级的全局状态：builtins、预加载模块的
+模块属性、pandas/numpy/matplotlib 的全局配置、sys.path、环境变量和工作目录。
+"""
+
+import builtins
+import contextlib
+import importlib
+import io
+import json
+import os
+import sys
+import traceback
+import types
+import warnings
+
+
+def _preload(modules):
+    loaded = []
+    for name in modules:
+        if not name:
+            continue
+        try:
+            if name == 'matplotlib' or name.startswith('matplotlib.'):
+                import matplotlib
+                matplotlib.use('Agg')
+            importlib.import_module(name)
+            loaded.append(name)
+        except Exception:
+            # 预加载失败不影响 Worker 可用性，任务内 import 时会得到真实的错误信息
+            pass
+    return loaded
+
+
+class _GlobalState:
+    """预加载完成后的进程级全局状态快照，每个任务结束后恢复，避免任务修改的全局状态泄漏到后续任务"""
+
+    def __init__(self, modules):
+        self.cwd = os.getcwd()
+        self.sys_path = list(sys.path)
+        self.environ = dict(os.environ)
+        self.builtins = dict(builtins.__dict__)
+        # 只快照预加载模块（及其已加载的子模块）的模块属性，覆盖 pd.read_csv = ... 这类猴子补丁
+        prefixes = tuple(name + '.' for name in modules)
+        self.module_dicts = {name: dict(module.__dict__) for name, module in list(sys.modules.items())
+                             if module is not None and (name in modules or name.startswith(prefixes))}
+        self.has_pandas = 'pandas' in sys.modules
+        self.numpy_err = None
+        self.numpy_print = None
+        self.rc_params = None
+        np = sys.modules.get('numpy')
+        if np is not None:
+            self.numpy_err = np.geterr()
+            self.numpy_print = np.get_printoptions()
+        mpl = sys.modules.get('matplotlib')
+        if mpl is not None:
+            self.rc_params = dict(mpl.rcParams)
+
+    def restore(self):
+        _restore_dict(builtins.__dict__, self.builtins)
+        for name, saved in self.module_dicts.items():
+            module = sys.modules.get(name)
+            if module is not None:
+                _restore_dict(module.__dict__, saved)
+        sys.path[:] = self.sys_path
+        if dict(os.environ) != self.environ:
+            os.environ.clear()
+            os.environ.update(self.environ)
+        with warnings.catch_warnings():
+            warnings.simplefilter('ignore')
+            _ignore_errors(self._restore_libraries)
+        _ignore_errors(lambda: os.chdir(self.cwd))
+
+    def _restore_libraries(self):
+        pd = sys.modules.get('pandas')
+        if pd is not None and self.has_pandas:
+            pd.reset_option('all')
+        np = sys.modules.get('numpy')
+        if np is not None and self.numpy_err is not None:
+            np.seterr(**self.numpy_err)
+            np.set_printoptions(**self.numpy_print)
+        mpl = sys.modules.get('matplotlib')
+        if mpl is not None and self.rc_params is not None:
+            mpl.rcParams.update(self.rc_params)
+
+
+def _restore_dict(current, saved):
+    # 任务中首次导入的子模块会绑定到父模块属性上，sys.modules 中仍保留该子模块，因此不能删除
+    for key in [k for k, v in current.items() if k not in saved and not isinstance(v, types.ModuleType)]:
+        del current[key]
+    for key, value in saved.items():
+        if current.get(key, _MISSING) is not value:
+            current[key] = value
+
+
+def _ignore_errors(action):
+    try:
+        action()
+    except Exception:
+        pass
+
+
+_MISSING = object()
+
+
+def _peak_rss_mb():
+    try:
+        import resource
+        rss = resource.getrusage(resource.RUSAGE_SELF).ru_maxrss
+        # Linux 单位为 KB，macOS 单位为字节
+        return rss / 1024 / 1024 if sys.platform == 'darwin' else rss / 1024
+    except Exception:
+        return 0
+
+
+def _read_frame(stream):
+    header = stream.readline()
+    if not header:
+        return None
+    length = int(header.strip())
+    data = stream.read(length)
+    return json.loads(data.decode('utf-8'))
+
+
+def _write_frame(stream, payload):
+    data = json.dumps(payload, ensure_ascii=False).encode('utf-8')
+    stream.write(str(len(data)).encode('ascii') + b'\n')
+    stream.write(data)
+    stream.flush()
+
+
+def _exit_code(e):
+    if e.code is None:
+        return 0
+    if isinstance(e.code, int):
+        return e.code
+    print(e.code, file=sys.stderr)
+    return 1
+
+
+def _run(code, stdin_text, workdir, global_state):
+    stdout, stderr = io.StringIO(), io.StringIO()
+    exit_code = 0
+    # 每个任务使用 builtins 的副本，通过 __builtins__ 做的修改只在本任务内可见
+    namespace = {'__name__': '__main__', '__builtins__': dict(builtins.__dict__)}
+    saved_stdin, saved_argv = sys.stdin, sys.argv
+    sys.stdin = io.StringIO(stdin_text)
+    sys.argv = ['script.py']
+    importlib.invalidate_caches()
+    if workdir:
+        os.chdir(workdir)
+    try:
+        with contextlib.redirect_stdout(stdout), contextlib.redirect_stderr(stderr):
+            try:
+                exec(compile(code, 'script.py', 'exec'), namespace)
+            except SystemExit as e:
+                exit_code = _exit_code(e)
+            except BaseException:
+                # 跳过 Worker 自身的栈帧，使错误信息与直接运行脚本时一致
+                etype, value, tb = sys.exc_info()
+                traceback.print_exception(etype, value, tb.tb_next if tb is not None else None)
+                exit_code = 1
+    finally:
+        sys.stdin, sys.argv = saved_stdin, saved_argv
+        namespace.clear()
+        pyplot = sys.modules.get('matplotlib.pyplot')
+        if pyplot is not None:
+            _ignore_errors(lambda: pyplot.close('all'))
+        global_state.restore()
+    return exit_code, stdout.getvalue(), stderr.getvalue()
+
+
+def main():
+    # 协议专用的文件描述符，防止用户代码或 C 扩展直接写 fd 1 破坏帧格式
+    protocol_in = os.fdopen(os.dup(0), 'rb')
+    protocol_out = os.fdopen(os.dup(1), 'wb')
+    os.dup2(os.open(os.devnull, os.O_RDONLY), 0)
+    os.dup2(2, 1)
+
+    modules = sys.argv[1].split(',') if len(sys.argv) > 1 else []
+    loaded = _preload([m.strip() for m in modules])
+    global_state = _GlobalState(loaded)
+    _write_frame(protocol_out, {'ready': True, 'preloaded': loaded, 'peakRssMb': _peak_rss_mb()})
+
+    while True:
+        request = _read_frame(protocol_in)
+        if request is None:
+            break
+        exit_code, out, err = _run(request.get('code') or '', request.get('input') or '', request.get('workdir'),
+                                   global_state)
+        _write_frame(protocol_out, {'exitCode': exit_code, 'stdout': out, 'stderr': err, 'peakRssMb': _peak_rss_mb()})
+
+
+if __name__ == '__main__':
+    main()
@@ -112,6 +112,7 @@ CREATE INDEX idx_sm_agent_id ON semantic_model(agent_id);
 CREATE INDEX idx_sm_field_name ON semantic_model(business_name);
 CREATE INDEX idx_sm_status ON semantic_model(status);
 CREATE INDEX idx_sm_is_deleted ON semantic_model(is_deleted);
+CREATE INDEX idx_sm_agent_table_column ON semantic_model(agent_id, table_name, column_name);
 
 COMMENT ON TABLE semantic_model IS '语义模型表';
 COMMENT ON COLUMN semantic_model.agent_id IS '关联的智能体ID';
@@ -139,6 +140,8 @@ CREATE TABLE agent_knowledge (
     is_recall INT DEFAULT 1,
     embedding_status VARCHAR(20) DEFAULT NULL,
     error_msg VARCHAR(255) DEFAULT NULL,
+    chunk_count INT DEFAULT 0,
+    embedded_chunk_count INT DEFAULT 0,
     source_filename VARCHAR(500) DEFAULT NULL,
     file_path VARCHAR(500) DEFAULT NULL,
     file_size BIGINT DEFAULT NULL,
@@ -164,6 +167,8 @@ COMMENT ON COLUMN agent_knowledge.content IS '知识内容 (对于QA/FAQ是答
 COMMENT ON COLUMN agent_knowledge.is_recall IS '业务状态: 1=召回, 0=非召回';
 COMMENT ON COLUMN agent_knowledge.embedding_status IS '向量化状态：PENDING待处理，PROCESSING处理中，COMPLETED已完成，FAILED失败';
 COMMENT ON COLUMN agent_knowledge.error_msg IS '操作失败的错误信息';
+COMMENT ON COLUMN agent_knowledge.chunk_count IS '文档已解析的文本块数';
+COMMENT ON COLUMN agent_knowledge.embedded_chunk_count IS '本次新向量化的文本块数，未变化的文本块复用已有向量';
 COMMENT ON COLUMN agent_knowledge.source_filename IS '上传时的原始文件名';
 COMMENT ON COLUMN agent_knowledge.file_path IS '文件在服务器上的物理存储路径';
 COMMENT ON COLUMN agent_knowledge.file_size IS '文件大小 (字节)';
@@ -283,6 +288,9 @@ CREATE TABLE agent_preset_question (
     is_delete TINYINT DEFAULT 0,
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    plan_template CLOB,
+    plan_schema_version VARCHAR(64),
+    plan_compiled_time TIMESTAMP,
     PRIMARY KEY (id),
     CONSTRAINT fk_agent_preset_question_agent FOREIGN KEY (agent_id) REFERENCES agent(id) ON DELETE CASCADE
 );
@@ -299,6 +307,9 @@ COMMENT ON COLUMN agent_preset_question.is_active IS '是否启用：0-禁用，
 COMMENT ON COLUMN agent_preset_question.is_delete IS '是否删除：0-未删除，1-已删除';
 COMMENT ON COLUMN agent_preset_question.create_time IS '创建时间';
 COMMENT ON COLUMN agent_preset_question.update_time IS '更新时间';
+COMMENT ON COLUMN agent_preset_question.plan_template IS '预编译的执行计划（含已验证的SQL）';
+COMMENT ON COLUMN agent_preset_question.plan_schema_version IS '生成执行计划时召回Schema的指纹';
+COMMENT ON COLUMN agent_preset_question.plan_compiled_time IS '执行计划预编译时间';
 
 -- 9. 会话表
 CREATE TABLE chat_session (
@@ -342,6 +353,7 @@ CREATE TABLE chat_message (
     CONSTRAINT fk_chat_message_session FOREIGN KEY (session_id) REFERENCES chat_session(id) ON DELETE CASCADE
 );
 CREATE INDEX idx_cm_session_id ON chat_message(session_id);
+CREATE INDEX idx_cm_session_id_id ON chat_message(session_id, id);
 CREATE INDEX idx_cm_role ON chat_message(role);
 CREATE INDEX idx_cm_message_type ON chat_message(message_type);
 CREATE INDEX idx_cm_create_time ON chat_message(create_time);
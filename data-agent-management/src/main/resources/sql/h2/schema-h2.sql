@@ -64,6 +64,7 @@ CREATE TABLE IF NOT EXISTS semantic_model (
   INDEX idx_semantic_model_agent_id (agent_id),
   INDEX idx_semantic_model_business_name (business_name),
   INDEX idx_semantic_model_status (status),
+  INDEX idx_semantic_model_agent_table_column (agent_id, table_name, column_name),
   CONSTRAINT fk_semantic_model_agent FOREIGN KEY (agent_id) REFERENCES agent(id) ON DELETE CASCADE
 ) ENGINE = InnoDB COMMENT = '语义模型表';
 
@@ -79,6 +80,8 @@ CREATE TABLE IF NOT EXISTS agent_knowledge (
   is_recall INT DEFAULT 1 COMMENT '业务状态: 1=召回, 0=非召回',
   embedding_status VARCHAR(20) DEFAULT NULL COMMENT '向量化状态：PENDING待处理，PROCESSING处理中，COMPLETED已完成，FAILED失败',
   error_msg VARCHAR(255) DEFAULT NULL COMMENT '操作失败的错误信息',
+  chunk_count INT DEFAULT 0 COMMENT '文档已解析的文本块数',
+  embedded_chunk_count INT DEFAULT 0 COMMENT '本次新向量化的文本块数，未变化的文本块复用已有向量',
   source_filename VARCHAR(500) DEFAULT NULL COMMENT '上传时的原始文件名',
   file_path VARCHAR(500) DEFAULT NULL COMMENT '文件在服务器上的物理存储路径',
   file_size BIGINT DEFAULT NULL COMMENT '文件大小 (字节)',
@@ -163,6 +166,9 @@ CREATE TABLE IF NOT EXISTS agent_preset_question (
   is_delete TINYINT DEFAULT 0 COMMENT '是否删除：0-未删除，1-已删除',
   create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  plan_template TEXT COMMENT '预编译的执行计划（含已验证的SQL）',
+  plan_schema_version VARCHAR(64) COMMENT '生成执行计划时召回Schema的指纹',
+  plan_compiled_time TIMESTAMP NULL COMMENT '执行计划预编译时间',
   PRIMARY KEY (id),
   INDEX idx_agent_preset_question_agent_id (agent_id),
   INDEX idx_agent_preset_question_sort_order (sort_order),
@@ -201,6 +207,7 @@ CREATE TABLE IF NOT EXISTS chat_message (
   create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   PRIMARY KEY (id),
   INDEX idx_chat_message_session_id (session_id),
+  INDEX idx_chat_message_session_id_id (session_id, id),
   INDEX idx_chat_message_role (role),
   INDEX idx_chat_message_message_type (message_type),
   INDEX idx_chat_message_create_time (create_time),
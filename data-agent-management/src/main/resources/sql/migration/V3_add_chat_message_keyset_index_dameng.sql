@@ -0,0 +1,6 @@
+-- Migration script: Add composite index for keyset pagination of chat messages
+-- Date: 2026-10-19
+-- Database: DaMeng (达梦数据库)
+-- Affects: chat_message table
+
+CREATE INDEX idx_cm_session_id_id ON chat_message(session_id, id);
@@ -0,0 +1,10 @@
+-- Migration script: Add chunk progress columns for incremental document embedding
+-- Date: 2026-10-19
+-- Database: MySQL (元数据库)
+-- Affects: agent_knowledge table
+
+ALTER TABLE agent_knowledge
+ADD COLUMN chunk_count INT DEFAULT 0 COMMENT '文档已解析的文本块数';
+
+ALTER TABLE agent_knowledge
+ADD COLUMN embedded_chunk_count INT DEFAULT 0 COMMENT '本次新向量化的文本块数，未变化的文本块复用已有向量';
@@ -0,0 +1,10 @@
+-- Migration script: Add chunk progress columns for incremental document embedding
+-- Date: 2026-10-19
+-- Database: DaMeng (达梦数据库)
+-- Affects: agent_knowledge table
+
+ALTER TABLE agent_knowledge ADD chunk_count INT DEFAULT 0;
+ALTER TABLE agent_knowledge ADD embedded_chunk_count INT DEFAULT 0;
+
+COMMENT ON COLUMN agent_knowledge.chunk_count IS '文档已解析的文本块数';
+COMMENT ON COLUMN agent_knowledge.embedded_chunk_count IS '本次新向量化的文本块数，未变化的文本块复用已有向量';
@@ -0,0 +1,6 @@
+-- Migration script: Add composite index for looking up semantic models by table and column during import
+-- Date: 2026-10-19
+-- Database: DaMeng (达梦数据库)
+-- Affects: semantic_model table
+
+CREATE INDEX idx_sm_agent_table_column ON semantic_model(agent_id, table_name, column_name);
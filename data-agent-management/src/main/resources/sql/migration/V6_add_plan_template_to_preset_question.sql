@@ -0,0 +1,13 @@
+-- Migration script: Add precompiled plan template columns to preset questions
+-- Date: 2026-10-19
+-- Database: MySQL (元数据库)
+-- Affects: agent_preset_question table
+
+ALTER TABLE agent_preset_question
+ADD COLUMN plan_template TEXT COMMENT '预编译的执行计划（含已验证的SQL）';
+
+ALTER TABLE agent_preset_question
+ADD COLUMN plan_schema_version VARCHAR(64) COMMENT '生成执行计划时召回Schema的指纹';
+
+ALTER TABLE agent_preset_question
+ADD COLUMN plan_compiled_time TIMESTAMP NULL COMMENT '执行计划预编译时间';
@@ -0,0 +1,12 @@
+-- Migration script: Add precompiled plan template columns to preset questions
+-- Date: 2026-10-19
+-- Database: DaMeng (达梦数据库)
+-- Affects: agent_preset_question table
+
+ALTER TABLE agent_preset_question ADD plan_template CLOB;
+ALTER TABLE agent_preset_question ADD plan_schema_version VARCHAR(64);
+ALTER TABLE agent_preset_question ADD plan_compiled_time TIMESTAMP;
+
+COMMENT ON COLUMN agent_preset_question.plan_template IS '预编译的执行计划（含已验证的SQL）';
+COMMENT ON COLUMN agent_preset_question.plan_schema_version IS '生成执行计划时召回Schema的指纹';
+COMMENT ON COLUMN agent_preset_question.plan_compiled_time IS '执行计划预编译时间';
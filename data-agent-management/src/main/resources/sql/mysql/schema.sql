@@ -84,6 +84,7 @@ CREATE TABLE IF NOT EXISTS `semantic_model` (
   KEY `idx_field_name` (`business_name`) USING BTREE,
   KEY `idx_status` (`status`) USING BTREE,
   KEY `idx_is_deleted` (`is_deleted`) USING BTREE,
+  KEY `idx_agent_table_column` (`agent_id`, `table_name`, `column_name`) USING BTREE,
   CONSTRAINT `fk_semantic_model_agent` FOREIGN KEY (`agent_id`) REFERENCES `agent` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB AUTO_INCREMENT=4 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin ROW_FORMAT=DYNAMIC COMMENT='语义模型表';
 
@@ -99,6 +100,8 @@ CREATE TABLE IF NOT EXISTS `agent_knowledge` (
   `is_recall` int(11) DEFAULT 1 COMMENT '业务状态: 1=召回, 0=非召回',
   `embedding_status` varchar(20) COLLATE utf8mb4_bin DEFAULT NULL COMMENT '向量化状态：PENDING待处理，PROCESSING处理中，COMPLETED已完成，FAILED失败',
   `error_msg` varchar(255) COLLATE utf8mb4_bin DEFAULT NULL COMMENT '操作失败的错误信息',
+  `chunk_count` int(11) DEFAULT 0 COMMENT '文档已解析的文本块数',
+  `embedded_chunk_count` int(11) DEFAULT 0 COMMENT '本次新向量化的文本块数，未变化的文本块复用已有向量',
   `source_filename` varchar(500) COLLATE utf8mb4_bin DEFAULT NULL COMMENT '上传时的原始文件名',
   `file_path` varchar(500) COLLATE utf8mb4_bin DEFAULT NULL COMMENT '文件在服务器上的物理存储路径',
   `file_size` bigint(20) DEFAULT NULL COMMENT '文件大小 (字节)',
@@ -186,6 +189,9 @@ CREATE TABLE IF NOT EXISTS agent_preset_question (
   is_delete TINYINT DEFAULT 0 COMMENT '是否删除：0-未删除，1-已删除',
   create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  plan_template TEXT COMMENT '预编译的执行计划（含已验证的SQL）',
+  plan_schema_version VARCHAR(64) COMMENT '生成执行计划时召回Schema的指纹',
+  plan_compiled_time TIMESTAMP NULL COMMENT '执行计划预编译时间',
   PRIMARY KEY (id),
   INDEX idx_agent_id (agent_id),
   INDEX idx_sort_order (sort_order),
@@ -224,6 +230,7 @@ CREATE TABLE IF NOT EXISTS chat_message (
   create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   PRIMARY KEY (id),
   INDEX idx_session_id (session_id),
+  INDEX idx_session_id_id (session_id, id),
   INDEX idx_role (role),
   INDEX idx_message_type (message_type),
   INDEX idx_create_time (create_time),
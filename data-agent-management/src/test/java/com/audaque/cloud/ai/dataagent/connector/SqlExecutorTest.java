@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.connector;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlExecutorTest {
+
+	private Connection connection;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:sql_executor_test;MODE=MySQL", "sa", "");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE SCHEMA s1");
+			statement.execute("CREATE SCHEMA s2");
+			statement.execute("CREATE TABLE s1.t (v VARCHAR(10))");
+			statement.execute("CREATE TABLE s2.t (v VARCHAR(10))");
+			statement.execute("INSERT INTO s1.t VALUES ('a')");
+			statement.execute("INSERT INTO s2.t VALUES ('b')");
+		}
+	}
+
+	@AfterEach
+	void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	private String queryValue(String schema) throws SQLException {
+		return SqlExecutor.executeSqlAndReturnObject(connection, schema, "SELECT v FROM t")
+			.getData()
+			.get(0)
+			.values()
+			.iterator()
+			.next();
+	}
+
+	@Test
+	@DisplayName("按需切换 schema，切换后再切回仍然查询正确的表")
+	void executeSqlAndReturnObject_shouldSwitchSchemaWhenChanged() throws SQLException {
+		assertEquals("a", queryValue("s1"));
+		assertEquals("b", queryValue("s2"));
+		assertEquals("a", queryValue("s1"));
+		assertTrue(ConnectionSessionState.isApplied(connection, ConnectionSessionState.CURRENT_SCHEMA, "s1"));
+		assertEquals("H2", ConnectionSessionState.driverMetadata(connection).productName());
+	}
+
+	@Test
+	@DisplayName("连接上已生效的 schema 不再重复下发，重置记录后重新下发")
+	void executeSqlAndReturnObject_shouldSkipAppliedSchema() throws SQLException {
+		assertEquals("a", queryValue("s1"));
+		// 绕过 SqlExecutor 切换 schema，已记录为 s1 时不会再执行 use
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SET SCHEMA s2");
+		}
+		assertEquals("b", queryValue("s1"));
+
+		ConnectionSessionState.reset(connection);
+		assertEquals("a", queryValue("s1"));
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.controller;
+
+import com.audaque.cloud.ai.dataagent.properties.FileStorageProperties;
+import com.audaque.cloud.ai.dataagent.service.file.impls.LocalFileStorageServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class FileUploadControllerTest {
+
+	private static final byte[] CHART = "fake png data".getBytes();
+
+	@TempDir
+	Path tempDir;
+
+	private LocalFileStorageServiceImpl storageService;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		FileStorageProperties properties = new FileStorageProperties();
+		properties.setPath(tempDir.toString());
+		properties.setPathPrefix("data-agent");
+		properties.setUrlPrefix("/uploads");
+		storageService = new LocalFileStorageServiceImpl(properties);
+		mockMvc = MockMvcBuilders.standaloneSetup(new FileUploadController(properties, storageService))
+			.addPlaceholderValue("spring.ai.alibaba.data-agent.file.url-prefix", "/uploads")
+			.build();
+	}
+
+	@Test
+	@DisplayName("按 getFileUrl 返回的地址访问内容寻址图表，返回强 ETag 与 immutable 缓存头")
+	void getFile_shouldServeUrlFromGetFileUrl() throws Exception {
+		String url = storageService
+			.getFileUrl(storageService.storeContentAddressedFile(CHART, ".png", "charts"));
+		assertTrue(url.startsWith("/uploads/"));
+
+		MvcResult result = mockMvc.perform(get(url))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+			.andExpect(content().bytes(CHART))
+			.andReturn();
+		String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotNull(etag);
+		assertFalse(etag.startsWith("W/"));
+
+		mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+		mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=0-3"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-3/" + CHART.length))
+			.andExpect(content().bytes("fake".getBytes()));
+	}
+
+	@Test
+	@DisplayName("配置前缀之外的路径和不存在的文件返回 404")
+	void getFile_shouldReturnNotFound() throws Exception {
+		mockMvc.perform(get("/uploads/data-agent/charts/missing.png")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/upload/data-agent/charts/missing.png")).andExpect(status().isNotFound());
+	}
+
+}
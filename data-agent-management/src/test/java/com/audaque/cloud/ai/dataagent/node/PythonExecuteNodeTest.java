@@ -32,6 +32,7 @@ import reactor.core.publisher.Flux;
 
 import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static com.audaque.cloud.ai.dataagent.constant.Constant.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -83,10 +84,10 @@ class PythonExecuteNodeTest {
 
 		CodePoolExecutorService.TaskResponse successResponse = new CodePoolExecutorService.TaskResponse(
 				true, false, pythonOutput, "", null);
-		when(codePoolExecutor.runTask(any())).thenReturn(successResponse);
+		when(codePoolExecutor.submitTask(any(), any())).thenReturn(CompletableFuture.completedFuture(successResponse));
 
 		String expectedUrl = "/api/upload/data-agent/charts/chart_test.png";
-		when(fileStorageService.storeFile(any(byte[].class), anyString(), eq("charts")))
+		when(fileStorageService.storeContentAddressedFile(any(byte[].class), eq(".png"), eq("charts")))
 				.thenReturn("data-agent/charts/chart_test.png");
 		when(fileStorageService.getFileUrl("data-agent/charts/chart_test.png"))
 				.thenReturn(expectedUrl);
@@ -110,7 +111,7 @@ class PythonExecuteNodeTest {
 		assertNotNull(stateData, "Done response should have result data");
 
 		// Verify file storage was called
-		verify(fileStorageService).storeFile(any(byte[].class), anyString(), eq("charts"));
+		verify(fileStorageService).storeContentAddressedFile(any(byte[].class), eq(".png"), eq("charts"));
 		verify(fileStorageService).getFileUrl("data-agent/charts/chart_test.png");
 
 		// Verify the output JSON contains URL instead of base64
@@ -137,10 +138,10 @@ class PythonExecuteNodeTest {
 
 		CodePoolExecutorService.TaskResponse successResponse = new CodePoolExecutorService.TaskResponse(
 				true, false, pythonOutput, "", null);
-		when(codePoolExecutor.runTask(any())).thenReturn(successResponse);
+		when(codePoolExecutor.submitTask(any(), any())).thenReturn(CompletableFuture.completedFuture(successResponse));
 
 		// Storage throws exception
-		when(fileStorageService.storeFile(any(byte[].class), anyString(), anyString()))
+		when(fileStorageService.storeContentAddressedFile(any(byte[].class), anyString(), anyString()))
 				.thenThrow(new RuntimeException("Disk full"));
 
 		// Act
@@ -178,7 +179,7 @@ class PythonExecuteNodeTest {
 
 		CodePoolExecutorService.TaskResponse successResponse = new CodePoolExecutorService.TaskResponse(
 				true, false, pythonOutput, "", null);
-		when(codePoolExecutor.runTask(any())).thenReturn(successResponse);
+		when(codePoolExecutor.submitTask(any(), any())).thenReturn(CompletableFuture.completedFuture(successResponse));
 
 		// Act
 		Map<String, Object> result = node.apply(state);
@@ -193,7 +194,7 @@ class PythonExecuteNodeTest {
 		assertNotNull(doneResponse);
 
 		// Verify file storage was NOT called
-		verify(fileStorageService, never()).storeFile(any(byte[].class), anyString(), anyString());
+		verify(fileStorageService, never()).storeContentAddressedFile(any(byte[].class), anyString(), anyString());
 	}
 
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.agent;
+
+import com.audaque.cloud.ai.dataagent.entity.Agent;
+import com.audaque.cloud.ai.dataagent.entity.AgentDatasource;
+import com.audaque.cloud.ai.dataagent.enums.AgentReadiness;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.datasource.AgentDatasourceService;
+import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AgentStartupInitializationTest {
+
+	private AgentService agentService;
+
+	private AgentVectorStoreService vectorStoreService;
+
+	private AgentDatasourceService agentDatasourceService;
+
+	private ExecutorService executorService;
+
+	private DataAgentProperties properties;
+
+	private AgentStartupInitialization initialization;
+
+	@BeforeEach
+	void setUp() {
+		agentService = mock(AgentService.class);
+		vectorStoreService = mock(AgentVectorStoreService.class);
+		agentDatasourceService = mock(AgentDatasourceService.class);
+		executorService = Executors.newSingleThreadExecutor();
+		properties = new DataAgentProperties();
+		properties.setAgentInitParallelism(8);
+		properties.setAgentInitParallelismPerDatasource(2);
+		initialization = new AgentStartupInitialization(agentService, vectorStoreService, agentDatasourceService,
+				executorService, properties);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	private static Agent agent(long id) {
+		Agent agent = new Agent();
+		agent.setId(id);
+		agent.setName("agent-" + id);
+		return agent;
+	}
+
+	private static AgentDatasource datasource(int datasourceId, List<String> tables) {
+		AgentDatasource datasource = new AgentDatasource(0, datasourceId);
+		datasource.setSelectTables(tables);
+		return datasource;
+	}
+
+	private void awaitCompleted() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!initialization.isCompleted() && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertTrue(initialization.isCompleted());
+	}
+
+	@Test
+	@DisplayName("并行初始化已发布智能体，同一数据源的并发数不超过上限并记录就绪状态")
+	void shouldInitializeInParallelWithPerDatasourceLimit() throws Exception {
+		when(agentService.findByStatus("published"))
+			.thenReturn(List.of(agent(1), agent(2), agent(3), agent(4), agent(5), agent(6), agent(7)));
+		when(vectorStoreService.hasDocuments("1")).thenReturn(true);
+		when(vectorStoreService.hasDocuments(argThat(id -> !"1".equals(id)))).thenReturn(false);
+		for (int id = 2; id <= 5; id++) {
+			when(agentDatasourceService.getCurrentAgentDatasource(id)).thenReturn(datasource(10, List.of("orders")));
+		}
+		when(agentDatasourceService.getCurrentAgentDatasource(6)).thenReturn(datasource(20, List.of("users")));
+		when(agentDatasourceService.getCurrentAgentDatasource(7)).thenReturn(datasource(30, List.of()));
+
+		Map<Integer, AtomicInteger> running = new ConcurrentHashMap<>();
+		Map<Integer, AtomicInteger> maxRunning = new ConcurrentHashMap<>();
+		when(agentDatasourceService.initializeSchemaForAgentWithDatasource(anyLong(), anyInt(), anyList()))
+			.thenAnswer(invocation -> {
+				Long agentId = invocation.getArgument(0);
+				Integer datasourceId = invocation.getArgument(1);
+				int current = running.computeIfAbsent(datasourceId, k -> new AtomicInteger()).incrementAndGet();
+				maxRunning.computeIfAbsent(datasourceId, k -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+				Thread.sleep(100);
+				running.get(datasourceId).decrementAndGet();
+				return agentId != 5L;
+			});
+
+		initialization.run(null);
+		awaitCompleted();
+
+		assertEquals(2, maxRunning.get(10).get());
+		assertEquals(AgentReadiness.READY, initialization.getReadiness(1L));
+		assertEquals(AgentReadiness.READY, initialization.getReadiness(2L));
+		assertEquals(AgentReadiness.FAILED, initialization.getReadiness(5L));
+		assertEquals(AgentReadiness.READY, initialization.getReadiness(6L));
+		assertEquals(AgentReadiness.FAILED, initialization.getReadiness(7L));
+		assertEquals(AgentReadiness.UNKNOWN, initialization.getReadiness(99L));
+		assertEquals(5, initialization.getReadinessCounts().get(AgentReadiness.READY));
+		assertEquals(2, initialization.getReadinessCounts().get(AgentReadiness.FAILED));
+		// 已有向量数据的智能体只做一次存在性检查，不再查询数据源
+		verify(vectorStoreService, times(1)).hasDocuments("1");
+		verify(agentDatasourceService, never()).getCurrentAgentDatasource(1);
+	}
+
+	@Test
+	@DisplayName("没有已发布智能体时直接完成")
+	void shouldCompleteWhenNoPublishedAgents() throws Exception {
+		when(agentService.findByStatus("published")).thenReturn(List.of());
+
+		initialization.run(null);
+		awaitCompleted();
+
+		assertTrue(initialization.getReadinessSnapshot().isEmpty());
+		verifyNoInteractions(vectorStoreService, agentDatasourceService);
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.aimodelconfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QwenEmbeddingModelTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+	private final RetryTemplate retryTemplate = RetryTemplate.builder()
+		.maxAttempts(3)
+		.fixedBackoff(1)
+		.retryOn(TransientAiException.class)
+		.build();
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	private static List<String> texts(int count) {
+		return IntStream.range(0, count).mapToObj(String::valueOf).toList();
+	}
+
+	@Test
+	@DisplayName("子批次并发请求且不超过提供商并发上限，结果按输入顺序拼接")
+	void shouldDispatchSubBatchesConcurrentlyAndKeepOrder() {
+		FakeQwenModel delegate = new FakeQwenModel();
+		QwenEmbeddingModel model = new QwenEmbeddingModel(delegate, executor, retryTemplate);
+
+		List<float[]> embeddings = model.embed(texts(50));
+
+		assertEquals(50, embeddings.size());
+		for (int i = 0; i < 50; i++) {
+			assertEquals(i, embeddings.get(i)[0]);
+		}
+		assertEquals(7, delegate.calls.get());
+		assertTrue(delegate.maxInFlight.get() > 1);
+		assertTrue(delegate.maxInFlight.get() <= 3);
+	}
+
+	@Test
+	@DisplayName("文档向量化时全部批次一起并发，单个子批次失败后独立重试")
+	void shouldRetryFailedSubBatchOnly() {
+		FakeQwenModel delegate = new FakeQwenModel();
+		delegate.transientFailures.put("16", 2);
+		QwenEmbeddingModel model = new QwenEmbeddingModel(delegate, executor, retryTemplate);
+		List<Document> documents = texts(30).stream().map(text -> new Document(text, Map.of())).toList();
+
+		List<float[]> embeddings = model.embed(documents, null, new TokenCountBatchingStrategy());
+
+		assertEquals(30, embeddings.size());
+		assertEquals(16, embeddings.get(16)[0]);
+		// 4 个子批次，失败的子批次额外请求 2 次
+		assertEquals(6, delegate.calls.get());
+	}
+
+	@Test
+	@DisplayName("不可重试的错误直接抛出")
+	void shouldPropagateNonTransientFailure() {
+		FakeQwenModel delegate = new FakeQwenModel();
+		delegate.fatalText = "9";
+		QwenEmbeddingModel model = new QwenEmbeddingModel(delegate, executor, retryTemplate);
+
+		assertThrows(NonTransientAiException.class, () -> model.embed(texts(20)));
+	}
+
+	/**
+	 * 以文本数值作为向量，并模拟 Qwen 返回不连续 index 的问题
+	 */
+	private static final class FakeQwenModel implements EmbeddingModel {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		private final Map<String, Integer> transientFailures = new ConcurrentHashMap<>();
+
+		private volatile String fatalText;
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			return embedForResponse(request.getInstructions());
+		}
+
+		@Override
+		public EmbeddingResponse embedForResponse(List<String> texts) {
+			calls.incrementAndGet();
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+				if (texts.contains(fatalText)) {
+					throw new NonTransientAiException("invalid input");
+				}
+				for (String text : texts) {
+					if (transientFailures.computeIfPresent(text, (key, left) -> left - 1) != null
+							&& transientFailures.get(text) >= 0) {
+						throw new TransientAiException("429 Too Many Requests");
+					}
+				}
+				List<Embedding> results = new ArrayList<>();
+				for (int i = 0; i < texts.size(); i++) {
+					results.add(new Embedding(new float[] { Float.parseFloat(texts.get(i)) }, i * 2));
+				}
+				return new EmbeddingResponse(results);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+			finally {
+				inFlight.decrementAndGet();
+			}
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
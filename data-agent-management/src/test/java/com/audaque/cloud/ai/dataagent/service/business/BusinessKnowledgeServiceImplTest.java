@@ -0,0 +1,154 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.business;
+
+import com.audaque.cloud.ai.dataagent.converter.BusinessKnowledgeConverter;
+import com.audaque.cloud.ai.dataagent.entity.BusinessKnowledge;
+import com.audaque.cloud.ai.dataagent.event.BusinessKnowledgeBatchDeletionEvent;
+import com.audaque.cloud.ai.dataagent.mapper.BusinessKnowledgeMapper;
+import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
+import com.audaque.cloud.ai.dataagent.util.DocumentConverterUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.document.Document;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BusinessKnowledgeServiceImplTest {
+
+	private BusinessKnowledgeMapper mapper;
+
+	private AgentVectorStoreService vectorStoreService;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	private BusinessKnowledgeServiceImpl service;
+
+	// 模拟向量库中当前智能体的业务知识向量ID
+	private final Set<String> storedIds = new HashSet<>();
+
+	private final List<List<Document>> batches = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		mapper = mock(BusinessKnowledgeMapper.class);
+		vectorStoreService = mock(AgentVectorStoreService.class);
+		eventPublisher = mock(ApplicationEventPublisher.class);
+		when(vectorStoreService.getDocumentIdsByMetadata(eq("1"), anyMap()))
+			.thenAnswer(invocation -> new HashSet<>(storedIds));
+		doAnswer(invocation -> {
+			List<Document> documents = invocation.getArgument(1);
+			batches.add(documents);
+			documents.forEach(document -> storedIds.add(document.getId()));
+			return CompletableFuture.completedFuture(null);
+		}).when(vectorStoreService).addDocuments(eq("1"), anyList());
+		doAnswer(invocation -> {
+			List<String> ids = invocation.getArgument(1);
+			ids.forEach(storedIds::remove);
+			return CompletableFuture.completedFuture(null);
+		}).when(vectorStoreService).deleteDocumentsByIds(eq("1"), anyList());
+		// 每批最多 2 条业务知识
+		service = new BusinessKnowledgeServiceImpl(mapper, vectorStoreService, mock(BusinessKnowledgeConverter.class),
+				eventPublisher, documents -> {
+					List<List<Document>> result = new ArrayList<>();
+					for (int i = 0; i < documents.size(); i += 2) {
+						result.add(documents.subList(i, Math.min(i + 2, documents.size())));
+					}
+					return result;
+				});
+	}
+
+	private static BusinessKnowledge knowledge(long id, String term, String description) {
+		BusinessKnowledge knowledge = new BusinessKnowledge();
+		knowledge.setId(id);
+		knowledge.setAgentId(1L);
+		knowledge.setBusinessTerm(term);
+		knowledge.setDescription(description);
+		knowledge.setIsRecall(1);
+		return knowledge;
+	}
+
+	@Test
+	@DisplayName("刷新向量库时只向量化内容变化的业务知识，并删除过期向量")
+	void refreshAllKnowledgeToVectorStore_shouldOnlyEmbedChangedKnowledge() throws Exception {
+		List<BusinessKnowledge> initial = List.of(knowledge(1, "GMV", "成交总额"), knowledge(2, "DAU", "日活跃用户数"),
+				knowledge(3, "ARPU", "每用户平均收入"));
+		when(mapper.selectRecalledByAgentId(1L)).thenReturn(initial);
+
+		service.refreshAllKnowledgeToVectorStore("1");
+
+		assertEquals(3, storedIds.size());
+		assertEquals(2, batches.size());
+		verify(mapper, never()).selectAll();
+
+		// 修改一条、删除一条、新增一条
+		batches.clear();
+		List<BusinessKnowledge> updated = List.of(knowledge(1, "GMV", "成交总额"), knowledge(2, "DAU", "每日活跃用户数"),
+				knowledge(4, "UV", "独立访客数"));
+		when(mapper.selectRecalledByAgentId(1L)).thenReturn(updated);
+
+		service.refreshAllKnowledgeToVectorStore("1");
+
+		assertEquals(1, batches.size());
+		assertEquals(2, batches.get(0).size());
+		Set<String> expected = new HashSet<>();
+		updated.forEach(k -> expected.add(DocumentConverterUtil.convertBusinessKnowledgeToDocument(k).getId()));
+		assertEquals(expected, storedIds);
+		verify(vectorStoreService, never()).deleteDocumentsByVectorType(anyString(), anyString());
+	}
+
+	@Test
+	@DisplayName("向量写入失败时刷新抛出原始异常，且不删除过期向量")
+	void refreshAllKnowledgeToVectorStore_shouldPropagateWriteFailure() {
+		storedIds.add("stale");
+		when(mapper.selectRecalledByAgentId(1L)).thenReturn(List.of(knowledge(1, "GMV", "成交总额")));
+		doReturn(CompletableFuture.failedFuture(new IllegalStateException("embedding failed"))).when(vectorStoreService)
+			.addDocuments(eq("1"), anyList());
+
+		IllegalStateException error = assertThrows(IllegalStateException.class,
+				() -> service.refreshAllKnowledgeToVectorStore("1"));
+		assertEquals("embedding failed", error.getMessage());
+		verify(vectorStoreService, never()).deleteDocumentsByIds(anyString(), anyList());
+	}
+
+	@Test
+	@DisplayName("批量删除只发布一个批量删除事件")
+	void batchDelete_shouldPublishSingleEvent() {
+		when(mapper.batchDeleteByIds(1L, List.of(1L, 2L, 3L))).thenReturn(3);
+
+		assertEquals(3, service.batchDelete(1L, List.of(1L, 2L, 3L)));
+
+		ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+		verify(eventPublisher, times(1)).publishEvent(captor.capture());
+		BusinessKnowledgeBatchDeletionEvent event = assertInstanceOf(BusinessKnowledgeBatchDeletionEvent.class,
+				captor.getValue());
+		assertEquals(1L, event.getAgentId());
+		assertEquals(List.of(1L, 2L, 3L), event.getKnowledgeIds());
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.chat;
+
+import com.audaque.cloud.ai.dataagent.entity.ChatMessage;
+import com.audaque.cloud.ai.dataagent.mapper.ChatMessageMapper;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.vo.ChatMessagePageVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class ChatMessageServiceImplTest {
+
+	private ChatMessageMapper mapper;
+
+	private DataAgentProperties properties;
+
+	private ChatMessageServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		mapper = mock(ChatMessageMapper.class);
+		properties = new DataAgentProperties();
+		service = new ChatMessageServiceImpl(mapper, properties);
+	}
+
+	@Test
+	@DisplayName("向前翻页多查一条判断是否还有更多，并将降序结果转换为升序")
+	void shouldReturnLatestPageInAscendingOrder() {
+		when(mapper.selectPageBySessionId(eq("s1"), isNull(), isNull(), eq(3), anyInt()))
+			.thenReturn(List.of(message(10L), message(9L), message(8L)));
+
+		ChatMessagePageVO page = service.findPageBySessionId("s1", null, null, 2);
+
+		assertEquals(List.of(9L, 10L), page.getMessages().stream().map(ChatMessage::getId).toList());
+		assertTrue(page.getHasMore());
+		assertEquals(9L, page.getFirstId());
+		assertEquals(10L, page.getLastId());
+	}
+
+	@Test
+	@DisplayName("向后拉取保持升序，没有更多时 hasMore 为 false，空页保留原游标")
+	void shouldReturnNewerMessagesAfterCursor() {
+		when(mapper.selectPageBySessionId(eq("s1"), isNull(), eq(10L), anyInt(), anyInt()))
+			.thenReturn(List.of(message(11L), message(12L)));
+		ChatMessagePageVO page = service.findPageBySessionId("s1", null, 10L, 5);
+		assertEquals(List.of(11L, 12L), page.getMessages().stream().map(ChatMessage::getId).toList());
+		assertFalse(page.getHasMore());
+
+		when(mapper.selectPageBySessionId(eq("s1"), eq(1L), isNull(), anyInt(), anyInt())).thenReturn(List.of());
+		ChatMessagePageVO empty = service.findPageBySessionId("s1", 1L, null, 5);
+		assertTrue(empty.getMessages().isEmpty());
+		assertEquals(1L, empty.getFirstId());
+	}
+
+	@Test
+	@DisplayName("单页条数受上限约束，前后游标不能同时使用")
+	void shouldClampPageSizeAndRejectBothCursors() {
+		properties.setMaxMessagePageSize(20);
+		when(mapper.selectPageBySessionId(any(), any(), any(), anyInt(), anyInt())).thenReturn(List.of());
+		service.findPageBySessionId("s1", null, null, 1000);
+		verify(mapper).selectPageBySessionId("s1", null, null, 21, properties.getMaxInlineMessageContentLength());
+
+		assertThrows(IllegalArgumentException.class, () -> service.findPageBySessionId("s1", 1L, 2L, 10));
+	}
+
+	@Test
+	@DisplayName("获取单条完整消息时校验所属会话")
+	void shouldCheckSessionWhenFindingSingleMessage() {
+		ChatMessage stored = message(5L);
+		when(mapper.selectById(5L)).thenReturn(stored);
+		assertSame(stored, service.findById("s1", 5L));
+		assertNull(service.findById("other", 5L));
+	}
+
+	private static ChatMessage message(Long id) {
+		return ChatMessage.builder().id(id).sessionId("s1").role("user").content("q" + id).messageType("text").build();
+	}
+
+}
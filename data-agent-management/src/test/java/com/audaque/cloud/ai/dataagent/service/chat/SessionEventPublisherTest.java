@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.chat;
+
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.vo.SessionUpdateEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionEventPublisherTest {
+
+	private SessionEventPublisher publisher;
+
+	@BeforeEach
+	void setUp() {
+		DataAgentProperties properties = new DataAgentProperties();
+		properties.getSse().setSessionSinkIdleMinutes(0);
+		publisher = new SessionEventPublisher(properties);
+	}
+
+	@Test
+	@DisplayName("有订阅者时保留 Sink 并推送事件，全部断开且空闲超时后回收")
+	void evictsSinkOnlyAfterAllSubscribersLeave() {
+		List<ServerSentEvent<SessionUpdateEvent>> received = new ArrayList<>();
+		Disposable first = publisher.register(1).subscribe(received::add);
+		Disposable second = publisher.register(1).subscribe();
+
+		publisher.publishTitleUpdated(1, "s1", "标题");
+		assertEquals(1, received.size());
+		assertEquals("s1", received.get(0).data().getSessionId());
+
+		first.dispose();
+		publisher.evictIdleSinks();
+		assertEquals(1, publisher.sinkCount());
+
+		second.dispose();
+		publisher.evictIdleSinks();
+		assertEquals(0, publisher.sinkCount());
+	}
+
+}
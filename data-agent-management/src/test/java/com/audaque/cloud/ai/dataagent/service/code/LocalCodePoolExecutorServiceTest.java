@@ -29,6 +29,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.util.StringUtils;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -125,6 +127,85 @@ public class LocalCodePoolExecutorServiceTest {
 				|| (response.executionSuccessButResultFailed() && response.toString().contains("ModuleNotFoundError"));
 	}
 
+	@Test
+	@DisplayName("Worker复用时任务之间的命名空间相互隔离")
+	public void testWorkerNamespaceIsolation() {
+		CodePoolExecutorService.TaskResponse first = codePoolExecutorService
+			.runTask(new CodePoolExecutorService.TaskRequest("leaked = 42\nprint(leaked)", "", null));
+		Assertions.assertTrue(first.isSuccess());
+		Assertions.assertTrue(first.stdOut().contains("42"));
+
+		for (int i = 0; i < properties.getCoreContainerNum() + 1; i++) {
+			CodePoolExecutorService.TaskResponse next = codePoolExecutorService
+				.runTask(new CodePoolExecutorService.TaskRequest("print(leaked)", "", null));
+			Assertions.assertTrue(next.executionSuccessButResultFailed());
+			Assertions.assertTrue(next.stdErr().contains("NameError"));
+		}
+	}
+
+	@Test
+	@DisplayName("Worker复用时任务修改的builtins、sys.path和环境变量不泄漏到后续任务")
+	public void testWorkerGlobalStateIsolation() {
+		CodePoolExecutorService.TaskResponse first = codePoolExecutorService
+			.runTask(new CodePoolExecutorService.TaskRequest("""
+					import builtins, os, sys
+					builtins.leaked = 42
+					sys.path.append('/leaked')
+					os.environ['DATAAGENT_LEAKED'] = '1'
+					print('patched')
+					""", "", null));
+		Assertions.assertTrue(first.isSuccess(), first.toString());
+
+		for (int i = 0; i < properties.getCoreContainerNum() + 1; i++) {
+			CodePoolExecutorService.TaskResponse next = codePoolExecutorService
+				.runTask(new CodePoolExecutorService.TaskRequest("""
+						import builtins, os, sys
+						print(hasattr(builtins, 'leaked'), '/leaked' in sys.path, 'DATAAGENT_LEAKED' in os.environ)
+						""", "", null));
+			Assertions.assertTrue(next.isSuccess(), next.toString());
+			Assertions.assertTrue(next.stdOut().contains("False False False"), next.toString());
+		}
+	}
+
+	@Test
+	@DisplayName("Worker达到任务数上限后回收重建且不影响后续任务")
+	public void testWorkerRecycle() {
+		this.properties.getLocal().setMaxTasksPerWorker(1);
+		try {
+			for (int i = 0; i < 3; i++) {
+				CodePoolExecutorService.TaskResponse response = codePoolExecutorService
+					.runTask(new CodePoolExecutorService.TaskRequest(CodeTestConstant.NORMAL_CODE, "", null));
+				Assertions.assertTrue(response.isSuccess());
+				Assertions.assertTrue(response.stdOut().contains("3628800"));
+			}
+		}
+		finally {
+			this.properties.getLocal().setMaxTasksPerWorker(100);
+		}
+	}
+
+	@Test
+	@DisplayName("结果集以列式文件交给Python并按列类型加载")
+	public void testColumnarDataHandoff() {
+		List<Map<String, String>> rows = List.of(Map.of("region", "华东", "amount", "10"),
+				Map.of("region", "华北", "amount", "32"));
+		String code = """
+				from dataagent_io import load_input_records
+				records = load_input_records()
+				print(sum(r["amount"] for r in records), records[1]["region"])
+				""";
+		CodePoolExecutorService.TaskResponse response = codePoolExecutorService
+			.runTask(new CodePoolExecutorService.TaskRequest(code, "", null, rows));
+		Assertions.assertTrue(response.isSuccess(), response.toString());
+		Assertions.assertTrue(response.stdOut().contains("42 华北"));
+
+		// 没有列式数据时退化为从 stdin 读取 JSON
+		response = codePoolExecutorService.runTask(new CodePoolExecutorService.TaskRequest(code,
+				"[{\"region\": \"a\", \"amount\": 1}, {\"region\": \"b\", \"amount\": 2}]", null));
+		Assertions.assertTrue(response.isSuccess(), response.toString());
+		Assertions.assertTrue(response.stdOut().contains("3 b"));
+	}
+
 	@Test
 	@DisplayName("Concurrency Testing")
 	public void testConcurrency() throws InterruptedException {
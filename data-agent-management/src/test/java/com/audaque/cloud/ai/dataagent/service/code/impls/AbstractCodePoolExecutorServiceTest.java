@@ -0,0 +1,238 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.code.impls;
+
+import com.audaque.cloud.ai.dataagent.properties.CodeExecutorProperties;
+import com.audaque.cloud.ai.dataagent.service.code.CodePoolExecutorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbstractCodePoolExecutorServiceTest {
+
+	private FakePool pool;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (pool != null) {
+			pool.shutdownPool();
+		}
+	}
+
+	private static CodeExecutorProperties properties(int maxExecutions) {
+		CodeExecutorProperties properties = new CodeExecutorProperties();
+		properties.setCoreContainerNum(2);
+		properties.setTempContainerNum(1);
+		properties.setMaxExecutionsPerContainer(maxExecutions);
+		properties.setHealthCheckIntervalSeconds(1L);
+		return properties;
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+
+	@Test
+	@DisplayName("预热在后台创建核心容器，任务直接使用就绪容器")
+	void testWarmUp() throws Exception {
+		pool = new FakePool(properties(0));
+		pool.warmUpCoreContainers();
+		await(() -> pool.readyCoreContainer.size() == 2);
+
+		assertTrue(pool.runTask(new CodePoolExecutorService.TaskRequest("print(1)", "", null)).isSuccess());
+		assertEquals(2, pool.created.get());
+	}
+
+	@Test
+	@DisplayName("容器达到执行次数上限后回收并在后台补充")
+	void testRecycleAfterMaxExecutions() throws Exception {
+		pool = new FakePool(properties(2));
+		pool.warmUpCoreContainers();
+		await(() -> pool.readyCoreContainer.size() == 2);
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(pool.runTask(new CodePoolExecutorService.TaskRequest("print(1)", "", null)).isSuccess());
+		}
+		await(() -> pool.removed.size() == 2 && pool.readyCoreContainer.size() == 2);
+		assertEquals(4, pool.created.get());
+		assertEquals(2, pool.currentCoreContainerSize.get());
+	}
+
+	@Test
+	@DisplayName("健康检查替换不可用的空闲核心容器")
+	void testHealthCheckReplacesUnhealthyContainer() throws Exception {
+		pool = new FakePool(properties(0));
+		pool.warmUpCoreContainers();
+		await(() -> pool.readyCoreContainer.size() == 2);
+		String broken = pool.readyCoreContainer.peek();
+		pool.unhealthy.add(broken);
+
+		await(() -> pool.removed.contains(broken) && pool.readyCoreContainer.size() == 2);
+		assertFalse(pool.readyCoreContainer.contains(broken));
+		assertNotEquals(2, pool.created.get());
+	}
+
+	@Test
+	@DisplayName("排队任务按智能体轮询调度，单个智能体的大量任务不会阻塞其他智能体")
+	void testFairSchedulingAcrossAgents() throws Exception {
+		pool = new FakePool(properties(0));
+		pool.permits = new Semaphore(0);
+		// 两个核心容器和一个临时容器全部被智能体 a 占用
+		for (int i = 0; i < 3; i++) {
+			pool.submitTask("a", request("a" + i));
+		}
+		await(() -> pool.executed.size() == 3);
+		for (int i = 3; i < 7; i++) {
+			pool.submitTask("a", request("a" + i));
+		}
+		CompletableFuture<CodePoolExecutorService.TaskResponse> b1 = pool.submitTask("b", request("b1"));
+		assertEquals(5, pool.getPendingTaskCount());
+
+		// 每次只放行一个任务，观察空出的容器被分配给哪个任务
+		for (int expected = 4; expected <= 8; expected++) {
+			pool.permits.release();
+			int size = expected;
+			await(() -> pool.executed.size() == size);
+		}
+		pool.permits.release(Integer.MAX_VALUE / 2);
+
+		assertEquals(List.of("a0", "a1", "a2", "a3", "b1", "a4", "a5", "a6"), pool.executed);
+		assertTrue(b1.get(5, TimeUnit.SECONDS).isSuccess());
+	}
+
+	@Test
+	@DisplayName("排队任务超过总数或单个智能体上限时直接拒绝")
+	void testRejectWhenQueueFull() throws Exception {
+		CodeExecutorProperties properties = properties(0);
+		properties.setMaxPendingTasks(2);
+		properties.setMaxPendingTasksPerAgent(1);
+		pool = new FakePool(properties);
+		pool.permits = new Semaphore(0);
+		pool.submitTask("x", request("x0"));
+		pool.submitTask("y", request("y0"));
+		pool.submitTask("z", request("z0"));
+		await(() -> pool.executed.size() == 3);
+
+		CompletableFuture<CodePoolExecutorService.TaskResponse> a1 = pool.submitTask("a", request("a1"));
+		CodePoolExecutorService.TaskResponse a2 = pool.submitTask("a", request("a2")).get(1, TimeUnit.SECONDS);
+		CompletableFuture<CodePoolExecutorService.TaskResponse> b1 = pool.submitTask("b", request("b1"));
+		CodePoolExecutorService.TaskResponse c1 = pool.submitTask("c", request("c1")).get(1, TimeUnit.SECONDS);
+
+		assertFalse(a2.isSuccess());
+		assertTrue(a2.exceptionMsg().contains("queue is full"));
+		assertFalse(c1.isSuccess());
+		assertEquals(2, pool.getPendingTaskCount());
+
+		pool.permits.release(Integer.MAX_VALUE / 2);
+		assertTrue(a1.get(5, TimeUnit.SECONDS).isSuccess());
+		assertTrue(b1.get(5, TimeUnit.SECONDS).isSuccess());
+	}
+
+	@Test
+	@DisplayName("排队超过期限仍未获得容器的任务返回失败且不再执行")
+	void testQueueTimeout() throws Exception {
+		CodeExecutorProperties properties = properties(0);
+		properties.setTaskQueueTimeoutSeconds(1L);
+		pool = new FakePool(properties);
+		pool.permits = new Semaphore(0);
+		pool.submitTask("x", request("x0"));
+		pool.submitTask("x", request("x1"));
+		pool.submitTask("x", request("x2"));
+		await(() -> pool.executed.size() == 3);
+
+		CodePoolExecutorService.TaskResponse response = pool.submitTask("a", request("a1"))
+			.get(5, TimeUnit.SECONDS);
+
+		assertFalse(response.isSuccess());
+		assertTrue(response.exceptionMsg().contains("Timed out"));
+		assertEquals(0, pool.getPendingTaskCount());
+		pool.permits.release(Integer.MAX_VALUE / 2);
+		Thread.sleep(200);
+		assertFalse(pool.executed.contains("a1"));
+	}
+
+	private static CodePoolExecutorService.TaskRequest request(String code) {
+		return new CodePoolExecutorService.TaskRequest(code, "", null);
+	}
+
+	static class FakePool extends AbstractCodePoolExecutorService {
+
+		final AtomicInteger created = new AtomicInteger();
+
+		final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+		final Set<String> unhealthy = ConcurrentHashMap.newKeySet();
+
+		final List<String> executed = new CopyOnWriteArrayList<>();
+
+		// 不为 null 时每个任务都需要获取许可才能结束，用于模拟容器被占用
+		volatile Semaphore permits;
+
+		FakePool(CodeExecutorProperties properties) {
+			super(properties);
+		}
+
+		@Override
+		protected String createNewContainer() {
+			return "container-" + created.incrementAndGet();
+		}
+
+		@Override
+		protected TaskResponse execTaskInContainer(TaskRequest request, String containerId) {
+			executed.add(request.code());
+			Semaphore current = permits;
+			if (current != null) {
+				current.acquireUninterruptibly();
+			}
+			return TaskResponse.success(containerId);
+		}
+
+		@Override
+		protected void stopContainer(String containerId) {
+		}
+
+		@Override
+		protected void removeContainer(String containerId) {
+			removed.add(containerId);
+		}
+
+		@Override
+		protected boolean isContainerHealthy(String containerId) {
+			return !unhealthy.contains(containerId);
+		}
+
+	}
+
+}
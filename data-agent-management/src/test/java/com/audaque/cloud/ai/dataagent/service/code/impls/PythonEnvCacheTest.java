@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.code.impls;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PythonEnvCacheTest {
+
+	@TempDir
+	Path root;
+
+	@Test
+	@DisplayName("requirements规范化忽略顺序、注释、大小写和分隔符差异")
+	void testNormalize() {
+		String a = PythonEnvCache.normalize("Scikit_Learn>=1.0\n# comment\n\nopenpyxl  # excel\n");
+		String b = PythonEnvCache.normalize("openpyxl\nscikit-learn >= 1.0\nopenpyxl");
+		assertEquals("openpyxl\nscikit-learn>=1.0", a);
+		assertEquals(a, b);
+		assertEquals(PythonEnvCache.key(a), PythonEnvCache.key(b));
+		assertEquals("", PythonEnvCache.normalize(" # only comment\n"));
+	}
+
+	@Test
+	@DisplayName("相同依赖并发获取时只构建一次")
+	void testBuildOnce() throws Exception {
+		AtomicInteger builds = new AtomicInteger();
+		CountDownLatch building = new CountDownLatch(1);
+		PythonEnvCache cache = new PythonEnvCache(root, 5, 1024, 60, (envDir, requirementsFile) -> {
+			builds.incrementAndGet();
+			building.await(5, TimeUnit.SECONDS);
+			Files.writeString(envDir.resolve("pkg.py"), "x = 1");
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Path>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(executor.submit(() -> {
+					try (PythonEnvCache.Lease lease = cache.acquire("openpyxl")) {
+						return lease.dir();
+					}
+				}));
+			}
+			Thread.sleep(200);
+			building.countDown();
+			for (Future<Path> future : futures) {
+				Path dir = future.get(5, TimeUnit.SECONDS);
+				assertTrue(Files.exists(dir.resolve("pkg.py")));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, builds.get());
+		assertNull(cache.acquire("  \n"));
+	}
+
+	@Test
+	@DisplayName("超出数量上限时淘汰最久未使用且未被引用的环境")
+	void testLruEviction() throws Exception {
+		PythonEnvCache cache = new PythonEnvCache(root, 2, 1024, 60, (envDir, requirementsFile) -> {
+		});
+		PythonEnvCache.Lease inUse = cache.acquire("a");
+		cache.acquire("b").close();
+		Thread.sleep(5);
+		cache.acquire("c").close();
+
+		// a 仍被引用，淘汰的是 b
+		assertEquals(2, cache.snapshot().size());
+		assertTrue(cache.snapshot().containsKey(inUse.key()));
+		assertFalse(cache.snapshot().containsKey(PythonEnvCache.key(PythonEnvCache.normalize("b"))));
+		inUse.close();
+	}
+
+	@Test
+	@DisplayName("构建失败后在失败记录有效期内直接失败，不重复构建")
+	void testFailureIsRemembered() throws Exception {
+		AtomicInteger builds = new AtomicInteger();
+		PythonEnvCache cache = new PythonEnvCache(root, 5, 1024, 60, (envDir, requirementsFile) -> {
+			builds.incrementAndGet();
+			throw new IllegalStateException("no matching distribution");
+		});
+		assertThrows(IllegalStateException.class, () -> cache.acquire("missing"));
+		IllegalStateException error = assertThrows(IllegalStateException.class, () -> cache.acquire("Missing"));
+		assertTrue(error.getMessage().contains("no matching distribution"));
+		assertEquals(1, builds.get());
+
+		PythonEnvCache noTtl = new PythonEnvCache(root, 5, 1024, 0, (envDir, requirementsFile) -> {
+			builds.incrementAndGet();
+			throw new IllegalStateException("no matching distribution");
+		});
+		assertThrows(IllegalStateException.class, () -> noTtl.acquire("missing"));
+		assertThrows(IllegalStateException.class, () -> noTtl.acquire("missing"));
+		assertEquals(3, builds.get());
+	}
+
+	@Test
+	@DisplayName("构建失败时清理临时目录，重启后加载已构建的环境")
+	void testFailureAndReload() throws Exception {
+		PythonEnvCache failing = new PythonEnvCache(root, 5, 1024, 60, (envDir, requirementsFile) -> {
+			throw new IllegalStateException("no matching distribution");
+		});
+		assertThrows(IllegalStateException.class, () -> failing.acquire("missing"));
+		try (var files = Files.list(root)) {
+			assertEquals(0, files.count());
+		}
+
+		PythonEnvCache cache = new PythonEnvCache(root, 5, 1024, 60, (envDir, requirementsFile) -> {
+		});
+		cache.acquire("openpyxl").close();
+
+		PythonEnvCache reloaded = new PythonEnvCache(root, 5, 1024, 60, (envDir, requirementsFile) -> {
+			throw new AssertionError("should reuse cached env");
+		});
+		try (PythonEnvCache.Lease lease = reloaded.acquire("OpenPyXL")) {
+			assertTrue(Files.isDirectory(lease.dir()));
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.datasource;
+
+import com.audaque.cloud.ai.dataagent.entity.LogicalRelation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogicalRelationGraphTest {
+
+	private static LogicalRelation relation(String source, String sourceColumn, String target, String targetColumn) {
+		return LogicalRelation.builder()
+			.sourceTableName(source)
+			.sourceColumnName(sourceColumn)
+			.targetTableName(target)
+			.targetColumnName(targetColumn)
+			.build();
+	}
+
+	// t_order -> t_order_item -> t_product -> t_category，t_user -> t_order，t_log 孤立
+	private static LogicalRelationGraph graph() {
+		return LogicalRelationGraph.of(List.of(relation("t_order_item", "order_id", "t_order", "id"),
+				relation("t_order_item", "product_id", "t_product", "id"),
+				relation("t_product", "category_id", "t_category", "id"),
+				relation("t_order", "buyer_uid", "t_user", "id"), relation("t_order", "buyer_uid", "t_user", "id"),
+				relation("t_log", "x", "t_log_detail", "log_id")));
+	}
+
+	@Test
+	@DisplayName("最短路径按边数最少返回，不连通时返回空")
+	void shortestPath_shouldReturnFewestHops() {
+		LogicalRelationGraph graph = graph();
+
+		List<LogicalRelationGraph.Edge> path = graph.shortestPath("t_user", "t_category");
+
+		assertEquals(List.of("t_order.buyer_uid=t_user.id", "t_order_item.order_id=t_order.id",
+				"t_order_item.product_id=t_product.id", "t_product.category_id=t_category.id"),
+				path.stream().map(LogicalRelationGraph.Edge::foreignKey).toList());
+		assertTrue(graph.shortestPath("t_user", "t_log").isEmpty());
+		assertEquals(5, graph.getRelationCount());
+	}
+
+	@Test
+	@DisplayName("为召回表补充路径上的桥接表，已连通的表对不重复补充")
+	void planJoins_shouldAddBridgingTables() {
+		LogicalRelationGraph graph = graph();
+
+		LogicalRelationGraph.JoinPlan plan = graph.planJoins(Set.of("t_order", "t_product", "t_user"), 3);
+
+		assertEquals(List.of("t_order_item"), plan.bridgingTables());
+		assertEquals(3, plan.joinKeys().size());
+
+		// 超过最大边数的路径不采用
+		assertTrue(graph.planJoins(Set.of("t_user", "t_category"), 3).bridgingTables().isEmpty());
+		assertEquals(List.of("t_product", "t_order_item", "t_order"),
+				graph.planJoins(Set.of("t_user", "t_category"), 4).bridgingTables());
+	}
+
+	@Test
+	@DisplayName("只返回至少一端在给定表中的外键")
+	void relationsTouching_shouldFilterByTable() {
+		assertEquals(List.of("t_product.category_id=t_category.id"),
+				graph().relationsTouching(List.of("t_category")));
+	}
+
+}
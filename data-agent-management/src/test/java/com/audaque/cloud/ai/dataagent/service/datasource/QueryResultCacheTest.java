@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.datasource;
+
+import com.audaque.cloud.ai.dataagent.bo.DbConfigBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.ResultSetBO;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+
+	private static final int DATASOURCE_ID = 1;
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	private DataAgentProperties properties;
+
+	private QueryResultCache cache;
+
+	private DbConfigBO dbConfig;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		properties.getQueryResultCache().setDatasourceIds(List.of(DATASOURCE_ID));
+		cache = new QueryResultCache(properties);
+		dbConfig = new DbConfigBO();
+		dbConfig.setUrl("jdbc:mysql://localhost:3306/shop");
+		dbConfig.setUsername("reader");
+	}
+
+	private QueryResultCache.CachedResult query(String sql) throws Exception {
+		return cache.getOrExecute(DATASOURCE_ID, dbConfig, sql, () -> {
+			executions.incrementAndGet();
+			ResultSetBO resultSet = new ResultSetBO();
+			resultSet.setColumn(new ArrayList<>(List.of("region", "amount")));
+			resultSet.setData(new ArrayList<>(List.of(Map.of("region", "华东", "amount", "100"))));
+			return resultSet;
+		});
+	}
+
+	@Test
+	@DisplayName("规范化后相同的只读查询命中缓存，返回副本和原查询时间")
+	void readOnlyQuery_shouldHitAfterNormalization() throws Exception {
+		QueryResultCache.CachedResult first = query(
+				"SELECT region, SUM(amount) AS amount FROM orders GROUP BY region;");
+		QueryResultCache.CachedResult second = query("""
+				-- 各地区销售额
+				SELECT region,  SUM(amount) AS amount
+				FROM orders /* 全部订单 */ GROUP BY region
+				""");
+
+		assertFalse(first.hit());
+		assertTrue(second.hit());
+		assertEquals(1, executions.get());
+		assertEquals(first.cachedAt(), second.cachedAt());
+		second.resultSet().getData().clear();
+		assertEquals(1, query("SELECT region, SUM(amount) AS amount FROM orders GROUP BY region")
+			.resultSet()
+			.getData()
+			.size());
+	}
+
+	@Test
+	@DisplayName("写操作、随机函数、当前时间函数和未启用的数据源不走缓存")
+	void nonCacheableQuery_shouldAlwaysExecute() throws Exception {
+		query("UPDATE orders SET amount = 0");
+		query("UPDATE orders SET amount = 0");
+		query("SELECT * FROM orders ORDER BY RAND() LIMIT 10");
+		query("SELECT * FROM orders ORDER BY RAND() LIMIT 10");
+		query("SELECT * FROM orders FOR UPDATE");
+		query("SELECT * FROM orders FOR UPDATE");
+		query("SELECT * FROM orders WHERE created_at >= CURRENT_DATE");
+		query("SELECT * FROM orders WHERE created_at >= CURRENT_DATE");
+		query("SELECT * FROM orders WHERE created_at > NOW() - INTERVAL 1 DAY");
+		query("SELECT * FROM orders WHERE created_at > NOW() - INTERVAL 1 DAY");
+		cache.getOrExecute(2, dbConfig, "SELECT 1", () -> {
+			executions.incrementAndGet();
+			return new ResultSetBO();
+		});
+
+		assertEquals(11, executions.get());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	@DisplayName("按表失效只清除引用该表的查询，数据源失效清除全部")
+	void invalidate_shouldRemoveMatchingEntries() throws Exception {
+		query("SELECT * FROM orders");
+		query("SELECT * FROM orders_archive");
+		query("SELECT * FROM users");
+
+		cache.invalidateTable(DATASOURCE_ID, "ORDERS");
+		assertEquals(2, cache.size());
+		assertTrue(query("SELECT * FROM orders_archive").hit());
+
+		cache.invalidateDatasource(DATASOURCE_ID);
+		assertEquals(0, cache.size());
+		assertFalse(query("SELECT * FROM users").hit());
+	}
+
+	@Test
+	@DisplayName("超出条目数上限时淘汰最久未使用的结果")
+	void put_shouldEvictLeastRecentlyUsed() throws Exception {
+		properties.getQueryResultCache().setMaxEntries(2);
+		query("SELECT * FROM a");
+		query("SELECT * FROM b");
+		query("SELECT * FROM a");
+		query("SELECT * FROM c");
+
+		assertEquals(2, cache.size());
+		assertTrue(query("SELECT * FROM a").hit());
+		assertFalse(query("SELECT * FROM b").hit());
+	}
+
+}
@@ -17,6 +17,7 @@ package com.audaque.cloud.ai.dataagent.service.file;
 
 import com.audaque.cloud.ai.dataagent.properties.FileStorageProperties;
 import com.audaque.cloud.ai.dataagent.service.file.impls.LocalFileStorageServiceImpl;
+import com.audaque.cloud.ai.dataagent.util.ContentHashUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -144,4 +145,32 @@ class LocalFileStorageServiceImplTest {
 		assertTrue(url.contains(fileName));
 	}
 
+	@Test
+	@DisplayName("storeContentAddressedFile stores identical content once under its hash")
+	void storeContentAddressedFile_shouldDeduplicateByHash() throws IOException {
+		byte[] data = "fake png data".getBytes();
+
+		String first = storageService.storeContentAddressedFile(data, ".png", "charts");
+		String second = storageService.storeContentAddressedFile(data.clone(), ".png", "charts");
+		String other = storageService.storeContentAddressedFile("another chart".getBytes(), ".png", "charts");
+
+		String hash = ContentHashUtil.sha256Hex(data);
+		assertEquals("data-agent/charts/" + hash.substring(0, 2) + "/" + hash + ".png", first);
+		assertEquals(first, second);
+		assertNotEquals(first, other);
+		assertArrayEquals(data, Files.readAllBytes(tempDir.resolve(first)));
+		try (var files = Files.list(tempDir.resolve(first).getParent())) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	@DisplayName("getFileResource rejects paths escaping the storage directory")
+	void getFileResource_shouldRejectPathTraversal() throws IOException {
+		Files.writeString(tempDir.getParent().resolve("secret.txt"), "secret");
+
+		assertThrows(RuntimeException.class, () -> storageService.getFileResource("../secret.txt"));
+		assertThrows(RuntimeException.class, () -> storageService.getFileResource("/api/upload/../secret.txt"));
+	}
+
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.entity.AgentPresetQuestion;
+import com.audaque.cloud.ai.dataagent.mapper.AgentPresetQuestionMapper;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.agent.PresetQuestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FastPathClassifierTest {
+
+	private DataAgentProperties properties;
+
+	private AgentPresetQuestionMapper presetQuestionMapper;
+
+	private PresetQuestionIndex presetQuestionIndex;
+
+	private FastPathClassifier classifier;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		presetQuestionMapper = mock(AgentPresetQuestionMapper.class);
+		when(presetQuestionMapper.selectByAgentId(1L))
+			.thenReturn(List.of(new AgentPresetQuestion(1L, "查询本月各地区的销售额", 0)));
+		presetQuestionIndex = new PresetQuestionIndex(presetQuestionMapper);
+		classifier = new FastPathClassifier(properties, presetQuestionIndex);
+	}
+
+	@Test
+	@DisplayName("问候、致谢等完整语句判定为闲聊，包含其他内容时交给大模型")
+	void classifiesGreetingsAsChat() {
+		assertEquals(FastPathClassifier.Decision.CHAT, classifier.classify("1", " 你好！", "(无)"));
+		assertEquals(FastPathClassifier.Decision.CHAT, classifier.classify("1", "Thanks!", "(无)"));
+		assertEquals(FastPathClassifier.Decision.NONE, classifier.classify("1", "你好，帮我查一下订单量", "(无)"));
+
+		properties.getFastPath().setChatPhrases(List.of("辛苦了"));
+		assertEquals(FastPathClassifier.Decision.CHAT, classifier.classify("1", "辛苦了~", "(无)"));
+	}
+
+	@Test
+	@DisplayName("多轮对话中的确认、致谢语句可能是对澄清问题的回答，不按闲聊处理")
+	void doesNotClassifyFollowUpsAsChat() {
+		String multiTurn = "用户: 查询销售额\n助手: 请问需要查询哪个时间段？";
+
+		assertEquals(FastPathClassifier.Decision.NONE, classifier.classify("1", "好的", multiTurn));
+		assertEquals(FastPathClassifier.Decision.NONE, classifier.classify("1", "谢谢", multiTurn));
+		assertEquals(FastPathClassifier.Decision.CHAT, classifier.classify("1", "好的", null));
+	}
+
+	@Test
+	@DisplayName("与预设问题相似的问题判定为预设问题，预设问题变更后重新加载")
+	void matchesPresetQuestions() {
+		assertEquals(FastPathClassifier.Decision.PRESET, classifier.classify("1", "查询本月各地区的销售额？", "(无)"));
+		assertEquals(FastPathClassifier.Decision.PRESET, classifier.classify("1", "请查询本月各地区的销售额", "(无)"));
+		assertEquals(FastPathClassifier.Decision.NONE, classifier.classify("1", "上月利润最高的产品", "(无)"));
+		verify(presetQuestionMapper, times(1)).selectByAgentId(1L);
+
+		presetQuestionIndex.invalidate(1L);
+		classifier.classify("1", "查询本月各地区的销售额", "(无)");
+		verify(presetQuestionMapper, times(2)).selectByAgentId(1L);
+	}
+
+	@Test
+	@DisplayName("包含智能体配置的关键词时判定为数据分析请求，关闭后不做判断")
+	void matchesAgentDataKeywordsAndCanBeDisabled() {
+		properties.getFastPath().setAgentDataKeywords(Map.of("1", List.of("GMV")));
+
+		assertEquals(FastPathClassifier.Decision.DATA, classifier.classify("1", "昨天的gmv怎么样", "(无)"));
+		assertEquals(FastPathClassifier.Decision.NONE, classifier.classify("2", "昨天的gmv怎么样", "(无)"));
+
+		properties.getFastPath().setEnabled(false);
+		assertEquals(FastPathClassifier.Decision.NONE, classifier.classify("1", "你好", "(无)"));
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.entity.ConversationTurn;
+import com.audaque.cloud.ai.dataagent.mapper.ConversationTurnMapper;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.graph.Context.MultiTurnContextManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MultiTurnContextManagerTest {
+
+	private ConversationTurnMapper mapper;
+
+	private DataAgentProperties properties;
+
+	private MultiTurnContextManager manager;
+
+	@BeforeEach
+	void setUp() {
+		mapper = mock(ConversationTurnMapper.class);
+		when(mapper.selectByThreadId(anyString())).thenReturn(List.of());
+		properties = new DataAgentProperties();
+		properties.setMaxCachedTurnThreads(1);
+		manager = new MultiTurnContextManager(properties, mapper);
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		manager.destroy();
+	}
+
+	@Test
+	@DisplayName("完成轮次时不同步访问数据库，关闭时按顺序刷完写队列")
+	void shouldPersistTurnsAsynchronouslyInOrder() throws InterruptedException {
+		completeTurn("t1", "销售额", "计划一");
+		completeTurn("t1", "同比", "计划二");
+		manager.restartLastTurn("t1");
+
+		manager.destroy();
+
+		verify(mapper, never()).getMaxSequenceNumberByThreadId(anyString());
+		List<Integer> sequences = new ArrayList<>();
+		ArgumentCaptor<List<ConversationTurn>> captor = ArgumentCaptor.forClass(List.class);
+		InOrder inOrder = inOrder(mapper);
+		inOrder.verify(mapper, atLeastOnce()).insertBatch(captor.capture());
+		inOrder.verify(mapper).deleteLastTurnByThreadId("t1");
+		captor.getAllValues().forEach(batch -> batch.forEach(turn -> sequences.add(turn.getSequenceNumber())));
+		assertEquals(List.of(1, 2), sequences);
+		assertEquals(1, manager.getHistorySize("t1"));
+	}
+
+	@Test
+	@DisplayName("超出缓存容量淘汰后，未落库的线程从内存恢复，已落库的线程从数据库重新加载")
+	void shouldReloadEvictedThreads() throws InterruptedException {
+		// 阻塞写线程，模拟记录尚未落库
+		CountDownLatch persisted = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			persisted.await(5, TimeUnit.SECONDS);
+			return 1;
+		}).when(mapper).insertBatch(anyList());
+		completeTurn("t1", "销售额", "计划一");
+		// 容量为 1，访问 t2 会淘汰 t1
+		assertEquals("(无)", manager.buildContext("t2"));
+		assertTrue(manager.buildContext("t1").contains("计划一"));
+		persisted.countDown();
+
+		manager.destroy();
+		ConversationTurn stored = ConversationTurn.builder()
+			.threadId("t3")
+			.userQuestion("库存")
+			.plan("计划三")
+			.sequenceNumber(7)
+			.build();
+		when(mapper.selectByThreadId("t3")).thenReturn(List.of(stored));
+		assertTrue(manager.buildContext("t3").contains("计划三"));
+		verify(mapper, atLeastOnce()).selectByThreadId("t1");
+	}
+
+	@Test
+	@DisplayName("空闲过期的线程历史被淘汰，再次访问时重新加载")
+	void shouldEvictIdleHistories() {
+		properties.setMaxCachedTurnThreads(100);
+		properties.setTurnCacheIdleMinutes(0);
+		manager.buildContext("t1");
+		manager.evictIdle();
+		manager.buildContext("t1");
+		verify(mapper, times(2)).selectByThreadId("t1");
+		verify(mapper, never()).insertBatch(anyList());
+	}
+
+	@Test
+	@DisplayName("等待人工复核的进行中轮次不随线程历史的空闲过期被淘汰")
+	void shouldKeepPendingTurnBeyondHistoryIdleTimeout() {
+		properties.setTurnCacheIdleMinutes(0);
+		manager.beginTurn("t1", "本月销售额");
+		manager.appendPlannerChunk("t1", "计划一");
+		manager.evictIdle();
+		manager.touchPending("t1");
+		manager.finishTurn("t1");
+		assertEquals(1, manager.getHistorySize("t1"));
+
+		properties.setPendingTurnIdleMinutes(0);
+		manager.beginTurn("t2", "上月销售额");
+		manager.appendPlannerChunk("t2", "计划二");
+		manager.evictIdle();
+		manager.finishTurn("t2");
+		assertEquals(0, manager.getHistorySize("t2"));
+	}
+
+	private void completeTurn(String threadId, String question, String plan) {
+		manager.beginTurn(threadId, question);
+		manager.appendPlannerChunk(threadId, plan);
+		manager.finishTurn(threadId);
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import com.audaque.cloud.ai.dataagent.dto.planner.Plan;
+import com.audaque.cloud.ai.dataagent.dto.prompt.QueryEnhanceOutputDTO;
+import com.audaque.cloud.ai.dataagent.dto.schema.ColumnDTO;
+import com.audaque.cloud.ai.dataagent.dto.schema.SchemaDTO;
+import com.audaque.cloud.ai.dataagent.dto.schema.TableDTO;
+import com.audaque.cloud.ai.dataagent.entity.AgentPresetQuestion;
+import com.audaque.cloud.ai.dataagent.mapper.AgentPresetQuestionMapper;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.agent.PresetQuestionIndex;
+import com.audaque.cloud.ai.dataagent.util.JsonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.audaque.cloud.ai.dataagent.constant.Constant.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PresetPlanTemplateManagerTest {
+
+	private static final String QUESTION = "查询各地区的销售额";
+
+	private static final String PLAN = """
+			{"thought_process": "按地区汇总销售额", "execution_plan": [
+			  {"step": 1, "tool_to_use": "SQL_GENERATE_NODE", "tool_parameters": {"instruction": "按地区汇总销售额"}},
+			  {"step": 2, "tool_to_use": "REPORT_GENERATOR_NODE",
+			   "tool_parameters": {"summary_and_recommendations": "总结各地区销售额"}}]}
+			""";
+
+	private static final String SQL = "SELECT region, SUM(amount) FROM orders GROUP BY region";
+
+	private AgentPresetQuestionMapper mapper;
+
+	private AgentPresetQuestion preset;
+
+	private PresetPlanTemplateManager manager;
+
+	private OverAllState state;
+
+	@BeforeEach
+	void setUp() {
+		preset = new AgentPresetQuestion(1L, QUESTION, 0);
+		preset.setId(10L);
+		mapper = mock(AgentPresetQuestionMapper.class);
+		when(mapper.selectByAgentId(1L)).thenAnswer(invocation -> List.of(preset));
+		manager = new PresetPlanTemplateManager(new DataAgentProperties(), new PresetQuestionIndex(mapper), mapper);
+
+		state = new OverAllState();
+		for (String key : List.of(AGENT_ID, INPUT_KEY, TABLE_RELATION_OUTPUT, PLANNER_NODE_OUTPUT,
+				SQL_EXECUTED_QUERIES, IS_ONLY_NL2SQL, QUERY_ENHANCE_NODE_OUTPUT, EVIDENCE, MULTI_TURN_CONTEXT,
+				PLAN_VALIDATION_ERROR, PLAN_REPAIR_COUNT)) {
+			state.registerKeyAndStrategy(key, new ReplaceStrategy());
+		}
+		state.updateState(Map.of(AGENT_ID, "1", INPUT_KEY, QUESTION + "？", TABLE_RELATION_OUTPUT, schema("amount"),
+				PLANNER_NODE_OUTPUT, PLAN, SQL_EXECUTED_QUERIES, Map.of("step_1", SQL), QUERY_ENHANCE_NODE_OUTPUT,
+				canonical("统计各地区的销售总额"), EVIDENCE, "", MULTI_TURN_CONTEXT, "(无)"));
+	}
+
+	@Test
+	@DisplayName("计划执行成功后保存带SQL的计划模板，之后相同问题直接复用，不依赖意图快速分类")
+	void capturesAndReusesPlanTemplate() throws Exception {
+		assertNull(manager.findPlan(state));
+
+		manager.capture(state);
+		ArgumentCaptor<String> template = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<String> version = ArgumentCaptor.forClass(String.class);
+		verify(mapper).updatePlanTemplate(eq(10L), template.capture(), version.capture(), any());
+		Plan plan = JsonUtil.getObjectMapper().readValue(template.getValue(), Plan.class);
+		assertEquals(SQL, plan.getExecutionPlan().get(0).getToolParameters().getSqlQuery());
+
+		preset.setPlanTemplate(template.getValue());
+		preset.setPlanSchemaVersion(version.getValue());
+		assertEquals(template.getValue(), manager.findPlan(state));
+
+		// 模板未变化时不重复写入
+		manager.capture(state);
+		verify(mapper, times(1)).updatePlanTemplate(anyLong(), anyString(), anyString(), any());
+	}
+
+	@Test
+	@DisplayName("召回Schema变化后丢弃计划模板，非完全相同的问题不复用")
+	void discardsTemplateWhenSchemaChanges() {
+		preset.setPlanTemplate(PLAN);
+		preset.setPlanSchemaVersion(PresetPlanTemplateManager.planFingerprint(state));
+		state.updateState(Map.of(INPUT_KEY, "查询各地区的销售额和利润"));
+		assertNull(manager.findPlan(state));
+
+		state.updateState(Map.of(INPUT_KEY, QUESTION, TABLE_RELATION_OUTPUT, schema("total_amount")));
+		assertNull(manager.findPlan(state));
+		verify(mapper).clearPlanTemplate(10L);
+	}
+
+	@Test
+	@DisplayName("规范化问题或证据与生成模板时不同则不复用计划模板")
+	void skipsTemplateWhenCanonicalQueryDiffers() {
+		preset.setPlanTemplate(PLAN);
+		preset.setPlanSchemaVersion(PresetPlanTemplateManager.planFingerprint(state));
+		assertEquals(PLAN, manager.findPlan(state));
+
+		state.updateState(Map.of(QUERY_ENHANCE_NODE_OUTPUT, canonical("统计华东地区的销售总额")));
+		assertNull(manager.findPlan(state));
+
+		state.updateState(Map.of(QUERY_ENHANCE_NODE_OUTPUT, canonical("统计各地区的销售总额"), EVIDENCE, "销售额不含退款"));
+		assertNull(manager.findPlan(state));
+	}
+
+	@Test
+	@DisplayName("带多轮上下文或经用户反馈修复计划的运行不保存计划模板")
+	void skipsCaptureForContextDependentRuns() {
+		state.updateState(Map.of(MULTI_TURN_CONTEXT, "用户: 只看华东地区\nAI: 好的"));
+		manager.capture(state);
+
+		state.updateState(Map.of(MULTI_TURN_CONTEXT, "(无)", PLAN_VALIDATION_ERROR, "只统计线上渠道", PLAN_REPAIR_COUNT, 1));
+		manager.capture(state);
+		verify(mapper, never()).updatePlanTemplate(anyLong(), anyString(), anyString(), any());
+	}
+
+	@Test
+	@DisplayName("包含相对时间的预设问题从不预编译")
+	void neverCompilesRelativeTimePresets() {
+		preset.setQuestion("查询最近7天各地区的销售额");
+		preset.setPlanTemplate(PLAN);
+		preset.setPlanSchemaVersion(PresetPlanTemplateManager.planFingerprint(state));
+		state.updateState(Map.of(INPUT_KEY, "查询最近7天各地区的销售额"));
+		assertEquals(PLAN, manager.findPlan(state));
+
+		manager.capture(state);
+		verify(mapper, never()).updatePlanTemplate(anyLong(), anyString(), anyString(), any());
+	}
+
+	@Test
+	@DisplayName("包含Python步骤或缺少SQL执行记录的计划不预编译")
+	void skipsPlansThatCannotBeCompiled() throws Exception {
+		Plan pythonPlan = JsonUtil.getObjectMapper()
+			.readValue(PLAN.replace("REPORT_GENERATOR_NODE", "PYTHON_GENERATE_NODE"), Plan.class);
+		assertNull(PresetPlanTemplateManager.buildTemplate(pythonPlan, Map.of("step_1", SQL, "step_2", "x")));
+
+		state.updateState(Map.of(SQL_EXECUTED_QUERIES, Map.of()));
+		manager.capture(state);
+		verify(mapper, never()).updatePlanTemplate(anyLong(), anyString(), anyString(), any());
+	}
+
+	private static QueryEnhanceOutputDTO canonical(String canonicalQuery) {
+		QueryEnhanceOutputDTO output = new QueryEnhanceOutputDTO();
+		output.setCanonicalQuery(canonicalQuery);
+		return output;
+	}
+
+	private static SchemaDTO schema(String amountColumn) {
+		ColumnDTO region = new ColumnDTO();
+		region.setName("region");
+		region.setType("varchar");
+		ColumnDTO amount = new ColumnDTO();
+		amount.setName(amountColumn);
+		amount.setType("decimal");
+		TableDTO table = new TableDTO();
+		table.setName("orders");
+		table.setColumn(List.of(amount, region));
+		SchemaDTO schemaDTO = new SchemaDTO();
+		schemaDTO.setName("sales");
+		schemaDTO.setTable(List.of(table));
+		return schemaDTO;
+	}
+
+}
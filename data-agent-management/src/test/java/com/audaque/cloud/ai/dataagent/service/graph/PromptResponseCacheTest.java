@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.prompt.PromptLoader;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptResponseCacheTest {
+
+	private static final String INTENT = PromptResponseCache.INTENT_RECOGNITION;
+
+	private DataAgentProperties properties;
+
+	private PromptResponseCache cache;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties();
+		cache = new PromptResponseCache(properties);
+	}
+
+	@Test
+	@DisplayName("规范化后相同的问题命中缓存，智能体或多轮上下文不同则不命中")
+	void hitsOnlyForSameAgentContextAndNormalizedQuestion() {
+		cache.put(INTENT, "1", "  本月 销售额 是多少？", "(无)", "{\"classification\":\"data\"}");
+
+		assertEquals("{\"classification\":\"data\"}", cache.get(INTENT, "1", "本月  销售额 是多少", "(无)"));
+		assertNull(cache.get(INTENT, "2", "本月 销售额 是多少", "(无)"));
+		assertNull(cache.get(INTENT, "1", "本月 销售额 是多少", "用户: 上月呢"));
+		assertNull(cache.get(PromptResponseCache.EVIDENCE_QUERY_REWRITE, "1", "本月 销售额 是多少", "(无)"));
+	}
+
+	@Test
+	@DisplayName("Prompt 模板重新加载后缓存失效")
+	void invalidatesOnTemplateReload() {
+		cache.put(INTENT, "1", "你好", "(无)", "{}");
+		assertNotNull(cache.get(INTENT, "1", "你好", "(无)"));
+
+		PromptLoader.reloadPrompt(INTENT);
+
+		assertNull(cache.get(INTENT, "1", "你好", "(无)"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	@DisplayName("超出容量时淘汰最近最少使用的条目，未启用时不缓存")
+	void boundedAndDisableable() {
+		properties.setPromptResponseCacheSize(2);
+		cache.put(INTENT, "1", "a", "(无)", "A");
+		cache.put(INTENT, "1", "b", "(无)", "B");
+		cache.get(INTENT, "1", "a", "(无)");
+		cache.put(INTENT, "1", "c", "(无)", "C");
+
+		assertEquals("A", cache.get(INTENT, "1", "a", "(无)"));
+		assertNull(cache.get(INTENT, "1", "b", "(无)"));
+
+		properties.setEnablePromptResponseCache(false);
+		assertNull(cache.get(INTENT, "1", "a", "(无)"));
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
+import com.audaque.cloud.ai.dataagent.service.schema.SchemaService;
+import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
+import com.audaque.cloud.ai.dataagent.util.ChatResponseUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SpeculativeRecallServiceTest {
+
+	private LlmService llmService;
+
+	private AgentVectorStoreService vectorStoreService;
+
+	private SchemaService schemaService;
+
+	private DataAgentProperties properties;
+
+	private PromptResponseCache promptResponseCache;
+
+	private SpeculativeRecallService service;
+
+	@BeforeEach
+	void setUp() {
+		llmService = mock(LlmService.class);
+		vectorStoreService = mock(AgentVectorStoreService.class);
+		schemaService = mock(SchemaService.class);
+		properties = new DataAgentProperties();
+		// 同步执行器，便于断言
+		promptResponseCache = new PromptResponseCache(properties);
+		service = new SpeculativeRecallService(llmService, vectorStoreService, schemaService, properties,
+				Runnable::run, promptResponseCache);
+	}
+
+	@Test
+	@DisplayName("查询重写结果已缓存时投机召回不再调用大模型")
+	void shouldUseCachedRewriteOutput() {
+		when(vectorStoreService.hasDocuments("1")).thenReturn(true);
+		promptResponseCache.put(PromptResponseCache.EVIDENCE_QUERY_REWRITE, "1", "销售额", "(无)",
+				"{\"standalone_query\":\"q\"}");
+
+		service.start("t1", "1", "销售额", "(无)");
+		SpeculativeRecallService.Speculation speculation = service.takeEvidence("t1", "1", "销售额", "(无)");
+
+		assertNotNull(speculation);
+		assertEquals("{\"standalone_query\":\"q\"}", speculation.rewriteOutput().join());
+		verify(llmService, never()).callUser(anyString());
+	}
+
+	@Test
+	@DisplayName("问题与上下文一致时复用投机的查询重写和表召回结果")
+	void shouldReuseSpeculationWhenInputsMatch() {
+		List<Document> tables = List.of(new Document("orders"));
+		when(vectorStoreService.hasDocuments("1")).thenReturn(true);
+		when(llmService.callUser(anyString()))
+			.thenReturn(Flux.just(ChatResponseUtil.createPureResponse("{\"standalone_query\":"),
+					ChatResponseUtil.createPureResponse("\"q\"}")));
+		when(llmService.toStringFlux(any())).thenCallRealMethod();
+		when(schemaService.getTableDocumentsForAgent("1", "销售额")).thenReturn(tables);
+
+		service.start("t1", "1", "销售额", "(无)");
+
+		SpeculativeRecallService.Speculation speculation = service.takeEvidence("t1", "1", "销售额", "(无)");
+		assertNotNull(speculation);
+		assertTrue(speculation.hasDocuments().join());
+		assertEquals("{\"standalone_query\":\"q\"}", speculation.rewriteOutput().join());
+		// 同一投机结果只能被证据召回取出一次
+		assertNull(service.takeEvidence("t1", "1", "销售额", "(无)"));
+
+		CompletableFuture<List<Document>> future = service.takeTableDocuments("t1", "1", "销售额", "销售额");
+		assertNotNull(future);
+		assertEquals(tables, future.join());
+		verify(llmService, times(1)).callUser(anyString());
+	}
+
+	@Test
+	@DisplayName("问题被改写或智能体不一致时不复用投机结果")
+	void shouldNotReuseWhenInputsDiffer() {
+		when(vectorStoreService.hasDocuments("1")).thenReturn(false);
+		service.start("t1", "1", "销售额", "(无)");
+
+		assertNull(service.takeEvidence("t1", "1", "销售额", "上一轮问题"));
+		assertNull(service.takeEvidence("t1", "2", "销售额", "(无)"));
+		assertNull(service.takeTableDocuments("t1", "1", "2024年销售额", "2024年销售额"));
+		verify(llmService, never()).callUser(anyString());
+	}
+
+	@Test
+	@DisplayName("查询增强改写了问题时不复用按原始问题预热的表召回")
+	void shouldNotReuseTablesWhenCanonicalQueryDiffers() {
+		when(vectorStoreService.hasDocuments("1")).thenReturn(false);
+		when(schemaService.getTableDocumentsForAgent("1", "销售额")).thenReturn(List.of(new Document("orders")));
+		service.start("t1", "1", "销售额", "(无)");
+
+		assertNull(service.takeTableDocuments("t1", "1", "销售额", "查询2024年各地区的销售额"));
+	}
+
+	@Test
+	@DisplayName("多轮追问不预热表召回")
+	void shouldNotPrewarmTablesForFollowUpQuestion() {
+		when(vectorStoreService.hasDocuments("1")).thenReturn(false);
+		service.start("t1", "1", "那上个月呢", "用户: 本月销售额");
+
+		assertNull(service.takeTableDocuments("t1", "1", "那上个月呢", "上个月的销售额"));
+		verify(schemaService, never()).getTableDocumentsForAgent(anyString(), anyString());
+	}
+
+	@Test
+	@DisplayName("丢弃或关闭开关后不再返回投机结果")
+	void shouldSkipWhenDiscardedOrDisabled() {
+		when(vectorStoreService.hasDocuments("1")).thenReturn(false);
+		service.start("t1", "1", "你好", "(无)");
+		service.discard("t1");
+		assertNull(service.takeEvidence("t1", "1", "你好", "(无)"));
+
+		clearInvocations(schemaService);
+		properties.setEnableSpeculativeRecall(false);
+		service.start("t2", "1", "你好", "(无)");
+		assertNull(service.takeTableDocuments("t2", "1", "你好", "你好"));
+		verifyNoInteractions(schemaService);
+	}
+
+}
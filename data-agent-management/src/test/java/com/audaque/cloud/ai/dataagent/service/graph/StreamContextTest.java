@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.graph;
+
+import com.audaque.cloud.ai.dataagent.enums.TextType;
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import com.audaque.cloud.ai.dataagent.service.graph.Context.StreamContext;
+import com.audaque.cloud.ai.dataagent.vo.GraphNodeResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.audaque.cloud.ai.dataagent.constant.Constant.STREAM_EVENT_CHART_UPDATE;
+import static com.audaque.cloud.ai.dataagent.constant.Constant.STREAM_EVENT_COMPLETE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamContextTest {
+
+	private static final int BUFFER_SIZE = 8;
+
+	private Sinks.Many<ServerSentEvent<GraphNodeResponse>> sink;
+
+	private StreamContext context;
+
+	@BeforeEach
+	void setUp() {
+		DataAgentProperties properties = new DataAgentProperties();
+		properties.getSse().setStreamBufferSize(BUFFER_SIZE);
+		sink = new SseStreamSupport(properties).newStreamSink();
+		context = new StreamContext(1024, 50);
+		context.setSink(sink);
+	}
+
+	private static ServerSentEvent<GraphNodeResponse> chunk(String node, TextType textType, String text) {
+		return ServerSentEvent
+			.builder(GraphNodeResponse.builder().nodeName(node).textType(textType).text(text).build())
+			.build();
+	}
+
+	private void fillBuffer() {
+		for (int i = 0; i < BUFFER_SIZE; i++) {
+			assertEquals(Sinks.EmitResult.OK, context.emitNext(chunk("PlannerNode", TextType.TEXT, "p")));
+		}
+	}
+
+	@Test
+	@DisplayName("缓冲区已满时合并同节点文本片段并丢弃非关键事件，下一次推送时补发")
+	void coalescesTextAndDropsNonCriticalEventsWhenFull() {
+		fillBuffer();
+		assertEquals(Sinks.EmitResult.OK, context.emitNext(chunk("PlannerNode", TextType.TEXT, "a")));
+		assertEquals(Sinks.EmitResult.OK, context.emitNext(chunk("PlannerNode", TextType.TEXT, "b")));
+		ServerSentEvent<GraphNodeResponse> chartUpdate = ServerSentEvent
+			.builder(GraphNodeResponse.builder().text("{}").build())
+			.event(STREAM_EVENT_CHART_UPDATE)
+			.build();
+		assertEquals(Sinks.EmitResult.FAIL_OVERFLOW, context.emitNext(chartUpdate));
+
+		List<ServerSentEvent<GraphNodeResponse>> received = new ArrayList<>();
+		sink.asFlux().subscribe(received::add);
+		context.emitNext(
+				ServerSentEvent.builder(GraphNodeResponse.complete("1", "t")).event(STREAM_EVENT_COMPLETE).build());
+
+		assertEquals(BUFFER_SIZE + 2, received.size());
+		assertEquals("ab", received.get(BUFFER_SIZE).data().getText());
+		assertEquals(STREAM_EVENT_COMPLETE, received.get(BUFFER_SIZE + 1).event());
+	}
+
+	@Test
+	@DisplayName("结果集等不可合并的关键事件在缓冲区已满时等待超时后返回失败")
+	void criticalEventFailsAfterTimeoutWhenFull() {
+		fillBuffer();
+
+		long start = System.nanoTime();
+		Sinks.EmitResult result = context.emitNext(chunk("SqlExecuteNode", TextType.RESULT_SET, "{}"));
+
+		assertEquals(Sinks.EmitResult.FAIL_OVERFLOW, result);
+		assertTrue(System.nanoTime() - start >= 40_000_000L);
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.knowledge;
+
+import com.audaque.cloud.ai.dataagent.constant.DocumentMetadataConstant;
+import com.audaque.cloud.ai.dataagent.entity.AgentKnowledge;
+import com.audaque.cloud.ai.dataagent.enums.KnowledgeType;
+import com.audaque.cloud.ai.dataagent.service.file.FileStorageService;
+import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.transformer.splitter.TokenTextSplitter;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AgentKnowledgeResourceManagerTest {
+
+	private FileStorageService fileStorageService;
+
+	private AgentVectorStoreService vectorStoreService;
+
+	private AgentKnowledgeResourceManager manager;
+
+	// 模拟向量库中当前知识的文档ID
+	private final Set<String> storedIds = new HashSet<>();
+
+	private final List<Document> added = new ArrayList<>();
+
+	private final List<List<Document>> batches = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		TextSplitterFactory textSplitterFactory = mock(TextSplitterFactory.class);
+		when(textSplitterFactory.getSplitter(anyString())).thenReturn(new TokenTextSplitter());
+		fileStorageService = mock(FileStorageService.class);
+		vectorStoreService = mock(AgentVectorStoreService.class);
+		when(vectorStoreService.getDocumentIdsByMetadata(eq("1"), anyMap()))
+			.thenAnswer(invocation -> new HashSet<>(storedIds));
+		doAnswer(invocation -> {
+			List<Document> documents = invocation.getArgument(1);
+			batches.add(documents);
+			added.addAll(documents);
+			documents.forEach(document -> storedIds.add(document.getId()));
+			return CompletableFuture.completedFuture(null);
+		}).when(vectorStoreService).addDocuments(eq("1"), anyList());
+		doAnswer(invocation -> {
+			List<String> ids = invocation.getArgument(1);
+			ids.forEach(storedIds::remove);
+			return CompletableFuture.completedFuture(null);
+		}).when(vectorStoreService).deleteDocumentsByIds(eq("1"), anyList());
+		// 每批最多 5 个文本块
+		manager = new AgentKnowledgeResourceManager(textSplitterFactory, fileStorageService, vectorStoreService,
+				documents -> {
+					List<List<Document>> result = new ArrayList<>();
+					for (int i = 0; i < documents.size(); i += 5) {
+						result.add(documents.subList(i, Math.min(i + 5, documents.size())));
+					}
+					return result;
+				});
+	}
+
+	private static AgentKnowledge knowledge() {
+		AgentKnowledge knowledge = new AgentKnowledge();
+		knowledge.setId(7);
+		knowledge.setAgentId(1);
+		knowledge.setType(KnowledgeType.DOCUMENT);
+		knowledge.setFilePath("manual.txt");
+		knowledge.setSplitterType("token");
+		return knowledge;
+	}
+
+	private static String manual(int editedParagraph) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 600; i++) {
+			text.append("第").append(i).append("节 设备维护手册内容，描述操作步骤 ").append(i * 31 % 97)
+				.append(" 以及注意事项，确保数据准确并按规范执行。");
+			if (i == editedParagraph) {
+				text.append("新增说明：更换滤芯前需要断电。");
+			}
+			text.append("\n\n");
+		}
+		return text.toString();
+	}
+
+	private void mockFile(String content) {
+		when(fileStorageService.getFileResource("manual.txt"))
+			.thenReturn(new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+				@Override
+				public String getFilename() {
+					return "manual.txt";
+				}
+			});
+	}
+
+	@Test
+	@DisplayName("首次导入按批次向量化全部文本块并附带知识元数据")
+	void shouldEmbedAllChunksInBatchesOnFirstImport() throws Exception {
+		mockFile(manual(-1));
+		List<int[]> progress = new ArrayList<>();
+
+		manager.doEmbedingToVectorStore(knowledge(), (chunks, embedded) -> progress.add(new int[] { chunks, embedded }))
+			.join();
+
+		assertTrue(added.size() > 5);
+		assertTrue(batches.stream().allMatch(batch -> batch.size() <= 5));
+		Document first = added.get(0);
+		assertEquals("1", first.getMetadata().get("agentId"));
+		assertEquals(7, first.getMetadata().get(DocumentMetadataConstant.DB_AGENT_KNOWLEDGE_ID));
+		assertNotNull(first.getMetadata().get(DocumentMetadataConstant.CHUNK_HASH));
+		int[] last = progress.get(progress.size() - 1);
+		assertEquals(added.size(), last[0]);
+		assertEquals(added.size(), last[1]);
+		verify(vectorStoreService, never()).deleteDocumentsByMetedata(anyString(), anyMap());
+	}
+
+	@Test
+	@DisplayName("重新上传未修改的文档不重新向量化")
+	void shouldReuseAllChunksWhenUnchanged() throws Exception {
+		mockFile(manual(-1));
+		manager.doEmbedingToVectorStore(knowledge()).join();
+		int total = added.size();
+		added.clear();
+
+		manager.doEmbedingToVectorStore(knowledge()).join();
+
+		assertTrue(added.isEmpty());
+		assertEquals(total, storedIds.size());
+	}
+
+	@Test
+	@DisplayName("局部修改后只向量化变化的文本块并删除失效的旧文本块")
+	void shouldEmbedOnlyChangedChunks() throws Exception {
+		mockFile(manual(-1));
+		manager.doEmbedingToVectorStore(knowledge()).join();
+		int total = added.size();
+		Set<String> before = new HashSet<>(storedIds);
+		added.clear();
+
+		mockFile(manual(300));
+		manager.doEmbedingToVectorStore(knowledge()).join();
+
+		assertFalse(added.isEmpty());
+		assertTrue(added.size() <= 3, "changed chunks: " + added.size() + " of " + total);
+		Set<String> removed = new HashSet<>(before);
+		removed.removeAll(storedIds);
+		assertEquals(added.size(), removed.size());
+	}
+
+}
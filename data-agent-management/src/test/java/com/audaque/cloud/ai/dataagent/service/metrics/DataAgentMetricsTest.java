@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.metrics;
+
+import com.audaque.cloud.ai.dataagent.service.llm.LlmService;
+import com.audaque.cloud.ai.dataagent.service.llm.impls.MeteredLlmService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.tck.TestObservationRegistry;
+import io.micrometer.observation.tck.TestObservationRegistryAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.util.context.Context;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataAgentMetricsTest {
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private TestObservationRegistry observationRegistry;
+
+	private DataAgentMetrics metrics;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		observationRegistry = TestObservationRegistry.create();
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		beanFactory.addBean("observationRegistry", observationRegistry);
+		metrics = new DataAgentMetrics(meterRegistry, beanFactory.getBeanProvider(ObservationRegistry.class));
+	}
+
+	@Test
+	@DisplayName("同一次运行中重复执行的节点计为重试，运行结束时关闭 Observation")
+	void shouldCountRetriesWithinRun() {
+		metrics.startRun("t1", "1");
+		metrics.recordNodeEntry("t1", "SqlGenerateNode");
+		metrics.recordNodeEntry("t1", "SqlExecuteNode");
+		metrics.recordNodeEntry("t1", "SqlGenerateNode");
+		metrics.finishRun("t1", DataAgentMetrics.OUTCOME_SUCCESS, null);
+		// 运行结束后不再统计
+		metrics.recordNodeEntry("t1", "SqlGenerateNode");
+
+		assertEquals(1.0, meterRegistry.get("dataagent.node.retries").tag("node", "SqlGenerateNode").counter().count());
+		assertNull(meterRegistry.find("dataagent.node.retries").tag("node", "SqlExecuteNode").counter());
+		TestObservationRegistryAssert.assertThat(observationRegistry)
+			.hasObservationWithNameEqualTo("dataagent.graph.run")
+			.that()
+			.hasBeenStopped()
+			.hasLowCardinalityKeyValue("outcome", DataAgentMetrics.OUTCOME_SUCCESS);
+	}
+
+	@Test
+	@DisplayName("大模型调用记录耗时、首包时间和 token 用量，并归属到 Context 中的节点")
+	void shouldRecordLlmCallMetrics() {
+		LlmService delegate = mock(LlmService.class);
+		when(delegate.callUser(anyString())).thenReturn(Flux.just(response("SELECT", null), response(" 1",
+				new DefaultUsage(120, 30))));
+		LlmService llmService = new MeteredLlmService(delegate, metrics);
+
+		llmService.callUser("prompt").contextWrite(Context.of(DataAgentMetrics.NODE_CONTEXT_KEY, "SqlGenerateNode"))
+			.blockLast();
+
+		Timer duration = meterRegistry.get("dataagent.llm.duration")
+			.tags("model", "qwen-plus", "node", "SqlGenerateNode", "outcome", DataAgentMetrics.OUTCOME_SUCCESS)
+			.timer();
+		assertEquals(1, duration.count());
+		assertEquals(1, meterRegistry.get("dataagent.llm.time.to.first.token").timer().count());
+		DistributionSummary prompt = meterRegistry.get("dataagent.llm.tokens").tag("type", "prompt").summary();
+		DistributionSummary completion = meterRegistry.get("dataagent.llm.tokens").tag("type", "completion").summary();
+		assertEquals(120.0, prompt.totalAmount());
+		assertEquals(30.0, completion.totalAmount());
+	}
+
+	@Test
+	@DisplayName("SQL 执行失败时只记录耗时不记录行数")
+	void shouldRecordSqlExecution() {
+		metrics.recordSqlExecution("mysql", DataAgentMetrics.OUTCOME_SUCCESS, 1_000_000, 42);
+		metrics.recordSqlExecution("mysql", DataAgentMetrics.OUTCOME_ERROR, 1_000_000, -1);
+
+		assertEquals(2, meterRegistry.get("dataagent.sql.duration").timers().size());
+		DistributionSummary rows = meterRegistry.get("dataagent.sql.rows").tag("datasource", "mysql").summary();
+		assertEquals(1, rows.count());
+		assertEquals(42.0, rows.totalAmount());
+	}
+
+	private static ChatResponse response(String text, DefaultUsage usage) {
+		ChatResponseMetadata.Builder metadata = ChatResponseMetadata.builder().model("qwen-plus");
+		if (usage != null) {
+			metadata.usage(usage);
+		}
+		return new ChatResponse(List.of(new Generation(new AssistantMessage(text))), metadata.build());
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.semantic;
+
+import com.audaque.cloud.ai.dataagent.entity.AgentDatasource;
+import com.audaque.cloud.ai.dataagent.entity.SemanticModel;
+import com.audaque.cloud.ai.dataagent.mapper.AgentDatasourceMapper;
+import com.audaque.cloud.ai.dataagent.mapper.SemanticModelMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SemanticModelIndexTest {
+
+	private SemanticModelMapper semanticModelMapper;
+
+	private AgentDatasourceMapper agentDatasourceMapper;
+
+	private SemanticModelIndex index;
+
+	@BeforeEach
+	void setUp() {
+		semanticModelMapper = mock(SemanticModelMapper.class);
+		agentDatasourceMapper = mock(AgentDatasourceMapper.class);
+		AgentDatasource inactive = new AgentDatasource();
+		inactive.setDatasourceId(2);
+		inactive.setIsActive(0);
+		AgentDatasource active = new AgentDatasource();
+		active.setDatasourceId(3);
+		active.setIsActive(1);
+		when(agentDatasourceMapper.selectByAgentId(1)).thenReturn(List.of(inactive, active));
+		when(semanticModelMapper.selectEnabledByAgentIdAndDatasourceId(1L, 3))
+			.thenReturn(List.of(model("orders", "amount", "订单金额", "销售额，GMV"),
+					model("orders", "created_at", "下单时间", null), model("users", "city", "城市", "地区")));
+		index = new SemanticModelIndex(semanticModelMapper, agentDatasourceMapper);
+	}
+
+	private static SemanticModel model(String table, String column, String businessName, String synonyms) {
+		return SemanticModel.builder()
+			.agentId(1)
+			.tableName(table)
+			.columnName(column)
+			.businessName(businessName)
+			.synonyms(synonyms)
+			.build();
+	}
+
+	@Test
+	@DisplayName("按表名读取语义模型只加载一次启用数据源下的数据")
+	void getByTableNamesLoadsActiveDatasourceOnce() {
+		assertEquals(2, index.getByTableNames(1L, List.of("orders")).size());
+		assertEquals(3, index.getByTableNames(1L, List.of("orders", "users", "missing")).size());
+
+		verify(agentDatasourceMapper, times(1)).selectByAgentId(1);
+		verify(semanticModelMapper, times(1)).selectEnabledByAgentIdAndDatasourceId(1L, 3);
+	}
+
+	@Test
+	@DisplayName("按业务名称和同义词匹配字段，不区分大小写")
+	void matchColumnsByBusinessNameAndSynonyms() {
+		List<SemanticModel> matched = index.matchColumns(1L, "统计各地区上月的gmv");
+
+		assertEquals(List.of("amount", "city"),
+				matched.stream().map(SemanticModel::getColumnName).sorted().toList());
+		assertTrue(index.matchColumns(1L, "有多少用户").isEmpty());
+	}
+
+	@Test
+	@DisplayName("失效后下次访问重新加载")
+	void invalidateReloads() {
+		index.getByTableNames(1L, List.of("orders"));
+		index.invalidate(1L);
+		index.getByTableNames(1L, List.of("orders"));
+
+		verify(semanticModelMapper, times(2)).selectEnabledByAgentIdAndDatasourceId(1L, 3);
+	}
+
+}
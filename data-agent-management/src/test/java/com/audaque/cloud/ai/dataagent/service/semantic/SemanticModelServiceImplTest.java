@@ -0,0 +1,183 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.semantic;
+
+import com.alibaba.excel.EasyExcel;
+import com.audaque.cloud.ai.dataagent.dto.schema.SemanticModelBatchImportDTO;
+import com.audaque.cloud.ai.dataagent.dto.schema.SemanticModelImportItem;
+import com.audaque.cloud.ai.dataagent.entity.AgentDatasource;
+import com.audaque.cloud.ai.dataagent.entity.SemanticModel;
+import com.audaque.cloud.ai.dataagent.mapper.AgentDatasourceMapper;
+import com.audaque.cloud.ai.dataagent.mapper.SemanticModelMapper;
+import com.audaque.cloud.ai.dataagent.service.vectorstore.AgentVectorStoreService;
+import com.audaque.cloud.ai.dataagent.vo.BatchImportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SemanticModelServiceImplTest {
+
+	private SemanticModelMapper mapper;
+
+	private AgentVectorStoreService vectorStoreService;
+
+	private SemanticModelServiceImpl service;
+
+	// 模拟数据库中的语义模型
+	private final List<SemanticModel> stored = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		mapper = mock(SemanticModelMapper.class);
+		vectorStoreService = mock(AgentVectorStoreService.class);
+		AgentDatasourceMapper agentDatasourceMapper = mock(AgentDatasourceMapper.class);
+		AgentDatasource agentDatasource = new AgentDatasource();
+		agentDatasource.setDatasourceId(3);
+		agentDatasource.setIsActive(1);
+		when(agentDatasourceMapper.selectByAgentId(1)).thenReturn(List.of(agentDatasource));
+		when(mapper.selectByAgentIdAndTableNames(eq(1), anyCollection()))
+			.thenAnswer(invocation -> new ArrayList<>(stored));
+		doAnswer(invocation -> {
+			List<SemanticModel> models = invocation.getArgument(0);
+			models.forEach(model -> {
+				model.setId((long) stored.size() + 1);
+				stored.add(model);
+			});
+			return models.size();
+		}).when(mapper).batchInsert(anyList());
+		when(vectorStoreService.deleteDocumentsByMetadataIn(anyString(), anyMap(), anyString(), anyCollection()))
+			.thenReturn(CompletableFuture.completedFuture(null));
+		when(vectorStoreService.addDocuments(anyString(), anyList()))
+			.thenReturn(CompletableFuture.completedFuture(null));
+		service = new SemanticModelServiceImpl(mapper, agentDatasourceMapper, new SemanticModelExcelService(),
+				vectorStoreService, new TransactionTemplate(mock(PlatformTransactionManager.class)), List::of,
+				new SemanticModelIndex(mapper, agentDatasourceMapper));
+	}
+
+	private static SemanticModelImportItem item(String table, String column, String businessName) {
+		return SemanticModelImportItem.builder()
+			.tableName(table)
+			.columnName(column)
+			.businessName(businessName)
+			.dataType("varchar")
+			.build();
+	}
+
+	@Test
+	@DisplayName("批量导入一次查询已有记录，新增记录多行插入、已有记录单语句更新，并逐行报告校验错误")
+	void batchImport_shouldWriteSetBased() {
+		SemanticModel existing = SemanticModel.builder()
+			.id(100L)
+			.agentId(1)
+			.tableName("t_order")
+			.columnName("amount")
+			.businessName("金额")
+			.synonyms("总额")
+			.build();
+		stored.add(existing);
+
+		BatchImportResult result = service.batchImport(SemanticModelBatchImportDTO.builder()
+			.agentId(1L)
+			.items(List.of(item("t_order", "amount", "订单金额"), item("t_order", "status", "订单状态"),
+					item("t_user", "name", "用户名"), item("t_user", "", "缺少字段名")))
+			.build());
+
+		assertEquals(4, result.getTotal());
+		assertEquals(3, result.getSuccessCount());
+		assertEquals(1, result.getFailCount());
+		assertTrue(result.getErrors().get(0).startsWith("第4条记录失败"));
+		verify(mapper, times(2)).selectByAgentIdAndTableNames(eq(1), anyCollection());
+		verify(mapper).batchInsert(argThat(models -> models.size() == 2));
+		verify(mapper).batchUpdateImportedFields(argThat(models -> models.size() == 1
+				&& "订单金额".equals(models.get(0).getBusinessName()) && "总额".equals(models.get(0).getSynonyms())),
+				any());
+		verify(mapper, never()).selectByAgentIdAndTableNameAndColumnName(any(), any(), any());
+		verify(mapper, never()).insert(any());
+		verify(vectorStoreService).deleteDocumentsByMetadataIn(eq("1"), anyMap(), eq("semanticModelId"),
+				eq(List.of(100L)));
+		verify(vectorStoreService).addDocuments(eq("1"), argThat(documents -> documents.size() == 3));
+	}
+
+	@Test
+	@DisplayName("批量写入失败时逐行重试并报告失败记录")
+	void batchImport_shouldFallBackToRowByRow() {
+		doThrow(new RuntimeException("batch failed")).when(mapper).batchInsert(anyList());
+		when(mapper.insert(any())).thenAnswer(invocation -> {
+			SemanticModel model = invocation.getArgument(0);
+			if ("bad".equals(model.getColumnName())) {
+				throw new RuntimeException("Data too long");
+			}
+			return 1;
+		});
+
+		BatchImportResult result = service.batchImport(SemanticModelBatchImportDTO.builder()
+			.agentId(1L)
+			.items(List.of(item("t_order", "ok", "正常"), item("t_order", "bad", "异常")))
+			.build());
+
+		assertEquals(1, result.getSuccessCount());
+		assertEquals(1, result.getFailCount());
+		assertEquals("第2条记录失败 (t_order.bad): Data too long", result.getErrors().get(0));
+	}
+
+	@Test
+	@DisplayName("向量写入失败时导入结果中报告向量化错误")
+	void batchImport_shouldReportVectorWriteFailure() {
+		when(vectorStoreService.addDocuments(anyString(), anyList()))
+			.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("embedding failed")));
+
+		BatchImportResult result = service.batchImport(SemanticModelBatchImportDTO.builder()
+			.agentId(1L)
+			.items(List.of(item("t_order", "amount", "订单金额")))
+			.build());
+
+		assertEquals(1, result.getSuccessCount());
+		assertTrue(result.getErrors().get(0).startsWith("向量化同步失败"));
+	}
+
+	@Test
+	@DisplayName("Excel 导入按块流式解析并导入")
+	void importFromExcel_shouldStreamRows() {
+		List<SemanticModelImportItem> rows = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			rows.add(item("t_big", " col_" + i + " ", "字段" + i));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EasyExcel.write(out, SemanticModelImportItem.class).sheet().doWrite(rows);
+		MockMultipartFile file = new MockMultipartFile("file", "semantic.xlsx", null, out.toByteArray());
+
+		BatchImportResult result = service.importFromExcel(file, 1L);
+
+		assertEquals(1200, result.getTotal());
+		assertEquals(1200, result.getSuccessCount());
+		assertEquals(0, result.getFailCount());
+		verify(mapper, times(3)).batchInsert(anyList());
+		assertEquals("col_0", stored.get(0).getColumnName());
+	}
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.service.vectorstore;
+
+import com.audaque.cloud.ai.dataagent.properties.DataAgentProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorWriteQueueTest {
+
+	@TempDir
+	Path walDir;
+
+	private DataAgentProperties.VectorStoreProperties properties;
+
+	private RecordingApplier applier;
+
+	private VectorWriteQueue queue;
+
+	@BeforeEach
+	void setUp() {
+		properties = new DataAgentProperties.VectorStoreProperties();
+		properties.setWriteRetryBackoffMs(10);
+		properties.setWriteMaxAttempts(2);
+		properties.setFlushIntervalMs(0);
+		properties.setFlushBatchSize(3);
+		applier = new RecordingApplier();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		applier.release.countDown();
+		if (queue != null) {
+			queue.close();
+		}
+	}
+
+	private VectorWriteQueue startQueue() throws Exception {
+		queue = new VectorWriteQueue(new VectorWriteAheadLog(walDir, 1024), applier, properties, true);
+		queue.start();
+		return queue;
+	}
+
+	private static Document document(String id) {
+		return new Document(id, "content " + id, Map.of("agentId", "1", "knowledgeId", 7));
+	}
+
+	@Test
+	@DisplayName("写入期间提交的相邻写操作合并为一次批量写入，读操作等待本智能体写入完成")
+	void shouldCoalesceQueuedUpsertsAndAwaitAgentWrites() throws Exception {
+		applier.blockFirstCall = true;
+		startQueue();
+
+		CompletableFuture<Void> first = queue.upsert("1", List.of(document("a")));
+		assertTrue(applier.firstCallStarted.await(5, TimeUnit.SECONDS));
+		List<CompletableFuture<Void>> queued = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			queued.add(queue.upsert("1", List.of(document("b" + i))));
+		}
+		assertFalse(queue.awaitApplied("1", 50));
+		assertTrue(queue.awaitApplied("2", 50));
+
+		applier.release.countDown();
+		assertTrue(queue.awaitApplied("1", 5000));
+		first.get(5, TimeUnit.SECONDS);
+		CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+		assertEquals(2, applier.upserts.size());
+		assertEquals(4, applier.upserts.get(1).size());
+		assertEquals(7, applier.upserts.get(1).get(0).getMetadata().get("knowledgeId"));
+		assertEquals(0, queue.getPendingCount());
+	}
+
+	@Test
+	@DisplayName("进程重启后回放未写入的操作，且先按ID删除避免重复写入")
+	void shouldReplayUnappliedOperationsAfterRestart() throws Exception {
+		applier.blockFirstCall = true;
+		startQueue();
+		queue.upsert("1", List.of(document("a")));
+		assertTrue(applier.firstCallStarted.await(5, TimeUnit.SECONDS));
+		queue.deleteByIds("1", List.of("old"));
+		queue.deleteByFilter("1", "agentId == '1'");
+		// 模拟进程退出：写线程仍卡在第一次写入
+		VectorWriteAheadLog abandoned = new VectorWriteAheadLog(walDir, 1024);
+
+		RecordingApplier restarted = new RecordingApplier();
+		VectorWriteQueue recovered = new VectorWriteQueue(abandoned, restarted, properties, true);
+		try {
+			recovered.start();
+			assertTrue(recovered.awaitApplied("1", 5000));
+			assertEquals(List.of("a"), restarted.upserts.get(0).stream().map(Document::getId).toList());
+			assertEquals(List.of(List.of("a"), List.of("old")), restarted.deletedIds);
+			assertEquals(List.of("agentId == '1'"), restarted.deletedFilters);
+		}
+		finally {
+			recovered.close();
+		}
+	}
+
+	@Test
+	@DisplayName("多次失败的操作转入死信，不阻塞后续写入")
+	void shouldDeadLetterPoisonOperation() throws Exception {
+		applier.failingId = "bad";
+		startQueue();
+
+		CompletableFuture<Void> bad = queue.upsert("1", List.of(document("bad")));
+		CompletableFuture<Void> good = queue.upsert("1", List.of(document("good")));
+
+		assertThrows(Exception.class, () -> bad.get(5, TimeUnit.SECONDS));
+		good.get(5, TimeUnit.SECONDS);
+		assertTrue(Files.readString(walDir.resolve("dead-letter.log")).contains("\"bad\""));
+		assertTrue(applier.upserts.stream().anyMatch(batch -> batch.get(0).getId().equals("good")));
+	}
+
+	@Test
+	@DisplayName("累计写入达到阈值后触发一次 flush")
+	void shouldFlushWhenWrittenOperationsReachBatchSize() throws Exception {
+		startQueue();
+
+		queue.upsert("1", List.of(document("a"), document("b"))).get(5, TimeUnit.SECONDS);
+		assertEquals(0, applier.flushes.get());
+		queue.upsert("1", List.of(document("c"))).get(5, TimeUnit.SECONDS);
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (applier.flushes.get() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.onSpinWait();
+		}
+		assertEquals(1, applier.flushes.get());
+	}
+
+	private static final class RecordingApplier implements VectorWriteQueue.Applier {
+
+		private final List<List<Document>> upserts = new CopyOnWriteArrayList<>();
+
+		private final List<List<String>> deletedIds = new CopyOnWriteArrayList<>();
+
+		private final List<String> deletedFilters = new CopyOnWriteArrayList<>();
+
+		private final AtomicInteger flushes = new AtomicInteger();
+
+		private final CountDownLatch firstCallStarted = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private volatile boolean blockFirstCall;
+
+		private volatile String failingId;
+
+		@Override
+		public void upsert(List<Document> documents, boolean replace) {
+			if (blockFirstCall && firstCallStarted.getCount() > 0) {
+				firstCallStarted.countDown();
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+			}
+			if (documents.stream().anyMatch(document -> document.getId().equals(failingId))) {
+				throw new IllegalStateException("embedding failed");
+			}
+			if (replace) {
+				deletedIds.add(documents.stream().map(Document::getId).toList());
+			}
+			upserts.add(documents);
+		}
+
+		@Override
+		public void deleteByIds(List<String> ids) {
+			deletedIds.add(ids);
+		}
+
+		@Override
+		public void deleteByFilter(String filterExpression) {
+			deletedFilters.add(filterExpression);
+		}
+
+		@Override
+		public boolean flush() {
+			flushes.incrementAndGet();
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.util;
+
+import com.audaque.cloud.ai.dataagent.bo.schema.DisplayStyleBO;
+import com.audaque.cloud.ai.dataagent.bo.schema.ResultSetBO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ChartRecommendUtil 单元测试
+ *
+ */
+@DisplayName("规则图表推荐测试")
+class ChartRecommendUtilTest {
+
+    private static ResultSetBO resultSet(List<String> columns, List<Map<String, String>> rows) {
+        return ResultSetBO.builder().column(columns).data(rows).build();
+    }
+
+    @Test
+    @DisplayName("空结果和单行结果应推荐表格")
+    void testEmptyAndSingleRowFallbackToTable() {
+        assertEquals("table", ChartRecommendUtil.recommend(null, "查询").getType());
+        assertEquals("table",
+                ChartRecommendUtil.recommend(resultSet(List.of("name"), new ArrayList<>()), "查询").getType());
+        DisplayStyleBO style = ChartRecommendUtil
+            .recommend(resultSet(List.of("name", "cnt"), List.of(Map.of("name", "a", "cnt", "1"))), "查询");
+        assertEquals("table", style.getType());
+    }
+
+    @Test
+    @DisplayName("时间维度加指标应推荐折线图")
+    void testTimeSeriesRecommendsLine() {
+        List<Map<String, String>> rows = List.of(Map.of("order_date", "2024-01-01", "amount", "10.5"),
+                Map.of("order_date", "2024-01-02", "amount", "12"),
+                Map.of("order_date", "2024-01-03", "amount", "8"));
+        DisplayStyleBO style = ChartRecommendUtil.recommend(resultSet(List.of("order_date", "amount"), rows),
+                "每天的销售额");
+        assertEquals("line", style.getType());
+        assertEquals("order_date", style.getX());
+        assertEquals(List.of("amount"), style.getY());
+    }
+
+    @Test
+    @DisplayName("纯数字年月仅在列名提示为时间时才识别为时间维度")
+    void testNumericYearMonthNeedsTemporalName() {
+        List<Map<String, String>> rows = List.of(Map.of("stat_month", "202401", "cnt", "3"),
+                Map.of("stat_month", "202402", "cnt", "5"));
+        assertEquals("line",
+                ChartRecommendUtil.recommend(resultSet(List.of("stat_month", "cnt"), rows), null).getType());
+
+        List<Map<String, String>> numericRows = List.of(Map.of("code", "202401", "cnt", "3"),
+                Map.of("code", "202402", "cnt", "5"));
+        assertEquals("table",
+                ChartRecommendUtil.recommend(resultSet(List.of("code", "cnt"), numericRows), null).getType());
+    }
+
+    @Test
+    @DisplayName("少量分类加指标应推荐柱状图，占比问题推荐饼图")
+    void testCategoryRecommendsColumnOrPie() {
+        List<Map<String, String>> rows = List.of(Map.of("region", "华东", "cnt", "30"),
+                Map.of("region", "华北", "cnt", "20"), Map.of("region", "华南", "cnt", "10"));
+        ResultSetBO resultSet = resultSet(List.of("region", "cnt"), rows);
+
+        DisplayStyleBO column = ChartRecommendUtil.recommend(resultSet, "各地区订单数");
+        assertEquals("column", column.getType());
+        assertEquals("region", column.getX());
+
+        assertEquals("pie", ChartRecommendUtil.recommend(resultSet, "各地区订单数占比").getType());
+    }
+
+    @Test
+    @DisplayName("分类过多或分类值重复时退化为表格或条形图")
+    void testHighCardinalityAndDuplicates() {
+        List<Map<String, String>> manyRows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            manyRows.add(Map.of("product", "p" + i, "sales", String.valueOf(i)));
+        }
+        assertEquals("bar",
+                ChartRecommendUtil.recommend(resultSet(List.of("product", "sales"), manyRows), null).getType());
+
+        List<Map<String, String>> tooManyRows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tooManyRows.add(Map.of("product", "p" + i, "sales", String.valueOf(i)));
+        }
+        assertEquals("table",
+                ChartRecommendUtil.recommend(resultSet(List.of("product", "sales"), tooManyRows), null).getType());
+
+        List<Map<String, String>> duplicated = List.of(Map.of("product", "a", "sales", "1"),
+                Map.of("product", "a", "sales", "2"));
+        assertEquals("table",
+                ChartRecommendUtil.recommend(resultSet(List.of("product", "sales"), duplicated), null).getType());
+    }
+
+    @Test
+    @DisplayName("标识列不作为指标")
+    void testIdentifierColumnsIgnored() {
+        List<Map<String, String>> rows = List.of(Map.of("user_id", "1", "name", "张三"),
+                Map.of("user_id", "2", "name", "李四"));
+        assertEquals("table",
+                ChartRecommendUtil.recommend(resultSet(List.of("user_id", "name"), rows), "用户列表").getType());
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.audaque.cloud.ai.dataagent.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ColumnarDataUtil 单元测试
+ *
+ */
+@DisplayName("列式数据交接测试")
+class ColumnarDataUtilTest {
+
+    @TempDir
+    Path dir;
+
+    private static Map<String, String> row(String... kv) {
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < kv.length; i += 2) {
+            row.put(kv[i], kv[i + 1]);
+        }
+        return row;
+    }
+
+    @Test
+    @DisplayName("根据全部非空值推断列类型")
+    void testInferType() {
+        List<Map<String, String>> rows = List.of(row("id", "1", "price", "1.5", "flag", "true", "day", "2024-01-01"),
+                row("id", "2", "price", "2", "flag", "FALSE", "day", "2024-01-02 10:00:00"),
+                row("id", null, "price", "1e3", "flag", null, "day", null));
+        assertEquals("int", ColumnarDataUtil.inferType(rows, "id"));
+        assertEquals("float", ColumnarDataUtil.inferType(rows, "price"));
+        assertEquals("bool", ColumnarDataUtil.inferType(rows, "flag"));
+        assertEquals("datetime", ColumnarDataUtil.inferType(rows, "day"));
+        assertEquals("string", ColumnarDataUtil.inferType(List.of(row("c", "1"), row("c", "x")), "c"));
+        assertEquals("string", ColumnarDataUtil.inferType(List.of(row("c", "1"), row("c", "")), "c"));
+        assertEquals("string", ColumnarDataUtil.inferType(List.of(row("c", null)), "c"));
+    }
+
+    @Test
+    @DisplayName("写入CSV时转义特殊字符并以占位符表示NULL")
+    void testWriteCsvAndDtypes() throws Exception {
+        Map<String, String> second = new HashMap<>();
+        second.put("name", "a,\"b\"\nc");
+        second.put("cnt", null);
+        ColumnarDataUtil.write(List.of(row("name", "x", "cnt", "3"), second), dir);
+
+        String csv = Files.readString(dir.resolve(ColumnarDataUtil.DATA_FILE));
+        assertEquals("name,cnt\nx,3\n\"a,\"\"b\"\"\nc\",\\N\n", csv);
+
+        JsonNode meta = JsonUtil.getObjectMapper().readTree(dir.resolve(ColumnarDataUtil.DTYPES_FILE).toFile());
+        assertEquals(2, meta.get("rows").asInt());
+        assertEquals("\\N", meta.get("null").asText());
+        assertEquals("string", meta.get("columns").get(0).get("type").asText());
+        assertEquals("int", meta.get("columns").get(1).get("type").asText());
+    }
+
+    @Test
+    @DisplayName("没有数据时写入空文件")
+    void testWriteNullClearsFiles() throws Exception {
+        ColumnarDataUtil.write(List.of(row("a", "1")), dir);
+        ColumnarDataUtil.write(null, dir);
+        assertEquals(0, Files.size(dir.resolve(ColumnarDataUtil.DATA_FILE)));
+        assertEquals(0, Files.size(dir.resolve(ColumnarDataUtil.DTYPES_FILE)));
+        ColumnarDataUtil.writeLoaderModule(dir);
+        assertTrue(Files.readString(dir.resolve(ColumnarDataUtil.LOADER_MODULE_FILE)).contains("def load_input_df"));
+    }
+
+}